@@ -0,0 +1,89 @@
+package de.dtonal.stocktracker.config;
+
+import java.time.Duration;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * HTTP-Client für den Marktdaten-Provider (Finnhub): gepoolte Keep-Alive-Verbindungen,
+ * Timeouts für Verbindungsaufbau, Pool-Wartezeit und Antwort, sowie Pool-Metriken.
+ */
+@Configuration
+public class FinnhubClientConfig {
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager finnhubConnectionManager(
+            @Value("${finnhub.http.max-connections:20}") int maxConnections,
+            @Value("${finnhub.http.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${finnhub.http.read-timeout:5s}") Duration readTimeout,
+            @Value("${finnhub.http.connection-ttl:5m}") Duration connectionTimeToLive) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                // Alle Aufrufe gehen an denselben Host, eine Route darf also den ganzen Pool nutzen
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setTimeToLive(TimeValue.of(connectionTimeToLive))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient finnhubHttpClient(
+            @Qualifier("finnhubConnectionManager") PoolingHttpClientConnectionManager connectionManager,
+            @Value("${finnhub.http.connection-request-timeout:2s}") Duration connectionRequestTimeout,
+            @Value("${finnhub.http.read-timeout:5s}") Duration readTimeout,
+            @Value("${finnhub.http.idle-timeout:30s}") Duration idleTimeout) {
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(connectionRequestTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleTimeout))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate finnhubRestTemplate(@Qualifier("finnhubHttpClient") CloseableHttpClient httpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+    }
+
+    @Bean
+    public MeterBinder finnhubConnectionPoolMetrics(
+            @Qualifier("finnhubConnectionManager") PoolingHttpClientConnectionManager connectionManager) {
+        return registry -> {
+            Gauge.builder("finnhub.http.pool.leased", connectionManager, cm -> cm.getTotalStats().getLeased())
+                    .description("Connections currently in use")
+                    .register(registry);
+            Gauge.builder("finnhub.http.pool.available", connectionManager, cm -> cm.getTotalStats().getAvailable())
+                    .description("Idle persistent connections")
+                    .register(registry);
+            Gauge.builder("finnhub.http.pool.pending", connectionManager, cm -> cm.getTotalStats().getPending())
+                    .description("Requests waiting for a connection")
+                    .register(registry);
+            Gauge.builder("finnhub.http.pool.max", connectionManager, cm -> cm.getTotalStats().getMax())
+                    .description("Maximum pool size")
+                    .register(registry);
+        };
+    }
+}
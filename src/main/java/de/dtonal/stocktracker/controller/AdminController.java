@@ -0,0 +1,74 @@
+package de.dtonal.stocktracker.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import de.dtonal.stocktracker.dto.HoldingsCheckReport;
+import de.dtonal.stocktracker.dto.PortfolioSnapshotReport;
+import de.dtonal.stocktracker.service.CostBasisService;
+import de.dtonal.stocktracker.service.HistoricalPricePartitionService;
+import de.dtonal.stocktracker.service.PortfolioHoldingService;
+import de.dtonal.stocktracker.service.PortfolioSnapshotService;
+import de.dtonal.stocktracker.service.PriceRollupService;
+
+@RestController
+@RequestMapping("/api/admin")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminController {
+
+    private final PortfolioHoldingService portfolioHoldingService;
+    private final PortfolioSnapshotService portfolioSnapshotService;
+    private final CostBasisService costBasisService;
+    private final HistoricalPricePartitionService historicalPricePartitionService;
+    private final PriceRollupService priceRollupService;
+
+    public AdminController(PortfolioHoldingService portfolioHoldingService,
+            PortfolioSnapshotService portfolioSnapshotService, CostBasisService costBasisService,
+            HistoricalPricePartitionService historicalPricePartitionService, PriceRollupService priceRollupService) {
+        this.portfolioHoldingService = portfolioHoldingService;
+        this.portfolioSnapshotService = portfolioSnapshotService;
+        this.costBasisService = costBasisService;
+        this.historicalPricePartitionService = historicalPricePartitionService;
+        this.priceRollupService = priceRollupService;
+    }
+
+    @PostMapping("/holdings/rebuild")
+    public ResponseEntity<HoldingsCheckReport> rebuildHoldings(@RequestParam(defaultValue = "false") boolean dryRun) {
+        return ResponseEntity.ok(portfolioHoldingService.verify(!dryRun));
+    }
+
+    @PostMapping("/positions/rebuild")
+    public ResponseEntity<Integer> rebuildPositions() {
+        return ResponseEntity.ok(costBasisService.rebuildAll());
+    }
+
+    @PostMapping("/snapshots")
+    public ResponseEntity<PortfolioSnapshotReport> snapshotPortfolios(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(portfolioSnapshotService.snapshotAll(date != null ? date : LocalDate.now()));
+    }
+
+    @PostMapping("/price-partitions/convert")
+    public ResponseEntity<Boolean> partitionPriceTable() {
+        return ResponseEntity.ok(historicalPricePartitionService.partitionTable());
+    }
+
+    @PostMapping("/price-partitions/detach")
+    public ResponseEntity<List<String>> detachPricePartitions(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate before) {
+        return ResponseEntity.ok(historicalPricePartitionService.detachPartitionsBefore(before));
+    }
+
+    @PostMapping("/price-rollups/rebuild")
+    public ResponseEntity<Integer> rebuildPriceRollups() {
+        return ResponseEntity.ok(priceRollupService.rebuildAll());
+    }
+}
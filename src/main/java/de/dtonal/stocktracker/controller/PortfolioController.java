@@ -1,9 +1,12 @@
 package de.dtonal.stocktracker.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -14,16 +17,28 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.dtonal.stocktracker.dto.HistoryInterval;
 import de.dtonal.stocktracker.dto.PortfolioCreateRequest;
 import de.dtonal.stocktracker.dto.PortfolioResponse;
+import de.dtonal.stocktracker.dto.PortfolioReturns;
+import de.dtonal.stocktracker.dto.PortfolioSummary;
 import de.dtonal.stocktracker.dto.PortfolioUpdateRequest;
+import de.dtonal.stocktracker.dto.PositionProfitLoss;
 import de.dtonal.stocktracker.dto.StockTransactionRequest;
 import de.dtonal.stocktracker.dto.StockTransactionResponse;
+import de.dtonal.stocktracker.dto.TransactionFilter;
+import de.dtonal.stocktracker.dto.TransactionPage;
 import de.dtonal.stocktracker.model.Portfolio;
 import de.dtonal.stocktracker.model.StockTransaction;
+import de.dtonal.stocktracker.model.TransactionType;
 import de.dtonal.stocktracker.service.PortfolioService;
 import jakarta.validation.Valid;
 
@@ -32,9 +47,11 @@ import jakarta.validation.Valid;
 public class PortfolioController {
 
     private final PortfolioService portfolioService;
+    private final ObjectMapper objectMapper;
 
-    public PortfolioController(PortfolioService portfolioService) {
+    public PortfolioController(PortfolioService portfolioService, ObjectMapper objectMapper) {
         this.portfolioService = portfolioService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE)
@@ -45,16 +62,13 @@ public class PortfolioController {
     }
 
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<List<PortfolioResponse>> getPortfoliosForCurrentUser() {
-        List<PortfolioResponse> portfolios = portfolioService.findPortfoliosForCurrentUser().stream()
-                .map(PortfolioResponse::new)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(portfolios);
+    public ResponseEntity<List<PortfolioSummary>> getPortfoliosForCurrentUser() {
+        return ResponseEntity.ok(portfolioService.findPortfolioSummariesForCurrentUser());
     }
 
     @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<PortfolioResponse> getPortfolioById(@PathVariable String id) {
-        return portfolioService.findById(id)
+        return portfolioService.findByIdWithTransactions(id)
                 .map(portfolio -> ResponseEntity.ok()
                         .contentType(MediaType.APPLICATION_JSON)
                         .body(new PortfolioResponse(portfolio)))
@@ -90,6 +104,25 @@ public class PortfolioController {
                 .body(new StockTransactionResponse(transaction));
     }
 
+    @GetMapping(value = "/{portfolioId}/transactions", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<TransactionPage> getTransactions(
+            @PathVariable String portfolioId,
+            @RequestParam(required = false) String symbol,
+            @RequestParam(required = false) TransactionType type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must not be after 'to'");
+        }
+        portfolioService.findById(portfolioId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Portfolio not found"));
+        TransactionFilter filter = new TransactionFilter(symbol == null || symbol.isBlank() ? null : symbol.trim(),
+                type, from, to);
+        return ResponseEntity.ok(portfolioService.getTransactions(portfolioId, filter, cursor, limit));
+    }
+
     @GetMapping("/{portfolioId}/stocks/{stockSymbol}/quantity")
     public ResponseEntity<BigDecimal> getStockQuantity(
             @PathVariable String portfolioId,
@@ -99,4 +132,57 @@ public class PortfolioController {
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(quantity);
     }
-}
\ No newline at end of file
+
+    @GetMapping(value = "/{portfolioId}/pnl", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<PositionProfitLoss>> getProfitAndLoss(@PathVariable String portfolioId) {
+        portfolioService.findById(portfolioId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Portfolio not found"));
+        return ResponseEntity.ok(portfolioService.getProfitAndLoss(portfolioId));
+    }
+
+    @GetMapping(value = "/{portfolioId}/returns", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<PortfolioReturns> getReturns(
+            @PathVariable String portfolioId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        if (from.isAfter(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must not be after 'to'");
+        }
+        portfolioService.findById(portfolioId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Portfolio not found"));
+        return ResponseEntity.ok(portfolioService.getReturns(portfolioId, from, end));
+    }
+
+    @GetMapping(value = "/{portfolioId}/history", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getPortfolioHistory(
+            @PathVariable String portfolioId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAILY") HistoryInterval interval) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        if (from.isAfter(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must not be after 'to'");
+        }
+        // Zugriff vorab prüfen: sobald Punkte gestreamt werden, lässt sich der Status nicht mehr ändern
+        portfolioService.findById(portfolioId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Portfolio not found"));
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                portfolioService.streamPortfolioHistory(portfolioId, from, end, interval, point -> {
+                    try {
+                        generator.writeObject(point);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+}
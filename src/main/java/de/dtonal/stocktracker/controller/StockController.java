@@ -1,12 +1,20 @@
 package de.dtonal.stocktracker.controller;
 
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import de.dtonal.stocktracker.dto.PriceHistory;
 import de.dtonal.stocktracker.dto.StockSearchResult;
+import de.dtonal.stocktracker.service.PriceRollupService;
 import de.dtonal.stocktracker.service.StockService;
 
 @RestController
@@ -14,9 +22,11 @@ import de.dtonal.stocktracker.service.StockService;
 public class StockController {
 
     private final StockService stockService;
+    private final PriceRollupService priceRollupService;
 
-    public StockController(StockService stockService) {
+    public StockController(StockService stockService, PriceRollupService priceRollupService) {
         this.stockService = stockService;
+        this.priceRollupService = priceRollupService;
     }
 
     @GetMapping("/search")
@@ -24,4 +34,22 @@ public class StockController {
         StockSearchResult result = stockService.searchStocks(query);
         return ResponseEntity.ok(result);
     }
+
+    @GetMapping("/{stockId}/prices")
+    public ResponseEntity<PriceHistory> getPriceHistory(
+            @PathVariable String stockId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "100") int points) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        if (from.isAfter(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must not be after 'to'");
+        }
+        if (points < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'points' must be at least 1");
+        }
+        return priceRollupService.getPriceHistory(stockId, from, end, points)
+                .map(ResponseEntity::ok)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Stock not found"));
+    }
 }
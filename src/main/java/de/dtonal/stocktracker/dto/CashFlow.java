@@ -0,0 +1,10 @@
+package de.dtonal.stocktracker.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Zahlung aus Sicht des Portfolios: Käufe sind Zuflüsse (positiv), Verkäufe Abflüsse (negativ).
+ */
+public record CashFlow(LocalDateTime transactionDate, BigDecimal amount) {
+}
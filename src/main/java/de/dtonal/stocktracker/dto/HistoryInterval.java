@@ -0,0 +1,74 @@
+package de.dtonal.stocktracker.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Abstand der Punkte einer Wertentwicklung. Wöchentliche und monatliche Punkte liegen auf dem
+ * letzten Tag der Periode.
+ */
+public enum HistoryInterval {
+    DAILY,
+    WEEKLY,
+    MONTHLY;
+
+    /**
+     * Gibt an, ob {@code day} der letzte Tag einer Periode ist.
+     */
+    public boolean closesOn(LocalDate day) {
+        return switch (this) {
+            case DAILY -> true;
+            case WEEKLY -> day.getDayOfWeek() == DayOfWeek.SUNDAY;
+            case MONTHLY -> day.getDayOfMonth() == day.lengthOfMonth();
+        };
+    }
+
+    /**
+     * Erster Tag der Periode, in der {@code day} liegt. Wochen laufen von Montag bis Sonntag.
+     */
+    public LocalDate periodStart(LocalDate day) {
+        return switch (this) {
+            case DAILY -> day;
+            case WEEKLY -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTHLY -> day.withDayOfMonth(1);
+        };
+    }
+
+    /**
+     * Letzter Tag der Periode, in der {@code day} liegt.
+     */
+    public LocalDate periodEnd(LocalDate day) {
+        return switch (this) {
+            case DAILY -> day;
+            case WEEKLY -> day.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+            case MONTHLY -> day.with(TemporalAdjusters.lastDayOfMonth());
+        };
+    }
+
+    /**
+     * Ungefähre Zahl der Punkte von {@code from} bis {@code to}; täglich zählen nur Handelstage.
+     */
+    public long estimatedPoints(LocalDate from, LocalDate to) {
+        return switch (this) {
+            case DAILY -> (ChronoUnit.DAYS.between(from, to) + 1) * 5 / 7;
+            case WEEKLY -> ChronoUnit.WEEKS.between(periodStart(from), to) + 1;
+            case MONTHLY -> ChronoUnit.MONTHS.between(periodStart(from), to) + 1;
+        };
+    }
+
+    /**
+     * Gröbste Auflösung, die im Zeitraum noch mindestens {@code points} Punkte liefert; reicht
+     * keine, bleibt es bei täglichen Punkten.
+     */
+    public static HistoryInterval coarsestFor(LocalDate from, LocalDate to, int points) {
+        if (MONTHLY.estimatedPoints(from, to) >= points) {
+            return MONTHLY;
+        }
+        if (WEEKLY.estimatedPoints(from, to) >= points) {
+            return WEEKLY;
+        }
+        return DAILY;
+    }
+}
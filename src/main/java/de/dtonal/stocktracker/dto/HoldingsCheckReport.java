@@ -0,0 +1,11 @@
+package de.dtonal.stocktracker.dto;
+
+/**
+ * Ergebnis des Abgleichs von {@code portfolio_holding} mit den Transaktionen.
+ *
+ * @param holdings   Anzahl der aus den Transaktionen berechneten Bestände
+ * @param mismatches Anzahl der abweichenden, fehlenden oder überzähligen Bestände
+ * @param repaired   ob die Abweichungen korrigiert wurden
+ */
+public record HoldingsCheckReport(int holdings, int mismatches, boolean repaired) {
+}
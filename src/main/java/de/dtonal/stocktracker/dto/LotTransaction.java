@@ -0,0 +1,19 @@
+package de.dtonal.stocktracker.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import de.dtonal.stocktracker.model.StockTransaction;
+import de.dtonal.stocktracker.model.TransactionType;
+
+/**
+ * Die für die Lot-Buchführung nötigen Felder einer Transaktion.
+ */
+public record LotTransaction(String id, String stockId, LocalDateTime transactionDate, TransactionType transactionType,
+        BigDecimal quantity, BigDecimal pricePerShare) {
+
+    public static LotTransaction of(StockTransaction transaction) {
+        return new LotTransaction(transaction.getId(), transaction.getStock().getId(), transaction.getTransactionDate(),
+                transaction.getTransactionType(), transaction.getQuantity(), transaction.getPricePerShare());
+    }
+}
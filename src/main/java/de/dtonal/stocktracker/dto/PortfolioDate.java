@@ -0,0 +1,17 @@
+package de.dtonal.stocktracker.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Ein Datum je Portfolio, z. B. der letzte Snapshot oder die erste Transaktion.
+ */
+public record PortfolioDate(String portfolioId, LocalDate date) {
+
+    /**
+     * Wird von Aggregat-Abfragen über Zeitstempel verwendet.
+     */
+    public PortfolioDate(String portfolioId, LocalDateTime dateTime) {
+        this(portfolioId, dateTime.toLocalDate());
+    }
+}
@@ -0,0 +1,24 @@
+package de.dtonal.stocktracker.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Renditen eines Portfolios in einem Zeitraum. Renditen sind Dezimalbrüche (0.05 = 5 %) und
+ * {@code null}, wenn sie sich nicht bestimmen lassen.
+ *
+ * @param startValue            Wert am Ende des Vortags von {@code from}
+ * @param endValue              Wert am Ende von {@code to}
+ * @param netContributions      Käufe minus Verkäufe im Zeitraum
+ * @param moneyWeightedReturn   geldgewichtete Rendite (XIRR), annualisiert
+ * @param timeWeightedReturn    zeitgewichtete Rendite über den Zeitraum, nicht annualisiert
+ */
+public record PortfolioReturns(
+        LocalDate from,
+        LocalDate to,
+        BigDecimal startValue,
+        BigDecimal endValue,
+        BigDecimal netContributions,
+        BigDecimal moneyWeightedReturn,
+        BigDecimal timeWeightedReturn) {
+}
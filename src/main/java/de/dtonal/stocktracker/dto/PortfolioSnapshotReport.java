@@ -0,0 +1,15 @@
+package de.dtonal.stocktracker.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Ergebnis eines Laufs des täglichen Portfolio-Snapshots.
+ *
+ * @param date       Stichtag des Laufs
+ * @param portfolios Anzahl der bewerteten Portfolios
+ * @param backfilled Anzahl der Portfolios, für die verpasste Tage nachgeholt wurden
+ * @param written    Anzahl der geschriebenen Tageswerte
+ * @param failed     Anzahl der Portfolios, deren Bewertung fehlgeschlagen ist
+ */
+public record PortfolioSnapshotReport(LocalDate date, int portfolios, int backfilled, int written, int failed) {
+}
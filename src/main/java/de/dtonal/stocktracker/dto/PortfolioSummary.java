@@ -0,0 +1,17 @@
+package de.dtonal.stocktracker.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Listeneintrag eines Portfolios ohne Transaktionen.
+ *
+ * @param transactionCount Anzahl der Transaktionen
+ * @param lastActivity     Datum der jüngsten Transaktion, {@code null} ohne Transaktionen
+ */
+public record PortfolioSummary(
+        String id,
+        String name,
+        String description,
+        long transactionCount,
+        LocalDateTime lastActivity) {
+}
@@ -0,0 +1,10 @@
+package de.dtonal.stocktracker.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Wert eines Portfolios am Ende eines Tages.
+ */
+public record PortfolioValuePoint(LocalDate date, BigDecimal value) {
+}
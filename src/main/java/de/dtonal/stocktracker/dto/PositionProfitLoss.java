@@ -0,0 +1,21 @@
+package de.dtonal.stocktracker.dto;
+
+import java.math.BigDecimal;
+
+import de.dtonal.stocktracker.model.CostBasisMethod;
+
+/**
+ * Gewinn und Verlust einer Position. Ohne gespeicherten Kurs sind {@code lastPrice},
+ * {@code marketValue} und {@code unrealizedGain} {@code null}.
+ */
+public record PositionProfitLoss(
+        String stockId,
+        String symbol,
+        CostBasisMethod method,
+        BigDecimal quantity,
+        BigDecimal costBasis,
+        BigDecimal realizedGain,
+        BigDecimal lastPrice,
+        BigDecimal marketValue,
+        BigDecimal unrealizedGain) {
+}
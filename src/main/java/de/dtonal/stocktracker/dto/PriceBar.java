@@ -0,0 +1,12 @@
+package de.dtonal.stocktracker.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Ein Punkt eines Kurscharts. Bei täglicher Auflösung sind alle Werte der Schlusskurs des Tages,
+ * sonst die Verdichtung der Periode, die an {@code date} endet.
+ */
+public record PriceBar(LocalDate date, BigDecimal open, BigDecimal high, BigDecimal low, BigDecimal close,
+        BigDecimal average) {
+}
@@ -0,0 +1,9 @@
+package de.dtonal.stocktracker.dto;
+
+import java.util.List;
+
+/**
+ * Kursverlauf einer Aktie in der für den Zeitraum gewählten Auflösung.
+ */
+public record PriceHistory(String stockId, HistoryInterval resolution, List<PriceBar> bars) {
+}
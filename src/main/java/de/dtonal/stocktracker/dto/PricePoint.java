@@ -0,0 +1,10 @@
+package de.dtonal.stocktracker.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Schlusskurs einer Aktie an einem Tag.
+ */
+public record PricePoint(String stockId, LocalDate date, BigDecimal closingPrice) {
+}
@@ -0,0 +1,10 @@
+package de.dtonal.stocktracker.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Bestandsänderung durch eine Transaktion; Käufe positiv, Verkäufe negativ.
+ */
+public record QuantityChange(String stockId, LocalDateTime transactionDate, BigDecimal quantity) {
+}
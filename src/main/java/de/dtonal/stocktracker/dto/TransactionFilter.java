@@ -0,0 +1,14 @@
+package de.dtonal.stocktracker.dto;
+
+import java.time.LocalDate;
+
+import de.dtonal.stocktracker.model.TransactionType;
+
+/**
+ * Optionale Filter für die Transaktionsliste; {@code null} heißt ungefiltert.
+ *
+ * @param from erster Tag, einschließlich
+ * @param to   letzter Tag, einschließlich
+ */
+public record TransactionFilter(String stockSymbol, TransactionType transactionType, LocalDate from, LocalDate to) {
+}
@@ -0,0 +1,11 @@
+package de.dtonal.stocktracker.dto;
+
+import java.util.List;
+
+/**
+ * Eine Seite der Transaktionsliste, neueste zuerst.
+ *
+ * @param nextCursor Token für die nächste Seite, {@code null} auf der letzten Seite
+ */
+public record TransactionPage(List<StockTransactionResponse> items, String nextCursor) {
+}
@@ -0,0 +1,9 @@
+package de.dtonal.stocktracker.model;
+
+/**
+ * Verfahren zur Ermittlung des Einstandswerts bei Verkäufen.
+ */
+public enum CostBasisMethod {
+    FIFO,          // Verkäufe verbrauchen die ältesten Lots zuerst
+    AVERAGE_COST   // Alle offenen Stücke teilen sich einen gleitenden Durchschnittspreis
+}
@@ -12,7 +12,7 @@ import jakarta.persistence.GenerationType;
  * die Performance-Historie und die Chart-Darstellung.
  */
 @Entity
-@Table(name = "historical_prices")
+@Table(name = "historical_prices", uniqueConstraints = @UniqueConstraint(name = "uk_historical_prices_stock_date", columnNames = { "stock_id", "date" }))
 public class HistoricalPrice {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -0,0 +1,57 @@
+package de.dtonal.stocktracker.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Schlusswert eines Portfolios an einem Tag, geschrieben vom nächtlichen Snapshot nach dem
+ * Kurs-Update. Grundlage für Charts und Auswertungen, ohne die Historie neu zu berechnen.
+ */
+@Entity
+@Table(name = "portfolio_daily_value")
+@IdClass(PortfolioDailyValueId.class)
+@Getter
+@Setter
+@NoArgsConstructor
+public class PortfolioDailyValue {
+    @Id
+    @Column(name = "portfolio_id", length = 36, nullable = false, updatable = false)
+    private String portfolioId;
+
+    @Id
+    @Column(name = "date", nullable = false, updatable = false)
+    private LocalDate date;
+
+    // VALUE ist in H2 ein reserviertes Wort
+    @Column(name = "`value`", nullable = false, precision = 19, scale = 2)
+    private BigDecimal value;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public PortfolioDailyValue(String portfolioId, LocalDate date, BigDecimal value) {
+        this.portfolioId = portfolioId;
+        this.date = date;
+        this.value = value;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    @Override
+    public String toString() {
+        return "PortfolioDailyValue{" +
+                "portfolioId=" + portfolioId +
+                ", date=" + date +
+                ", value=" + value +
+                '}';
+    }
+}
@@ -0,0 +1,19 @@
+package de.dtonal.stocktracker.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Zusammengesetzter Schlüssel eines {@link PortfolioDailyValue}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PortfolioDailyValueId implements Serializable {
+    private String portfolioId;
+    private LocalDate date;
+}
@@ -0,0 +1,92 @@
+package de.dtonal.stocktracker.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Lesemodell: aktueller Bestand einer Aktie in einem Portfolio, fortgeschrieben bei jeder
+ * Transaktion. {@code totalCost} ist der Nettoeinsatz (Kaufbeträge minus Verkaufserlöse), damit
+ * sich jede Transaktion beim Löschen exakt wieder herausrechnen lässt.
+ */
+@Entity
+@Table(name = "portfolio_holding")
+@IdClass(PortfolioHoldingId.class)
+@Getter
+@Setter
+@NoArgsConstructor
+public class PortfolioHolding {
+    @Id
+    @Column(name = "portfolio_id", length = 36, nullable = false, updatable = false)
+    private String portfolioId;
+
+    @Id
+    @Column(name = "stock_id", length = 36, nullable = false, updatable = false)
+    private String stockId;
+
+    @Column(name = "net_quantity", nullable = false, precision = 15, scale = 5)
+    private BigDecimal netQuantity = BigDecimal.ZERO;
+
+    // Menge (Skala 5) * Kurs (Skala 4) ist mit Skala 9 exakt
+    @Column(name = "total_cost", nullable = false, precision = 28, scale = 9)
+    private BigDecimal totalCost = BigDecimal.ZERO;
+
+    @Column(name = "transaction_count", nullable = false)
+    private long transactionCount;
+
+    @Column(name = "last_transaction_at")
+    private LocalDateTime lastTransactionAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public PortfolioHolding(String portfolioId, String stockId) {
+        this.portfolioId = portfolioId;
+        this.stockId = stockId;
+    }
+
+    /**
+     * Wird von der Aggregat-Abfrage über {@code stock_transaction} verwendet.
+     */
+    public PortfolioHolding(String portfolioId, String stockId, BigDecimal netQuantity, BigDecimal totalCost,
+            Long transactionCount, LocalDateTime lastTransactionAt) {
+        this.portfolioId = portfolioId;
+        this.stockId = stockId;
+        this.netQuantity = netQuantity;
+        this.totalCost = totalCost;
+        this.transactionCount = transactionCount;
+        this.lastTransactionAt = lastTransactionAt;
+    }
+
+    public PortfolioHoldingId getId() {
+        return new PortfolioHoldingId(portfolioId, stockId);
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void onUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    @Override
+    public String toString() {
+        return "PortfolioHolding{" +
+                "portfolioId=" + portfolioId +
+                ", stockId=" + stockId +
+                ", netQuantity=" + netQuantity +
+                ", totalCost=" + totalCost +
+                ", transactionCount=" + transactionCount +
+                ", lastTransactionAt=" + lastTransactionAt +
+                '}';
+    }
+}
@@ -0,0 +1,18 @@
+package de.dtonal.stocktracker.model;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Zusammengesetzter Schlüssel einer {@link PortfolioHolding}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PortfolioHoldingId implements Serializable {
+    private String portfolioId;
+    private String stockId;
+}
@@ -0,0 +1,15 @@
+package de.dtonal.stocktracker.model;
+
+import java.time.LocalDate;
+
+/**
+ * Wird veröffentlicht, wenn sich die Bestände eines Portfolios geändert haben (Transaktion
+ * hinzugefügt oder gelöscht, Portfolio gelöscht, Bestände neu aufgebaut). {@code since} ist das
+ * früheste betroffene Datum; {@code null} bedeutet, dass die gesamte Historie betroffen ist.
+ */
+public record PortfolioHoldingsChangedEvent(String portfolioId, LocalDate since) {
+
+    public PortfolioHoldingsChangedEvent(String portfolioId) {
+        this(portfolioId, null);
+    }
+}
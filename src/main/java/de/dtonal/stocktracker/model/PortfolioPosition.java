@@ -0,0 +1,89 @@
+package de.dtonal.stocktracker.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OrderColumn;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Lot-Stand einer Aktie in einem Portfolio: die offenen Lots in Verbrauchsreihenfolge und der
+ * bisher realisierte Gewinn. Wird bei jeder Transaktion fortgeschrieben; eine Transaktion nach der
+ * letzten verarbeiteten wird direkt angewendet, rückdatierte Änderungen spielen nur die Historie
+ * dieser einen Aktie neu ab.
+ */
+@Entity
+@Table(name = "portfolio_position")
+@IdClass(PortfolioHoldingId.class)
+@Getter
+@Setter
+@NoArgsConstructor
+public class PortfolioPosition {
+    @Id
+    @Column(name = "portfolio_id", length = 36, nullable = false, updatable = false)
+    private String portfolioId;
+
+    @Id
+    @Column(name = "stock_id", length = 36, nullable = false, updatable = false)
+    private String stockId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "method", nullable = false, length = 20)
+    private CostBasisMethod method;
+
+    @Column(name = "realized_gain", nullable = false, precision = 28, scale = 9)
+    private BigDecimal realizedGain = BigDecimal.ZERO;
+
+    @Column(name = "last_transaction_at")
+    private LocalDateTime lastTransactionAt;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "portfolio_position_lot", joinColumns = {
+            @JoinColumn(name = "portfolio_id", referencedColumnName = "portfolio_id"),
+            @JoinColumn(name = "stock_id", referencedColumnName = "stock_id") })
+    @OrderColumn(name = "lot_index")
+    private List<PositionLot> lots = new ArrayList<>();
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public PortfolioPosition(String portfolioId, String stockId, CostBasisMethod method) {
+        this.portfolioId = portfolioId;
+        this.stockId = stockId;
+        this.method = method;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void onUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    @Override
+    public String toString() {
+        return "PortfolioPosition{" +
+                "portfolioId=" + portfolioId +
+                ", stockId=" + stockId +
+                ", method=" + method +
+                ", realizedGain=" + realizedGain +
+                ", lots=" + lots.size() +
+                '}';
+    }
+}
@@ -0,0 +1,40 @@
+package de.dtonal.stocktracker.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Offener Rest eines Kaufs: verbleibende Stückzahl und Einstandspreis je Stück.
+ */
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PositionLot {
+
+    @Column(name = "acquired_at", nullable = false)
+    private LocalDateTime acquiredAt;
+
+    @Column(name = "quantity", nullable = false, precision = 15, scale = 5)
+    private BigDecimal quantity;
+
+    @Column(name = "unit_cost", nullable = false, precision = 28, scale = 9)
+    private BigDecimal unitCost;
+
+    @Override
+    public String toString() {
+        return "PositionLot{" +
+                "acquiredAt=" + acquiredAt +
+                ", quantity=" + quantity +
+                ", unitCost=" + unitCost +
+                '}';
+    }
+}
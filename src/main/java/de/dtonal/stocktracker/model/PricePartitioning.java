@@ -0,0 +1,10 @@
+package de.dtonal.stocktracker.model;
+
+/**
+ * Range-Partitionierung von {@code historical_prices} nach Datum (nur PostgreSQL).
+ */
+public enum PricePartitioning {
+    NONE,      // Eine einzige Tabelle
+    MONTHLY,   // Eine Partition je Kalendermonat
+    YEARLY     // Eine Partition je Kalenderjahr
+}
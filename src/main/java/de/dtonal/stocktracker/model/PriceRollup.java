@@ -0,0 +1,84 @@
+package de.dtonal.stocktracker.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import de.dtonal.stocktracker.dto.HistoryInterval;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Verdichtete Schlusskurse einer Aktie für eine Woche oder einen Monat. Eröffnung, Hoch und Tief
+ * stammen aus den Schlusskursen der Periode, da nur diese gespeichert werden.
+ */
+@Entity
+@Table(name = "price_rollups")
+@IdClass(PriceRollupId.class)
+@Getter
+@Setter
+@NoArgsConstructor
+public class PriceRollup {
+    @Id
+    @Column(name = "stock_id", length = 36, nullable = false, updatable = false)
+    private String stockId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "resolution", length = 20, nullable = false, updatable = false)
+    private HistoryInterval resolution;
+
+    @Id
+    @Column(name = "period_start", nullable = false, updatable = false)
+    private LocalDate periodStart;
+
+    // Datum des letzten Kurses im Zeitraum, der Chartpunkt des Balkens
+    @Column(name = "last_date", nullable = false)
+    private LocalDate lastDate;
+
+    @Column(name = "open_price", nullable = false, precision = 10, scale = 2)
+    private BigDecimal openPrice;
+
+    @Column(name = "high_price", nullable = false, precision = 10, scale = 2)
+    private BigDecimal highPrice;
+
+    @Column(name = "low_price", nullable = false, precision = 10, scale = 2)
+    private BigDecimal lowPrice;
+
+    @Column(name = "close_price", nullable = false, precision = 10, scale = 2)
+    private BigDecimal closePrice;
+
+    @Column(name = "avg_price", nullable = false, precision = 14, scale = 6)
+    private BigDecimal avgPrice;
+
+    @Column(name = "price_count", nullable = false)
+    private int priceCount;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public PriceRollup(String stockId, HistoryInterval resolution, LocalDate periodStart) {
+        this.stockId = stockId;
+        this.resolution = resolution;
+        this.periodStart = periodStart;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    @Override
+    public String toString() {
+        return "PriceRollup{" +
+                "stockId=" + stockId +
+                ", resolution=" + resolution +
+                ", periodStart=" + periodStart +
+                ", closePrice=" + closePrice +
+                '}';
+    }
+}
@@ -0,0 +1,21 @@
+package de.dtonal.stocktracker.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import de.dtonal.stocktracker.dto.HistoryInterval;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Zusammengesetzter Schlüssel eines {@link PriceRollup}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceRollupId implements Serializable {
+    private String stockId;
+    private HistoryInterval resolution;
+    private LocalDate periodStart;
+}
@@ -0,0 +1,10 @@
+package de.dtonal.stocktracker.model;
+
+import java.time.LocalDate;
+
+/**
+ * Wird am Ende des täglichen Kurs-Updates veröffentlicht, auch wenn keine neuen Kurse
+ * geschrieben wurden.
+ */
+public record PriceUpdateCompletedEvent(LocalDate date) {
+}
@@ -3,7 +3,11 @@ package de.dtonal.stocktracker.model;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+
+import org.springframework.data.domain.DomainEvents;
+
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -128,6 +132,15 @@ public class Stock {
         this.updatedAt = LocalDateTime.now();
     }
 
+    /**
+     * Wird von Spring Data bei jedem {@code save} veröffentlicht, damit z.B. der Suchindex
+     * aktualisiert werden kann.
+     */
+    @DomainEvents
+    Collection<StockSavedEvent> domainEvents() {
+        return List.of(new StockSavedEvent(this));
+    }
+
     @Override
     public String toString() {
         return "Stock{" +
@@ -0,0 +1,9 @@
+package de.dtonal.stocktracker.model;
+
+import java.util.Set;
+
+/**
+ * Wird veröffentlicht, nachdem für die angegebenen Aktien neue Kurse gespeichert wurden.
+ */
+public record StockPricesUpdatedEvent(Set<String> stockIds) {
+}
@@ -0,0 +1,77 @@
+package de.dtonal.stocktracker.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Lokale Kopie des Unternehmensprofils vom Marktdaten-Provider (Branche, Land,
+ * Marktkapitalisierung, Logo, ausstehende Aktien). {@code fetchedAt} bestimmt,
+ * wann das Profil erneut abgerufen wird.
+ */
+@Entity
+@Table(name = "stock_profiles")
+@Getter
+@Setter
+@NoArgsConstructor
+public class StockProfile {
+    @Id
+    @Column(name = "symbol", length = 32, nullable = false, updatable = false)
+    private String symbol;
+
+    @Column(name = "name")
+    private String name;
+
+    @Column(name = "country")
+    private String country;
+
+    @Column(name = "currency")
+    private String currency;
+
+    @Column(name = "exchange")
+    private String exchange;
+
+    @Column(name = "ipo")
+    private String ipo;
+
+    @Column(name = "market_capitalization")
+    private double marketCapitalization;
+
+    @Column(name = "share_outstanding")
+    private double shareOutstanding;
+
+    @Column(name = "logo", length = 512)
+    private String logo;
+
+    @Column(name = "phone")
+    private String phone;
+
+    @Column(name = "weburl", length = 512)
+    private String weburl;
+
+    @Column(name = "industry")
+    private String industry;
+
+    @Column(name = "fetched_at", nullable = false)
+    private LocalDateTime fetchedAt;
+
+    public StockProfile(String symbol) {
+        this.symbol = symbol;
+    }
+
+    @Override
+    public String toString() {
+        return "StockProfile{" +
+                "symbol='" + symbol + '\'' +
+                ", name='" + name + '\'' +
+                ", exchange='" + exchange + '\'' +
+                ", fetchedAt=" + fetchedAt +
+                '}';
+    }
+}
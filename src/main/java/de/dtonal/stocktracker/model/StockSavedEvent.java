@@ -0,0 +1,7 @@
+package de.dtonal.stocktracker.model;
+
+/**
+ * Wird beim Speichern einer Aktie über das {@code StockRepository} veröffentlicht.
+ */
+public record StockSavedEvent(Stock stock) {
+}
@@ -0,0 +1,38 @@
+package de.dtonal.stocktracker.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Merkt sich, zu welchem Börsensymbol ein Suchbegriff (ISIN oder Symbol) aufgelöst wurde,
+ * damit die Auflösung über die Finnhub-Suche nur einmal nötig ist.
+ */
+@Entity
+@Table(name = "symbol_mappings")
+@Getter
+@Setter
+@NoArgsConstructor
+public class SymbolMapping {
+    @Id
+    @Column(name = "lookup_key", length = 64, nullable = false, updatable = false)
+    private String lookupKey;
+
+    @Column(name = "symbol", nullable = false)
+    private String symbol;
+
+    @Column(name = "resolved_at", nullable = false)
+    private LocalDateTime resolvedAt;
+
+    public SymbolMapping(String lookupKey, String symbol, LocalDateTime resolvedAt) {
+        this.lookupKey = lookupKey;
+        this.symbol = symbol;
+        this.resolvedAt = resolvedAt;
+    }
+}
@@ -0,0 +1,29 @@
+package de.dtonal.stocktracker.repository;
+
+import java.sql.Statement;
+
+/**
+ * Wertet die Zeilenzahlen eines JDBC-Batches aus. Mit {@code reWriteBatchedInserts} fasst der
+ * PostgreSQL-Treiber mehrere Anweisungen zusammen und meldet je Anweisung nur
+ * {@link Statement#SUCCESS_NO_INFO}. Das wird als eine geschriebene Zeile gezählt; richtig ist das
+ * nur für Anweisungen, die ihre Zeile immer schreiben, also Upserts. Bei einem INSERT, das
+ * vorhandene Zeilen überspringt, wäre die Zahl zu hoch.
+ */
+final class BatchUpdateCounts {
+
+    private BatchUpdateCounts() {
+    }
+
+    /**
+     * Summe der geschriebenen Zeilen über alle Teil-Batches von {@code JdbcTemplate.batchUpdate}.
+     */
+    static int rowsWritten(int[][] counts) {
+        int written = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                written += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+            }
+        }
+        return written;
+    }
+}
@@ -0,0 +1,30 @@
+package de.dtonal.stocktracker.repository;
+
+import java.util.Locale;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Erkennt die verwendete Datenbank beim ersten Zugriff, damit Repository-Implementierungen für
+ * PostgreSQL eigenes SQL verwenden und für H2 (Entwicklung und Tests) auf Standard-SQL
+ * ausweichen können.
+ */
+class DatabasePlatform {
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean postgres;
+
+    DatabasePlatform(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    boolean isPostgres() {
+        if (postgres == null) {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            postgres = product != null && product.toLowerCase(Locale.ROOT).contains("postgresql");
+        }
+        return postgres;
+    }
+}
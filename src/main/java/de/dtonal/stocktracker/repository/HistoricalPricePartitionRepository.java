@@ -0,0 +1,72 @@
+package de.dtonal.stocktracker.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import de.dtonal.stocktracker.model.PricePartitioning;
+
+/**
+ * Zugriff auf die Partitionsfunktionen aus {@code V10__historical_prices_partitioning_functions}.
+ * Jeder Aufruf läuft als eigene Anweisung und damit atomar.
+ */
+@Repository
+public class HistoricalPricePartitionRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+
+    public HistoricalPricePartitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databasePlatform = new DatabasePlatform(jdbcTemplate);
+    }
+
+    /**
+     * Partitionierung gibt es nur unter PostgreSQL; unter H2 bleibt die Tabelle unpartitioniert.
+     */
+    public boolean isSupported() {
+        return databasePlatform.isPostgres();
+    }
+
+    /**
+     * Prüft, ob {@code historical_prices} bereits nach Datum partitioniert ist.
+     */
+    public boolean isPartitioned() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM pg_partitioned_table "
+                + "WHERE partrelid = to_regclass('historical_prices'))", Boolean.class));
+    }
+
+    /**
+     * Baut {@code historical_prices} in eine partitionierte Tabelle um. Sperrt die Tabelle exklusiv,
+     * bis alle Kurse umkopiert sind.
+     *
+     * @return {@code false}, wenn die Tabelle bereits partitioniert ist
+     */
+    public boolean partitionTable(PricePartitioning partitioning) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT partition_historical_prices(?)",
+                Boolean.class, partitioning.name()));
+    }
+
+    /**
+     * Legt die Partitionen von {@code from} bis {@code to} sowie für Kurse in der Default-Partition an.
+     *
+     * @return Anzahl neu angelegter Partitionen
+     */
+    public int createPartitions(LocalDate from, LocalDate to, PricePartitioning partitioning) {
+        Integer created = jdbcTemplate.queryForObject("SELECT create_historical_prices_partitions(?, ?, ?)",
+                Integer.class, from, to, partitioning.name());
+        return created != null ? created : 0;
+    }
+
+    /**
+     * Hängt alle Partitionen ab, die vor {@code before} enden; die Tabellen bleiben unter neuem
+     * Namen erhalten.
+     *
+     * @return Namen der abgehängten Tabellen nach dem Umbenennen
+     */
+    public List<String> detachPartitionsBefore(LocalDate before) {
+        return jdbcTemplate.queryForList("SELECT detach_historical_prices_partitions(?)", String.class, before);
+    }
+}
@@ -1,17 +1,26 @@
 package de.dtonal.stocktracker.repository;
 
+import de.dtonal.stocktracker.dto.PricePoint;
 import de.dtonal.stocktracker.model.HistoricalPrice;
 import de.dtonal.stocktracker.model.Stock;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
-public interface HistoricalPriceRepository extends JpaRepository<HistoricalPrice, String> {
+public interface HistoricalPriceRepository extends JpaRepository<HistoricalPrice, String>, HistoricalPriceRepositoryCustom {
 
     /**
      * Findet alle historischen Preise für eine bestimmte Aktie
@@ -45,6 +54,40 @@ public interface HistoricalPriceRepository extends JpaRepository<HistoricalPrice
      */
     Optional<HistoricalPrice> findByStockAndDate(Stock stock, LocalDate date);
 
+    /**
+     * Liefert die IDs aller Aktien, für die an einem Datum bereits ein Preis gespeichert ist
+     */
+    @Query("SELECT h.stock.id FROM HistoricalPrice h WHERE h.date = :date")
+    Set<String> findStockIdsWithPriceOnDate(@Param("date") LocalDate date);
+
+    /**
+     * Liefert die Kurse aller Aktien eines Portfolios im Datumsbereich aufsteigend nach Datum.
+     * Muss innerhalb einer Transaktion konsumiert und geschlossen werden.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new de.dtonal.stocktracker.dto.PricePoint(h.stock.id, h.date, h.closingPrice) "
+            + "FROM HistoricalPrice h WHERE h.date BETWEEN :from AND :to AND h.stock.id IN "
+            + "(SELECT ph.stockId FROM PortfolioHolding ph WHERE ph.portfolioId = :portfolioId) "
+            + "ORDER BY h.date")
+    Stream<PricePoint> streamPortfolioPrices(@Param("portfolioId") String portfolioId,
+            @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Liefert alle Schlusskurse einer Aktie aufsteigend nach Datum, ohne Entitäten zu laden.
+     */
+    @Query("SELECT new de.dtonal.stocktracker.dto.PricePoint(h.stock.id, h.date, h.closingPrice) "
+            + "FROM HistoricalPrice h WHERE h.stock.id = :stockId ORDER BY h.date")
+    List<PricePoint> findPricePoints(@Param("stockId") String stockId);
+
+    /**
+     * Liefert die Schlusskurse mehrerer Aktien im Datumsbereich, sortiert nach Aktie und Datum.
+     */
+    @Query("SELECT new de.dtonal.stocktracker.dto.PricePoint(h.stock.id, h.date, h.closingPrice) "
+            + "FROM HistoricalPrice h WHERE h.stock.id IN :stockIds AND h.date BETWEEN :from AND :to "
+            + "ORDER BY h.stock.id, h.date")
+    List<PricePoint> findPricePointsBetween(@Param("stockIds") Collection<String> stockIds,
+            @Param("from") LocalDate from, @Param("to") LocalDate to);
+
     /**
      * Findet alle historischen Preise über einem bestimmten Wert
      */
@@ -0,0 +1,44 @@
+package de.dtonal.stocktracker.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import de.dtonal.stocktracker.model.HistoricalPrice;
+
+/**
+ * Schreibpfade für historische Preise, die ohne vorheriges Lesen idempotent sind, sowie
+ * Massenabfragen, die je nach Datenbank eigenes SQL verwenden.
+ * Die Eindeutigkeit von (stock_id, date) wird von der Datenbank durchgesetzt.
+ */
+public interface HistoricalPriceRepositoryCustom {
+
+    /**
+     * Fügt den Preis ein, sofern für Aktie und Datum noch keiner existiert.
+     *
+     * @return true, wenn eine Zeile eingefügt wurde
+     */
+    boolean insertIfAbsent(HistoricalPrice price);
+
+    /**
+     * Fügt alle Preise ein und überspringt bereits vorhandene (stock_id, date)-Paare. PostgreSQL
+     * schreibt den Block in einer Anweisung, sonst wird ein JDBC-Batch verwendet.
+     *
+     * @return Anzahl der tatsächlich eingefügten Zeilen, ohne übersprungene
+     */
+    int insertAllIfAbsent(List<HistoricalPrice> prices);
+
+    /**
+     * Liefert den neuesten Schlusskurs je Stock-ID in einer Abfrage (PostgreSQL: DISTINCT ON,
+     * sonst Fensterfunktion). Aktien ohne gespeicherten Kurs fehlen in der Map.
+     */
+    Map<String, BigDecimal> findLatestClosingPrices(Collection<String> stockIds);
+
+    /**
+     * Liefert je Stock-ID den letzten Schlusskurs am oder vor {@code date}, wie
+     * {@link #findLatestClosingPrices(Collection)} in einer Abfrage.
+     */
+    Map<String, BigDecimal> findClosingPricesAsOf(Collection<String> stockIds, LocalDate date);
+}
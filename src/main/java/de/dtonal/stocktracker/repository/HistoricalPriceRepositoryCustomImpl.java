@@ -0,0 +1,179 @@
+package de.dtonal.stocktracker.repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import de.dtonal.stocktracker.model.HistoricalPrice;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+public class HistoricalPriceRepositoryCustomImpl implements HistoricalPriceRepositoryCustom {
+
+    // Eine Anweisung je Block über Arrays: anders als ein JDBC-Batch mit reWriteBatchedInserts liefert
+    // sie die genaue Zahl eingefügter Zeilen
+    private static final String POSTGRES_INSERT_IF_ABSENT =
+            "INSERT INTO historical_prices (id, stock_id, date, closing_price, created_at, updated_at) "
+            + "SELECT p.id, p.stock_id, p.date, p.closing_price, ?, ? "
+            + "FROM unnest(?, ?, ?, ?) AS p (id, stock_id, date, closing_price) "
+            + "ON CONFLICT (stock_id, date) DO NOTHING";
+
+    // Fallback für H2 (Entwicklung und Tests), das ON CONFLICT nur im PostgreSQL-Modus kennt
+    private static final String STANDARD_INSERT_IF_ABSENT =
+            "INSERT INTO historical_prices (id, stock_id, date, closing_price, created_at, updated_at) "
+            + "SELECT CAST(? AS VARCHAR(36)), CAST(? AS VARCHAR(36)), CAST(? AS DATE), CAST(? AS NUMERIC(10, 2)), "
+            + "CAST(? AS TIMESTAMP), CAST(? AS TIMESTAMP) "
+            + "WHERE NOT EXISTS (SELECT 1 FROM historical_prices h WHERE h.stock_id = ? AND h.date = ?)";
+
+    // %s nimmt ein zusätzliches Prädikat auf, etwa das Stichtagsdatum
+    private static final String POSTGRES_LATEST_PRICES =
+            "SELECT DISTINCT ON (stock_id) stock_id, closing_price FROM historical_prices "
+            + "WHERE stock_id IN (:stockIds)%s ORDER BY stock_id, date DESC";
+
+    // Fallback für H2, das kein DISTINCT ON kennt
+    private static final String STANDARD_LATEST_PRICES =
+            "SELECT stock_id, closing_price FROM ("
+            + "SELECT stock_id, closing_price, ROW_NUMBER() OVER (PARTITION BY stock_id ORDER BY date DESC) AS rn "
+            + "FROM historical_prices WHERE stock_id IN (:stockIds)%s) latest WHERE rn = 1";
+
+    private static final String AS_OF_PREDICATE = " AND date <= :asOf";
+
+    // Die Datumsgrenze lässt PostgreSQL alle bis auf die neuesten Partitionen von historical_prices überspringen
+    private static final String RECENT_PREDICATE = " AND date >= :since";
+    private static final String OLDER_PREDICATE = " AND date < :since";
+
+    // Deckt Wochenenden und Feiertage ab; Aktien ohne Kurs in diesem Zeitraum fragt eine zweite Abfrage ab
+    private static final int RECENT_WINDOW_DAYS = 14;
+
+    // Hält die Zahl der Bind-Parameter auch bei sehr großen Portfolios deutlich unter den Treibergrenzen
+    private static final int IN_LIST_CHUNK_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public HistoricalPriceRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databasePlatform = new DatabasePlatform(jdbcTemplate);
+    }
+
+    @Override
+    public boolean insertIfAbsent(HistoricalPrice price) {
+        return insertAllIfAbsent(List.of(price)) > 0;
+    }
+
+    @Override
+    public int insertAllIfAbsent(List<HistoricalPrice> prices) {
+        if (prices.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (HistoricalPrice price : prices) {
+            if (price.getId() == null) {
+                price.setId(UUID.randomUUID().toString());
+            }
+        }
+        return databasePlatform.isPostgres()
+                ? insertAllIfAbsentPostgres(prices, now)
+                : insertAllIfAbsentStandard(prices, now);
+    }
+
+    private int insertAllIfAbsentPostgres(List<HistoricalPrice> prices, LocalDateTime now) {
+        String[] ids = new String[prices.size()];
+        String[] stockIds = new String[prices.size()];
+        LocalDate[] dates = new LocalDate[prices.size()];
+        BigDecimal[] closingPrices = new BigDecimal[prices.size()];
+        for (int i = 0; i < prices.size(); i++) {
+            HistoricalPrice price = prices.get(i);
+            ids[i] = price.getId();
+            stockIds[i] = price.getStock().getId();
+            dates[i] = price.getDate();
+            closingPrices[i] = price.getClosingPrice();
+        }
+        return jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(POSTGRES_INSERT_IF_ABSENT);
+            ps.setObject(1, now);
+            ps.setObject(2, now);
+            ps.setArray(3, connection.createArrayOf("varchar", ids));
+            ps.setArray(4, connection.createArrayOf("varchar", stockIds));
+            ps.setArray(5, connection.createArrayOf("date", dates));
+            ps.setArray(6, connection.createArrayOf("numeric", closingPrices));
+            return ps;
+        });
+    }
+
+    private int insertAllIfAbsentStandard(List<HistoricalPrice> prices, LocalDateTime now) {
+        // H2 meldet für jede Anweisung die genaue Zahl, auch 0 für einen übersprungenen Preis
+        int[][] counts = jdbcTemplate.batchUpdate(STANDARD_INSERT_IF_ABSENT, prices, prices.size(), (ps, price) -> {
+            ps.setString(1, price.getId());
+            ps.setString(2, price.getStock().getId());
+            ps.setObject(3, price.getDate());
+            ps.setBigDecimal(4, price.getClosingPrice());
+            ps.setObject(5, now);
+            ps.setObject(6, now);
+            ps.setString(7, price.getStock().getId());
+            ps.setObject(8, price.getDate());
+        });
+        return BatchUpdateCounts.rowsWritten(counts);
+    }
+
+    @Override
+    public Map<String, BigDecimal> findLatestClosingPrices(Collection<String> stockIds) {
+        return findLatestClosingPrices(stockIds, null);
+    }
+
+    @Override
+    public Map<String, BigDecimal> findClosingPricesAsOf(Collection<String> stockIds, LocalDate date) {
+        return findLatestClosingPrices(stockIds, date);
+    }
+
+    private Map<String, BigDecimal> findLatestClosingPrices(Collection<String> stockIds, LocalDate asOf) {
+        if (stockIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        LocalDate since = (asOf != null ? asOf : LocalDate.now()).minusDays(RECENT_WINDOW_DAYS);
+        Map<String, BigDecimal> latestPrices = new HashMap<>(stockIds.size() * 2);
+
+        queryLatestClosingPrices(new ArrayList<>(stockIds), asOf, since, RECENT_PREDICATE, latestPrices);
+        if (latestPrices.size() < stockIds.size()) {
+            List<String> missing = stockIds.stream().filter(id -> !latestPrices.containsKey(id)).distinct().toList();
+            queryLatestClosingPrices(missing, asOf, since, OLDER_PREDICATE, latestPrices);
+        }
+        return latestPrices;
+    }
+
+    private void queryLatestClosingPrices(List<String> ids, LocalDate asOf, LocalDate since, String rangePredicate,
+            Map<String, BigDecimal> latestPrices) {
+        String sql = String.format(databasePlatform.isPostgres() ? POSTGRES_LATEST_PRICES : STANDARD_LATEST_PRICES,
+                (asOf == null ? "" : AS_OF_PREDICATE) + rangePredicate);
+
+        // Läuft über den EntityManager, damit die Abfrage in der Hibernate-Statistik erscheint
+        for (int from = 0; from < ids.size(); from += IN_LIST_CHUNK_SIZE) {
+            List<String> chunk = ids.subList(from, Math.min(from + IN_LIST_CHUNK_SIZE, ids.size()));
+            Query query = entityManager.createNativeQuery(sql)
+                    .setParameter("stockIds", chunk)
+                    .setParameter("since", since);
+            if (asOf != null) {
+                query.setParameter("asOf", asOf);
+            }
+            @SuppressWarnings("unchecked")
+            List<Object[]> rows = query.getResultList();
+            for (Object[] row : rows) {
+                latestPrices.put((String) row[0], (BigDecimal) row[1]);
+            }
+        }
+    }
+}
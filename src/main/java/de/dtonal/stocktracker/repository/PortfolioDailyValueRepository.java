@@ -0,0 +1,49 @@
+package de.dtonal.stocktracker.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import de.dtonal.stocktracker.dto.PortfolioDate;
+import de.dtonal.stocktracker.model.PortfolioDailyValue;
+import de.dtonal.stocktracker.model.PortfolioDailyValueId;
+
+@Repository
+public interface PortfolioDailyValueRepository
+        extends JpaRepository<PortfolioDailyValue, PortfolioDailyValueId>, PortfolioDailyValueRepositoryCustom {
+
+    /**
+     * Findet die Snapshots eines Portfolios in einem Datumsbereich, aufsteigend nach Datum
+     */
+    List<PortfolioDailyValue> findByPortfolioIdAndDateBetweenOrderByDateAsc(String portfolioId, LocalDate from,
+            LocalDate to);
+
+    /**
+     * Liefert je Portfolio das Datum des letzten Snapshots
+     */
+    @Query("SELECT new de.dtonal.stocktracker.dto.PortfolioDate(v.portfolioId, MAX(v.date)) "
+            + "FROM PortfolioDailyValue v GROUP BY v.portfolioId")
+    List<PortfolioDate> findLastSnapshotDates();
+
+    /**
+     * Löscht die Snapshots eines Portfolios ab einem Datum, damit sie neu berechnet werden
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM PortfolioDailyValue v WHERE v.portfolioId = :portfolioId AND v.date >= :from")
+    int deleteFrom(@Param("portfolioId") String portfolioId, @Param("from") LocalDate from);
+
+    /**
+     * Löscht alle Snapshots eines Portfolios
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM PortfolioDailyValue v WHERE v.portfolioId = :portfolioId")
+    int deleteByPortfolioId(@Param("portfolioId") String portfolioId);
+}
@@ -0,0 +1,19 @@
+package de.dtonal.stocktracker.repository;
+
+import java.util.List;
+
+import de.dtonal.stocktracker.model.PortfolioDailyValue;
+
+/**
+ * Massen-Schreibpfad für Portfolio-Snapshots.
+ */
+public interface PortfolioDailyValueRepositoryCustom {
+
+    /**
+     * Schreibt alle Werte per JDBC-Batch; vorhandene (portfolio_id, date)-Paare werden
+     * überschrieben, sodass ein erneuter Lauf für denselben Tag idempotent ist.
+     *
+     * @return Anzahl der geschriebenen Zeilen
+     */
+    int upsertAll(List<PortfolioDailyValue> values);
+}
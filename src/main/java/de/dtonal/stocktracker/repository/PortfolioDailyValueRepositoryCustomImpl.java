@@ -0,0 +1,43 @@
+package de.dtonal.stocktracker.repository;
+
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import de.dtonal.stocktracker.model.PortfolioDailyValue;
+
+public class PortfolioDailyValueRepositoryCustomImpl implements PortfolioDailyValueRepositoryCustom {
+
+    private static final String POSTGRES_UPSERT =
+            "INSERT INTO portfolio_daily_value (portfolio_id, date, \"value\", created_at) VALUES (?, ?, ?, ?) "
+            + "ON CONFLICT (portfolio_id, date) DO UPDATE SET \"value\" = EXCLUDED.\"value\", created_at = EXCLUDED.created_at";
+
+    // Fallback für H2 (Entwicklung und Tests)
+    private static final String STANDARD_UPSERT =
+            "MERGE INTO portfolio_daily_value (portfolio_id, date, \"value\", created_at) KEY (portfolio_id, date) "
+            + "VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+
+    public PortfolioDailyValueRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databasePlatform = new DatabasePlatform(jdbcTemplate);
+    }
+
+    @Override
+    public int upsertAll(List<PortfolioDailyValue> values) {
+        if (values.isEmpty()) {
+            return 0;
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(databasePlatform.isPostgres() ? POSTGRES_UPSERT : STANDARD_UPSERT,
+                values, values.size(), (ps, value) -> {
+                    ps.setString(1, value.getPortfolioId());
+                    ps.setObject(2, value.getDate());
+                    ps.setBigDecimal(3, value.getValue());
+                    ps.setObject(4, value.getCreatedAt());
+                });
+
+        return BatchUpdateCounts.rowsWritten(counts);
+    }
+}
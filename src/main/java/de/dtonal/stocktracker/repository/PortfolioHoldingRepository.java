@@ -0,0 +1,46 @@
+package de.dtonal.stocktracker.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import de.dtonal.stocktracker.model.PortfolioHolding;
+import de.dtonal.stocktracker.model.PortfolioHoldingId;
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface PortfolioHoldingRepository extends JpaRepository<PortfolioHolding, PortfolioHoldingId> {
+
+    /**
+     * Findet alle Bestände eines Portfolios
+     */
+    List<PortfolioHolding> findByPortfolioId(String portfolioId);
+
+    /**
+     * Lädt einen Bestand mit Schreibsperre, damit parallele Transaktionen ihn nacheinander fortschreiben
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM PortfolioHolding h WHERE h.portfolioId = :portfolioId AND h.stockId = :stockId")
+    Optional<PortfolioHolding> findForUpdate(@Param("portfolioId") String portfolioId, @Param("stockId") String stockId);
+
+    /**
+     * Liefert die Stückzahl einer Aktie im Portfolio anhand des Symbols (0, wenn nicht im Bestand)
+     */
+    @Query("SELECT COALESCE(SUM(h.netQuantity), 0) FROM PortfolioHolding h, Stock s "
+            + "WHERE s.id = h.stockId AND h.portfolioId = :portfolioId AND s.symbol = :symbol")
+    BigDecimal findNetQuantity(@Param("portfolioId") String portfolioId, @Param("symbol") String symbol);
+
+    /**
+     * Löscht alle Bestände eines Portfolios
+     */
+    @Modifying
+    @Query("DELETE FROM PortfolioHolding h WHERE h.portfolioId = :portfolioId")
+    int deleteByPortfolioId(@Param("portfolioId") String portfolioId);
+}
@@ -0,0 +1,30 @@
+package de.dtonal.stocktracker.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import de.dtonal.stocktracker.model.PortfolioHoldingId;
+import de.dtonal.stocktracker.model.PortfolioPosition;
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface PortfolioPositionRepository extends JpaRepository<PortfolioPosition, PortfolioHoldingId> {
+
+    /**
+     * Findet alle Positionen eines Portfolios samt offener Lots
+     */
+    List<PortfolioPosition> findByPortfolioId(String portfolioId);
+
+    /**
+     * Lädt eine Position mit Schreibsperre, damit parallele Transaktionen sie nacheinander fortschreiben
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM PortfolioPosition p WHERE p.portfolioId = :portfolioId AND p.stockId = :stockId")
+    Optional<PortfolioPosition> findForUpdate(@Param("portfolioId") String portfolioId, @Param("stockId") String stockId);
+}
@@ -3,11 +3,13 @@ package de.dtonal.stocktracker.repository;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import de.dtonal.stocktracker.dto.PortfolioSummary;
 import de.dtonal.stocktracker.model.Portfolio;
 import de.dtonal.stocktracker.model.User;
 
@@ -24,6 +26,21 @@ public interface PortfolioRepository extends JpaRepository<Portfolio, String> {
      */
     List<Portfolio> findByUserId(String userId);
     
+    /**
+     * Liefert die Portfolios eines Benutzers mit Anzahl und Datum der jüngsten Transaktion in einer
+     * Abfrage, ohne Transaktionen zu laden
+     */
+    @Query("SELECT new de.dtonal.stocktracker.dto.PortfolioSummary(p.id, p.name, p.description, COUNT(t), "
+            + "MAX(t.transactionDate)) FROM Portfolio p LEFT JOIN p.transactions t WHERE p.user.id = :userId "
+            + "GROUP BY p.id, p.name, p.description, p.createdAt ORDER BY p.createdAt, p.id")
+    List<PortfolioSummary> findSummariesByUserId(@Param("userId") String userId);
+
+    /**
+     * Lädt ein Portfolio samt Eigentümer, Transaktionen und deren Aktien in einer Abfrage
+     */
+    @EntityGraph(attributePaths = { "user", "transactions", "transactions.stock" })
+    Optional<Portfolio> findWithTransactionsById(String id);
+
     /**
      * Findet ein Portfolio anhand des Namens und des Benutzers
      */
@@ -38,4 +55,17 @@ public interface PortfolioRepository extends JpaRepository<Portfolio, String> {
     boolean isOwnerOfPortfolio(@Param("portfolioId") String portfolioId, @Param("email") String email);
 
     Optional<Portfolio> findByIdAndUserEmail(String id, String userEmail);
+
+    /**
+     * Liefert die IDs aller Portfolios, ohne die Portfolios selbst zu laden
+     */
+    @Query("SELECT p.id FROM Portfolio p")
+    List<String> findAllIds();
+
+    /**
+     * Sperrt die Zeile des Portfolios bis zum Ende der Transaktion, damit Bestandsänderungen
+     * eines Portfolios nacheinander laufen, auch wenn die Bestandszeile noch nicht existiert
+     */
+    @Query(value = "SELECT id FROM portfolio WHERE id = :portfolioId FOR UPDATE", nativeQuery = true)
+    Optional<String> lockById(@Param("portfolioId") String portfolioId);
 } 
\ No newline at end of file
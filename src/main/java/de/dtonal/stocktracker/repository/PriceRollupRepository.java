@@ -0,0 +1,21 @@
+package de.dtonal.stocktracker.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import de.dtonal.stocktracker.dto.HistoryInterval;
+import de.dtonal.stocktracker.model.PriceRollup;
+import de.dtonal.stocktracker.model.PriceRollupId;
+
+@Repository
+public interface PriceRollupRepository extends JpaRepository<PriceRollup, PriceRollupId>, PriceRollupRepositoryCustom {
+
+    /**
+     * Findet die Verdichtungen einer Aktie, deren Periode im Bereich beginnt, aufsteigend
+     */
+    List<PriceRollup> findByStockIdAndResolutionAndPeriodStartBetweenOrderByPeriodStartAsc(String stockId,
+            HistoryInterval resolution, LocalDate from, LocalDate to);
+}
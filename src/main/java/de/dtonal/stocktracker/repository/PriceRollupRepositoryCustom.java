@@ -0,0 +1,19 @@
+package de.dtonal.stocktracker.repository;
+
+import java.util.List;
+
+import de.dtonal.stocktracker.model.PriceRollup;
+
+/**
+ * Massen-Schreibpfad für Kurs-Verdichtungen.
+ */
+public interface PriceRollupRepositoryCustom {
+
+    /**
+     * Schreibt alle Verdichtungen per JDBC-Batch; vorhandene Perioden werden überschrieben, sodass
+     * die laufende Woche und der laufende Monat nach jedem Kurs-Update neu geschrieben werden können.
+     *
+     * @return Anzahl der geschriebenen Zeilen
+     */
+    int upsertAll(List<PriceRollup> rollups);
+}
@@ -0,0 +1,56 @@
+package de.dtonal.stocktracker.repository;
+
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import de.dtonal.stocktracker.model.PriceRollup;
+
+public class PriceRollupRepositoryCustomImpl implements PriceRollupRepositoryCustom {
+
+    private static final String COLUMNS = "stock_id, resolution, period_start, last_date, open_price, high_price, "
+            + "low_price, close_price, avg_price, price_count, updated_at";
+
+    private static final String POSTGRES_UPSERT =
+            "INSERT INTO price_rollups (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (stock_id, resolution, period_start) DO UPDATE SET last_date = EXCLUDED.last_date, "
+            + "open_price = EXCLUDED.open_price, high_price = EXCLUDED.high_price, low_price = EXCLUDED.low_price, "
+            + "close_price = EXCLUDED.close_price, avg_price = EXCLUDED.avg_price, "
+            + "price_count = EXCLUDED.price_count, updated_at = EXCLUDED.updated_at";
+
+    // Fallback für H2 (Entwicklung und Tests)
+    private static final String STANDARD_UPSERT =
+            "MERGE INTO price_rollups (" + COLUMNS + ") KEY (stock_id, resolution, period_start) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+
+    public PriceRollupRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databasePlatform = new DatabasePlatform(jdbcTemplate);
+    }
+
+    @Override
+    public int upsertAll(List<PriceRollup> rollups) {
+        if (rollups.isEmpty()) {
+            return 0;
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(databasePlatform.isPostgres() ? POSTGRES_UPSERT : STANDARD_UPSERT,
+                rollups, rollups.size(), (ps, rollup) -> {
+                    ps.setString(1, rollup.getStockId());
+                    ps.setString(2, rollup.getResolution().name());
+                    ps.setObject(3, rollup.getPeriodStart());
+                    ps.setObject(4, rollup.getLastDate());
+                    ps.setBigDecimal(5, rollup.getOpenPrice());
+                    ps.setBigDecimal(6, rollup.getHighPrice());
+                    ps.setBigDecimal(7, rollup.getLowPrice());
+                    ps.setBigDecimal(8, rollup.getClosePrice());
+                    ps.setBigDecimal(9, rollup.getAvgPrice());
+                    ps.setInt(10, rollup.getPriceCount());
+                    ps.setObject(11, rollup.getUpdatedAt());
+                });
+
+        return BatchUpdateCounts.rowsWritten(counts);
+    }
+}
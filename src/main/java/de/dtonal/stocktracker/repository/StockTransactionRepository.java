@@ -1,17 +1,30 @@
 package de.dtonal.stocktracker.repository;
 
+import de.dtonal.stocktracker.dto.CashFlow;
+import de.dtonal.stocktracker.dto.LotTransaction;
+import de.dtonal.stocktracker.dto.PortfolioDate;
+import de.dtonal.stocktracker.dto.QuantityChange;
 import de.dtonal.stocktracker.model.Portfolio;
+import de.dtonal.stocktracker.model.PortfolioHolding;
 import de.dtonal.stocktracker.model.Stock;
 import de.dtonal.stocktracker.model.StockTransaction;
 import de.dtonal.stocktracker.model.TransactionType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface StockTransactionRepository extends JpaRepository<StockTransaction, String> {
+public interface StockTransactionRepository extends JpaRepository<StockTransaction, String>, StockTransactionRepositoryCustom {
     
     /**
      * Findet alle Transaktionen eines Portfolios
@@ -53,4 +66,81 @@ public interface StockTransactionRepository extends JpaRepository<StockTransacti
      * Findet alle Transaktionen eines Portfolios anhand der Aktie und der Portfolio-ID
      */
     List<StockTransaction> findByPortfolioIdAndStockSymbol(String portfolioId, String stockSymbol);
-} 
\ No newline at end of file
+
+    /**
+     * Berechnet alle Bestände (Stückzahl, Nettoeinsatz, Anzahl, letzte Transaktion) direkt aus den
+     * Transaktionen; Grundlage für die Prüfung und den Neuaufbau von {@code portfolio_holding}
+     */
+    @Query("SELECT new de.dtonal.stocktracker.model.PortfolioHolding(t.portfolio.id, t.stock.id, "
+            + "SUM(CASE WHEN t.transactionType = de.dtonal.stocktracker.model.TransactionType.BUY "
+            + "THEN t.quantity ELSE -t.quantity END), "
+            + "SUM(CASE WHEN t.transactionType = de.dtonal.stocktracker.model.TransactionType.BUY "
+            + "THEN t.quantity * t.pricePerShare ELSE -(t.quantity * t.pricePerShare) END), "
+            + "COUNT(t), MAX(t.transactionDate)) "
+            + "FROM StockTransaction t GROUP BY t.portfolio.id, t.stock.id")
+    List<PortfolioHolding> aggregateHoldings();
+
+    /**
+     * Liefert das Datum der jüngsten Transaktion einer Aktie im Portfolio, ohne die angegebene Transaktion
+     */
+    @Query("SELECT MAX(t.transactionDate) FROM StockTransaction t "
+            + "WHERE t.portfolio.id = :portfolioId AND t.stock.id = :stockId AND t.id <> :excludedId")
+    Optional<LocalDateTime> findLatestTransactionDate(@Param("portfolioId") String portfolioId,
+            @Param("stockId") String stockId, @Param("excludedId") String excludedId);
+
+    /**
+     * Liefert die Bestandsänderungen eines Portfolios vor {@code before} aufsteigend nach Datum.
+     * Muss innerhalb einer Transaktion konsumiert und geschlossen werden.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new de.dtonal.stocktracker.dto.QuantityChange(t.stock.id, t.transactionDate, "
+            + "CASE WHEN t.transactionType = de.dtonal.stocktracker.model.TransactionType.BUY "
+            + "THEN t.quantity ELSE -t.quantity END) "
+            + "FROM StockTransaction t WHERE t.portfolio.id = :portfolioId AND t.transactionDate < :before "
+            + "ORDER BY t.transactionDate, t.id")
+    Stream<QuantityChange> streamQuantityChanges(@Param("portfolioId") String portfolioId,
+            @Param("before") LocalDateTime before);
+
+    /**
+     * Liefert je Portfolio das Datum der ersten Transaktion
+     */
+    @Query("SELECT new de.dtonal.stocktracker.dto.PortfolioDate(t.portfolio.id, MIN(t.transactionDate)) "
+            + "FROM StockTransaction t GROUP BY t.portfolio.id")
+    List<PortfolioDate> findFirstTransactionDates();
+
+    /**
+     * Liefert die Transaktionen einer Aktie im Portfolio in Verarbeitungsreihenfolge für die
+     * Lot-Buchführung; bei gleichem Zeitpunkt zählt die Erfassungsreihenfolge.
+     */
+    @Query("SELECT new de.dtonal.stocktracker.dto.LotTransaction(t.id, t.stock.id, t.transactionDate, "
+            + "t.transactionType, t.quantity, t.pricePerShare) "
+            + "FROM StockTransaction t WHERE t.portfolio.id = :portfolioId AND t.stock.id = :stockId "
+            + "ORDER BY t.transactionDate, t.createdAt, t.id")
+    List<LotTransaction> findLotTransactions(@Param("portfolioId") String portfolioId,
+            @Param("stockId") String stockId);
+
+    /**
+     * Wie {@link #findLotTransactions}, aber für alle Aktien eines Portfolios als Stream.
+     * Muss innerhalb einer Transaktion konsumiert und geschlossen werden.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new de.dtonal.stocktracker.dto.LotTransaction(t.id, t.stock.id, t.transactionDate, "
+            + "t.transactionType, t.quantity, t.pricePerShare) "
+            + "FROM StockTransaction t WHERE t.portfolio.id = :portfolioId "
+            + "ORDER BY t.transactionDate, t.createdAt, t.id")
+    Stream<LotTransaction> streamLotTransactions(@Param("portfolioId") String portfolioId);
+
+    /**
+     * Liefert die Zahlungen eines Portfolios im Zeitraum [{@code from}, {@code before}) aufsteigend
+     * nach Datum. Muss innerhalb einer Transaktion konsumiert und geschlossen werden.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new de.dtonal.stocktracker.dto.CashFlow(t.transactionDate, "
+            + "CASE WHEN t.transactionType = de.dtonal.stocktracker.model.TransactionType.BUY "
+            + "THEN t.quantity * t.pricePerShare ELSE -t.quantity * t.pricePerShare END) "
+            + "FROM StockTransaction t WHERE t.portfolio.id = :portfolioId "
+            + "AND t.transactionDate >= :from AND t.transactionDate < :before "
+            + "ORDER BY t.transactionDate")
+    Stream<CashFlow> streamCashFlows(@Param("portfolioId") String portfolioId, @Param("from") LocalDateTime from,
+            @Param("before") LocalDateTime before);
+}
@@ -0,0 +1,23 @@
+package de.dtonal.stocktracker.repository;
+
+import java.util.List;
+
+import de.dtonal.stocktracker.dto.StockTransactionResponse;
+import de.dtonal.stocktracker.dto.TransactionCursor;
+import de.dtonal.stocktracker.dto.TransactionFilter;
+
+/**
+ * Abfragen auf Transaktionen, deren Bedingungen erst zur Laufzeit feststehen.
+ */
+public interface StockTransactionRepositoryCustom {
+
+    /**
+     * Liefert bis zu {@code limit} Transaktionen eines Portfolios absteigend nach
+     * (transaction_date, id), beginnend hinter {@code after}. Die Seite wird per Keyset-Bedingung
+     * gesucht statt per OFFSET, sodass tiefe Seiten so viel kosten wie die erste.
+     *
+     * @param after Position der letzten Zeile der vorigen Seite, {@code null} für die erste Seite
+     */
+    List<StockTransactionResponse> findPage(String portfolioId, TransactionFilter filter, TransactionCursor after,
+            int limit);
+}
@@ -0,0 +1,68 @@
+package de.dtonal.stocktracker.repository;
+
+import java.util.List;
+
+import de.dtonal.stocktracker.dto.StockTransactionResponse;
+import de.dtonal.stocktracker.dto.TransactionCursor;
+import de.dtonal.stocktracker.dto.TransactionFilter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+public class StockTransactionRepositoryCustomImpl implements StockTransactionRepositoryCustom {
+
+    private static final String SELECT_PAGE =
+            "SELECT new de.dtonal.stocktracker.dto.StockTransactionResponse(t.id, s.id, s.symbol, "
+            + "t.transactionType, t.quantity, t.pricePerShare, t.transactionDate) "
+            + "FROM StockTransaction t JOIN t.stock s WHERE t.portfolio.id = :portfolioId";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<StockTransactionResponse> findPage(String portfolioId, TransactionFilter filter,
+            TransactionCursor after, int limit) {
+        // Nur gesetzte Filter werden zu Prädikaten, damit jede Kombination ihren eigenen Plan bekommt
+        StringBuilder jpql = new StringBuilder(SELECT_PAGE);
+        if (filter.stockSymbol() != null) {
+            jpql.append(" AND s.symbol = :symbol");
+        }
+        if (filter.transactionType() != null) {
+            jpql.append(" AND t.transactionType = :type");
+        }
+        if (filter.from() != null) {
+            jpql.append(" AND t.transactionDate >= :from");
+        }
+        if (filter.to() != null) {
+            jpql.append(" AND t.transactionDate < :before");
+        }
+        if (after != null) {
+            // Das führende <= begrenzt den Index-Range-Scan; das OR entscheidet nur Gleichstände darin
+            jpql.append(" AND t.transactionDate <= :afterDate"
+                    + " AND (t.transactionDate < :afterDate OR t.id < :afterId)");
+        }
+        jpql.append(" ORDER BY t.transactionDate DESC, t.id DESC");
+
+        TypedQuery<StockTransactionResponse> query = entityManager
+                .createQuery(jpql.toString(), StockTransactionResponse.class)
+                .setParameter("portfolioId", portfolioId)
+                .setMaxResults(limit);
+        if (filter.stockSymbol() != null) {
+            query.setParameter("symbol", filter.stockSymbol());
+        }
+        if (filter.transactionType() != null) {
+            query.setParameter("type", filter.transactionType());
+        }
+        if (filter.from() != null) {
+            query.setParameter("from", filter.from().atStartOfDay());
+        }
+        if (filter.to() != null) {
+            query.setParameter("before", filter.to().plusDays(1).atStartOfDay());
+        }
+        if (after != null) {
+            query.setParameter("afterDate", after.transactionDate());
+            query.setParameter("afterId", after.id());
+        }
+        return query.getResultList();
+    }
+}
@@ -0,0 +1,10 @@
+package de.dtonal.stocktracker.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import de.dtonal.stocktracker.model.SymbolMapping;
+
+@Repository
+public interface SymbolMappingRepository extends JpaRepository<SymbolMapping, String> {
+}
@@ -0,0 +1,165 @@
+package de.dtonal.stocktracker.service;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import de.dtonal.stocktracker.dto.CompanyProfile;
+import de.dtonal.stocktracker.dto.PriceData;
+import de.dtonal.stocktracker.dto.StockSearchResult;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Legt einen Kurs-Cache vor den {@link FinnhubStockDataService}. Kurse werden für eine
+ * konfigurierbare TTL wiederverwendet; liefert Finnhub keinen Kurs, wird ein veralteter
+ * Wert ausgeliefert, solange er noch aufbewahrt wird. Der tägliche Kurs-Job nutzt
+ * {@link #getFreshPriceData(String)} und speichert so nie einen veralteten Kurs als
+ * Schlusskurs. Unternehmensprofile werden über den {@link CompanyProfileStore} in der
+ * Datenbank vorgehalten. Gleichzeitige Anfragen für dasselbe Symbol teilen sich einen
+ * einzigen Aufruf beim Provider. Suchergebnisse werden pro normalisiertem Suchbegriff
+ * zwischengespeichert, damit Typeahead-Anfragen selten Finnhub erreichen.
+ */
+@Service
+@Primary
+@Slf4j
+public class CachingStockDataService implements StockDataService, MeterBinder {
+
+    private final StockDataService delegate;
+    private final TtlCache<String, PriceData> quoteCache;
+    private final TtlCache<String, StockSearchResult> searchCache;
+    private final CompanyProfileStore profileStore;
+    private final SingleFlight<String, Optional<PriceData>> quoteFlights = new SingleFlight<>();
+    private final SingleFlight<String, Optional<StockSearchResult>> searchFlights = new SingleFlight<>();
+    private final SingleFlight<String, Optional<CompanyProfile>> profileFlights = new SingleFlight<>();
+
+    @Autowired
+    public CachingStockDataService(FinnhubStockDataService delegate,
+            CompanyProfileStore profileStore,
+            @Value("${stockdata.quote-cache.max-size:5000}") int maxSize,
+            @Value("${stockdata.quote-cache.ttl:60s}") Duration ttl,
+            @Value("${stockdata.quote-cache.max-stale:6h}") Duration maxStale,
+            @Value("${stockdata.search-cache.max-size:2000}") int searchMaxSize,
+            @Value("${stockdata.search-cache.ttl:10m}") Duration searchTtl,
+            @Value("${stockdata.search-cache.max-stale:1h}") Duration searchMaxStale) {
+        this((StockDataService) delegate, new TtlCache<>(maxSize, ttl, maxStale),
+                new TtlCache<>(searchMaxSize, searchTtl, searchMaxStale), profileStore);
+    }
+
+    CachingStockDataService(StockDataService delegate, TtlCache<String, PriceData> quoteCache,
+            TtlCache<String, StockSearchResult> searchCache, CompanyProfileStore profileStore) {
+        this.delegate = delegate;
+        this.quoteCache = quoteCache;
+        this.searchCache = searchCache;
+        this.profileStore = profileStore;
+    }
+
+    @Override
+    public Optional<PriceData> getLatestPriceData(String symbol) {
+        Optional<PriceData> fresh = getFreshPriceData(symbol);
+        if (fresh.isPresent() || symbol == null || symbol.isBlank()) {
+            return fresh;
+        }
+
+        Optional<PriceData> stale = quoteCache.getIfRetained(symbol);
+        stale.ifPresent(price -> log.warn("Serving stale quote for symbol {} because the provider returned none.", symbol));
+        return stale;
+    }
+
+    @Override
+    public Optional<PriceData> getFreshPriceData(String symbol) {
+        if (symbol == null || symbol.isBlank()) {
+            return Optional.empty();
+        }
+
+        Optional<PriceData> cached = quoteCache.getIfFresh(symbol);
+        if (cached.isPresent()) {
+            return cached;
+        }
+
+        return quoteFlights.execute(symbol, () -> {
+            Optional<PriceData> quote = delegate.getLatestPriceData(symbol);
+            // Cache füllen, bevor der Aufruf abschließt, damit spätere Aufrufer ihn direkt treffen
+            quote.ifPresent(price -> quoteCache.put(symbol, price));
+            return quote;
+        });
+    }
+
+    @Override
+    public Optional<CompanyProfile> getStockProfile(String isin) {
+        if (isin == null || isin.isBlank()) {
+            return Optional.empty();
+        }
+        return profileFlights.execute(isin, () -> loadProfile(isin));
+    }
+
+    private Optional<CompanyProfile> loadProfile(String isin) {
+        Optional<CompanyProfile> stored = profileStore.findFresh(isin);
+        if (stored.isPresent()) {
+            return stored;
+        }
+
+        Optional<CompanyProfile> fetched = delegate.getStockProfile(isin);
+        if (fetched.isPresent()) {
+            try {
+                profileStore.save(isin, fetched.get());
+            } catch (DataAccessException e) {
+                // Das Profil bleibt verwendbar; die nächste Abfrage holt es einfach erneut
+                log.warn("Could not store company profile for {}: {}", isin, e.getMessage());
+            }
+            return fetched;
+        }
+
+        Optional<CompanyProfile> retained = profileStore.findRetained(isin);
+        retained.ifPresent(profile -> log.warn("Serving stored profile for {} because the provider returned none.", isin));
+        return retained;
+    }
+
+    @Override
+    public Optional<StockSearchResult> getStockSearchResult(String query) {
+        if (query == null || query.isBlank()) {
+            return Optional.empty();
+        }
+        // Finnhub sucht ohne Groß-/Kleinschreibung, "apple" und "Apple " teilen sich einen Eintrag
+        String key = query.trim().toLowerCase(Locale.ROOT);
+
+        Optional<StockSearchResult> cached = searchCache.getIfFresh(key);
+        if (cached.isPresent()) {
+            return cached;
+        }
+
+        Optional<StockSearchResult> fetched = searchFlights.execute(key, () -> {
+            Optional<StockSearchResult> result = delegate.getStockSearchResult(key);
+            result.ifPresent(searchResult -> searchCache.put(key, searchResult));
+            return result;
+        });
+        if (fetched.isPresent()) {
+            return fetched;
+        }
+        return searchCache.getIfRetained(key);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("stockdata.quote.cache.hits", quoteCache, TtlCache::getHits).register(registry);
+        FunctionCounter.builder("stockdata.quote.cache.misses", quoteCache, TtlCache::getMisses).register(registry);
+        FunctionCounter.builder("stockdata.quote.cache.stale", quoteCache, TtlCache::getStaleHits).register(registry);
+        FunctionCounter.builder("stockdata.quote.cache.evictions", quoteCache, TtlCache::getEvictions).register(registry);
+        Gauge.builder("stockdata.quote.cache.size", quoteCache, TtlCache::size).register(registry);
+        FunctionCounter.builder("stockdata.quote.coalesced", quoteFlights, SingleFlight::getCoalesced).register(registry);
+        FunctionCounter.builder("stockdata.search.cache.hits", searchCache, TtlCache::getHits).register(registry);
+        FunctionCounter.builder("stockdata.search.cache.misses", searchCache, TtlCache::getMisses).register(registry);
+        Gauge.builder("stockdata.search.cache.size", searchCache, TtlCache::size).register(registry);
+        FunctionCounter.builder("stockdata.search.coalesced", searchFlights, SingleFlight::getCoalesced).register(registry);
+        FunctionCounter.builder("stockdata.profile.coalesced", profileFlights, SingleFlight::getCoalesced).register(registry);
+    }
+}
@@ -0,0 +1,145 @@
+package de.dtonal.stocktracker.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import de.dtonal.stocktracker.dto.CompanyProfile;
+import de.dtonal.stocktracker.model.StockProfile;
+import de.dtonal.stocktracker.model.SymbolMapping;
+import de.dtonal.stocktracker.repository.StockProfileRepository;
+import de.dtonal.stocktracker.repository.SymbolMappingRepository;
+
+/**
+ * Persistiert aufgelöste ISIN→Symbol-Zuordnungen und Unternehmensprofile, damit wiederholte
+ * Abfragen ohne Netzwerkaufruf auskommen und einen Neustart überstehen. Ein Profil gilt
+ * {@code stockdata.profile-cache.ttl} lang als aktuell und wird danach neu abgerufen.
+ */
+@Service
+public class CompanyProfileStore {
+
+    private final SymbolMappingRepository symbolMappingRepository;
+    private final StockProfileRepository stockProfileRepository;
+    private final Duration ttl;
+    private final Clock clock;
+
+    @Autowired
+    public CompanyProfileStore(SymbolMappingRepository symbolMappingRepository,
+            StockProfileRepository stockProfileRepository,
+            @Value("${stockdata.profile-cache.ttl:7d}") Duration ttl) {
+        this(symbolMappingRepository, stockProfileRepository, ttl, Clock.systemDefaultZone());
+    }
+
+    CompanyProfileStore(SymbolMappingRepository symbolMappingRepository,
+            StockProfileRepository stockProfileRepository, Duration ttl, Clock clock) {
+        this.symbolMappingRepository = symbolMappingRepository;
+        this.stockProfileRepository = stockProfileRepository;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    /**
+     * Liefert das gespeicherte Profil, solange es jünger als die TTL ist.
+     */
+    @Transactional(readOnly = true)
+    public Optional<CompanyProfile> findFresh(String lookupKey) {
+        LocalDateTime notBefore = LocalDateTime.now(clock).minus(ttl);
+        return findStored(lookupKey)
+                .filter(profile -> !profile.getFetchedAt().isBefore(notBefore))
+                .map(profile -> toCompanyProfile(profile, lookupKey));
+    }
+
+    /**
+     * Liefert das gespeicherte Profil unabhängig von seinem Alter.
+     */
+    @Transactional(readOnly = true)
+    public Optional<CompanyProfile> findRetained(String lookupKey) {
+        return findStored(lookupKey).map(profile -> toCompanyProfile(profile, lookupKey));
+    }
+
+    /**
+     * Speichert das Profil und die Zuordnung des Suchbegriffs zum Symbol. Läuft in einer eigenen
+     * Transaktion, damit ein Fehler hier die Transaktion des Aufrufers nicht zurückrollt.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void save(String lookupKey, CompanyProfile companyProfile) {
+        String symbol = normalize(companyProfile.getTicker());
+        if (symbol == null || normalize(lookupKey) == null) {
+            // Finnhub beantwortet unbekannte Symbole mit einem leeren Profil
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+
+        StockProfile profile = stockProfileRepository.findById(symbol).orElseGet(() -> new StockProfile(symbol));
+        profile.setName(companyProfile.getName());
+        profile.setCountry(companyProfile.getCountry());
+        profile.setCurrency(companyProfile.getCurrency());
+        profile.setExchange(companyProfile.getExchange());
+        profile.setIpo(companyProfile.getIpo());
+        profile.setMarketCapitalization(companyProfile.getMarketCapitalization());
+        profile.setShareOutstanding(companyProfile.getShareOutstanding());
+        profile.setLogo(companyProfile.getLogo());
+        profile.setPhone(companyProfile.getPhone());
+        profile.setWeburl(companyProfile.getWeburl());
+        profile.setIndustry(companyProfile.getFinnhubIndustry());
+        profile.setFetchedAt(now);
+        stockProfileRepository.save(profile);
+
+        saveMapping(normalize(lookupKey), symbol, now);
+        if (!symbol.equals(normalize(lookupKey))) {
+            // Eine spätere Abfrage über das Symbol selbst soll den Speicher ebenfalls treffen
+            saveMapping(symbol, symbol, now);
+        }
+    }
+
+    private void saveMapping(String lookupKey, String symbol, LocalDateTime now) {
+        SymbolMapping mapping = symbolMappingRepository.findById(lookupKey)
+                .orElseGet(() -> new SymbolMapping(lookupKey, symbol, now));
+        mapping.setSymbol(symbol);
+        mapping.setResolvedAt(now);
+        symbolMappingRepository.save(mapping);
+    }
+
+    private Optional<StockProfile> findStored(String lookupKey) {
+        String key = normalize(lookupKey);
+        if (key == null) {
+            return Optional.empty();
+        }
+        return symbolMappingRepository.findById(key)
+                .flatMap(mapping -> stockProfileRepository.findById(mapping.getSymbol()));
+    }
+
+    private CompanyProfile toCompanyProfile(StockProfile profile, String lookupKey) {
+        CompanyProfile companyProfile = new CompanyProfile();
+        companyProfile.setTicker(profile.getSymbol());
+        companyProfile.setName(profile.getName());
+        companyProfile.setCountry(profile.getCountry());
+        companyProfile.setCurrency(profile.getCurrency());
+        companyProfile.setExchange(profile.getExchange());
+        companyProfile.setIpo(profile.getIpo());
+        companyProfile.setMarketCapitalization(profile.getMarketCapitalization());
+        companyProfile.setShareOutstanding(profile.getShareOutstanding());
+        companyProfile.setLogo(profile.getLogo());
+        companyProfile.setPhone(profile.getPhone());
+        companyProfile.setWeburl(profile.getWeburl());
+        companyProfile.setFinnhubIndustry(profile.getIndustry());
+        // Wie bei FinnhubStockDataService wird der Suchschlüssel als ISIN gemeldet
+        companyProfile.setIsin(lookupKey);
+        return companyProfile;
+    }
+
+    private static String normalize(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim().toUpperCase(Locale.ROOT);
+    }
+}
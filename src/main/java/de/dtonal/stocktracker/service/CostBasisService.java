@@ -0,0 +1,226 @@
+package de.dtonal.stocktracker.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import de.dtonal.stocktracker.dto.LotTransaction;
+import de.dtonal.stocktracker.dto.PositionProfitLoss;
+import de.dtonal.stocktracker.model.CostBasisMethod;
+import de.dtonal.stocktracker.model.PortfolioPosition;
+import de.dtonal.stocktracker.model.Stock;
+import de.dtonal.stocktracker.model.StockTransaction;
+import de.dtonal.stocktracker.repository.HistoricalPriceRepository;
+import de.dtonal.stocktracker.repository.PortfolioPositionRepository;
+import de.dtonal.stocktracker.repository.PortfolioRepository;
+import de.dtonal.stocktracker.repository.StockRepository;
+import de.dtonal.stocktracker.repository.StockTransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Führt je Portfolio und Aktie die offenen Lots und den realisierten Gewinn nach FIFO oder
+ * Durchschnittskosten ({@code portfolio.cost-basis.method}). Die Methoden zum Fortschreiben laufen
+ * in der Transaktion des Aufrufers. Eine Transaktion, die nach der zuletzt verarbeiteten liegt,
+ * wird direkt auf die gespeicherten Lots angewendet; rückdatierte oder gelöschte Transaktionen
+ * spielen nur die Historie der betroffenen Aktie neu ab.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CostBasisService {
+
+    private static final int VALUE_SCALE = 2;
+
+    private final PortfolioPositionRepository portfolioPositionRepository;
+    private final PortfolioRepository portfolioRepository;
+    private final StockTransactionRepository stockTransactionRepository;
+    private final HistoricalPriceRepository historicalPriceRepository;
+    private final StockRepository stockRepository;
+
+    @Value("${portfolio.cost-basis.method:FIFO}")
+    private CostBasisMethod method = CostBasisMethod.FIFO;
+
+    @Value("${portfolio.cost-basis.rebuild-on-startup:true}")
+    private boolean rebuildOnStartup = true;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void onApplicationReady() {
+        // Transaktionen aus der Zeit vor der Positionstabelle werden einmal nachgezogen; die Lots
+        // entstehen erst beim Abspielen der Historie und lassen sich nicht per Migration füllen
+        if (rebuildOnStartup && portfolioPositionRepository.count() == 0 && stockTransactionRepository.count() > 0) {
+            rebuildAll();
+        }
+    }
+
+    @Transactional
+    public void applyAdded(String portfolioId, StockTransaction transaction) {
+        String stockId = transaction.getStock().getId();
+        PortfolioPosition position = portfolioPositionRepository.findForUpdate(portfolioId, stockId).orElse(null);
+
+        if (position != null && position.getMethod() == method && position.getLastTransactionAt() != null
+                && !transaction.getTransactionDate().isBefore(position.getLastTransactionAt())) {
+            LotLedger ledger = ledgerOf(position);
+            ledger.apply(transaction.getTransactionType(), transaction.getTransactionDate(), transaction.getQuantity(),
+                    transaction.getPricePerShare());
+            store(position, ledger, transaction.getTransactionDate());
+            return;
+        }
+
+        // Rückdatiert, erste Transaktion der Aktie oder Methode geändert: nur diese Aktie neu abspielen.
+        // Die neue Transaktion ist eventuell noch nicht geflusht und wird deshalb explizit ergänzt.
+        List<LotTransaction> history = new ArrayList<>(stockTransactionRepository.findLotTransactions(portfolioId, stockId));
+        history.removeIf(entry -> entry.id() != null && entry.id().equals(transaction.getId()));
+        int index = 0;
+        while (index < history.size() && !history.get(index).transactionDate().isAfter(transaction.getTransactionDate())) {
+            index++;
+        }
+        history.add(index, LotTransaction.of(transaction));
+        replay(portfolioId, stockId, position, history);
+    }
+
+    @Transactional
+    public void applyRemoved(String portfolioId, StockTransaction transaction) {
+        String stockId = transaction.getStock().getId();
+        PortfolioPosition position = portfolioPositionRepository.findForUpdate(portfolioId, stockId).orElse(null);
+        List<LotTransaction> history = new ArrayList<>(stockTransactionRepository.findLotTransactions(portfolioId, stockId));
+        history.removeIf(entry -> entry.id().equals(transaction.getId()));
+        replay(portfolioId, stockId, position, history);
+    }
+
+    @Transactional
+    public void deleteForPortfolio(String portfolioId) {
+        // Einzeln geladen und gelöscht, damit die Lot-Zeilen der Element-Collection mit entfernt werden
+        portfolioPositionRepository.deleteAll(portfolioPositionRepository.findByPortfolioId(portfolioId));
+    }
+
+    /**
+     * Baut die Positionen eines Portfolios in einem Durchlauf über alle Transaktionen neu auf.
+     *
+     * @return Anzahl der Positionen
+     */
+    @Transactional
+    public int rebuild(String portfolioId) {
+        Map<String, LotLedger> ledgers = new LinkedHashMap<>();
+        Map<String, LotTransaction> lastByStock = new LinkedHashMap<>();
+        try (Stream<LotTransaction> transactions = stockTransactionRepository.streamLotTransactions(portfolioId)) {
+            transactions.forEach(transaction -> {
+                ledgers.computeIfAbsent(transaction.stockId(), stockId -> new LotLedger(method))
+                        .apply(transaction.transactionType(), transaction.transactionDate(), transaction.quantity(),
+                                transaction.pricePerShare());
+                lastByStock.put(transaction.stockId(), transaction);
+            });
+        }
+
+        Map<String, PortfolioPosition> existing = portfolioPositionRepository.findByPortfolioId(portfolioId).stream()
+                .collect(Collectors.toMap(PortfolioPosition::getStockId, Function.identity()));
+        existing.forEach((stockId, position) -> {
+            if (!ledgers.containsKey(stockId)) {
+                portfolioPositionRepository.delete(position);
+            }
+        });
+        ledgers.forEach((stockId, ledger) -> store(existing.getOrDefault(stockId, new PortfolioPosition(portfolioId, stockId, method)),
+                ledger, lastByStock.get(stockId).transactionDate()));
+        return ledgers.size();
+    }
+
+    /**
+     * Baut die Positionen aller Portfolios neu auf, z. B. nach einem Wechsel des Verfahrens.
+     *
+     * @return Anzahl der Positionen
+     */
+    @Transactional
+    public int rebuildAll() {
+        int positions = 0;
+        for (String portfolioId : portfolioRepository.findAllIds()) {
+            positions += rebuild(portfolioId);
+        }
+        log.info("Rebuilt {} portfolio positions using {}.", positions, method);
+        return positions;
+    }
+
+    /**
+     * Liefert realisierten und unrealisierten Gewinn je Position, bewertet zum letzten
+     * gespeicherten Schlusskurs.
+     */
+    @Transactional(readOnly = true)
+    @PreAuthorize("@portfolioRepository.isOwnerOfPortfolio(#portfolioId, authentication.name) or hasRole('ADMIN')")
+    public List<PositionProfitLoss> getProfitAndLoss(String portfolioId) {
+        List<PortfolioPosition> positions = portfolioPositionRepository.findByPortfolioId(portfolioId);
+        Set<String> stockIds = positions.stream().map(PortfolioPosition::getStockId).collect(Collectors.toSet());
+        Map<String, BigDecimal> prices = historicalPriceRepository.findLatestClosingPrices(stockIds);
+        Map<String, String> symbols = stockRepository.findAllById(stockIds).stream()
+                .collect(Collectors.toMap(Stock::getId, Stock::getSymbol));
+
+        List<PositionProfitLoss> result = new ArrayList<>(positions.size());
+        for (PortfolioPosition position : positions) {
+            LotLedger ledger = ledgerOf(position);
+            BigDecimal quantity = ledger.quantity();
+            BigDecimal price = prices.get(position.getStockId());
+            result.add(new PositionProfitLoss(
+                    position.getStockId(),
+                    symbols.get(position.getStockId()),
+                    position.getMethod(),
+                    quantity,
+                    money(ledger.costBasis()),
+                    money(ledger.realizedGain()),
+                    price,
+                    price == null ? null : money(quantity.multiply(price)),
+                    price == null ? null : money(ledger.unrealizedGain(price))));
+        }
+        return result;
+    }
+
+    private void replay(String portfolioId, String stockId, PortfolioPosition position, List<LotTransaction> history) {
+        if (history.isEmpty()) {
+            if (position != null) {
+                portfolioPositionRepository.delete(position);
+            }
+            return;
+        }
+        LotLedger ledger = new LotLedger(method);
+        for (LotTransaction transaction : history) {
+            ledger.apply(transaction.transactionType(), transaction.transactionDate(), transaction.quantity(),
+                    transaction.pricePerShare());
+        }
+        PortfolioPosition target = position != null ? position : new PortfolioPosition(portfolioId, stockId, method);
+        store(target, ledger, history.get(history.size() - 1).transactionDate());
+    }
+
+    private void store(PortfolioPosition position, LotLedger ledger, LocalDateTime lastTransactionAt) {
+        if (ledger.uncoveredQuantity().signum() > 0) {
+            log.warn("Position {}/{} sold {} more shares than it held; only the covered part was realized.",
+                    position.getPortfolioId(), position.getStockId(), ledger.uncoveredQuantity());
+        }
+        position.setMethod(method);
+        position.setRealizedGain(ledger.realizedGain());
+        position.setLastTransactionAt(lastTransactionAt);
+        position.getLots().clear();
+        position.getLots().addAll(ledger.lots());
+        portfolioPositionRepository.save(position);
+    }
+
+    private static LotLedger ledgerOf(PortfolioPosition position) {
+        return new LotLedger(position.getMethod(), position.getLots(), position.getRealizedGain());
+    }
+
+    private static BigDecimal money(BigDecimal value) {
+        return value.setScale(VALUE_SCALE, RoundingMode.HALF_UP);
+    }
+}
@@ -4,6 +4,7 @@ import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
@@ -27,7 +28,7 @@ public class FinnhubStockDataService implements StockDataService {
     @Value("${finnhub.api.url}")
     private String apiUrl;
 
-    public FinnhubStockDataService(RestTemplate restTemplate) {
+    public FinnhubStockDataService(@Qualifier("finnhubRestTemplate") RestTemplate restTemplate) {
         this.restTemplate = restTemplate;
     }
 
@@ -0,0 +1,46 @@
+package de.dtonal.stocktracker.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Rechenkern für Bewertungen auf skalierten {@code long}-Werten. Stückzahlen haben wie die Spalte
+ * {@code quantity} fünf Nachkommastellen, Kurse wie {@code price_per_share} vier; ein Produkt hat
+ * damit neun. In der Schleife entsteht kein BigDecimal. Passt ein Wert nicht exakt in diese
+ * Darstellung oder läuft eine Summe über, wird eine {@link ArithmeticException} geworfen und der
+ * Aufrufer rechnet mit BigDecimal weiter.
+ */
+final class FixedPointValuation {
+
+    static final int QUANTITY_SCALE = 5;
+    static final int PRICE_SCALE = 4;
+    static final int VALUE_SCALE = QUANTITY_SCALE + PRICE_SCALE;
+
+    private FixedPointValuation() {
+    }
+
+    /**
+     * Wandelt einen Wert in die Festkomma-Darstellung mit {@code scale} Nachkommastellen.
+     *
+     * @throws ArithmeticException wenn der Wert mehr Nachkommastellen hat oder nicht in ein long passt
+     */
+    static long toFixed(BigDecimal value, int scale) {
+        return value.movePointRight(scale).longValueExact();
+    }
+
+    static BigDecimal toBigDecimal(long unscaled, int scale) {
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    /**
+     * Summe von {@code quantities[i] * prices[i]} mit {@link #VALUE_SCALE} Nachkommastellen.
+     *
+     * @throws ArithmeticException bei Überlauf
+     */
+    static long totalValue(long[] quantities, long[] prices, int count) {
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            total = Math.addExact(total, Math.multiplyExact(quantities[i], prices[i]));
+        }
+        return total;
+    }
+}
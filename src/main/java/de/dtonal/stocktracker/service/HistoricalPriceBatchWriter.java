@@ -0,0 +1,120 @@
+package de.dtonal.stocktracker.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.dtonal.stocktracker.model.HistoricalPrice;
+import de.dtonal.stocktracker.repository.HistoricalPriceRepository;
+
+/**
+ * Sammelt die Preise eines Update-Laufs und schreibt sie blockweise mit idempotenten INSERTs;
+ * bereits vorhandene (stock_id, date)-Paare werden von der Datenbank übersprungen, parallele Läufe
+ * erzeugen also keine Duplikate. Thread-safe.
+ */
+class HistoricalPriceBatchWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoricalPriceBatchWriter.class);
+
+    private final HistoricalPriceRepository historicalPriceRepository;
+    private final int batchSize;
+    private final Consumer<List<HistoricalPrice>> onWritten;
+    private final AtomicInteger written = new AtomicInteger();
+    private final AtomicInteger inserted = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final Set<String> writtenStockIds = ConcurrentHashMap.newKeySet();
+    private List<HistoricalPrice> buffer;
+
+    HistoricalPriceBatchWriter(HistoricalPriceRepository historicalPriceRepository, int batchSize) {
+        this(historicalPriceRepository, batchSize, batch -> {
+        });
+    }
+
+    /**
+     * @param onWritten erhält jeden erfolgreich geschriebenen Block
+     */
+    HistoricalPriceBatchWriter(HistoricalPriceRepository historicalPriceRepository, int batchSize,
+            Consumer<List<HistoricalPrice>> onWritten) {
+        this.historicalPriceRepository = historicalPriceRepository;
+        this.batchSize = Math.max(1, batchSize);
+        this.onWritten = onWritten;
+        this.buffer = new ArrayList<>(this.batchSize);
+    }
+
+    void add(HistoricalPrice price) {
+        List<HistoricalPrice> fullBatch = null;
+        synchronized (this) {
+            buffer.add(price);
+            if (buffer.size() >= batchSize) {
+                fullBatch = buffer;
+                buffer = new ArrayList<>(batchSize);
+            }
+        }
+        if (fullBatch != null) {
+            write(fullBatch);
+        }
+    }
+
+    void flush() {
+        List<HistoricalPrice> remaining;
+        synchronized (this) {
+            remaining = buffer;
+            buffer = new ArrayList<>(batchSize);
+        }
+        if (!remaining.isEmpty()) {
+            write(remaining);
+        }
+    }
+
+    /**
+     * Preise in erfolgreich geschriebenen Blöcken, einschließlich der von der Datenbank übersprungenen.
+     */
+    int getWritten() {
+        return written.get();
+    }
+
+    /**
+     * Davon tatsächlich neu eingefügte Preise; ohne die, die ein anderer Lauf schon gespeichert hatte.
+     */
+    int getInserted() {
+        return inserted.get();
+    }
+
+    int getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * IDs der Aktien, deren Preise erfolgreich geschrieben wurden.
+     */
+    Set<String> getWrittenStockIds() {
+        return Set.copyOf(writtenStockIds);
+    }
+
+    private void write(List<HistoricalPrice> batch) {
+        int newRows;
+        try {
+            newRows = historicalPriceRepository.insertAllIfAbsent(batch);
+        } catch (Exception e) {
+            failed.addAndGet(batch.size());
+            logger.error("Could not write batch of {} historical prices.", batch.size(), e);
+            return;
+        }
+        // Buchführung erst nach dem Schreiben, damit ein geschriebener Block nie als fehlgeschlagen zählt
+        written.addAndGet(batch.size());
+        inserted.addAndGet(newRows);
+        batch.stream()
+                .map(price -> price.getStock().getId())
+                .filter(Objects::nonNull)
+                .forEach(writtenStockIds::add);
+        logger.debug("Wrote batch of {} historical prices ({} new).", batch.size(), newRows);
+        onWritten.accept(batch);
+    }
+}
@@ -0,0 +1,114 @@
+package de.dtonal.stocktracker.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import de.dtonal.stocktracker.model.PricePartitioning;
+import de.dtonal.stocktracker.repository.HistoricalPricePartitionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Verwaltet die optionale Range-Partitionierung von {@code historical_prices} unter PostgreSQL.
+ * Der einmalige Umbau sperrt die Tabelle exklusiv und wird deshalb nur ausdrücklich über
+ * {@link #partitionTable()} ausgelöst. Danach legt der nächtliche Lauf die Partitionen der
+ * kommenden Perioden an, verschiebt nachgetragene Kurse aus der Default-Partition und hängt auf
+ * Wunsch alte Partitionen zur Archivierung ab. Unter H2 passiert nichts.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HistoricalPricePartitionService {
+
+    private final HistoricalPricePartitionRepository partitionRepository;
+
+    @Value("${stockprice.partitioning.interval:NONE}")
+    private PricePartitioning partitioning = PricePartitioning.NONE;
+
+    @Value("${stockprice.partitioning.periods-ahead:3}")
+    private int periodsAhead = 3;
+
+    // 0 lässt alle Partitionen angehängt
+    @Value("${stockprice.partitioning.retention-years:0}")
+    private int retentionYears;
+
+    /**
+     * Baut {@code historical_prices} in eine partitionierte Tabelle um und legt die kommenden
+     * Partitionen an. Während des Umbaus sind Lese- und Schreibzugriffe auf die Kurse blockiert;
+     * parallele Aufrufe, auch von anderen Instanzen, warten und bauen nicht erneut um.
+     *
+     * @return {@code false}, wenn die Tabelle schon partitioniert ist oder Partitionierung nicht aktiv ist
+     */
+    public boolean partitionTable() {
+        if (!isActive()) {
+            return false;
+        }
+        boolean converted = partitionRepository.partitionTable(partitioning);
+        if (converted) {
+            log.info("Converted historical_prices to {} range partitions", partitioning);
+            maintainPartitions();
+        }
+        return converted;
+    }
+
+    @Scheduled(cron = "${stockprice.partitioning.cron:0 0 2 * * ?}")
+    public void maintainPartitions() {
+        if (!isActive()) {
+            return;
+        }
+        try {
+            if (!partitionRepository.isPartitioned()) {
+                log.warn("historical_prices is not partitioned yet, see POST /api/admin/price-partitions/convert");
+                return;
+            }
+            LocalDate today = LocalDate.now();
+            int created = partitionRepository.createPartitions(today, lastUpcomingDay(today), partitioning);
+            if (created > 0) {
+                log.info("Created {} historical_prices partitions", created);
+            }
+            if (retentionYears > 0) {
+                detachPartitionsBefore(today.minusYears(retentionYears));
+            }
+        } catch (DataAccessException e) {
+            // Die Tabelle arbeitet mit ihren Partitionen weiter; der nächste Lauf versucht es erneut
+            log.error("Maintaining historical_prices partitions failed", e);
+        }
+    }
+
+    /**
+     * Hängt alle Partitionen ab, die vor {@code before} enden. Die abgehängten Tabellen bleiben
+     * als {@code <partition>_archived} erhalten und können archiviert oder gelöscht werden.
+     *
+     * @return Namen der abgehängten Tabellen, leer ohne Partitionierung
+     */
+    public List<String> detachPartitionsBefore(LocalDate before) {
+        if (!isActive()) {
+            return List.of();
+        }
+        List<String> detached = partitionRepository.detachPartitionsBefore(before);
+        if (!detached.isEmpty()) {
+            log.info("Detached historical_prices partitions before {}: {}", before, detached);
+        }
+        return detached;
+    }
+
+    private boolean isActive() {
+        if (partitioning == PricePartitioning.NONE) {
+            return false;
+        }
+        if (!partitionRepository.isSupported()) {
+            log.debug("historical_prices partitioning is only available on PostgreSQL");
+            return false;
+        }
+        return true;
+    }
+
+    private LocalDate lastUpcomingDay(LocalDate today) {
+        return partitioning == PricePartitioning.YEARLY ? today.plusYears(periodsAhead) : today.plusMonths(periodsAhead);
+    }
+}
@@ -0,0 +1,84 @@
+package de.dtonal.stocktracker.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+import de.dtonal.stocktracker.dto.PricePoint;
+import de.dtonal.stocktracker.model.HistoricalPrice;
+import de.dtonal.stocktracker.repository.HistoricalPriceRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Lesespeicher für Kurshistorien, z. B. für Charts und Auswertungen. Die Kurse einer Aktie werden
+ * beim ersten Zugriff einmal aus {@code historical_prices} gelesen und als {@link PriceSeries}
+ * vorgehalten; Stichtagsabfragen sind eine Binärsuche. Neue Kurse trägt das tägliche Update
+ * nach, sobald sie geschrieben sind.
+ */
+@Component
+public class HistoricalPriceStore implements MeterBinder {
+
+    private final HistoricalPriceRepository historicalPriceRepository;
+    private final Map<String, PriceSeries> seriesByStock = new ConcurrentHashMap<>();
+
+    public HistoricalPriceStore(HistoricalPriceRepository historicalPriceRepository) {
+        this.historicalPriceRepository = historicalPriceRepository;
+    }
+
+    /**
+     * Letzter Schlusskurs am oder vor {@code date}.
+     */
+    public Optional<BigDecimal> priceAsOf(String stockId, LocalDate date) {
+        return Optional.ofNullable(series(stockId).priceAsOf(date));
+    }
+
+    /**
+     * Alle Schlusskurse der Aktie von {@code from} bis einschließlich {@code to}, aufsteigend.
+     */
+    public List<PricePoint> pricesBetween(String stockId, LocalDate from, LocalDate to) {
+        return series(stockId).between(stockId, from, to);
+    }
+
+    /**
+     * Übernimmt geschriebene Kurse in bereits geladene Reihen. Nicht geladene Aktien lesen den
+     * Kurs beim ersten Zugriff ohnehin aus der Datenbank.
+     */
+    public void recordAll(Collection<HistoricalPrice> prices) {
+        for (HistoricalPrice price : prices) {
+            seriesByStock.computeIfPresent(price.getStock().getId(),
+                    (stockId, series) -> series.withPriceIfAbsent(price.getDate(), price.getClosingPrice()));
+        }
+    }
+
+    public void evict(String stockId) {
+        seriesByStock.remove(stockId);
+    }
+
+    public void clear() {
+        seriesByStock.clear();
+    }
+
+    public long getPointCount() {
+        return seriesByStock.values().stream().mapToLong(PriceSeries::size).sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("price.store.stocks", seriesByStock, Map::size).register(registry);
+        Gauge.builder("price.store.points", this, HistoricalPriceStore::getPointCount).register(registry);
+    }
+
+    private PriceSeries series(String stockId) {
+        // Das Laden läuft in compute, ein gleichzeitiges recordAll für diese Aktie wartet also darauf
+        return seriesByStock.computeIfAbsent(stockId,
+                id -> PriceSeries.of(historicalPriceRepository.findPricePoints(id)));
+    }
+}
@@ -0,0 +1,129 @@
+package de.dtonal.stocktracker.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import de.dtonal.stocktracker.model.CostBasisMethod;
+import de.dtonal.stocktracker.model.PositionLot;
+import de.dtonal.stocktracker.model.TransactionType;
+
+/**
+ * Lot-Buchführung einer einzelnen Aktie. Käufe hängen ein Lot an die Queue an (bei
+ * Durchschnittskosten wird es mit dem einzigen offenen Lot verschmolzen), Verkäufe verbrauchen
+ * Lots vom Kopf der Queue und realisieren den Gewinn gegen deren Einstandspreis.
+ * Nicht thread-safe.
+ */
+class LotLedger {
+
+    // Entspricht der Skala der gespeicherten Spalten unit_cost und realized_gain
+    static final int COST_SCALE = 9;
+
+    private final CostBasisMethod method;
+    private final ArrayDeque<PositionLot> lots;
+    private BigDecimal realizedGain;
+    private BigDecimal uncoveredQuantity = BigDecimal.ZERO;
+
+    LotLedger(CostBasisMethod method) {
+        this(method, List.of(), BigDecimal.ZERO);
+    }
+
+    LotLedger(CostBasisMethod method, Collection<PositionLot> lots, BigDecimal realizedGain) {
+        this.method = method;
+        this.lots = new ArrayDeque<>(lots.size() + 1);
+        // Kopien, damit ein fehlgeschlagenes apply nie eine halb geänderte Entität hinterlässt
+        lots.forEach(lot -> this.lots.add(new PositionLot(lot.getAcquiredAt(), lot.getQuantity(), lot.getUnitCost())));
+        this.realizedGain = realizedGain;
+    }
+
+    void apply(TransactionType type, LocalDateTime at, BigDecimal quantity, BigDecimal price) {
+        if (type == TransactionType.BUY) {
+            buy(at, quantity, price);
+        } else {
+            sell(quantity, price);
+        }
+    }
+
+    void buy(LocalDateTime at, BigDecimal quantity, BigDecimal price) {
+        if (quantity.signum() <= 0) {
+            return;
+        }
+        PositionLot open = lots.peekLast();
+        if (method == CostBasisMethod.AVERAGE_COST && open != null) {
+            BigDecimal newQuantity = open.getQuantity().add(quantity);
+            BigDecimal newCost = open.getQuantity().multiply(open.getUnitCost()).add(quantity.multiply(price));
+            open.setUnitCost(newCost.divide(newQuantity, COST_SCALE, RoundingMode.HALF_UP));
+            open.setQuantity(newQuantity);
+            return;
+        }
+        lots.addLast(new PositionLot(at, quantity, price.setScale(COST_SCALE, RoundingMode.HALF_UP)));
+    }
+
+    /**
+     * Verbraucht {@code quantity} Stück und liefert den dabei realisierten Gewinn. Übersteigt der
+     * Verkauf den Bestand, wird nur der gedeckte Teil realisiert.
+     */
+    BigDecimal sell(BigDecimal quantity, BigDecimal price) {
+        BigDecimal remaining = quantity;
+        BigDecimal gain = BigDecimal.ZERO;
+        while (remaining.signum() > 0 && !lots.isEmpty()) {
+            PositionLot head = lots.peekFirst();
+            BigDecimal used = head.getQuantity().min(remaining);
+            gain = gain.add(used.multiply(price.subtract(head.getUnitCost())));
+            remaining = remaining.subtract(used);
+            if (used.compareTo(head.getQuantity()) == 0) {
+                lots.pollFirst();
+            } else {
+                head.setQuantity(head.getQuantity().subtract(used));
+            }
+        }
+        if (remaining.signum() > 0) {
+            uncoveredQuantity = uncoveredQuantity.add(remaining);
+        }
+        gain = gain.setScale(COST_SCALE, RoundingMode.HALF_UP);
+        realizedGain = realizedGain.add(gain);
+        return gain;
+    }
+
+    BigDecimal quantity() {
+        BigDecimal quantity = BigDecimal.ZERO;
+        for (PositionLot lot : lots) {
+            quantity = quantity.add(lot.getQuantity());
+        }
+        return quantity;
+    }
+
+    /**
+     * Einstandswert der offenen Lots.
+     */
+    BigDecimal costBasis() {
+        BigDecimal cost = BigDecimal.ZERO;
+        for (PositionLot lot : lots) {
+            cost = cost.add(lot.getQuantity().multiply(lot.getUnitCost()));
+        }
+        return cost.setScale(COST_SCALE, RoundingMode.HALF_UP);
+    }
+
+    BigDecimal unrealizedGain(BigDecimal price) {
+        return quantity().multiply(price).subtract(costBasis());
+    }
+
+    BigDecimal realizedGain() {
+        return realizedGain;
+    }
+
+    /**
+     * Verkaufte Stücke, denen kein offenes Lot gegenüberstand.
+     */
+    BigDecimal uncoveredQuantity() {
+        return uncoveredQuantity;
+    }
+
+    List<PositionLot> lots() {
+        return new ArrayList<>(lots);
+    }
+}
@@ -2,17 +2,17 @@ package de.dtonal.stocktracker.service;
 
 import de.dtonal.stocktracker.model.*;
 import de.dtonal.stocktracker.repository.HistoricalPriceRepository;
+import de.dtonal.stocktracker.repository.PortfolioHoldingRepository;
 import de.dtonal.stocktracker.repository.PortfolioRepository;
-import de.dtonal.stocktracker.repository.StockTransactionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.util.List;
+import java.math.RoundingMode;
 import java.util.Map;
-import java.util.Set;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,26 +21,32 @@ import java.util.stream.Collectors;
 public class PortfolioCalculationServiceImpl implements PortfolioCalculationService {
 
     private final PortfolioRepository portfolioRepository;
-    private final StockTransactionRepository stockTransactionRepository;
+    private final PortfolioHoldingRepository portfolioHoldingRepository;
     private final HistoricalPriceRepository historicalPriceRepository;
+    private final PortfolioValuationCache portfolioValuationCache;
 
     @Override
     @PreAuthorize("@portfolioRepository.isOwnerOfPortfolio(#portfolioId, authentication.name) or hasRole('ADMIN')")
     public BigDecimal getTotalPortfolioValue(String portfolioId) {
+        Optional<BigDecimal> cached = portfolioValuationCache.get(portfolioId);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        long version = portfolioValuationCache.currentVersion();
+
         Portfolio portfolio = portfolioRepository.findById(portfolioId)
                 .orElseThrow(() -> new PortfolioNotFoundException("Portfolio mit ID " + portfolioId + " nicht gefunden"));
 
-        List<StockTransaction> transactions = stockTransactionRepository.findByPortfolioId(portfolio.getId());
-
-        Set<Stock> stocksInPortfolio = transactions.stream()
-                .map(StockTransaction::getStock)
-                .collect(Collectors.toSet());
+        // Bestände werden je Transaktion gepflegt, die Bewertung liest stock_transaction daher nie
+        Map<String, BigDecimal> stockQuantities = portfolioHoldingRepository.findByPortfolioId(portfolio.getId())
+                .stream()
+                .collect(Collectors.toMap(PortfolioHolding::getStockId, PortfolioHolding::getNetQuantity));
 
-        Map<Stock, BigDecimal> stockQuantities = calculateStockQuantities(portfolio.getId(), stocksInPortfolio);
+        Map<String, BigDecimal> latestPrices = historicalPriceRepository.findLatestClosingPrices(stockQuantities.keySet());
 
-        Map<Stock, BigDecimal> latestPrices = fetchLatestPrices(stockQuantities.keySet());
-
-        return calculateTotalValue(stockQuantities, latestPrices);
+        BigDecimal totalValue = calculateTotalValue(stockQuantities, latestPrices);
+        portfolioValuationCache.put(portfolioId, version, totalValue, stockQuantities.keySet());
+        return totalValue;
     }
 
     @Override
@@ -50,53 +56,50 @@ public class PortfolioCalculationServiceImpl implements PortfolioCalculationServ
         portfolioRepository.findById(portfolioId)
                 .orElseThrow(() -> new PortfolioNotFoundException("Portfolio mit ID " + portfolioId + " nicht gefunden"));
 
-        List<StockTransaction> transactions = stockTransactionRepository.findByPortfolioIdAndStockSymbol(portfolioId, stockSymbol);
-        return calculateStockQuantity(transactions);
+        return portfolioHoldingRepository.findNetQuantity(portfolioId, stockSymbol);
     }
 
     // --- Helper methods for pure logic ---
 
-    BigDecimal calculateTotalValue(Map<Stock, BigDecimal> stockQuantities, Map<Stock, BigDecimal> latestPrices) {
-        return stockQuantities.entrySet().stream()
-                .map(entry -> {
-                    Stock stock = entry.getKey();
-                    BigDecimal quantity = entry.getValue();
-                    BigDecimal price = latestPrices.getOrDefault(stock, BigDecimal.ZERO);
-                    BigDecimal value = price.multiply(quantity);
-                    log.info("Stock: {}, Quantity: {}, Price: {}, Value: {}", stock.getSymbol(), quantity, price, value);
-                    return value;
-                })
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    <K> BigDecimal calculateTotalValue(Map<K, BigDecimal> stockQuantities, Map<K, BigDecimal> latestPrices) {
+        try {
+            return calculateTotalValueFixed(stockQuantities, latestPrices);
+        } catch (ArithmeticException e) {
+            log.debug("Fixed-point valuation not exact, falling back to BigDecimal: {}", e.getMessage());
+            return calculateTotalValueExact(stockQuantities, latestPrices);
+        }
     }
 
-    BigDecimal calculateStockQuantity(List<StockTransaction> transactions) {
-        BigDecimal quantity = BigDecimal.ZERO;
-        for (StockTransaction t : transactions) {
-            if (t.getTransactionType() == TransactionType.BUY) {
-                quantity = quantity.add(t.getQuantity());
-            } else {
-                quantity = quantity.subtract(t.getQuantity());
+    /**
+     * Bewertung auf Festkomma-Werten; wirft {@link ArithmeticException}, wenn ein Wert nicht exakt
+     * darstellbar ist oder die Summe überläuft. Gerechnet wird mit {@link FixedPointValuation#VALUE_SCALE}
+     * Nachkommastellen, zurückgegeben wird dieselbe Skala wie bei {@link #calculateTotalValueExact}.
+     */
+    <K> BigDecimal calculateTotalValueFixed(Map<K, BigDecimal> stockQuantities, Map<K, BigDecimal> latestPrices) {
+        long[] quantities = new long[stockQuantities.size()];
+        long[] prices = new long[stockQuantities.size()];
+        int count = 0;
+        // Skala der Summe der Produkte price * quantity, wie sie die BigDecimal-Rechnung liefert
+        int scale = 0;
+        for (Map.Entry<K, BigDecimal> entry : stockQuantities.entrySet()) {
+            BigDecimal price = latestPrices.getOrDefault(entry.getKey(), BigDecimal.ZERO);
+            scale = Math.max(scale, price.scale() + entry.getValue().scale());
+            if (price.signum() == 0) {
+                continue;
             }
+            quantities[count] = FixedPointValuation.toFixed(entry.getValue(), FixedPointValuation.QUANTITY_SCALE);
+            prices[count++] = FixedPointValuation.toFixed(price, FixedPointValuation.PRICE_SCALE);
         }
-        return quantity;
+        return FixedPointValuation.toBigDecimal(FixedPointValuation.totalValue(quantities, prices, count),
+                FixedPointValuation.VALUE_SCALE).setScale(scale, RoundingMode.UNNECESSARY);
     }
 
-    // --- Helper methods with dependencies ---
-
-    private Map<Stock, BigDecimal> calculateStockQuantities(String portfolioId, Set<Stock> stocks) {
-        return stocks.stream().collect(Collectors.toMap(
-                s -> s,
-                s -> getStockQuantity(portfolioId, s.getSymbol())
-        ));
-    }
-
-    private Map<Stock, BigDecimal> fetchLatestPrices(Set<Stock> stocks) {
-        return stocks.stream()
-                .collect(Collectors.toMap(
-                        stock -> stock,
-                        stock -> historicalPriceRepository.findFirstByStockOrderByDateDesc(stock)
-                                .map(HistoricalPrice::getClosingPrice)
-                                .orElse(BigDecimal.ZERO)
-                ));
+    <K> BigDecimal calculateTotalValueExact(Map<K, BigDecimal> stockQuantities, Map<K, BigDecimal> latestPrices) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Map.Entry<K, BigDecimal> entry : stockQuantities.entrySet()) {
+            BigDecimal price = latestPrices.getOrDefault(entry.getKey(), BigDecimal.ZERO);
+            total = total.add(price.multiply(entry.getValue()));
+        }
+        return total;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,107 @@
+package de.dtonal.stocktracker.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import de.dtonal.stocktracker.dto.HistoryInterval;
+import de.dtonal.stocktracker.dto.PortfolioValuePoint;
+import de.dtonal.stocktracker.dto.PricePoint;
+import de.dtonal.stocktracker.dto.QuantityChange;
+import de.dtonal.stocktracker.model.PortfolioHolding;
+import de.dtonal.stocktracker.repository.HistoricalPriceRepository;
+import de.dtonal.stocktracker.repository.PortfolioHoldingRepository;
+import de.dtonal.stocktracker.repository.StockTransactionRepository;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Berechnet die Wertentwicklung eines Portfolios in einem einzigen geordneten Durchlauf: Die nach
+ * Datum sortierten Transaktionen und Kurse werden zusammengeführt, Stückzahlen laufend
+ * fortgeschrieben und fehlende Kurse mit dem letzten bekannten Kurs aufgefüllt. Der Aufwand ist
+ * linear in der Zahl der gelesenen Zeilen und Tage; die Punkte werden sofort weitergereicht.
+ */
+@Service
+@RequiredArgsConstructor
+public class PortfolioHistoryService {
+
+    static final int VALUE_SCALE = 2;
+
+    private final StockTransactionRepository stockTransactionRepository;
+    private final HistoricalPriceRepository historicalPriceRepository;
+    private final PortfolioHoldingRepository portfolioHoldingRepository;
+
+    @Transactional(readOnly = true)
+    @PreAuthorize("@portfolioRepository.isOwnerOfPortfolio(#portfolioId, authentication.name) or hasRole('ADMIN')")
+    public void streamHistory(String portfolioId, LocalDate from, LocalDate to, HistoryInterval interval,
+            Consumer<PortfolioValuePoint> consumer) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        readHistory(portfolioId, from, to, interval, consumer);
+    }
+
+    /**
+     * Wie {@link #streamHistory}, aber ohne Berechtigungsprüfung; für Hintergrundjobs wie den
+     * täglichen Snapshot.
+     */
+    @Transactional(readOnly = true)
+    public void readHistory(String portfolioId, LocalDate from, LocalDate to, HistoryInterval interval,
+            Consumer<PortfolioValuePoint> consumer) {
+        Set<String> stockIds = portfolioHoldingRepository.findByPortfolioId(portfolioId).stream()
+                .map(PortfolioHolding::getStockId)
+                .collect(Collectors.toSet());
+        // Das Fortschreiben beginnt beim letzten Kurs vor dem Zeitraum
+        Map<String, BigDecimal> seedPrices = historicalPriceRepository.findClosingPricesAsOf(stockIds, from.minusDays(1));
+
+        try (Stream<QuantityChange> changes = stockTransactionRepository.streamQuantityChanges(portfolioId,
+                to.plusDays(1).atStartOfDay());
+                Stream<PricePoint> prices = historicalPriceRepository.streamPortfolioPrices(portfolioId, from, to)) {
+            merge(changes.iterator(), prices.iterator(), seedPrices, from, to, interval, consumer);
+        }
+    }
+
+    /**
+     * Führt die beiden nach Datum sortierten Folgen zusammen und meldet für jeden Periodenabschluss
+     * (sowie für {@code to}) den Wert am Tagesende. Die Summe wird bei jeder Änderung nur um die
+     * Differenz der betroffenen Position angepasst.
+     */
+    static void merge(Iterator<QuantityChange> changes, Iterator<PricePoint> prices, Map<String, BigDecimal> seedPrices,
+            LocalDate from, LocalDate to, HistoryInterval interval, Consumer<PortfolioValuePoint> consumer) {
+        Map<String, BigDecimal> quantities = new HashMap<>();
+        Map<String, BigDecimal> lastPrices = new HashMap<>(seedPrices);
+        BigDecimal total = BigDecimal.ZERO;
+
+        QuantityChange nextChange = changes.hasNext() ? changes.next() : null;
+        PricePoint nextPrice = prices.hasNext() ? prices.next() : null;
+
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            while (nextChange != null && !nextChange.transactionDate().toLocalDate().isAfter(day)) {
+                BigDecimal price = lastPrices.getOrDefault(nextChange.stockId(), BigDecimal.ZERO);
+                quantities.merge(nextChange.stockId(), nextChange.quantity(), BigDecimal::add);
+                total = total.add(nextChange.quantity().multiply(price));
+                nextChange = changes.hasNext() ? changes.next() : null;
+            }
+            while (nextPrice != null && !nextPrice.date().isAfter(day)) {
+                BigDecimal quantity = quantities.getOrDefault(nextPrice.stockId(), BigDecimal.ZERO);
+                BigDecimal previous = lastPrices.put(nextPrice.stockId(), nextPrice.closingPrice());
+                BigDecimal delta = nextPrice.closingPrice().subtract(previous == null ? BigDecimal.ZERO : previous);
+                total = total.add(quantity.multiply(delta));
+                nextPrice = prices.hasNext() ? prices.next() : null;
+            }
+            if (interval.closesOn(day) || day.equals(to)) {
+                consumer.accept(new PortfolioValuePoint(day, total.setScale(VALUE_SCALE, RoundingMode.HALF_UP)));
+            }
+        }
+    }
+}
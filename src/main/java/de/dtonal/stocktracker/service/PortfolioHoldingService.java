@@ -0,0 +1,168 @@
+package de.dtonal.stocktracker.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import de.dtonal.stocktracker.dto.HoldingsCheckReport;
+import de.dtonal.stocktracker.model.PortfolioHolding;
+import de.dtonal.stocktracker.model.PortfolioHoldingId;
+import de.dtonal.stocktracker.model.PortfolioHoldingsChangedEvent;
+import de.dtonal.stocktracker.model.StockTransaction;
+import de.dtonal.stocktracker.model.TransactionType;
+import de.dtonal.stocktracker.repository.PortfolioHoldingRepository;
+import de.dtonal.stocktracker.repository.PortfolioRepository;
+import de.dtonal.stocktracker.repository.StockTransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Schreibt das Lesemodell {@code portfolio_holding} fort. Die Methoden laufen in der Transaktion
+ * des Aufrufers, sodass Bestand und Transaktion gemeinsam festgeschrieben werden. Jede Änderung
+ * sperrt zuerst die Portfolio-Zeile; so laufen auch zwei erste Transaktionen derselben Aktie
+ * nacheinander, statt beide eine neue Bestandszeile anzulegen.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PortfolioHoldingService {
+
+    private final PortfolioHoldingRepository portfolioHoldingRepository;
+    private final PortfolioRepository portfolioRepository;
+    private final StockTransactionRepository stockTransactionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public void applyAdded(String portfolioId, StockTransaction transaction) {
+        String stockId = transaction.getStock().getId();
+        portfolioRepository.lockById(portfolioId);
+        PortfolioHolding holding = portfolioHoldingRepository.findForUpdate(portfolioId, stockId)
+                .orElseGet(() -> new PortfolioHolding(portfolioId, stockId));
+
+        holding.setNetQuantity(holding.getNetQuantity().add(signedQuantity(transaction)));
+        holding.setTotalCost(holding.getTotalCost().add(signedCost(transaction)));
+        holding.setTransactionCount(holding.getTransactionCount() + 1);
+        if (holding.getLastTransactionAt() == null || transaction.getTransactionDate().isAfter(holding.getLastTransactionAt())) {
+            holding.setLastTransactionAt(transaction.getTransactionDate());
+        }
+        portfolioHoldingRepository.save(holding);
+        eventPublisher.publishEvent(changedSince(portfolioId, transaction));
+    }
+
+    @Transactional
+    public void applyRemoved(String portfolioId, StockTransaction transaction) {
+        String stockId = transaction.getStock().getId();
+        portfolioRepository.lockById(portfolioId);
+        PortfolioHolding holding = portfolioHoldingRepository.findForUpdate(portfolioId, stockId).orElse(null);
+        if (holding == null) {
+            log.warn("No holding for portfolio {} and stock {} while removing transaction {}; run the holdings rebuild.",
+                    portfolioId, stockId, transaction.getId());
+            return;
+        }
+
+        if (holding.getTransactionCount() <= 1) {
+            portfolioHoldingRepository.delete(holding);
+            eventPublisher.publishEvent(changedSince(portfolioId, transaction));
+            return;
+        }
+        holding.setNetQuantity(holding.getNetQuantity().subtract(signedQuantity(transaction)));
+        holding.setTotalCost(holding.getTotalCost().subtract(signedCost(transaction)));
+        holding.setTransactionCount(holding.getTransactionCount() - 1);
+        if (Objects.equals(holding.getLastTransactionAt(), transaction.getTransactionDate())) {
+            holding.setLastTransactionAt(stockTransactionRepository
+                    .findLatestTransactionDate(portfolioId, stockId, transaction.getId())
+                    .orElse(null));
+        }
+        portfolioHoldingRepository.save(holding);
+        eventPublisher.publishEvent(changedSince(portfolioId, transaction));
+    }
+
+    @Transactional
+    public void deleteForPortfolio(String portfolioId) {
+        portfolioHoldingRepository.deleteByPortfolioId(portfolioId);
+        eventPublisher.publishEvent(new PortfolioHoldingsChangedEvent(portfolioId));
+    }
+
+    /**
+     * Gleicht alle Bestände mit den Transaktionen ab und baut abweichende neu auf, wenn
+     * {@code repair} gesetzt ist.
+     */
+    @Transactional
+    public HoldingsCheckReport verify(boolean repair) {
+        Map<PortfolioHoldingId, PortfolioHolding> expected = stockTransactionRepository.aggregateHoldings().stream()
+                .collect(Collectors.toMap(PortfolioHolding::getId, Function.identity()));
+        Map<PortfolioHoldingId, PortfolioHolding> actual = portfolioHoldingRepository.findAll().stream()
+                .collect(Collectors.toMap(PortfolioHolding::getId, Function.identity()));
+
+        Set<PortfolioHoldingId> keys = new HashSet<>(expected.keySet());
+        keys.addAll(actual.keySet());
+
+        int mismatches = 0;
+        for (PortfolioHoldingId key : keys) {
+            PortfolioHolding expectedHolding = expected.get(key);
+            PortfolioHolding actualHolding = actual.get(key);
+            if (matches(expectedHolding, actualHolding)) {
+                continue;
+            }
+            mismatches++;
+            log.warn("Holding mismatch for {}: expected {}, stored {}", key, expectedHolding, actualHolding);
+            if (!repair) {
+                continue;
+            }
+            eventPublisher.publishEvent(new PortfolioHoldingsChangedEvent(key.getPortfolioId()));
+            if (expectedHolding == null) {
+                portfolioHoldingRepository.delete(actualHolding);
+            } else if (actualHolding == null) {
+                portfolioHoldingRepository.save(expectedHolding);
+            } else {
+                actualHolding.setNetQuantity(expectedHolding.getNetQuantity());
+                actualHolding.setTotalCost(expectedHolding.getTotalCost());
+                actualHolding.setTransactionCount(expectedHolding.getTransactionCount());
+                actualHolding.setLastTransactionAt(expectedHolding.getLastTransactionAt());
+            }
+        }
+        log.info("Checked {} holdings against stock_transaction: {} mismatches{}.", expected.size(), mismatches,
+                repair && mismatches > 0 ? " repaired" : "");
+        return new HoldingsCheckReport(expected.size(), mismatches, repair);
+    }
+
+    private boolean matches(PortfolioHolding expected, PortfolioHolding actual) {
+        if (expected == null || actual == null) {
+            return expected == actual;
+        }
+        return expected.getNetQuantity().compareTo(actual.getNetQuantity()) == 0
+                && expected.getTotalCost().compareTo(actual.getTotalCost()) == 0
+                && expected.getTransactionCount() == actual.getTransactionCount()
+                && Objects.equals(truncate(expected.getLastTransactionAt()), truncate(actual.getLastTransactionAt()));
+    }
+
+    private static LocalDateTime truncate(LocalDateTime dateTime) {
+        // Datenbanken speichern Zeitstempel höchstens auf die Mikrosekunde genau
+        return dateTime == null ? null : dateTime.truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private static PortfolioHoldingsChangedEvent changedSince(String portfolioId, StockTransaction transaction) {
+        return new PortfolioHoldingsChangedEvent(portfolioId, transaction.getTransactionDate().toLocalDate());
+    }
+
+    private static BigDecimal signedQuantity(StockTransaction transaction) {
+        return transaction.getTransactionType() == TransactionType.BUY
+                ? transaction.getQuantity()
+                : transaction.getQuantity().negate();
+    }
+
+    private static BigDecimal signedCost(StockTransaction transaction) {
+        BigDecimal cost = transaction.getQuantity().multiply(transaction.getPricePerShare());
+        return transaction.getTransactionType() == TransactionType.BUY ? cost : cost.negate();
+    }
+}
@@ -0,0 +1,120 @@
+package de.dtonal.stocktracker.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import de.dtonal.stocktracker.dto.CashFlow;
+import de.dtonal.stocktracker.dto.HistoryInterval;
+import de.dtonal.stocktracker.dto.PortfolioReturns;
+import de.dtonal.stocktracker.model.PortfolioDailyValue;
+import de.dtonal.stocktracker.repository.PortfolioDailyValueRepository;
+import de.dtonal.stocktracker.repository.StockTransactionRepository;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Berechnet geldgewichtete (XIRR) und zeitgewichtete Rendite (TWR) eines Portfolios für einen
+ * beliebigen Zeitraum. Zahlungen und Tageswerte werden einmal in primitive Arrays gelesen; die
+ * Iteration läuft in {@link ReturnMath} ohne BigDecimal. Tageswerte kommen aus
+ * {@code portfolio_daily_value}, sofern der Zeitraum dort lückenlos vorliegt, sonst aus der
+ * Wertentwicklung.
+ */
+@Service
+@RequiredArgsConstructor
+public class PortfolioReturnsService {
+
+    private static final int RATE_SCALE = 6;
+    private static final int VALUE_SCALE = 2;
+
+    private final StockTransactionRepository stockTransactionRepository;
+    private final PortfolioDailyValueRepository portfolioDailyValueRepository;
+    private final PortfolioHistoryService portfolioHistoryService;
+
+    @Transactional(readOnly = true)
+    @PreAuthorize("@portfolioRepository.isOwnerOfPortfolio(#portfolioId, authentication.name) or hasRole('ADMIN')")
+    public PortfolioReturns getReturns(String portfolioId, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        int days = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        // values[0] ist der Schlusswert des Tages vor dem Zeitraum, values[i] der von from + i - 1
+        double[] values = dailyValues(portfolioId, from.minusDays(1), to, days + 1);
+        double[] flows = new double[days + 1];
+
+        // XIRR-Reihe: Anfangswert als Einzahlung, jede Transaktion, Endwert als Auszahlung
+        double[] amounts = new double[64];
+        int[] epochDays = new int[64];
+        int count = 0;
+        amounts[count] = -values[0];
+        epochDays[count++] = (int) from.toEpochDay();
+
+        BigDecimal netContributions = BigDecimal.ZERO;
+        try (Stream<CashFlow> cashFlows = stockTransactionRepository.streamCashFlows(portfolioId, from.atStartOfDay(),
+                to.plusDays(1).atStartOfDay())) {
+            Iterator<CashFlow> iterator = cashFlows.iterator();
+            while (iterator.hasNext()) {
+                CashFlow cashFlow = iterator.next();
+                double amount = cashFlow.amount().doubleValue();
+                int epochDay = (int) cashFlow.transactionDate().toLocalDate().toEpochDay();
+                flows[(int) (epochDay - from.toEpochDay()) + 1] += amount;
+                netContributions = netContributions.add(cashFlow.amount());
+
+                if (count == amounts.length) {
+                    amounts = Arrays.copyOf(amounts, count * 2);
+                    epochDays = Arrays.copyOf(epochDays, count * 2);
+                }
+                // Ein Kauf ist Geld, das der Anleger einzahlt
+                amounts[count] = -amount;
+                epochDays[count++] = epochDay;
+            }
+        }
+        if (count == amounts.length) {
+            amounts = Arrays.copyOf(amounts, count + 1);
+            epochDays = Arrays.copyOf(epochDays, count + 1);
+        }
+        amounts[count] = values[days];
+        epochDays[count++] = (int) to.toEpochDay();
+
+        return new PortfolioReturns(from, to,
+                value(values[0]),
+                value(values[days]),
+                netContributions.setScale(VALUE_SCALE, RoundingMode.HALF_UP),
+                rate(ReturnMath.xirr(amounts, epochDays, count)),
+                rate(ReturnMath.twr(values, flows, days + 1)));
+    }
+
+    private double[] dailyValues(String portfolioId, LocalDate first, LocalDate last, int length) {
+        double[] values = new double[length];
+        List<PortfolioDailyValue> snapshots = portfolioDailyValueRepository
+                .findByPortfolioIdAndDateBetweenOrderByDateAsc(portfolioId, first, last);
+        if (snapshots.size() == length) {
+            for (int i = 0; i < length; i++) {
+                values[i] = snapshots.get(i).getValue().doubleValue();
+            }
+            return values;
+        }
+        portfolioHistoryService.readHistory(portfolioId, first, last, HistoryInterval.DAILY,
+                point -> values[(int) ChronoUnit.DAYS.between(first, point.date())] = point.value().doubleValue());
+        return values;
+    }
+
+    private static BigDecimal rate(double rate) {
+        if (Double.isNaN(rate) || Double.isInfinite(rate)) {
+            return null;
+        }
+        return BigDecimal.valueOf(rate).setScale(RATE_SCALE, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal value(double value) {
+        return BigDecimal.valueOf(value).setScale(VALUE_SCALE, RoundingMode.HALF_UP);
+    }
+}
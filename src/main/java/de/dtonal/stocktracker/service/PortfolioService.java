@@ -1,13 +1,22 @@
 package de.dtonal.stocktracker.service;
 
+import de.dtonal.stocktracker.dto.HistoryInterval;
 import de.dtonal.stocktracker.dto.PortfolioCreateRequest;
+import de.dtonal.stocktracker.dto.PortfolioReturns;
+import de.dtonal.stocktracker.dto.PortfolioSummary;
 import de.dtonal.stocktracker.dto.PortfolioUpdateRequest;
+import de.dtonal.stocktracker.dto.PortfolioValuePoint;
+import de.dtonal.stocktracker.dto.PositionProfitLoss;
 import de.dtonal.stocktracker.dto.StockTransactionRequest;
+import de.dtonal.stocktracker.dto.TransactionFilter;
+import de.dtonal.stocktracker.dto.TransactionPage;
 import de.dtonal.stocktracker.model.Portfolio;
 import de.dtonal.stocktracker.model.StockTransaction;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface PortfolioService {
 
@@ -15,17 +24,28 @@ public interface PortfolioService {
 
     Portfolio updatePortfolio(String portfolioId, PortfolioUpdateRequest updateRequest);
 
-    List<Portfolio> findPortfoliosForCurrentUser();
+    List<PortfolioSummary> findPortfolioSummariesForCurrentUser();
 
     Optional<Portfolio> findById(String id);
 
+    Optional<Portfolio> findByIdWithTransactions(String id);
+
     StockTransaction addStockTransaction(String portfolioId, StockTransactionRequest transactionRequest);
 
     void deleteStockTransaction(String portfolioId, String transactionId);
 
+    TransactionPage getTransactions(String portfolioId, TransactionFilter filter, String cursor, int limit);
+
     BigDecimal getStockQuantity(String portfolioId, String stockSymbol);
     
     BigDecimal getTotalPortfolioValue(String portfolioId);
 
+    void streamPortfolioHistory(String portfolioId, LocalDate from, LocalDate to, HistoryInterval interval,
+            Consumer<PortfolioValuePoint> consumer);
+
+    List<PositionProfitLoss> getProfitAndLoss(String portfolioId);
+
+    PortfolioReturns getReturns(String portfolioId, LocalDate from, LocalDate to);
+
     void deletePortfolio(String portfolioId);
 }
@@ -1,8 +1,10 @@
 package de.dtonal.stocktracker.service;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
@@ -12,9 +14,16 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import de.dtonal.stocktracker.dto.HistoryInterval;
 import de.dtonal.stocktracker.dto.PortfolioCreateRequest;
+import de.dtonal.stocktracker.dto.PortfolioReturns;
+import de.dtonal.stocktracker.dto.PortfolioSummary;
 import de.dtonal.stocktracker.dto.PortfolioUpdateRequest;
+import de.dtonal.stocktracker.dto.PortfolioValuePoint;
+import de.dtonal.stocktracker.dto.PositionProfitLoss;
 import de.dtonal.stocktracker.dto.StockTransactionRequest;
+import de.dtonal.stocktracker.dto.TransactionFilter;
+import de.dtonal.stocktracker.dto.TransactionPage;
 import de.dtonal.stocktracker.model.Portfolio;
 import de.dtonal.stocktracker.model.PortfolioNotFoundException;
 import de.dtonal.stocktracker.model.Role;
@@ -34,6 +43,10 @@ public class PortfolioServiceImpl implements PortfolioService {
     private final UserRepository userRepository;
     private final TransactionService transactionService;
     private final PortfolioCalculationService portfolioCalculationService;
+    private final PortfolioHoldingService portfolioHoldingService;
+    private final PortfolioHistoryService portfolioHistoryService;
+    private final CostBasisService costBasisService;
+    private final PortfolioReturnsService portfolioReturnsService;
 
     @Override
     @Transactional
@@ -47,9 +60,10 @@ public class PortfolioServiceImpl implements PortfolioService {
     }
 
     @Override
-    public List<Portfolio> findPortfoliosForCurrentUser() {
+    @Transactional(readOnly = true)
+    public List<PortfolioSummary> findPortfolioSummariesForCurrentUser() {
         User user = getCurrentUser();
-        return portfolioRepository.findByUserId(user.getId());
+        return portfolioRepository.findSummariesByUserId(user.getId());
     }
 
     @Override
@@ -69,12 +83,25 @@ public class PortfolioServiceImpl implements PortfolioService {
         }
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Portfolio> findByIdWithTransactions(String id) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return portfolioRepository.findWithTransactionsById(id)
+                .filter(portfolio -> isUserOwnerOrAdmin(portfolio, authentication));
+    }
+
     @Override
     @Transactional
     public StockTransaction addStockTransaction(String portfolioId, StockTransactionRequest transactionRequest) {
         return transactionService.addStockTransaction(portfolioId, transactionRequest);
     }
 
+    @Override
+    public TransactionPage getTransactions(String portfolioId, TransactionFilter filter, String cursor, int limit) {
+        return transactionService.getTransactions(portfolioId, filter, cursor, limit);
+    }
+
     @Override
     public BigDecimal getStockQuantity(String portfolioId, String stockSymbol) {
         return portfolioCalculationService.getStockQuantity(portfolioId, stockSymbol);
@@ -85,6 +112,22 @@ public class PortfolioServiceImpl implements PortfolioService {
         return portfolioCalculationService.getTotalPortfolioValue(portfolioId);
     }
 
+    @Override
+    public void streamPortfolioHistory(String portfolioId, LocalDate from, LocalDate to, HistoryInterval interval,
+            Consumer<PortfolioValuePoint> consumer) {
+        portfolioHistoryService.streamHistory(portfolioId, from, to, interval, consumer);
+    }
+
+    @Override
+    public List<PositionProfitLoss> getProfitAndLoss(String portfolioId) {
+        return costBasisService.getProfitAndLoss(portfolioId);
+    }
+
+    @Override
+    public PortfolioReturns getReturns(String portfolioId, LocalDate from, LocalDate to) {
+        return portfolioReturnsService.getReturns(portfolioId, from, to);
+    }
+
     @Override
     @Transactional
     public void deletePortfolio(String portfolioId) {
@@ -95,6 +138,8 @@ public class PortfolioServiceImpl implements PortfolioService {
 
         authorizePortfolioAccess(portfolio, user);
 
+        portfolioHoldingService.deleteForPortfolio(portfolio.getId());
+        costBasisService.deleteForPortfolio(portfolio.getId());
         portfolioRepository.delete(portfolio);
     }
 
@@ -0,0 +1,268 @@
+package de.dtonal.stocktracker.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import de.dtonal.stocktracker.dto.HistoryInterval;
+import de.dtonal.stocktracker.dto.PortfolioDate;
+import de.dtonal.stocktracker.dto.PortfolioSnapshotReport;
+import de.dtonal.stocktracker.model.PortfolioDailyValue;
+import de.dtonal.stocktracker.model.PortfolioHolding;
+import de.dtonal.stocktracker.model.PortfolioHoldingsChangedEvent;
+import de.dtonal.stocktracker.model.PriceUpdateCompletedEvent;
+import de.dtonal.stocktracker.repository.HistoricalPriceRepository;
+import de.dtonal.stocktracker.repository.PortfolioDailyValueRepository;
+import de.dtonal.stocktracker.repository.PortfolioHoldingRepository;
+import de.dtonal.stocktracker.repository.PortfolioRepository;
+import de.dtonal.stocktracker.repository.StockTransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Schreibt nach dem täglichen Kurs-Update den Schlusswert jedes Portfolios nach
+ * {@code portfolio_daily_value}. Portfolios, deren letzter Snapshot vom Vortag stammt, werden
+ * gemeinsam aus {@code portfolio_holding} und einer einzigen Kursabfrage bewertet. Fehlen Tage,
+ * wird je Portfolio ab dem letzten Snapshot über die Wertentwicklung nachgeholt, parallel auf
+ * virtuellen Threads. Ändern sich Transaktionen rückwirkend, werden die betroffenen Snapshots
+ * gelöscht und beim nächsten Lauf neu berechnet.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PortfolioSnapshotService {
+
+    private final PortfolioRepository portfolioRepository;
+    private final PortfolioHoldingRepository portfolioHoldingRepository;
+    private final StockTransactionRepository stockTransactionRepository;
+    private final HistoricalPriceRepository historicalPriceRepository;
+    private final PortfolioDailyValueRepository portfolioDailyValueRepository;
+    private final PortfolioHistoryService portfolioHistoryService;
+
+    @Value("${portfolio.snapshot.enabled:true}")
+    private boolean enabled;
+
+    @Value("${portfolio.snapshot.max-backfill-days:366}")
+    private int maxBackfillDays;
+
+    @Value("${portfolio.snapshot.concurrency:4}")
+    private int concurrency;
+
+    @Value("${portfolio.snapshot.batch-size:500}")
+    private int batchSize;
+
+    @EventListener
+    public void onPriceUpdateCompleted(PriceUpdateCompletedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        PortfolioSnapshotReport report = snapshotAll(event.date());
+        log.info("Finished portfolio snapshot: {}", report);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onHoldingsChanged(PortfolioHoldingsChangedEvent event) {
+        if (event.since() == null) {
+            portfolioDailyValueRepository.deleteByPortfolioId(event.portfolioId());
+        } else {
+            portfolioDailyValueRepository.deleteFrom(event.portfolioId(), event.since());
+        }
+    }
+
+    /**
+     * Schreibt die fehlenden Tageswerte aller Portfolios bis einschließlich {@code date}. Bereits
+     * vorhandene Tage werden übersprungen; überschneidende Läufe überschreiben sich per Upsert.
+     */
+    public PortfolioSnapshotReport snapshotAll(LocalDate date) {
+        Map<String, LocalDate> lastSnapshots = toMap(portfolioDailyValueRepository.findLastSnapshotDates());
+        Map<String, LocalDate> firstTransactions = toMap(stockTransactionRepository.findFirstTransactionDates());
+        Map<String, List<PortfolioHolding>> holdingsByPortfolio = portfolioHoldingRepository.findAll().stream()
+                .collect(Collectors.groupingBy(PortfolioHolding::getPortfolioId));
+        LocalDate earliest = date.minusDays(Math.max(1, maxBackfillDays) - 1L);
+
+        List<String> current = new ArrayList<>();
+        Map<String, LocalDate> backfill = new LinkedHashMap<>();
+        for (String portfolioId : portfolioRepository.findAllIds()) {
+            LocalDate from = startDate(lastSnapshots.get(portfolioId), firstTransactions.get(portfolioId), date, earliest);
+            List<PortfolioHolding> holdings = holdingsByPortfolio.getOrDefault(portfolioId, List.of());
+            if (from.isAfter(date)) {
+                continue;
+            }
+            if (from.equals(date) && !hasTransactionsAfter(holdings, date)) {
+                current.add(portfolioId);
+            } else {
+                backfill.put(portfolioId, from);
+            }
+        }
+
+        SnapshotWriter writer = new SnapshotWriter(portfolioDailyValueRepository, batchSize);
+        writeCurrent(current, holdingsByPortfolio, date, writer);
+        AtomicInteger failed = new AtomicInteger();
+        writeBackfill(backfill, date, writer, failed);
+        writer.flush();
+
+        // Ein fehlgeschlagener Block darf keine Lücke hinter einem späteren Snapshot hinterlassen; ab dem
+        // ersten verlorenen Tag wird alles verworfen, damit der nächste Lauf es nachträgt.
+        writer.getFailedFrom().forEach(portfolioDailyValueRepository::deleteFrom);
+
+        return new PortfolioSnapshotReport(date, current.size() + backfill.size(), backfill.size(),
+                writer.getWritten(), failed.get() + writer.getFailedFrom().size());
+    }
+
+    private void writeCurrent(List<String> portfolioIds, Map<String, List<PortfolioHolding>> holdingsByPortfolio,
+            LocalDate date, SnapshotWriter writer) {
+        if (portfolioIds.isEmpty()) {
+            return;
+        }
+        Set<String> stockIds = portfolioIds.stream()
+                .flatMap(portfolioId -> holdingsByPortfolio.getOrDefault(portfolioId, List.of()).stream())
+                .map(PortfolioHolding::getStockId)
+                .collect(Collectors.toSet());
+        Map<String, BigDecimal> prices = historicalPriceRepository.findClosingPricesAsOf(stockIds, date);
+
+        for (String portfolioId : portfolioIds) {
+            BigDecimal total = BigDecimal.ZERO;
+            for (PortfolioHolding holding : holdingsByPortfolio.getOrDefault(portfolioId, List.of())) {
+                BigDecimal price = prices.getOrDefault(holding.getStockId(), BigDecimal.ZERO);
+                total = total.add(holding.getNetQuantity().multiply(price));
+            }
+            writer.add(new PortfolioDailyValue(portfolioId, date,
+                    total.setScale(PortfolioHistoryService.VALUE_SCALE, RoundingMode.HALF_UP)));
+        }
+    }
+
+    private void writeBackfill(Map<String, LocalDate> backfill, LocalDate date, SnapshotWriter writer,
+            AtomicInteger failed) {
+        if (backfill.isEmpty()) {
+            return;
+        }
+        // Jedes Portfolio streamt seine Historie in einer eigenen Lesetransaktion; das Semaphor begrenzt,
+        // wie viele Verbindungen das Nachtragen gleichzeitig hält.
+        Semaphore permits = new Semaphore(Math.max(1, concurrency));
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            backfill.forEach((portfolioId, from) -> executor.submit(() -> {
+                permits.acquireUninterruptibly();
+                try {
+                    portfolioHistoryService.readHistory(portfolioId, from, date, HistoryInterval.DAILY,
+                            point -> writer.add(new PortfolioDailyValue(portfolioId, point.date(), point.value())));
+                } catch (Exception e) {
+                    log.error("Could not snapshot portfolio {} from {}", portfolioId, from, e);
+                    failed.incrementAndGet();
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+    }
+
+    private static LocalDate startDate(LocalDate lastSnapshot, LocalDate firstTransaction, LocalDate date,
+            LocalDate earliest) {
+        LocalDate from;
+        if (lastSnapshot != null) {
+            from = lastSnapshot.plusDays(1);
+        } else if (firstTransaction != null && firstTransaction.isBefore(date)) {
+            from = firstTransaction;
+        } else {
+            from = date;
+        }
+        return from.isBefore(earliest) ? earliest : from;
+    }
+
+    private static boolean hasTransactionsAfter(List<PortfolioHolding> holdings, LocalDate date) {
+        // Bestände enthalten schon zukünftig datierte Transaktionen, der Snapshot für date darf das nicht
+        return holdings.stream().anyMatch(holding -> holding.getLastTransactionAt() != null
+                && holding.getLastTransactionAt().toLocalDate().isAfter(date));
+    }
+
+    private static Map<String, LocalDate> toMap(List<PortfolioDate> dates) {
+        Map<String, LocalDate> map = new HashMap<>();
+        dates.forEach(entry -> map.put(entry.portfolioId(), entry.date()));
+        return map;
+    }
+
+    /**
+     * Sammelt Tageswerte und schreibt sie blockweise per Upsert. Thread-safe.
+     */
+    static class SnapshotWriter {
+
+        private final PortfolioDailyValueRepository repository;
+        private final int batchSize;
+        private final AtomicInteger written = new AtomicInteger();
+        private final Map<String, LocalDate> failedFrom = new ConcurrentHashMap<>();
+        private List<PortfolioDailyValue> buffer;
+
+        SnapshotWriter(PortfolioDailyValueRepository repository, int batchSize) {
+            this.repository = repository;
+            this.batchSize = Math.max(1, batchSize);
+            this.buffer = new ArrayList<>(this.batchSize);
+        }
+
+        void add(PortfolioDailyValue value) {
+            List<PortfolioDailyValue> fullBatch = null;
+            synchronized (this) {
+                buffer.add(value);
+                if (buffer.size() >= batchSize) {
+                    fullBatch = buffer;
+                    buffer = new ArrayList<>(batchSize);
+                }
+            }
+            if (fullBatch != null) {
+                write(fullBatch);
+            }
+        }
+
+        void flush() {
+            List<PortfolioDailyValue> remaining;
+            synchronized (this) {
+                remaining = buffer;
+                buffer = new ArrayList<>(batchSize);
+            }
+            if (!remaining.isEmpty()) {
+                write(remaining);
+            }
+        }
+
+        int getWritten() {
+            return written.get();
+        }
+
+        /**
+         * Je Portfolio das früheste Datum, dessen Wert nicht geschrieben werden konnte.
+         */
+        Map<String, LocalDate> getFailedFrom() {
+            return Map.copyOf(failedFrom);
+        }
+
+        private void write(List<PortfolioDailyValue> batch) {
+            try {
+                written.addAndGet(repository.upsertAll(batch));
+            } catch (Exception e) {
+                log.error("Could not write batch of {} portfolio snapshots.", batch.size(), e);
+                for (PortfolioDailyValue value : batch) {
+                    failedFrom.merge(value.getPortfolioId(), value.getDate(),
+                            (existing, date) -> date.isBefore(existing) ? date : existing);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package de.dtonal.stocktracker.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import de.dtonal.stocktracker.model.PortfolioHoldingsChangedEvent;
+import de.dtonal.stocktracker.model.StockPricesUpdatedEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Hält den Gesamtwert je Portfolio vor. Einträge werden gezielt verworfen: Bestandsänderungen
+ * verwerfen das betroffene Portfolio, neue Kurse über einen Rückwärtsindex Aktie→Portfolios nur
+ * die Portfolios, die diese Aktie halten. Die TTL ist lediglich ein Sicherheitsnetz.
+ * <p>
+ * Ein Wert, dessen Laden vor einer Invalidierung begann, wird nicht gespeichert. Dafür merkt sich
+ * der Cache je Portfolio und je Aktie den Stand der letzten Invalidierung; ein Ereignis verwirft
+ * also nur Ladevorgänge der Portfolios, die es betrifft.
+ */
+@Component
+public class PortfolioValuationCache implements MeterBinder {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final LinkedHashMap<String, Valuation> valuations;
+    private final Map<String, Set<String>> portfoliosByStock = new HashMap<>();
+    // Zählt Invalidierungen; die Maps halten den Stand der letzten, die ein Portfolio bzw. eine Aktie betraf
+    private long version;
+    private final Map<String, Long> portfolioVersions = new HashMap<>();
+    private final Map<String, Long> stockVersions = new HashMap<>();
+    // Ladevorgänge, die vor diesem Stand begannen, werden verworfen, auch nach dem Leeren der Maps
+    private long versionFloor;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    private record Valuation(BigDecimal totalValue, Set<String> stockIds, long storedAt) {
+    }
+
+    @Autowired
+    public PortfolioValuationCache(@Value("${portfolio.valuation-cache.max-size:10000}") int maxSize,
+            @Value("${portfolio.valuation-cache.ttl:1h}") Duration ttl) {
+        this(maxSize, ttl, System::nanoTime);
+    }
+
+    PortfolioValuationCache(int maxSize, Duration ttl, LongSupplier nanoClock) {
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+        this.valuations = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Valuation> eldest) {
+                if (size() > PortfolioValuationCache.this.maxSize) {
+                    unindex(eldest.getKey(), eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized Optional<BigDecimal> get(String portfolioId) {
+        Valuation valuation = valuations.get(portfolioId);
+        if (valuation != null && nanoClock.getAsLong() - valuation.storedAt() <= ttlNanos) {
+            hits.increment();
+            return Optional.of(valuation.totalValue());
+        }
+        if (valuation != null) {
+            remove(portfolioId);
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Stand der Invalidierungen; vor dem Laden abfragen und an {@link #put} übergeben.
+     */
+    public synchronized long currentVersion() {
+        return version;
+    }
+
+    /**
+     * Speichert den Wert, sofern seit {@code loadVersion} weder das Portfolio noch eine der Aktien
+     * {@code stockIds} invalidiert wurde. Andernfalls könnte der Wert auf einem bereits überholten
+     * Stand beruhen und wird verworfen.
+     */
+    public synchronized void put(String portfolioId, long loadVersion, BigDecimal totalValue, Set<String> stockIds) {
+        if (isStale(portfolioId, loadVersion, stockIds)) {
+            return;
+        }
+        remove(portfolioId);
+        Valuation valuation = new Valuation(totalValue, Set.copyOf(stockIds), nanoClock.getAsLong());
+        valuations.put(portfolioId, valuation);
+        for (String stockId : valuation.stockIds()) {
+            portfoliosByStock.computeIfAbsent(stockId, key -> new HashSet<>()).add(portfolioId);
+        }
+    }
+
+    public synchronized void invalidate(String portfolioId) {
+        record(portfolioVersions, portfolioId);
+        if (remove(portfolioId)) {
+            invalidations.increment();
+        }
+    }
+
+    public synchronized void invalidateStocks(Set<String> stockIds) {
+        for (String stockId : stockIds) {
+            record(stockVersions, stockId);
+            Set<String> portfolioIds = portfoliosByStock.get(stockId);
+            if (portfolioIds == null) {
+                continue;
+            }
+            for (String portfolioId : Set.copyOf(portfolioIds)) {
+                if (remove(portfolioId)) {
+                    invalidations.increment();
+                }
+            }
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        versionFloor = ++version;
+        portfolioVersions.clear();
+        stockVersions.clear();
+        valuations.clear();
+        portfoliosByStock.clear();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHoldingsChanged(PortfolioHoldingsChangedEvent event) {
+        invalidate(event.portfolioId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPricesUpdated(StockPricesUpdatedEvent event) {
+        invalidateStocks(event.stockIds());
+    }
+
+    public synchronized int size() {
+        return valuations.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("portfolio.valuation.cache.hits", this, PortfolioValuationCache::getHits).register(registry);
+        FunctionCounter.builder("portfolio.valuation.cache.misses", this, PortfolioValuationCache::getMisses).register(registry);
+        FunctionCounter.builder("portfolio.valuation.cache.invalidations", this, PortfolioValuationCache::getInvalidations)
+                .register(registry);
+        Gauge.builder("portfolio.valuation.cache.size", this, PortfolioValuationCache::size).register(registry);
+    }
+
+    private boolean isStale(String portfolioId, long loadVersion, Set<String> stockIds) {
+        if (loadVersion < versionFloor || portfolioVersions.getOrDefault(portfolioId, 0L) > loadVersion) {
+            return true;
+        }
+        return stockIds.stream().anyMatch(stockId -> stockVersions.getOrDefault(stockId, 0L) > loadVersion);
+    }
+
+    private void record(Map<String, Long> versions, String key) {
+        versions.put(key, ++version);
+        if (versions.size() > maxSize) {
+            // Begrenzt den Speicher; laufende Ladevorgänge gelten danach alle als überholt
+            portfolioVersions.clear();
+            stockVersions.clear();
+            versionFloor = version;
+        }
+    }
+
+    private boolean remove(String portfolioId) {
+        Valuation removed = valuations.remove(portfolioId);
+        if (removed == null) {
+            return false;
+        }
+        unindex(portfolioId, removed);
+        return true;
+    }
+
+    private void unindex(String portfolioId, Valuation valuation) {
+        for (String stockId : valuation.stockIds()) {
+            Set<String> portfolioIds = portfoliosByStock.get(stockId);
+            if (portfolioIds != null) {
+                portfolioIds.remove(portfolioId);
+                if (portfolioIds.isEmpty()) {
+                    portfoliosByStock.remove(stockId);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package de.dtonal.stocktracker.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import de.dtonal.stocktracker.dto.HistoryInterval;
+import de.dtonal.stocktracker.dto.PriceBar;
+import de.dtonal.stocktracker.dto.PriceHistory;
+import de.dtonal.stocktracker.dto.PricePoint;
+import de.dtonal.stocktracker.model.PriceRollup;
+import de.dtonal.stocktracker.model.PriceUpdateCompletedEvent;
+import de.dtonal.stocktracker.model.Stock;
+import de.dtonal.stocktracker.repository.HistoricalPriceRepository;
+import de.dtonal.stocktracker.repository.PriceRollupRepository;
+import de.dtonal.stocktracker.repository.StockRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pflegt wöchentliche und monatliche Verdichtungen der Schlusskurse in {@code price_rollups} und
+ * liefert Kursverläufe in der gröbsten Auflösung, die noch die gewünschte Punktzahl erreicht.
+ * Nach jedem Kurs-Update werden nur die Woche und der Monat des Update-Tags neu berechnet; für
+ * nachgetragene ältere Kurse gibt es {@link #rebuildAll()}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PriceRollupService {
+
+    static final List<HistoryInterval> RESOLUTIONS = List.of(HistoryInterval.WEEKLY, HistoryInterval.MONTHLY);
+
+    static final int AVERAGE_SCALE = 6;
+
+    // Hält die IN-Liste der Kursabfrage in dem Rahmen, den jede Datenbank akzeptiert
+    private static final int IN_LIST_CHUNK_SIZE = 1000;
+
+    private final HistoricalPriceRepository historicalPriceRepository;
+    private final PriceRollupRepository priceRollupRepository;
+    private final StockRepository stockRepository;
+    private final HistoricalPriceStore historicalPriceStore;
+
+    @Value("${stockprice.rollup.enabled:true}")
+    private boolean enabled = true;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        // Kurse aus der Zeit vor der Rollup-Tabelle werden einmal verdichtet
+        if (enabled && priceRollupRepository.count() == 0 && historicalPriceRepository.count() > 0) {
+            log.info("Rebuilt {} price rollups", rebuildAll());
+        }
+    }
+
+    @EventListener
+    public void onPriceUpdateCompleted(PriceUpdateCompletedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        log.info("Updated {} price rollups for {}", updateRollups(event.date()), event.date());
+    }
+
+    /**
+     * Berechnet Woche und Monat von {@code date} für alle Aktien neu, die an diesem Tag einen Kurs
+     * haben.
+     *
+     * @return Anzahl der geschriebenen Verdichtungen
+     */
+    public int updateRollups(LocalDate date) {
+        List<String> stockIds = new ArrayList<>(historicalPriceRepository.findStockIdsWithPriceOnDate(date));
+        // Die Woche von date kann im Vormonat beginnen oder im Folgemonat enden
+        LocalDate from = earlier(HistoryInterval.WEEKLY.periodStart(date), HistoryInterval.MONTHLY.periodStart(date));
+        LocalDate to = later(HistoryInterval.WEEKLY.periodEnd(date), HistoryInterval.MONTHLY.periodEnd(date));
+
+        int written = 0;
+        for (int start = 0; start < stockIds.size(); start += IN_LIST_CHUNK_SIZE) {
+            List<String> chunk = stockIds.subList(start, Math.min(start + IN_LIST_CHUNK_SIZE, stockIds.size()));
+            Map<String, List<PricePoint>> pointsByStock = new LinkedHashMap<>();
+            for (PricePoint point : historicalPriceRepository.findPricePointsBetween(chunk, from, to)) {
+                pointsByStock.computeIfAbsent(point.stockId(), id -> new ArrayList<>()).add(point);
+            }
+
+            List<PriceRollup> rollups = new ArrayList<>();
+            pointsByStock.forEach((stockId, points) -> {
+                for (HistoryInterval resolution : RESOLUTIONS) {
+                    LocalDate periodStart = resolution.periodStart(date);
+                    rollUp(stockId, points, resolution).stream()
+                            .filter(rollup -> rollup.getPeriodStart().equals(periodStart))
+                            .forEach(rollups::add);
+                }
+            });
+            written += priceRollupRepository.upsertAll(rollups);
+        }
+        return written;
+    }
+
+    /**
+     * Berechnet alle Verdichtungen aller Aktien aus den gespeicherten Kursen neu.
+     *
+     * @return Anzahl der geschriebenen Verdichtungen
+     */
+    public int rebuildAll() {
+        int written = 0;
+        for (Stock stock : stockRepository.findAll()) {
+            List<PricePoint> points = historicalPriceRepository.findPricePoints(stock.getId());
+            List<PriceRollup> rollups = new ArrayList<>();
+            for (HistoryInterval resolution : RESOLUTIONS) {
+                rollups.addAll(rollUp(stock.getId(), points, resolution));
+            }
+            written += priceRollupRepository.upsertAll(rollups);
+        }
+        return written;
+    }
+
+    /**
+     * Liefert den Kursverlauf einer Aktie von {@code from} bis {@code to} in der gröbsten Auflösung,
+     * die noch mindestens {@code points} Punkte ergibt. Der erste Balken kann vor {@code from}
+     * beginnen, wenn die Periode dort schon angefangen hat.
+     *
+     * @return leer, wenn die Aktie nicht existiert
+     */
+    public Optional<PriceHistory> getPriceHistory(String stockId, LocalDate from, LocalDate to, int points) {
+        if (!stockRepository.existsById(stockId)) {
+            return Optional.empty();
+        }
+        HistoryInterval resolution = enabled ? HistoryInterval.coarsestFor(from, to, points) : HistoryInterval.DAILY;
+        List<PriceBar> bars;
+        if (resolution == HistoryInterval.DAILY) {
+            bars = historicalPriceStore.pricesBetween(stockId, from, to).stream()
+                    .map(point -> new PriceBar(point.date(), point.closingPrice(), point.closingPrice(),
+                            point.closingPrice(), point.closingPrice(), point.closingPrice()))
+                    .toList();
+        } else {
+            bars = priceRollupRepository.findByStockIdAndResolutionAndPeriodStartBetweenOrderByPeriodStartAsc(
+                    stockId, resolution, resolution.periodStart(from), to).stream()
+                    .map(rollup -> new PriceBar(rollup.getLastDate(), rollup.getOpenPrice(), rollup.getHighPrice(),
+                            rollup.getLowPrice(), rollup.getClosePrice(), rollup.getAvgPrice()))
+                    .toList();
+        }
+        return Optional.of(new PriceHistory(stockId, resolution, bars));
+    }
+
+    /**
+     * Verdichtet die nach Datum sortierten Kurse einer Aktie je Periode der Auflösung.
+     */
+    static List<PriceRollup> rollUp(String stockId, List<PricePoint> points, HistoryInterval resolution) {
+        List<PriceRollup> rollups = new ArrayList<>();
+        PriceRollup current = null;
+        BigDecimal sum = BigDecimal.ZERO;
+        for (PricePoint point : points) {
+            LocalDate periodStart = resolution.periodStart(point.date());
+            BigDecimal price = point.closingPrice();
+            if (current == null || !current.getPeriodStart().equals(periodStart)) {
+                finish(current, sum);
+                current = new PriceRollup(stockId, resolution, periodStart);
+                current.setOpenPrice(price);
+                current.setHighPrice(price);
+                current.setLowPrice(price);
+                rollups.add(current);
+                sum = BigDecimal.ZERO;
+            }
+            current.setHighPrice(current.getHighPrice().max(price));
+            current.setLowPrice(current.getLowPrice().min(price));
+            current.setClosePrice(price);
+            current.setLastDate(point.date());
+            current.setPriceCount(current.getPriceCount() + 1);
+            sum = sum.add(price);
+        }
+        finish(current, sum);
+        return rollups;
+    }
+
+    private static void finish(PriceRollup rollup, BigDecimal sum) {
+        if (rollup != null) {
+            rollup.setAvgPrice(sum.divide(BigDecimal.valueOf(rollup.getPriceCount()), AVERAGE_SCALE,
+                    RoundingMode.HALF_UP));
+        }
+    }
+
+    private static LocalDate earlier(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDate later(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
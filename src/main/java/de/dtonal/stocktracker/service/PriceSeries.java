@@ -0,0 +1,114 @@
+package de.dtonal.stocktracker.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import de.dtonal.stocktracker.dto.PricePoint;
+
+/**
+ * Kursreihe einer Aktie in zwei parallelen Arrays: aufsteigende Epoch-Tage als {@code int} und
+ * Schlusskurse als Festkomma-{@code long} mit {@link FixedPointValuation#PRICE_SCALE}
+ * Nachkommastellen, also 12 Byte je Kurs. Eine Instanz wird nach der Veröffentlichung nicht mehr
+ * verändert; neue Kurse erzeugen eine neue Instanz, die Arrays mit freier Kapazität weiterverwendet.
+ */
+final class PriceSeries {
+
+    static final PriceSeries EMPTY = new PriceSeries(new int[0], new long[0], 0);
+
+    private final int[] days;
+    private final long[] prices;
+    private final int size;
+
+    private PriceSeries(int[] days, long[] prices, int size) {
+        this.days = days;
+        this.prices = prices;
+        this.size = size;
+    }
+
+    /**
+     * Baut die Reihe aus Kursen, die aufsteigend nach Datum sortiert sind.
+     */
+    static PriceSeries of(List<PricePoint> points) {
+        int[] days = new int[points.size()];
+        long[] prices = new long[points.size()];
+        int size = 0;
+        for (PricePoint point : points) {
+            int day = (int) point.date().toEpochDay();
+            if (size > 0 && day <= days[size - 1]) {
+                throw new IllegalArgumentException("Price points must be strictly ascending by date");
+            }
+            days[size] = day;
+            prices[size++] = FixedPointValuation.toFixed(point.closingPrice(), FixedPointValuation.PRICE_SCALE);
+        }
+        return new PriceSeries(days, prices, size);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Letzter Kurs am oder vor {@code date}, oder {@code null}, wenn die Reihe erst später beginnt.
+     */
+    BigDecimal priceAsOf(LocalDate date) {
+        int index = indexAsOf((int) date.toEpochDay());
+        return index < 0 ? null : price(index);
+    }
+
+    /**
+     * Alle Kurse von {@code from} bis einschließlich {@code to}.
+     */
+    List<PricePoint> between(String stockId, LocalDate from, LocalDate to) {
+        int first = indexAsOf((int) from.toEpochDay() - 1) + 1;
+        int last = indexAsOf((int) to.toEpochDay());
+        List<PricePoint> points = new ArrayList<>(Math.max(0, last - first + 1));
+        for (int i = first; i <= last; i++) {
+            points.add(new PricePoint(stockId, LocalDate.ofEpochDay(days[i]), price(i)));
+        }
+        return points;
+    }
+
+    /**
+     * Liefert eine Reihe mit dem zusätzlichen Kurs. Wie das INSERT in der Datenbank bleibt ein
+     * bereits vorhandener Kurs für das Datum unverändert.
+     */
+    PriceSeries withPriceIfAbsent(LocalDate date, BigDecimal closingPrice) {
+        int day = (int) date.toEpochDay();
+        int index = indexAsOf(day);
+        if (index >= 0 && days[index] == day) {
+            return this;
+        }
+        long price = FixedPointValuation.toFixed(closingPrice, FixedPointValuation.PRICE_SCALE);
+        int position = index + 1;
+
+        if (position == size && size < days.length) {
+            // Tägliches Anhängen nutzt freie Kapazität; ältere Instanzen lesen nie über ihre Größe hinaus
+            days[size] = day;
+            prices[size] = price;
+            return new PriceSeries(days, prices, size + 1);
+        }
+        int capacity = position == size ? Math.max(8, size + (size >> 1)) : size + 1;
+        int[] newDays = Arrays.copyOf(days, capacity);
+        long[] newPrices = Arrays.copyOf(prices, capacity);
+        System.arraycopy(days, position, newDays, position + 1, size - position);
+        System.arraycopy(prices, position, newPrices, position + 1, size - position);
+        newDays[position] = day;
+        newPrices[position] = price;
+        return new PriceSeries(newDays, newPrices, size + 1);
+    }
+
+    /**
+     * Index des letzten Tages am oder vor {@code epochDay} per Binärsuche, sonst -1.
+     */
+    int indexAsOf(int epochDay) {
+        int index = Arrays.binarySearch(days, 0, size, epochDay);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private BigDecimal price(int index) {
+        return FixedPointValuation.toBigDecimal(prices[index], FixedPointValuation.PRICE_SCALE);
+    }
+}
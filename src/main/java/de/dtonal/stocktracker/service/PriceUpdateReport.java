@@ -0,0 +1,69 @@
+package de.dtonal.stocktracker.service;
+
+import java.time.Duration;
+
+/**
+ * Zusammenfassung eines Laufs des täglichen Kurs-Updates.
+ */
+public class PriceUpdateReport {
+
+    private final int total;
+    private final int updated;
+    private final int inserted;
+    private final int skipped;
+    private final int failed;
+    private final Duration wallTime;
+
+    public PriceUpdateReport(int total, int updated, int inserted, int skipped, int failed, Duration wallTime) {
+        this.total = total;
+        this.updated = updated;
+        this.inserted = inserted;
+        this.skipped = skipped;
+        this.failed = failed;
+        this.wallTime = wallTime;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Aktien, deren Kurs geschrieben wurde, auch wenn ein paralleler Lauf ihn schon gespeichert hatte.
+     */
+    public int getUpdated() {
+        return updated;
+    }
+
+    /**
+     * Davon tatsächlich neu eingefügte Kurse.
+     */
+    public int getInserted() {
+        return inserted;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public Duration getWallTime() {
+        return wallTime;
+    }
+
+    /**
+     * Verarbeitete Aktien pro Sekunde Laufzeit.
+     */
+    public double getThroughput() {
+        long millis = wallTime.toMillis();
+        return millis == 0 ? total : total * 1000.0 / millis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PriceUpdateReport{total=%d, updated=%d, inserted=%d, skipped=%d, failed=%d, wallTime=%dms, "
+                + "throughput=%.2f stocks/s}", total, updated, inserted, skipped, failed, wallTime.toMillis(), getThroughput());
+    }
+}
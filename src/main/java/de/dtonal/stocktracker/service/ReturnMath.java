@@ -0,0 +1,186 @@
+package de.dtonal.stocktracker.service;
+
+/**
+ * Rechenkern für Renditen auf primitiven Arrays, damit auch zehntausende Zahlungen ohne
+ * Boxing und BigDecimal-Arithmetik in der Iteration gelöst werden.
+ * XIRR wird per Newton-Verfahren gesucht; konvergiert es nicht oder verlässt es den
+ * Definitionsbereich, übernimmt das Brent-Verfahren auf einem Vorzeichenwechsel-Intervall.
+ */
+final class ReturnMath {
+
+    static final double DAYS_PER_YEAR = 365.0;
+
+    private static final double TOLERANCE = 1e-10;
+    private static final int MAX_NEWTON_ITERATIONS = 50;
+    private static final int MAX_BRENT_ITERATIONS = 200;
+    private static final double MIN_RATE = -0.999999999;
+    private static final double MAX_RATE = 1e6;
+    // Untere Grenze des Brent-Intervalls; näher an -1 laufen die Diskontfaktoren bei langen Zeiträumen über
+    private static final double BRACKET_LOW = -0.9999;
+
+    private ReturnMath() {
+    }
+
+    /**
+     * Zinsfuß, bei dem der Barwert der Zahlungen null ist. {@code days} sind Tagesnummern
+     * (z. B. Epoch-Tage), aufsteigend sortiert; Auszahlungen an den Anleger sind positiv.
+     *
+     * @return jährliche Rendite oder {@link Double#NaN}, wenn es keine Lösung gibt
+     */
+    static double xirr(double[] amounts, int[] days, int count) {
+        if (count < 2 || !hasSignChange(amounts, count)) {
+            return Double.NaN;
+        }
+        double[] years = new double[count];
+        for (int i = 0; i < count; i++) {
+            years[i] = (days[i] - days[0]) / DAYS_PER_YEAR;
+        }
+
+        double rate = newton(amounts, years, count, 0.1);
+        if (!Double.isNaN(rate)) {
+            return rate;
+        }
+        return brent(amounts, years, count);
+    }
+
+    /**
+     * Zeitgewichtete Rendite über verkettete Tagesrenditen. {@code flows[i]} ist der Nettozufluss
+     * am Tag {@code i} und wird dem Anfangswert des Tages zugerechnet:
+     * {@code r_i = values[i] / (values[i-1] + flows[i]) - 1}. Tage ohne investiertes Kapital
+     * werden übersprungen.
+     *
+     * @param values Tageswerte; {@code values[0]} ist der Wert vor dem ersten Tag des Zeitraums
+     * @param flows  Nettozuflüsse je Tag; {@code flows[0]} wird ignoriert
+     * @return kumulierte Rendite über den Zeitraum
+     */
+    static double twr(double[] values, double[] flows, int count) {
+        double growth = 1.0;
+        for (int i = 1; i < count; i++) {
+            double invested = values[i - 1] + flows[i];
+            if (invested > 0) {
+                growth *= values[i] / invested;
+            }
+        }
+        return growth - 1.0;
+    }
+
+    static double npv(double[] amounts, double[] years, int count, double rate) {
+        double logBase = Math.log1p(rate);
+        double sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += amounts[i] * Math.exp(-years[i] * logBase);
+        }
+        return sum;
+    }
+
+    static double newton(double[] amounts, double[] years, int count, double guess) {
+        double rate = guess;
+        for (int iteration = 0; iteration < MAX_NEWTON_ITERATIONS; iteration++) {
+            double logBase = Math.log1p(rate);
+            double value = 0;
+            double derivative = 0;
+            for (int i = 0; i < count; i++) {
+                double discounted = amounts[i] * Math.exp(-years[i] * logBase);
+                value += discounted;
+                derivative -= years[i] * discounted / (1 + rate);
+            }
+            if (derivative == 0 || Double.isNaN(value) || Double.isInfinite(value)) {
+                return Double.NaN;
+            }
+            double next = rate - value / derivative;
+            if (next <= MIN_RATE || next > MAX_RATE || Double.isNaN(next)) {
+                return Double.NaN;
+            }
+            if (Math.abs(next - rate) < TOLERANCE * Math.max(1, Math.abs(rate))) {
+                return next;
+            }
+            rate = next;
+        }
+        return Double.NaN;
+    }
+
+    static double brent(double[] amounts, double[] years, int count) {
+        double a = BRACKET_LOW;
+        double b = 1.0;
+        double fa = npv(amounts, years, count, a);
+        double fb = npv(amounts, years, count, b);
+        while (fa * fb > 0 && b < MAX_RATE) {
+            b *= 4;
+            fb = npv(amounts, years, count, b);
+        }
+        if (fa * fb > 0 || Double.isNaN(fa) || Double.isNaN(fb)) {
+            return Double.NaN;
+        }
+
+        double c = a;
+        double fc = fa;
+        double d = b - a;
+        double e = d;
+        for (int iteration = 0; iteration < MAX_BRENT_ITERATIONS; iteration++) {
+            if (fb * fc > 0) {
+                c = a;
+                fc = fa;
+                d = b - a;
+                e = d;
+            }
+            if (Math.abs(fc) < Math.abs(fb)) {
+                a = b;
+                b = c;
+                c = a;
+                fa = fb;
+                fb = fc;
+                fc = fa;
+            }
+            double tolerance = 2 * Math.ulp(b) + 0.5 * TOLERANCE;
+            double middle = 0.5 * (c - b);
+            if (Math.abs(middle) <= tolerance || fb == 0) {
+                return b;
+            }
+            if (Math.abs(e) >= tolerance && Math.abs(fa) > Math.abs(fb)) {
+                // Inverse quadratische Interpolation, oder Sekante, wenn nur zwei Punkte verschieden sind
+                double s = fb / fa;
+                double p;
+                double q;
+                if (a == c) {
+                    p = 2 * middle * s;
+                    q = 1 - s;
+                } else {
+                    double r = fb / fc;
+                    double t = fa / fc;
+                    p = s * (2 * middle * t * (t - r) - (b - a) * (r - 1));
+                    q = (t - 1) * (r - 1) * (s - 1);
+                }
+                if (p > 0) {
+                    q = -q;
+                } else {
+                    p = -p;
+                }
+                if (2 * p < Math.min(3 * middle * q - Math.abs(tolerance * q), Math.abs(e * q))) {
+                    e = d;
+                    d = p / q;
+                } else {
+                    d = middle;
+                    e = d;
+                }
+            } else {
+                d = middle;
+                e = d;
+            }
+            a = b;
+            fa = fb;
+            b += Math.abs(d) > tolerance ? d : Math.copySign(tolerance, middle);
+            fb = npv(amounts, years, count, b);
+        }
+        return b;
+    }
+
+    private static boolean hasSignChange(double[] amounts, int count) {
+        boolean positive = false;
+        boolean negative = false;
+        for (int i = 0; i < count; i++) {
+            positive |= amounts[i] > 0;
+            negative |= amounts[i] < 0;
+        }
+        return positive && negative;
+    }
+}
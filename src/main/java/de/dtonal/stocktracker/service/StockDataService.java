@@ -8,6 +8,14 @@ import java.util.Optional;
 
 public interface StockDataService {
     Optional<PriceData> getLatestPriceData(String symbol);
+
+    /**
+     * Wie {@link #getLatestPriceData(String)}, aber nie mit einem veralteten Ersatzwert. Für
+     * Aufrufer, die den Kurs als Schlusskurs eines Tages speichern.
+     */
+    default Optional<PriceData> getFreshPriceData(String symbol) {
+        return getLatestPriceData(symbol);
+    }
     Optional<CompanyProfile> getStockProfile(String isin);
     Optional<StockSearchResult> getStockSearchResult(String query);
 } 
\ No newline at end of file
@@ -1,18 +1,29 @@
 package de.dtonal.stocktracker.service;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import de.dtonal.stocktracker.dto.PriceData;
 import de.dtonal.stocktracker.model.HistoricalPrice;
+import de.dtonal.stocktracker.model.PriceUpdateCompletedEvent;
 import de.dtonal.stocktracker.model.Stock;
+import de.dtonal.stocktracker.model.StockPricesUpdatedEvent;
 import de.dtonal.stocktracker.repository.HistoricalPriceRepository;
 import de.dtonal.stocktracker.repository.StockRepository;
 
@@ -22,48 +33,142 @@ public class StockPriceUpdateService {
     private final StockRepository stockRepository;
     private final HistoricalPriceRepository historicalPriceRepository;
     private final StockDataService stockDataService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final HistoricalPriceStore historicalPriceStore;
+
+    @Value("${stockprice.update.parallel:false}")
+    private boolean parallel;
+
+    @Value("${stockprice.update.concurrency:8}")
+    private int concurrency;
+
+    @Value("${stockprice.update.batch-size:500}")
+    private int batchSize;
+
+    @Value("${finnhub.rate-limit.requests-per-minute:0}")
+    private int requestsPerMinute;
+
+    @Value("${finnhub.rate-limit.burst:10}")
+    private int burst;
 
     public StockPriceUpdateService(StockRepository stockRepository,
             HistoricalPriceRepository historicalPriceRepository,
-            StockDataService stockDataService) {
+            StockDataService stockDataService,
+            ApplicationEventPublisher eventPublisher,
+            HistoricalPriceStore historicalPriceStore) {
         this.stockRepository = stockRepository;
         this.historicalPriceRepository = historicalPriceRepository;
         this.stockDataService = stockDataService;
+        this.eventPublisher = eventPublisher;
+        this.historicalPriceStore = historicalPriceStore;
     }
 
     @Scheduled(cron = "0 0 18 * * ?")
     public void updateAllStockPrices() {
-        logger.info("Starting daily stock price update job.");
+        logger.info("Starting daily stock price update job (parallel={}).", parallel);
         List<Stock> stocks = stockRepository.findAll();
-        for (Stock stock : stocks) {
-            try {
-                updateStockPrice(stock);
-            } catch (Exception e) {
-                logger.error("Could not update price for stock {}", stock.getSymbol(), e);
+        LocalDate today = LocalDate.now();
+        PriceUpdateReport report = updateStockPrices(stocks, today);
+        logger.info("Finished daily stock price update job: {}", report);
+        // Folgeschritte wie der Portfolio-Snapshot laufen synchron in diesem Thread
+        eventPublisher.publishEvent(new PriceUpdateCompletedEvent(today));
+    }
+
+    public void updateStockPrice(Stock stock) {
+        try {
+            // Eine idempotente Anweisung: der Constraint auf (stock_id, date) macht das Schreiben wirkungslos,
+            // wenn ein anderer Lauf den heutigen Kurs schon gespeichert hat.
+            Optional<HistoricalPrice> price = fetchPrice(stock, LocalDate.now(), TokenBucketRateLimiter.perMinute(0, 0));
+            if (price.isPresent() && historicalPriceRepository.insertIfAbsent(price.get())) {
+                historicalPriceStore.recordAll(List.of(price.get()));
+                eventPublisher.publishEvent(new StockPricesUpdatedEvent(Set.of(stock.getId())));
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while updating price for stock {}", stock.getSymbol());
         }
-        logger.info("Finished daily stock price update job.");
     }
 
-    public void updateStockPrice(Stock stock) {
-        LocalDate today = LocalDate.now();
+    PriceUpdateReport updateStockPrices(List<Stock> stocks, LocalDate date) {
+        // Eine mengenbasierte Abfrage statt eines findByStockAndDate je Aktie; Aktien mit Kurs (z. B. bei
+        // einem erneuten Lauf nach einem Teilausfall) kommen gar nicht erst in die Arbeitsliste.
+        Set<String> alreadyPriced = historicalPriceRepository.findStockIdsWithPriceOnDate(date);
+        List<Stock> pending = stocks.stream()
+                .filter(stock -> !alreadyPriced.contains(stock.getId()))
+                .collect(Collectors.toList());
+        int skipped = stocks.size() - pending.size();
+        logger.info("{} of {} stocks already priced for {}, {} to update.", skipped, stocks.size(), date, pending.size());
 
-        Optional<HistoricalPrice> existingPrice = historicalPriceRepository.findByStockAndDate(stock, today);
-        if (existingPrice.isPresent()) {
-            logger.info("Price for stock {} for today already exists. Skipping.", stock.getSymbol());
-            return;
+        TokenBucketRateLimiter rateLimiter = TokenBucketRateLimiter.perMinute(requestsPerMinute, burst);
+        HistoricalPriceBatchWriter writer = new HistoricalPriceBatchWriter(historicalPriceRepository, batchSize,
+                historicalPriceStore::recordAll);
+        AtomicInteger fetchFailures = new AtomicInteger();
+        long start = System.nanoTime();
+
+        if (parallel) {
+            // Mit virtuellen Threads lassen sich die blockierenden Finnhub-Aufrufe günstig verteilen; das
+            // Semaphor begrenzt die laufenden Aufrufe, der gemeinsame Token-Bucket hält das Kontingent ein.
+            Semaphore permits = new Semaphore(Math.max(1, concurrency));
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (Stock stock : pending) {
+                    executor.submit(() -> {
+                        permits.acquireUninterruptibly();
+                        try {
+                            fetchInto(writer, stock, date, rateLimiter, fetchFailures);
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                }
+            }
+        } else {
+            for (Stock stock : pending) {
+                fetchInto(writer, stock, date, rateLimiter, fetchFailures);
+            }
+        }
+        writer.flush();
+        Set<String> updatedStockIds = writer.getWrittenStockIds();
+        if (!updatedStockIds.isEmpty()) {
+            eventPublisher.publishEvent(new StockPricesUpdatedEvent(updatedStockIds));
         }
 
+        Duration wallTime = Duration.ofNanos(System.nanoTime() - start);
+        return new PriceUpdateReport(stocks.size(), writer.getWritten(), writer.getInserted(), skipped,
+                fetchFailures.get() + writer.getFailed(), wallTime);
+    }
+
+    private void fetchInto(HistoricalPriceBatchWriter writer, Stock stock, LocalDate date,
+            TokenBucketRateLimiter rateLimiter, AtomicInteger fetchFailures) {
+        try {
+            Optional<HistoricalPrice> price = fetchPrice(stock, date, rateLimiter);
+            if (price.isPresent()) {
+                writer.add(price.get());
+            } else {
+                fetchFailures.incrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while updating price for stock {}", stock.getSymbol());
+            fetchFailures.incrementAndGet();
+        } catch (Exception e) {
+            logger.error("Could not update price for stock {}", stock.getSymbol(), e);
+            fetchFailures.incrementAndGet();
+        }
+    }
+
+    private Optional<HistoricalPrice> fetchPrice(Stock stock, LocalDate date, TokenBucketRateLimiter rateLimiter)
+            throws InterruptedException {
+        rateLimiter.acquire();
         logger.info("Fetching current price for stock {}", stock.getSymbol());
-        Optional<PriceData> priceDataOptional = stockDataService.getLatestPriceData(stock.getSymbol());
+        Optional<PriceData> priceDataOptional = stockDataService.getFreshPriceData(stock.getSymbol());
 
         if (priceDataOptional.isPresent()) {
             BigDecimal currentPrice = priceDataOptional.get().getCurrentPrice();
-            HistoricalPrice historicalPrice = new HistoricalPrice(stock, today, currentPrice);
-            historicalPriceRepository.save(historicalPrice);
-            logger.info("Successfully updated price for stock {} to {}", stock.getSymbol(), currentPrice);
+            logger.info("Fetched price for stock {}: {}", stock.getSymbol(), currentPrice);
+            return Optional.of(new HistoricalPrice(stock, date, currentPrice));
         } else {
             logger.warn("Could not retrieve price for stock {}. It will be missing for today.", stock.getSymbol());
+            return Optional.empty();
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,196 @@
+package de.dtonal.stocktracker.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import de.dtonal.stocktracker.model.Stock;
+import de.dtonal.stocktracker.model.StockSavedEvent;
+
+/**
+ * In-Memory-Suchindex über Symbol und Name aller lokal gespeicherten Aktien. Symbole liegen
+ * sortiert für Präfixsuchen vor, Namen sind über alle 1- bis 3-Gramme indexiert, sodass eine
+ * Teilstring-Suche nur die Kandidaten des seltensten N-Gramms prüfen muss.
+ * Ranking: exaktes Symbol, dann Symbol-Präfix, dann Namenstreffer (Namensanfang zuerst).
+ */
+@Component
+public class StockSearchIndex {
+
+    private static final int MAX_GRAM = 3;
+
+    private final Map<String, IndexedStock> stocksById = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Set<String>> idsBySymbol = new ConcurrentSkipListMap<>();
+    private final Map<String, Set<String>> idsByNameGram = new ConcurrentHashMap<>();
+
+    /**
+     * Treffer aus dem Index; enthält nur die für die Suche nötigen Felder.
+     */
+    public record IndexedStock(String id, String symbol, String name) {
+    }
+
+    /**
+     * Ersetzt den Indexinhalt durch die übergebenen Aktien.
+     */
+    public synchronized void rebuild(Collection<Stock> stocks) {
+        stocksById.clear();
+        idsBySymbol.clear();
+        idsByNameGram.clear();
+        stocks.forEach(this::add);
+    }
+
+    /**
+     * Fügt eine Aktie hinzu oder aktualisiert ihren Eintrag.
+     */
+    public synchronized void add(Stock stock) {
+        if (stock.getId() == null || stock.getSymbol() == null) {
+            return;
+        }
+        remove(stock.getId());
+
+        IndexedStock entry = new IndexedStock(stock.getId(), stock.getSymbol(), stock.getName());
+        stocksById.put(entry.id(), entry);
+        idsBySymbol.computeIfAbsent(symbolKey(entry.symbol()), key -> ConcurrentHashMap.newKeySet()).add(entry.id());
+        for (String gram : grams(nameKey(entry.name()))) {
+            idsByNameGram.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(entry.id());
+        }
+    }
+
+    public synchronized void remove(String id) {
+        IndexedStock existing = stocksById.remove(id);
+        if (existing == null) {
+            return;
+        }
+        removePosting(idsBySymbol, symbolKey(existing.symbol()), id);
+        for (String gram : grams(nameKey(existing.name()))) {
+            removePosting(idsByNameGram, gram, id);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockSaved(StockSavedEvent event) {
+        add(event.stock());
+    }
+
+    public int size() {
+        return stocksById.size();
+    }
+
+    /**
+     * Sucht nach Symbol und Name (case-insensitive) und liefert höchstens {@code limit} Treffer
+     * in Ranking-Reihenfolge.
+     */
+    public List<IndexedStock> search(String query, int limit) {
+        if (query == null || query.isBlank() || limit <= 0) {
+            return List.of();
+        }
+        String symbolQuery = symbolKey(query);
+        String nameQuery = nameKey(query);
+        Map<String, IndexedStock> results = new LinkedHashMap<>();
+
+        addAll(results, idsBySymbol.get(symbolQuery), limit);
+
+        for (Map.Entry<String, Set<String>> entry : idsBySymbol.tailMap(symbolQuery, false).entrySet()) {
+            if (results.size() >= limit || !entry.getKey().startsWith(symbolQuery)) {
+                break;
+            }
+            addAll(results, entry.getValue(), limit);
+        }
+
+        if (results.size() < limit) {
+            List<IndexedStock> nameMatches = new ArrayList<>();
+            for (String id : nameCandidates(nameQuery)) {
+                IndexedStock stock = stocksById.get(id);
+                if (stock != null && !results.containsKey(id) && nameKey(stock.name()).contains(nameQuery)) {
+                    nameMatches.add(stock);
+                }
+            }
+            nameMatches.sort(Comparator
+                    .comparing((IndexedStock stock) -> !nameKey(stock.name()).startsWith(nameQuery))
+                    .thenComparing(stock -> nameKey(stock.name())));
+            for (IndexedStock stock : nameMatches) {
+                if (results.size() >= limit) {
+                    break;
+                }
+                results.put(stock.id(), stock);
+            }
+        }
+        return new ArrayList<>(results.values());
+    }
+
+    private Set<String> nameCandidates(String nameQuery) {
+        if (nameQuery.length() <= MAX_GRAM) {
+            return idsByNameGram.getOrDefault(nameQuery, Set.of());
+        }
+        // Das seltenste Trigramm begrenzt die Kandidaten; contains() filtert falsche Treffer
+        Set<String> smallest = null;
+        for (String gram : queryTrigrams(nameQuery)) {
+            Set<String> posting = idsByNameGram.get(gram);
+            if (posting == null) {
+                return Set.of();
+            }
+            if (smallest == null || posting.size() < smallest.size()) {
+                smallest = posting;
+            }
+        }
+        return smallest == null ? Set.of() : smallest;
+    }
+
+    private void addAll(Map<String, IndexedStock> results, Set<String> ids, int limit) {
+        if (ids == null) {
+            return;
+        }
+        for (String id : ids) {
+            if (results.size() >= limit) {
+                return;
+            }
+            IndexedStock stock = stocksById.get(id);
+            if (stock != null) {
+                results.putIfAbsent(id, stock);
+            }
+        }
+    }
+
+    private static void removePosting(Map<String, Set<String>> index, String key, String id) {
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int start = 0; start < text.length(); start++) {
+            for (int length = 1; length <= MAX_GRAM && start + length <= text.length(); length++) {
+                grams.add(text.substring(start, start + length));
+            }
+        }
+        return grams;
+    }
+
+    private static List<String> queryTrigrams(String text) {
+        List<String> trigrams = new ArrayList<>();
+        for (int start = 0; start + MAX_GRAM <= text.length(); start++) {
+            trigrams.add(text.substring(start, start + MAX_GRAM));
+        }
+        return trigrams;
+    }
+
+    private static String symbolKey(String symbol) {
+        return symbol.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static String nameKey(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+}
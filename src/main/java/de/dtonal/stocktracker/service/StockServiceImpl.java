@@ -1,11 +1,19 @@
 package de.dtonal.stocktracker.service;
 
-import java.util.HashSet;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import de.dtonal.stocktracker.dto.CompanyProfile;
@@ -13,6 +21,7 @@ import de.dtonal.stocktracker.dto.StockSearchItem;
 import de.dtonal.stocktracker.dto.StockSearchResult;
 import de.dtonal.stocktracker.model.Stock;
 import de.dtonal.stocktracker.repository.StockRepository;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -24,6 +33,26 @@ public class StockServiceImpl implements StockService {
     private final StockDataService stockDataService;
     private final StockRepository stockRepository;
     private final StockPriceUpdateService stockPriceUpdateService;
+    private final StockSearchIndex stockSearchIndex;
+
+    private static final int MAX_LOCAL_RESULTS = 50;
+
+    // Entfernte Abfragen blockieren auf I/O, jede bekommt deshalb einen eigenen virtuellen Thread
+    private final ExecutorService searchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${stocksearch.remote.timeout:800ms}")
+    private Duration remoteSearchTimeout;
+
+    @PreDestroy
+    public void shutdownSearchExecutor() {
+        searchExecutor.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadSearchIndex() {
+        stockSearchIndex.rebuild(stockRepository.findAll());
+        log.info("Stock search index loaded with {} stocks.", stockSearchIndex.size());
+    }
 
     public Stock getOrCreateStock(String stockSymbol) {
         return stockRepository.findBySymbol(stockSymbol)
@@ -56,25 +85,26 @@ public class StockServiceImpl implements StockService {
         if (query == null || query.isBlank()) {
             return new StockSearchResult(0, List.of());
         }
-        Set<Stock> localStocks = new HashSet<>();
-        localStocks.addAll(stockRepository.findBySymbol(query));
-        localStocks.addAll(stockRepository.findByNameContainingIgnoreCase(query));
+        // Die entfernte Abfrage zuerst starten, damit sie läuft, während der lokale Index abgefragt wird
+        CompletableFuture<Optional<StockSearchResult>> remoteSearch = searchRemote(query);
+
+        List<StockSearchIndex.IndexedStock> localStocks = stockSearchIndex.search(query, MAX_LOCAL_RESULTS);
 
         Set<String> localSymbols = localStocks.stream()
-            .map(Stock::getSymbol)
+            .map(StockSearchIndex.IndexedStock::symbol)
             .collect(Collectors.toSet());
 
         List<StockSearchItem> combinedResults = localStocks.stream()
                 .map(stock -> StockSearchItem.builder()
-                    .symbol(stock.getSymbol())
-                    .description(stock.getName())
-                    .displaySymbol(stock.getSymbol())
+                    .symbol(stock.symbol())
+                    .description(stock.name())
+                    .displaySymbol(stock.symbol())
                     .type("stock")
                     .isSavedInDb(true)
                     .build())
             .collect(Collectors.toList());
 
-        Optional<StockSearchResult> remoteResults = stockDataService.getStockSearchResult(query);
+        Optional<StockSearchResult> remoteResults = remoteSearch.join();
 
         if (remoteResults.isPresent()) {
             remoteResults.get().getResult().forEach(remoteResult -> {
@@ -86,4 +116,23 @@ public class StockServiceImpl implements StockService {
     
         return new StockSearchResult(combinedResults.size(), combinedResults);
     }
+
+    /**
+     * Fragt den Provider asynchron ab. Nach {@code stocksearch.remote.timeout} wird ohne
+     * Remote-Treffer weitergemacht; die Anfrage läuft im Hintergrund weiter und füllt den
+     * Such-Cache für die nächste Eingabe.
+     */
+    private CompletableFuture<Optional<StockSearchResult>> searchRemote(String query) {
+        return CompletableFuture
+            .supplyAsync(() -> stockDataService.getStockSearchResult(query), searchExecutor)
+            .orTimeout(remoteSearchTimeout.toMillis(), TimeUnit.MILLISECONDS)
+            .exceptionally(e -> {
+                if (e instanceof TimeoutException || e.getCause() instanceof TimeoutException) {
+                    log.info("Remote search for '{}' exceeded {} ms, returning local results only.", query, remoteSearchTimeout.toMillis());
+                } else {
+                    log.warn("Remote search for '{}' failed: {}", query, e.getMessage());
+                }
+                return Optional.empty();
+            });
+    }
 }
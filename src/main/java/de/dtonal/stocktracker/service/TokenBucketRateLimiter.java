@@ -0,0 +1,67 @@
+package de.dtonal.stocktracker.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Einfacher, thread-sicherer Token-Bucket. Tokens füllen sich mit fester Rate bis
+ * {@code capacity} auf; wer den Bucket leer vorfindet, reserviert ein künftiges Token und
+ * schläft, bis es verfügbar ist. Gleichzeitige Aufrufer werden so der Reihe nach bedient.
+ */
+public class TokenBucketRateLimiter {
+
+    private static final long NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double availableTokens;
+    private long lastRefillNanos;
+
+    TokenBucketRateLimiter(int capacity, double tokensPerNano) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerNano;
+        this.availableTokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Erzeugt einen Limiter mit {@code requestsPerMinute} Aufrufen pro Minute und Spitzen von bis
+     * zu {@code burst} Aufrufen. Eine Rate kleiner oder gleich 0 schaltet die Begrenzung ab.
+     */
+    public static TokenBucketRateLimiter perMinute(int requestsPerMinute, int burst) {
+        if (requestsPerMinute <= 0) {
+            return new TokenBucketRateLimiter(Integer.MAX_VALUE, Double.POSITIVE_INFINITY);
+        }
+        int capacity = Math.max(1, Math.min(burst, requestsPerMinute));
+        return new TokenBucketRateLimiter(capacity, (double) requestsPerMinute / NANOS_PER_MINUTE);
+    }
+
+    /**
+     * Blockiert, bis ein Aufruf erlaubt ist.
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos = reserve(System.nanoTime());
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Nimmt ein Token (notfalls auf Vorschuss) und liefert, wie lange der Aufrufer warten muss,
+     * bis die Nachfüllrate dieses Token tatsächlich gedeckt hat.
+     */
+    synchronized long reserve(long nowNanos) {
+        if (Double.isInfinite(tokensPerNano)) {
+            return 0;
+        }
+        long elapsed = nowNanos - lastRefillNanos;
+        if (elapsed > 0) {
+            availableTokens = Math.min(capacity, availableTokens + elapsed * tokensPerNano);
+            lastRefillNanos = nowNanos;
+        }
+        availableTokens -= 1;
+        if (availableTokens >= 0) {
+            return 0;
+        }
+        return (long) Math.ceil(-availableTokens / tokensPerNano);
+    }
+}
@@ -1,9 +1,12 @@
 package de.dtonal.stocktracker.service;
 
 import de.dtonal.stocktracker.dto.StockTransactionRequest;
+import de.dtonal.stocktracker.dto.TransactionFilter;
+import de.dtonal.stocktracker.dto.TransactionPage;
 import de.dtonal.stocktracker.model.StockTransaction;
 
 public interface TransactionService {
     StockTransaction addStockTransaction(String portfolioId, StockTransactionRequest transactionRequest);
     void deleteStockTransaction(String portfolioId, String transactionId);
-} 
\ No newline at end of file
+    TransactionPage getTransactions(String portfolioId, TransactionFilter filter, String cursor, int limit);
+}
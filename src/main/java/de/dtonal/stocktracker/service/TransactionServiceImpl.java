@@ -1,6 +1,10 @@
 package de.dtonal.stocktracker.service;
 
 import de.dtonal.stocktracker.dto.StockTransactionRequest;
+import de.dtonal.stocktracker.dto.StockTransactionResponse;
+import de.dtonal.stocktracker.dto.TransactionCursor;
+import de.dtonal.stocktracker.dto.TransactionFilter;
+import de.dtonal.stocktracker.dto.TransactionPage;
 import de.dtonal.stocktracker.model.Portfolio;
 import de.dtonal.stocktracker.model.PortfolioNotFoundException;
 import de.dtonal.stocktracker.model.Stock;
@@ -13,14 +17,20 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class TransactionServiceImpl implements TransactionService {
 
+    static final int MAX_PAGE_SIZE = 500;
+
     private final PortfolioRepository portfolioRepository;
     private final StockTransactionRepository stockTransactionRepository;
     private final StockService stockService;
+    private final PortfolioHoldingService portfolioHoldingService;
+    private final CostBasisService costBasisService;
 
     @Override
     @Transactional
@@ -34,11 +44,13 @@ public class TransactionServiceImpl implements TransactionService {
         StockTransaction transaction = createTransactionFromRequest(stock, transactionRequest);
 
         portfolio.addTransaction(transaction);
+        // Direktes Persistieren vergibt die ID dieser Instanz; ein Merge des Portfolios würde sie kopieren
+        stockTransactionRepository.save(transaction);
+        portfolioHoldingService.applyAdded(portfolio.getId(), transaction);
+        costBasisService.applyAdded(portfolio.getId(), transaction);
 
-        Portfolio savedPortfolio = portfolioRepository.save(portfolio);
-
-        // Return the managed instance from the saved portfolio, which has the generated ID.
-        return savedPortfolio.getTransactions().get(savedPortfolio.getTransactions().size() - 1);
+        portfolioRepository.save(portfolio);
+        return transaction;
     }
 
     @Override
@@ -56,9 +68,32 @@ public class TransactionServiceImpl implements TransactionService {
         }
 
         portfolio.removeTransaction(transactionToRemove);
+        portfolioHoldingService.applyRemoved(portfolio.getId(), transactionToRemove);
+        costBasisService.applyRemoved(portfolio.getId(), transactionToRemove);
         portfolioRepository.save(portfolio);
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    @PreAuthorize("hasRole('ADMIN') or @portfolioRepository.isOwnerOfPortfolio(#portfolioId, authentication.name)")
+    public TransactionPage getTransactions(String portfolioId, TransactionFilter filter, String cursor, int limit) {
+        if (filter.from() != null && filter.to() != null && filter.from().isAfter(filter.to())) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        TransactionCursor after = cursor == null || cursor.isBlank() ? null : TransactionCursor.decode(cursor);
+
+        // Eine zusätzliche Zeile zeigt ohne Count-Abfrage, ob eine weitere Seite folgt
+        List<StockTransactionResponse> rows = stockTransactionRepository.findPage(portfolioId, filter, after, pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return new TransactionPage(rows, null);
+        }
+        List<StockTransactionResponse> items = rows.subList(0, pageSize);
+        StockTransactionResponse last = items.get(pageSize - 1);
+        return new TransactionPage(List.copyOf(items),
+                new TransactionCursor(last.getTransactionDate(), last.getId()).encode());
+    }
+
     boolean isTransactionInPortfolio(StockTransaction transaction, Portfolio portfolio) {
         return transaction.getPortfolio().getId().equals(portfolio.getId());
     }
@@ -0,0 +1,126 @@
+package de.dtonal.stocktracker.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Kleiner, thread-safer In-Memory-Cache mit Größenbegrenzung (LRU) und Ablaufzeit.
+ * Abgelaufene Einträge werden noch {@code maxStale} lang aufbewahrt, damit sie bei
+ * Ausfällen der Datenquelle als veraltete Werte ausgeliefert werden können.
+ */
+public class TtlCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final long retainNanos;
+    private final LongSupplier nanoClock;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public TtlCache(int maxSize, Duration ttl, Duration maxStale) {
+        this(maxSize, ttl, maxStale, System::nanoTime);
+    }
+
+    TtlCache(int maxSize, Duration ttl, Duration maxStale, LongSupplier nanoClock) {
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlNanos = ttl.toNanos();
+        this.retainNanos = ttl.plus(maxStale).toNanos();
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > TtlCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Liefert den Wert, solange er jünger als die TTL ist. Zählt Treffer und Fehlschläge.
+     */
+    public synchronized Optional<V> getIfFresh(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && age(entry) <= ttlNanos) {
+            hits.increment();
+            return Optional.of(entry.value);
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Liefert den Wert auch nach Ablauf der TTL, solange er noch aufbewahrt wird.
+     */
+    public synchronized Optional<V> getIfRetained(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (age(entry) > retainNanos) {
+            entries.remove(key);
+            evictions.increment();
+            return Optional.empty();
+        }
+        if (age(entry) > ttlNanos) {
+            staleHits.increment();
+        }
+        return Optional.of(entry.value);
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, nanoClock.getAsLong()));
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getStaleHits() {
+        return staleHits.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private long age(Entry<V> entry) {
+        return nanoClock.getAsLong() - entry.storedAt;
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long storedAt;
+
+        private Entry(V value, long storedAt) {
+            this.value = value;
+            this.storedAt = storedAt;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+-- Wöchentliche und monatliche Verdichtung der Schlusskurse für lange Charts. Wochen beginnen am
+-- Montag, Monate am Ersten; gepflegt von PriceRollupService nach jedem Kurs-Update.
+CREATE TABLE IF NOT EXISTS price_rollups (
+    stock_id VARCHAR(36) NOT NULL,
+    resolution VARCHAR(20) NOT NULL,
+    period_start DATE NOT NULL,
+    last_date DATE NOT NULL,
+    open_price NUMERIC(10, 2) NOT NULL,
+    high_price NUMERIC(10, 2) NOT NULL,
+    low_price NUMERIC(10, 2) NOT NULL,
+    close_price NUMERIC(10, 2) NOT NULL,
+    avg_price NUMERIC(14, 6) NOT NULL,
+    price_count INTEGER NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_price_rollups PRIMARY KEY (stock_id, resolution, period_start),
+    CONSTRAINT fk_price_rollups_stock FOREIGN KEY (stock_id) REFERENCES stocks (id),
+    CONSTRAINT ck_price_rollups_resolution CHECK (resolution IN ('WEEKLY', 'MONTHLY'))
+);
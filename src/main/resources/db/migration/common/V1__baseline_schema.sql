@@ -0,0 +1,76 @@
+-- Ausgangsschema der Entitäten. Läuft auf PostgreSQL und H2.
+-- Bestehende Datenbanken, deren Tabellen bisher per ddl-auto oder von Hand entstanden sind, werden
+-- mit baseline-version=0 übernommen: IF NOT EXISTS legt nur fehlende Tabellen an, fehlende
+-- Constraints ergänzt V2.
+
+CREATE TABLE IF NOT EXISTS app_user (
+    id VARCHAR(36) NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_app_user PRIMARY KEY (id),
+    CONSTRAINT uk_app_user_email UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS user_roles (
+    user_id VARCHAR(36) NOT NULL,
+    role VARCHAR(255) NOT NULL,
+    CONSTRAINT pk_user_roles PRIMARY KEY (user_id, role),
+    CONSTRAINT fk_user_roles_user FOREIGN KEY (user_id) REFERENCES app_user (id),
+    CONSTRAINT ck_user_roles_role CHECK (role IN ('USER', 'ADMIN'))
+);
+
+CREATE TABLE IF NOT EXISTS portfolio (
+    id VARCHAR(36) NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    description VARCHAR(255),
+    user_id VARCHAR(36) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_portfolio PRIMARY KEY (id),
+    CONSTRAINT fk_portfolio_user FOREIGN KEY (user_id) REFERENCES app_user (id)
+);
+
+CREATE TABLE IF NOT EXISTS stocks (
+    id VARCHAR(36) NOT NULL,
+    symbol VARCHAR(255) NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    exchange VARCHAR(255),
+    currency VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_stocks PRIMARY KEY (id),
+    -- symbol steht vorne und bedient damit auch die Suche nach dem Symbol allein
+    CONSTRAINT uk_stocks_symbol_exchange UNIQUE (symbol, exchange)
+);
+
+CREATE TABLE IF NOT EXISTS stock_transaction (
+    id VARCHAR(36) NOT NULL,
+    stock_id VARCHAR(36) NOT NULL,
+    portfolio_id VARCHAR(36) NOT NULL,
+    transaction_date TIMESTAMP(6) NOT NULL,
+    quantity NUMERIC(15, 5) NOT NULL,
+    price_per_share NUMERIC(19, 4) NOT NULL,
+    transaction_type VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_stock_transaction PRIMARY KEY (id),
+    CONSTRAINT fk_stock_transaction_stock FOREIGN KEY (stock_id) REFERENCES stocks (id),
+    CONSTRAINT fk_stock_transaction_portfolio FOREIGN KEY (portfolio_id) REFERENCES portfolio (id),
+    CONSTRAINT ck_stock_transaction_type CHECK (transaction_type IN ('BUY', 'SELL'))
+);
+
+CREATE TABLE IF NOT EXISTS historical_prices (
+    id VARCHAR(36) NOT NULL,
+    stock_id VARCHAR(36) NOT NULL,
+    date DATE NOT NULL,
+    closing_price NUMERIC(10, 2) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_historical_prices PRIMARY KEY (id),
+    CONSTRAINT fk_historical_prices_stock FOREIGN KEY (stock_id) REFERENCES stocks (id),
+    -- Dient auch als Index für Kurse einer Aktie nach Datum, in beide Richtungen
+    CONSTRAINT uk_historical_prices_stock_date UNIQUE (stock_id, date)
+);
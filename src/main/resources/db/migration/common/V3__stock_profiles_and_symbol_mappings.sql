@@ -0,0 +1,25 @@
+-- Gespeicherte Firmenprofile und die Zuordnung von Suchschlüsseln (z. B. ISIN) zu Symbolen
+
+CREATE TABLE IF NOT EXISTS stock_profiles (
+    symbol VARCHAR(32) NOT NULL,
+    name VARCHAR(255),
+    country VARCHAR(255),
+    currency VARCHAR(255),
+    exchange VARCHAR(255),
+    ipo VARCHAR(255),
+    market_capitalization DOUBLE PRECISION NOT NULL,
+    share_outstanding DOUBLE PRECISION NOT NULL,
+    logo VARCHAR(512),
+    phone VARCHAR(255),
+    weburl VARCHAR(512),
+    industry VARCHAR(255),
+    fetched_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_stock_profiles PRIMARY KEY (symbol)
+);
+
+CREATE TABLE IF NOT EXISTS symbol_mappings (
+    lookup_key VARCHAR(64) NOT NULL,
+    symbol VARCHAR(255) NOT NULL,
+    resolved_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_symbol_mappings PRIMARY KEY (lookup_key)
+);
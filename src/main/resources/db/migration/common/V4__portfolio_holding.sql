@@ -0,0 +1,26 @@
+-- Lesemodell der Bestände je Portfolio und Aktie, gepflegt von PortfolioHoldingService.
+CREATE TABLE IF NOT EXISTS portfolio_holding (
+    portfolio_id VARCHAR(36) NOT NULL,
+    stock_id VARCHAR(36) NOT NULL,
+    net_quantity NUMERIC(15, 5) NOT NULL,
+    total_cost NUMERIC(28, 9) NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    last_transaction_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_portfolio_holding PRIMARY KEY (portfolio_id, stock_id)
+);
+
+-- Bestehende Transaktionen einmalig übernehmen; ohne Befüllung wäre jedes bestehende Portfolio
+-- 0 wert, und die nächste Transaktion legte einen Bestand nur aus dieser einen Transaktion an.
+-- Gleiche Aggregation wie StockTransactionRepository.aggregateHoldings. Eine Tabelle, die
+-- ddl-auto schon angelegt hat, wird dabei neu aufgebaut.
+DELETE FROM portfolio_holding;
+
+INSERT INTO portfolio_holding (portfolio_id, stock_id, net_quantity, total_cost, transaction_count,
+        last_transaction_at, updated_at)
+SELECT portfolio_id, stock_id,
+    SUM(CASE WHEN transaction_type = 'BUY' THEN quantity ELSE -quantity END),
+    SUM(CASE WHEN transaction_type = 'BUY' THEN quantity * price_per_share ELSE -(quantity * price_per_share) END),
+    COUNT(*), MAX(transaction_date), CURRENT_TIMESTAMP
+FROM stock_transaction
+GROUP BY portfolio_id, stock_id;
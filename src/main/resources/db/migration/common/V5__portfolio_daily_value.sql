@@ -0,0 +1,9 @@
+-- Tägliche Schlusswerte je Portfolio, geschrieben von PortfolioSnapshotService.
+-- VALUE ist in H2 ein reserviertes Wort und wird deshalb gequotet.
+CREATE TABLE IF NOT EXISTS portfolio_daily_value (
+    portfolio_id VARCHAR(36) NOT NULL,
+    date DATE NOT NULL,
+    "value" NUMERIC(19, 2) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_portfolio_daily_value PRIMARY KEY (portfolio_id, date)
+);
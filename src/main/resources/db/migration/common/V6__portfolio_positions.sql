@@ -0,0 +1,23 @@
+-- Kostenbasis je Portfolio und Aktie mit ihren offenen Lots, gepflegt von CostBasisService.
+CREATE TABLE IF NOT EXISTS portfolio_position (
+    portfolio_id VARCHAR(36) NOT NULL,
+    stock_id VARCHAR(36) NOT NULL,
+    method VARCHAR(20) NOT NULL,
+    realized_gain NUMERIC(28, 9) NOT NULL,
+    last_transaction_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_portfolio_position PRIMARY KEY (portfolio_id, stock_id),
+    CONSTRAINT ck_portfolio_position_method CHECK (method IN ('FIFO', 'AVERAGE_COST'))
+);
+
+CREATE TABLE IF NOT EXISTS portfolio_position_lot (
+    portfolio_id VARCHAR(36) NOT NULL,
+    stock_id VARCHAR(36) NOT NULL,
+    lot_index INTEGER NOT NULL,
+    acquired_at TIMESTAMP(6) NOT NULL,
+    quantity NUMERIC(15, 5) NOT NULL,
+    unit_cost NUMERIC(28, 9) NOT NULL,
+    CONSTRAINT pk_portfolio_position_lot PRIMARY KEY (portfolio_id, stock_id, lot_index),
+    CONSTRAINT fk_portfolio_position_lot_position FOREIGN KEY (portfolio_id, stock_id)
+        REFERENCES portfolio_position (portfolio_id, stock_id)
+);
@@ -0,0 +1,9 @@
+-- Indizes für die Transaktionsliste eines Portfolios.
+
+-- Keyset-Pagination nach Datum und ID
+CREATE INDEX IF NOT EXISTS idx_stock_transaction_portfolio_date
+    ON stock_transaction (portfolio_id, transaction_date, id);
+
+-- Transaktionen einer Aktie im Portfolio (Lot-Buchführung, Filter nach Symbol)
+CREATE INDEX IF NOT EXISTS idx_stock_transaction_portfolio_stock_date
+    ON stock_transaction (portfolio_id, stock_id, transaction_date, id);
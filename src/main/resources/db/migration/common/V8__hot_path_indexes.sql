@@ -0,0 +1,10 @@
+-- Indizes für die Abfragen der Repositories. PostgreSQL legt für Fremdschlüssel keine Indizes an.
+
+-- Portfolio-Liste eines Benutzers (findSummariesByUserId, findByUserId)
+CREATE INDEX IF NOT EXISTS idx_portfolio_user_created ON portfolio (user_id, created_at, id);
+
+-- Transaktionen einer Aktie über alle Portfolios und Löschungen in stocks
+CREATE INDEX IF NOT EXISTS idx_stock_transaction_stock ON stock_transaction (stock_id);
+
+-- Kurse aller Aktien an einem Tag (findStockIdsWithPriceOnDate, Kurs-Update)
+CREATE INDEX IF NOT EXISTS idx_historical_prices_date ON historical_prices (date);
@@ -0,0 +1,23 @@
+-- Gegenstück zu postgresql/V2 für Entwicklungsdatenbanken, die ddl-auto angelegt hat. H2 prüft
+-- nur den Namen; ein zusätzlicher gleichwertiger Constraint neben einem von Hibernate benannten
+-- schadet nicht.
+
+-- Doppelte Kurse eines Tages: der zuletzt geschriebene bleibt
+DELETE FROM historical_prices h
+WHERE EXISTS (
+    SELECT 1 FROM historical_prices d
+    WHERE d.stock_id = h.stock_id AND d.date = h.date
+        AND (d.updated_at > h.updated_at OR (d.updated_at = h.updated_at AND d.id > h.id))
+);
+
+ALTER TABLE historical_prices ADD CONSTRAINT IF NOT EXISTS uk_historical_prices_stock_date UNIQUE (stock_id, date);
+ALTER TABLE user_roles ADD CONSTRAINT IF NOT EXISTS fk_user_roles_user
+    FOREIGN KEY (user_id) REFERENCES app_user (id);
+ALTER TABLE portfolio ADD CONSTRAINT IF NOT EXISTS fk_portfolio_user
+    FOREIGN KEY (user_id) REFERENCES app_user (id);
+ALTER TABLE stock_transaction ADD CONSTRAINT IF NOT EXISTS fk_stock_transaction_stock
+    FOREIGN KEY (stock_id) REFERENCES stocks (id);
+ALTER TABLE stock_transaction ADD CONSTRAINT IF NOT EXISTS fk_stock_transaction_portfolio
+    FOREIGN KEY (portfolio_id) REFERENCES portfolio (id);
+ALTER TABLE historical_prices ADD CONSTRAINT IF NOT EXISTS fk_historical_prices_stock
+    FOREIGN KEY (stock_id) REFERENCES stocks (id);
@@ -0,0 +1,149 @@
+-- Funktionen für die optionale Range-Partitionierung von historical_prices nach Datum.
+-- Die Migration ändert die Tabelle nicht; umgebaut wird sie erst über POST /api/admin/price-partitions/convert,
+-- weil der Umbau die Tabelle exklusiv sperrt. granularity ist 'MONTHLY' oder 'YEARLY'.
+
+CREATE OR REPLACE FUNCTION historical_prices_period_start(price_date DATE, granularity TEXT) RETURNS DATE
+LANGUAGE sql IMMUTABLE AS $$
+    SELECT CAST(date_trunc(CASE granularity WHEN 'YEARLY' THEN 'year' ELSE 'month' END, CAST(price_date AS TIMESTAMP)) AS DATE)
+$$;
+
+-- Legt die Partition für den Monat bzw. das Jahr von price_date an und gibt ihren Namen zurück,
+-- NULL wenn es sie schon gibt. Abgehängte Partitionen sind umbenannt und blockieren den Namen nicht.
+CREATE OR REPLACE FUNCTION create_historical_prices_partition(price_date DATE, granularity TEXT) RETURNS TEXT
+LANGUAGE plpgsql AS $$
+DECLARE
+    period_start DATE := historical_prices_period_start(price_date, granularity);
+    period_end DATE := CAST(period_start
+            + CASE granularity WHEN 'YEARLY' THEN INTERVAL '1 year' ELSE INTERVAL '1 month' END AS DATE);
+    partition_name TEXT := 'historical_prices_'
+            || to_char(period_start, CASE granularity WHEN 'YEARLY' THEN 'YYYY' ELSE 'YYYY_MM' END);
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN NULL;
+    END IF;
+    IF EXISTS (SELECT 1 FROM historical_prices_default WHERE date >= period_start AND date < period_end) THEN
+        -- Kurse, die schon in der Default-Partition liegen, ziehen in die neue um. Die Indizes samt
+        -- Eindeutigkeit von (stock_id, date) bestehen schon beim Umzug, ATTACH übernimmt sie
+        EXECUTE format('CREATE TABLE %I (LIKE historical_prices INCLUDING DEFAULTS INCLUDING INDEXES)',
+                partition_name);
+        EXECUTE format('WITH moved AS (DELETE FROM historical_prices_default WHERE date >= %L AND date < %L '
+                || 'RETURNING *) INSERT INTO %I SELECT * FROM moved', period_start, period_end, partition_name);
+        EXECUTE format('ALTER TABLE historical_prices ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                partition_name, period_start, period_end);
+    ELSE
+        EXECUTE format('CREATE TABLE %I PARTITION OF historical_prices FOR VALUES FROM (%L) TO (%L)',
+                partition_name, period_start, period_end);
+    END IF;
+    RETURN partition_name;
+END;
+$$;
+
+-- Legt alle Partitionen von from_day bis to_day an, dazu Partitionen für nachgetragene Kurse,
+-- die bisher in der Default-Partition liegen. Gibt die Anzahl neuer Partitionen zurück.
+CREATE OR REPLACE FUNCTION create_historical_prices_partitions(from_day DATE, to_day DATE, granularity TEXT)
+RETURNS INTEGER
+LANGUAGE plpgsql AS $$
+DECLARE
+    period DATE := historical_prices_period_start(from_day, granularity);
+    step INTERVAL := CASE granularity WHEN 'YEARLY' THEN INTERVAL '1 year' ELSE INTERVAL '1 month' END;
+    pending DATE;
+    created INTEGER := 0;
+BEGIN
+    WHILE period <= to_day LOOP
+        IF create_historical_prices_partition(period, granularity) IS NOT NULL THEN
+            created := created + 1;
+        END IF;
+        period := CAST(period + step AS DATE);
+    END LOOP;
+    FOR pending IN
+        SELECT DISTINCT historical_prices_period_start(date, granularity) FROM historical_prices_default
+    LOOP
+        IF create_historical_prices_partition(pending, granularity) IS NOT NULL THEN
+            created := created + 1;
+        END IF;
+    END LOOP;
+    RETURN created;
+END;
+$$;
+
+-- Baut historical_prices einmalig in eine nach date partitionierte Tabelle um. Eindeutige Schlüssel
+-- müssen den Partitionsschlüssel enthalten: Der Primärschlüssel wird daher zu (id, date), und
+-- (stock_id, date) bleibt eindeutig, weil gleiche Schlüssel immer in derselben Partition landen.
+-- Jede Partition erhält dazu einen eigenen Unique-Index, auf den sich ON CONFLICT (stock_id, date)
+-- stützt. FALSE, wenn die Tabelle schon partitioniert ist.
+CREATE OR REPLACE FUNCTION partition_historical_prices(granularity TEXT) RETURNS BOOLEAN
+LANGUAGE plpgsql AS $$
+DECLARE
+    first_day DATE;
+    last_day DATE;
+BEGIN
+    -- Parallele Aufrufe warten hier und sehen danach die bereits partitionierte Tabelle
+    PERFORM pg_advisory_xact_lock(hashtext('partition_historical_prices'));
+    IF EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('historical_prices')) THEN
+        RETURN FALSE;
+    END IF;
+    LOCK TABLE historical_prices IN ACCESS EXCLUSIVE MODE;
+    ALTER TABLE historical_prices RENAME TO historical_prices_unpartitioned;
+    -- Indexnamen sind je Schema eindeutig, die alten Indizes machen daher Platz für die neuen
+    ALTER TABLE historical_prices_unpartitioned DROP CONSTRAINT IF EXISTS pk_historical_prices;
+    ALTER TABLE historical_prices_unpartitioned DROP CONSTRAINT IF EXISTS uk_historical_prices_stock_date;
+    DROP INDEX IF EXISTS idx_historical_prices_date;
+
+    CREATE TABLE historical_prices (
+        id VARCHAR(36) NOT NULL,
+        stock_id VARCHAR(36) NOT NULL,
+        date DATE NOT NULL,
+        closing_price NUMERIC(10, 2) NOT NULL,
+        created_at TIMESTAMP(6) NOT NULL,
+        updated_at TIMESTAMP(6) NOT NULL,
+        CONSTRAINT pk_historical_prices PRIMARY KEY (id, date),
+        CONSTRAINT fk_historical_prices_stock FOREIGN KEY (stock_id) REFERENCES stocks (id),
+        CONSTRAINT uk_historical_prices_stock_date UNIQUE (stock_id, date)
+    ) PARTITION BY RANGE (date);
+    CREATE INDEX idx_historical_prices_date ON historical_prices (date);
+    CREATE TABLE historical_prices_default PARTITION OF historical_prices DEFAULT;
+
+    SELECT MIN(date), MAX(date) INTO first_day, last_day FROM historical_prices_unpartitioned;
+    PERFORM create_historical_prices_partitions(COALESCE(first_day, CURRENT_DATE),
+            GREATEST(last_day, CURRENT_DATE), granularity);
+    INSERT INTO historical_prices (id, stock_id, date, closing_price, created_at, updated_at)
+        SELECT id, stock_id, date, closing_price, created_at, updated_at FROM historical_prices_unpartitioned;
+    DROP TABLE historical_prices_unpartitioned;
+    RETURN TRUE;
+END;
+$$;
+
+-- Hängt alle Partitionen ab, die vollständig vor before_day enden. Sie bleiben als eigenständige
+-- Tabellen zur Archivierung erhalten und heißen danach <partition>_archived (bei Bedarf mit Zähler),
+-- damit nachgetragene Kurse ihren Zeitraum wieder als Partition anlegen können. Gibt die neuen Namen
+-- der abgehängten Tabellen zurück.
+CREATE OR REPLACE FUNCTION detach_historical_prices_partitions(before_day DATE) RETURNS SETOF TEXT
+LANGUAGE plpgsql AS $$
+DECLARE
+    child RECORD;
+    archive_name TEXT;
+    suffix INTEGER;
+BEGIN
+    FOR child IN
+        SELECT c.relname AS name,
+                CAST(substring(pg_get_expr(c.relpartbound, c.oid) FROM 'TO \(''([0-9-]+)''\)') AS DATE) AS upper_bound
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = to_regclass('historical_prices')
+        ORDER BY c.relname
+    LOOP
+        -- Die Default-Partition hat keine Obergrenze und bleibt immer angehängt
+        IF child.upper_bound IS NOT NULL AND child.upper_bound <= before_day THEN
+            EXECUTE format('ALTER TABLE historical_prices DETACH PARTITION %I', child.name);
+            archive_name := child.name || '_archived';
+            suffix := 1;
+            WHILE to_regclass(archive_name) IS NOT NULL LOOP
+                suffix := suffix + 1;
+                archive_name := child.name || '_archived_' || suffix;
+            END LOOP;
+            EXECUTE format('ALTER TABLE %I RENAME TO %I', child.name, archive_name);
+            RETURN NEXT archive_name;
+        END IF;
+    END LOOP;
+END;
+$$;
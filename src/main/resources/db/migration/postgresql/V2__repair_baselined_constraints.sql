@@ -0,0 +1,65 @@
+-- Datenbanken aus der Zeit vor den Migrationen wurden bei Version 0 übernommen; V1 hat ihre
+-- bestehenden Tabellen daher nicht angefasst. Diese Migration ergänzt dort den Unique-Key für Kurse,
+-- den INSERT ... ON CONFLICT (stock_id, date) voraussetzt, und die Fremdschlüssel aus V1. Was schon
+-- vorhanden ist, auch unter einem von Hibernate vergebenen Namen, bleibt unverändert.
+
+-- Doppelte Kurse eines Tages: der zuletzt geschriebene bleibt
+DELETE FROM historical_prices h
+WHERE EXISTS (
+    SELECT 1 FROM historical_prices d
+    WHERE d.stock_id = h.stock_id AND d.date = h.date
+        AND (d.updated_at > h.updated_at OR (d.updated_at = h.updated_at AND d.id > h.id))
+);
+
+CREATE FUNCTION pg_temp.has_unique_key(table_name TEXT, key_columns TEXT[]) RETURNS BOOLEAN
+LANGUAGE sql STABLE AS $$
+    SELECT EXISTS (
+        SELECT 1 FROM pg_index i
+        WHERE i.indrelid = to_regclass(table_name) AND i.indisunique AND i.indpred IS NULL
+            AND (SELECT array_agg(CAST(a.attname AS TEXT) ORDER BY a.attname) FROM pg_attribute a
+                 WHERE a.attrelid = i.indrelid AND a.attnum = ANY (i.indkey))
+                = (SELECT array_agg(c ORDER BY c) FROM unnest(key_columns) c)
+    )
+$$;
+
+CREATE FUNCTION pg_temp.has_foreign_key(table_name TEXT, key_columns TEXT[], referenced_table TEXT) RETURNS BOOLEAN
+LANGUAGE sql STABLE AS $$
+    SELECT EXISTS (
+        SELECT 1 FROM pg_constraint k
+        WHERE k.contype = 'f' AND k.conrelid = to_regclass(table_name)
+            AND k.confrelid = to_regclass(referenced_table)
+            AND (SELECT array_agg(CAST(a.attname AS TEXT) ORDER BY a.attname) FROM pg_attribute a
+                 WHERE a.attrelid = k.conrelid AND a.attnum = ANY (k.conkey))
+                = (SELECT array_agg(c ORDER BY c) FROM unnest(key_columns) c)
+    )
+$$;
+
+DO $$
+BEGIN
+    IF NOT pg_temp.has_unique_key('historical_prices', ARRAY['stock_id', 'date']) THEN
+        ALTER TABLE historical_prices ADD CONSTRAINT uk_historical_prices_stock_date UNIQUE (stock_id, date);
+    END IF;
+
+    -- NOT VALID setzt den Schlüssel für neue Zeilen durch, ohne an verwaisten Altdaten zu scheitern
+    IF NOT pg_temp.has_foreign_key('user_roles', ARRAY['user_id'], 'app_user') THEN
+        ALTER TABLE user_roles ADD CONSTRAINT fk_user_roles_user
+            FOREIGN KEY (user_id) REFERENCES app_user (id) NOT VALID;
+    END IF;
+    IF NOT pg_temp.has_foreign_key('portfolio', ARRAY['user_id'], 'app_user') THEN
+        ALTER TABLE portfolio ADD CONSTRAINT fk_portfolio_user
+            FOREIGN KEY (user_id) REFERENCES app_user (id) NOT VALID;
+    END IF;
+    IF NOT pg_temp.has_foreign_key('stock_transaction', ARRAY['stock_id'], 'stocks') THEN
+        ALTER TABLE stock_transaction ADD CONSTRAINT fk_stock_transaction_stock
+            FOREIGN KEY (stock_id) REFERENCES stocks (id) NOT VALID;
+    END IF;
+    IF NOT pg_temp.has_foreign_key('stock_transaction', ARRAY['portfolio_id'], 'portfolio') THEN
+        ALTER TABLE stock_transaction ADD CONSTRAINT fk_stock_transaction_portfolio
+            FOREIGN KEY (portfolio_id) REFERENCES portfolio (id) NOT VALID;
+    END IF;
+    IF NOT pg_temp.has_foreign_key('historical_prices', ARRAY['stock_id'], 'stocks') THEN
+        ALTER TABLE historical_prices ADD CONSTRAINT fk_historical_prices_stock
+            FOREIGN KEY (stock_id) REFERENCES stocks (id) NOT VALID;
+    END IF;
+END;
+$$;
@@ -0,0 +1,3 @@
+-- findByEmailIgnoreCase vergleicht upper(email); ohne Ausdrucksindex liest jeder Login die ganze Tabelle.
+-- H2 kennt keine Ausdrucksindizes, daher nur für PostgreSQL.
+CREATE INDEX IF NOT EXISTS idx_app_user_email_upper ON app_user (upper(email));
@@ -0,0 +1,91 @@
+package de.dtonal.stocktracker.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Vergleicht Latenz und Durchsatz des bisherigen {@code new RestTemplate()} mit dem gepoolten
+ * Finnhub-Client gegen einen lokalen Stub-Server. Läuft nur mit
+ * {@code mvn test -Dgroups=benchmark -Dtest.excludedGroups=}.
+ */
+@Tag("benchmark")
+class FinnhubClientConfigBenchmarkTest {
+
+    private static final int REQUESTS = 5_000;
+    private static final int CONCURRENCY = 16;
+
+    @Test
+    void comparePlainAndPooledRestTemplate() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 128);
+        server.setExecutor(Executors.newFixedThreadPool(CONCURRENCY));
+        server.createContext("/quote", exchange -> FinnhubClientConfigTest.respond(exchange,
+                "{\"c\":150.0,\"d\":1.2,\"dp\":0.8,\"h\":151.0,\"l\":149.0,\"o\":149.5,\"pc\":148.8}"));
+        server.start();
+        String url = "http://localhost:" + server.getAddress().getPort() + "/quote?symbol=AAPL";
+
+        FinnhubClientConfig config = new FinnhubClientConfig();
+        PoolingHttpClientConnectionManager connectionManager = config.finnhubConnectionManager(
+                CONCURRENCY, Duration.ofSeconds(2), Duration.ofSeconds(5), Duration.ofMinutes(5));
+        CloseableHttpClient httpClient = config.finnhubHttpClient(
+                connectionManager, Duration.ofSeconds(2), Duration.ofSeconds(5), Duration.ofSeconds(30));
+
+        try {
+            run("plain ", new RestTemplate(), url);
+            run("pooled", config.finnhubRestTemplate(httpClient), url);
+        } finally {
+            httpClient.close();
+            connectionManager.close();
+            server.stop(0);
+        }
+    }
+
+    private void run(String label, RestTemplate restTemplate, String url) throws Exception {
+        // Warm-up
+        for (int i = 0; i < 500; i++) {
+            restTemplate.getForObject(url, String.class);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+        long[] latencies = new long[REQUESTS];
+        List<Future<?>> futures = new ArrayList<>(REQUESTS);
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            int index = i;
+            futures.add(executor.submit(() -> {
+                long requestStart = System.nanoTime();
+                restTemplate.getForObject(url, String.class);
+                latencies[index] = System.nanoTime() - requestStart;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long wallNanos = System.nanoTime() - start;
+        executor.shutdown();
+
+        Arrays.sort(latencies);
+        System.out.printf("%s: %d requests in %d ms, %.0f req/s, p50 %.2f ms, p99 %.2f ms%n",
+                label, REQUESTS, TimeUnit.NANOSECONDS.toMillis(wallNanos),
+                REQUESTS / (wallNanos / 1e9),
+                latencies[REQUESTS / 2] / 1e6,
+                latencies[(int) (REQUESTS * 0.99)] / 1e6);
+        assertThat(latencies[0]).isPositive();
+    }
+}
@@ -0,0 +1,90 @@
+package de.dtonal.stocktracker.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+class FinnhubClientConfigTest {
+
+    private final FinnhubClientConfig config = new FinnhubClientConfig();
+
+    private HttpServer server;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+    private RestTemplate restTemplate;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/quote", exchange -> respond(exchange, "{\"c\":150.0}"));
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(1_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, "{}");
+        });
+        server.start();
+
+        connectionManager = config.finnhubConnectionManager(4, Duration.ofSeconds(1), Duration.ofMillis(200), Duration.ofMinutes(1));
+        httpClient = config.finnhubHttpClient(connectionManager, Duration.ofSeconds(1), Duration.ofMillis(200), Duration.ofSeconds(30));
+        restTemplate = config.finnhubRestTemplate(httpClient);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        connectionManager.close();
+        server.stop(0);
+    }
+
+    @Test
+    void finnhubRestTemplate_shouldReuseConnectionsFromPool() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(restTemplate.getForObject(baseUrl() + "/quote", String.class)).contains("150.0");
+        }
+
+        // Sequential calls keep a single persistent connection alive and return it to the pool
+        assertThat(connectionManager.getTotalStats().getLeased()).isZero();
+        assertThat(connectionManager.getTotalStats().getAvailable()).isEqualTo(1);
+    }
+
+    @Test
+    void finnhubRestTemplate_shouldFailFast_whenProviderHangs() {
+        long start = System.nanoTime();
+
+        assertThatThrownBy(() -> restTemplate.getForObject(baseUrl() + "/slow", String.class))
+                .isInstanceOf(ResourceAccessException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(900));
+    }
+
+    private String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -3,20 +3,27 @@ package de.dtonal.stocktracker.controller;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
@@ -29,14 +36,21 @@ import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import de.dtonal.stocktracker.config.ApplicationConfig;
 import de.dtonal.stocktracker.config.SecurityConfig;
+import de.dtonal.stocktracker.dto.HistoryInterval;
 import de.dtonal.stocktracker.dto.PortfolioCreateRequest;
+import de.dtonal.stocktracker.dto.PortfolioSummary;
+import de.dtonal.stocktracker.dto.PortfolioValuePoint;
 import de.dtonal.stocktracker.dto.PortfolioUpdateRequest;
 import de.dtonal.stocktracker.dto.StockTransactionRequest;
+import de.dtonal.stocktracker.dto.StockTransactionResponse;
+import de.dtonal.stocktracker.dto.TransactionFilter;
+import de.dtonal.stocktracker.dto.TransactionPage;
 import de.dtonal.stocktracker.model.Portfolio;
 import de.dtonal.stocktracker.model.PortfolioNotFoundException;
 import de.dtonal.stocktracker.model.Stock;
@@ -95,23 +109,16 @@ public class PortfolioControllerTest {
     @Test
     @WithMockUser(username = "test@example.com", roles = "USER")
     void getPortfoliosForCurrentUser_shouldSucceed() throws Exception {
-        Portfolio portfolio1 = new Portfolio();
-        portfolio1.setId("uuid-1");
-        de.dtonal.stocktracker.model.User user1 = new de.dtonal.stocktracker.model.User();
-        user1.setEmail("test@example.com");
-        portfolio1.setUser(user1);
-
-        Portfolio portfolio2 = new Portfolio();
-        portfolio2.setId("uuid-2");
-        de.dtonal.stocktracker.model.User user2 = new de.dtonal.stocktracker.model.User();
-        user2.setEmail("test2@example.com");
-        portfolio2.setUser(user2);
-
-        when(portfolioService.findPortfoliosForCurrentUser()).thenReturn(List.of(portfolio1, portfolio2));
+        when(portfolioService.findPortfolioSummariesForCurrentUser()).thenReturn(List.of(
+                new PortfolioSummary("uuid-1", "Tech", null, 3, LocalDateTime.of(2024, 3, 1, 10, 0)),
+                new PortfolioSummary("uuid-2", "Empty", null, 0, null)));
 
         mockMvc.perform(get("/api/portfolios"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(2)));
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].transactionCount").value(3))
+                .andExpect(jsonPath("$[0].transactions").doesNotExist())
+                .andExpect(jsonPath("$[1].lastActivity").isEmpty());
     }
 
     @Test
@@ -241,4 +248,80 @@ public class PortfolioControllerTest {
                 .with(csrf()))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    @WithMockUser(username = "test@example.com", roles = "USER")
+    void getTransactions_shouldPassFiltersAndReturnPage() throws Exception {
+        when(portfolioService.findById("portfolio-123")).thenReturn(Optional.of(new Portfolio()));
+        TransactionFilter filter = new TransactionFilter("AAPL", TransactionType.SELL, LocalDate.of(2024, 1, 1), null);
+        when(portfolioService.getTransactions("portfolio-123", filter, "abc", 2)).thenReturn(new TransactionPage(
+                List.of(new StockTransactionResponse("tx-1", "stock-1", "AAPL", TransactionType.SELL,
+                        BigDecimal.ONE, BigDecimal.TEN, LocalDateTime.of(2024, 1, 5, 10, 0))),
+                "next"));
+
+        mockMvc.perform(get("/api/portfolios/{id}/transactions", "portfolio-123")
+                .param("symbol", "AAPL")
+                .param("type", "SELL")
+                .param("from", "2024-01-01")
+                .param("cursor", "abc")
+                .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].id").value("tx-1"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    @WithMockUser(username = "test@example.com", roles = "USER")
+    void getTransactions_whenPortfolioNotAccessible_shouldReturn404() throws Exception {
+        when(portfolioService.findById("portfolio-123")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/portfolios/{id}/transactions", "portfolio-123"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "test@example.com", roles = "USER")
+    void getPortfolioHistory_shouldStreamPointsAsJsonArray() throws Exception {
+        when(portfolioService.findById("portfolio-123")).thenReturn(Optional.of(new Portfolio()));
+        doAnswer(invocation -> {
+            Consumer<PortfolioValuePoint> consumer = invocation.getArgument(4);
+            consumer.accept(new PortfolioValuePoint(LocalDate.of(2024, 1, 7), new BigDecimal("155.00")));
+            consumer.accept(new PortfolioValuePoint(LocalDate.of(2024, 1, 10), new BigDecimal("143.00")));
+            return null;
+        }).when(portfolioService).streamPortfolioHistory(eq("portfolio-123"), eq(LocalDate.of(2024, 1, 1)),
+                eq(LocalDate.of(2024, 1, 10)), eq(HistoryInterval.WEEKLY), any());
+
+        MvcResult result = mockMvc.perform(get("/api/portfolios/{id}/history", "portfolio-123")
+                .param("from", "2024-01-01")
+                .param("to", "2024-01-10")
+                .param("interval", "WEEKLY"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].date").value("2024-01-07"))
+                .andExpect(jsonPath("$[1].value").value(143.00));
+    }
+
+    @Test
+    @WithMockUser(username = "test@example.com", roles = "USER")
+    void getPortfolioHistory_whenPortfolioNotAccessible_shouldReturn404() throws Exception {
+        when(portfolioService.findById("portfolio-123")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/portfolios/{id}/history", "portfolio-123")
+                .param("from", "2024-01-01"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "test@example.com", roles = "USER")
+    void getPortfolioHistory_whenRangeIsInverted_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/portfolios/{id}/history", "portfolio-123")
+                .param("from", "2024-02-01")
+                .param("to", "2024-01-01"))
+                .andExpect(status().isBadRequest());
+    }
 }
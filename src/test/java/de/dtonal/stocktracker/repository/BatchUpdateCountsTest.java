@@ -0,0 +1,23 @@
+package de.dtonal.stocktracker.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Statement;
+
+import org.junit.jupiter.api.Test;
+
+class BatchUpdateCountsTest {
+
+    @Test
+    void rowsWritten_shouldSumCountsOfAllBatches() {
+        assertThat(BatchUpdateCounts.rowsWritten(new int[][] { { 1, 0, 1 }, { 1 } })).isEqualTo(3);
+    }
+
+    @Test
+    void rowsWritten_shouldCountStatementsWithoutInfoAsOneRow() {
+        int[][] rewritten = { { Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO } };
+
+        assertThat(BatchUpdateCounts.rowsWritten(rewritten)).isEqualTo(2);
+        assertThat(BatchUpdateCounts.rowsWritten(new int[][] { { Statement.EXECUTE_FAILED, 1 } })).isEqualTo(1);
+    }
+}
@@ -1,6 +1,7 @@
 package de.dtonal.stocktracker.repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.within;
 
 import java.math.BigDecimal;
@@ -8,7 +9,9 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,8 +20,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 
+import de.dtonal.stocktracker.dto.PricePoint;
 import de.dtonal.stocktracker.model.HistoricalPrice;
 import de.dtonal.stocktracker.model.Stock;
+import jakarta.persistence.PersistenceException;
 
 @DataJpaTest
 @Tag("integration")
@@ -158,6 +163,135 @@ public class HistoricalPriceRepositoryTest {
         assertThat(found).isNotPresent();
     }
 
+    @Test
+    public void testFindStockIdsWithPriceOnDate() {
+        Stock stock2 = new Stock("MSFT", "Microsoft Corporation", "NASDAQ", "USD");
+        stockRepository.save(stock2);
+        LocalDate today = LocalDate.now();
+
+        HistoricalPrice price1 = new HistoricalPrice(testStock, today, new BigDecimal("150.00"));
+        HistoricalPrice price2 = new HistoricalPrice(stock2, today.minusDays(1), new BigDecimal("300.00"));
+        historicalPriceRepository.saveAll(List.of(price1, price2));
+        entityManager.flush();
+        entityManager.clear();
+
+        Set<String> pricedToday = historicalPriceRepository.findStockIdsWithPriceOnDate(today);
+        assertThat(pricedToday).containsExactly(testStock.getId());
+        assertThat(historicalPriceRepository.findStockIdsWithPriceOnDate(today.minusDays(2))).isEmpty();
+    }
+
+    @Test
+    public void testFindLatestClosingPrices() {
+        Stock stock2 = new Stock("MSFT", "Microsoft Corporation", "NASDAQ", "USD");
+        Stock stock3 = new Stock("GOOG", "Alphabet Inc.", "NASDAQ", "USD");
+        stockRepository.saveAll(List.of(stock2, stock3));
+        LocalDate today = LocalDate.now();
+
+        historicalPriceRepository.saveAll(List.of(
+                new HistoricalPrice(testStock, today.minusDays(2), new BigDecimal("148.00")),
+                new HistoricalPrice(testStock, today, new BigDecimal("150.00")),
+                new HistoricalPrice(testStock, today.minusDays(1), new BigDecimal("149.00")),
+                new HistoricalPrice(stock2, today.minusDays(3), new BigDecimal("300.00"))));
+        entityManager.flush();
+        entityManager.clear();
+
+        Map<String, BigDecimal> latest = historicalPriceRepository.findLatestClosingPrices(
+                List.of(testStock.getId(), stock2.getId(), stock3.getId()));
+
+        assertThat(latest).hasSize(2);
+        assertThat(latest.get(testStock.getId())).isEqualByComparingTo("150.00");
+        assertThat(latest.get(stock2.getId())).isEqualByComparingTo("300.00");
+        assertThat(latest).doesNotContainKey(stock3.getId());
+    }
+
+    @Test
+    public void testFindClosingPricesAsOf() {
+        LocalDate today = LocalDate.now();
+        historicalPriceRepository.saveAll(List.of(
+                new HistoricalPrice(testStock, today.minusDays(3), new BigDecimal("147.00")),
+                new HistoricalPrice(testStock, today.minusDays(1), new BigDecimal("149.00")),
+                new HistoricalPrice(testStock, today, new BigDecimal("150.00"))));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(historicalPriceRepository.findClosingPricesAsOf(List.of(testStock.getId()), today.minusDays(2)))
+                .containsOnlyKeys(testStock.getId())
+                .hasEntrySatisfying(testStock.getId(), price -> assertThat(price).isEqualByComparingTo("147.00"));
+        assertThat(historicalPriceRepository.findClosingPricesAsOf(List.of(testStock.getId()), today.minusDays(4)))
+                .isEmpty();
+    }
+
+    @Test
+    public void testFindLatestClosingPricesOutsideRecentWindow() {
+        Stock stock2 = new Stock("MSFT", "Microsoft Corporation", "NASDAQ", "USD");
+        stockRepository.save(stock2);
+        LocalDate today = LocalDate.now();
+        historicalPriceRepository.saveAll(List.of(
+                new HistoricalPrice(testStock, today, new BigDecimal("150.00")),
+                new HistoricalPrice(stock2, today.minusDays(200), new BigDecimal("290.00")),
+                new HistoricalPrice(stock2, today.minusDays(100), new BigDecimal("300.00"))));
+        entityManager.flush();
+        entityManager.clear();
+
+        Map<String, BigDecimal> latest = historicalPriceRepository.findLatestClosingPrices(
+                List.of(testStock.getId(), stock2.getId()));
+        Map<String, BigDecimal> asOf = historicalPriceRepository.findClosingPricesAsOf(
+                List.of(testStock.getId(), stock2.getId()), today.minusDays(150));
+
+        assertThat(latest.get(testStock.getId())).isEqualByComparingTo("150.00");
+        assertThat(latest.get(stock2.getId())).isEqualByComparingTo("300.00");
+        assertThat(asOf).containsOnlyKeys(stock2.getId());
+        assertThat(asOf.get(stock2.getId())).isEqualByComparingTo("290.00");
+    }
+
+    @Test
+    public void testFindLatestClosingPricesEmpty() {
+        assertThat(historicalPriceRepository.findLatestClosingPrices(List.of())).isEmpty();
+        assertThat(historicalPriceRepository.findLatestClosingPrices(List.of("unknown-id"))).isEmpty();
+    }
+
+    @Test
+    public void testInsertIfAbsent() {
+        LocalDate today = LocalDate.now();
+
+        boolean first = historicalPriceRepository.insertIfAbsent(new HistoricalPrice(testStock, today, new BigDecimal("150.00")));
+        boolean second = historicalPriceRepository.insertIfAbsent(new HistoricalPrice(testStock, today, new BigDecimal("151.00")));
+        entityManager.clear();
+
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        List<HistoricalPrice> found = historicalPriceRepository.findByStock(testStock);
+        assertThat(found).hasSize(1);
+        assertThat(found.get(0).getClosingPrice()).isEqualByComparingTo("150.00");
+        assertThat(found.get(0).getCreatedAt()).isNotNull();
+    }
+
+    @Test
+    public void testInsertAllIfAbsentSkipsExistingRows() {
+        LocalDate today = LocalDate.now();
+        historicalPriceRepository.save(new HistoricalPrice(testStock, today, new BigDecimal("150.00")));
+        entityManager.flush();
+        entityManager.clear();
+
+        int inserted = historicalPriceRepository.insertAllIfAbsent(List.of(
+                new HistoricalPrice(testStock, today, new BigDecimal("999.00")),
+                new HistoricalPrice(testStock, today.minusDays(1), new BigDecimal("149.00"))));
+
+        assertThat(inserted).isEqualTo(1);
+        assertThat(historicalPriceRepository.findByStock(testStock)).hasSize(2);
+        assertThat(historicalPriceRepository.findByStockAndDate(testStock, today).get().getClosingPrice())
+                .isEqualByComparingTo("150.00");
+    }
+
+    @Test
+    public void testUniqueStockAndDate() {
+        LocalDate today = LocalDate.now();
+        historicalPriceRepository.save(new HistoricalPrice(testStock, today, new BigDecimal("150.00")));
+        historicalPriceRepository.save(new HistoricalPrice(testStock, today, new BigDecimal("151.00")));
+
+        assertThatThrownBy(() -> entityManager.flush()).isInstanceOf(PersistenceException.class);
+    }
+
     @Test
     public void testFindByClosingPriceGreaterThan() {
         HistoricalPrice price1 = new HistoricalPrice(testStock, LocalDate.now(), new BigDecimal("150.00"));
@@ -321,6 +455,21 @@ public class HistoricalPriceRepositoryTest {
         assertThat(found).isEmpty();
     }
 
+    @Test
+    public void testFindPricePointsOrderedByDate() {
+        HistoricalPrice later = new HistoricalPrice(testStock, LocalDate.of(2024, 1, 3), new BigDecimal("151.00"));
+        HistoricalPrice earlier = new HistoricalPrice(testStock, LocalDate.of(2024, 1, 2), new BigDecimal("150.00"));
+        historicalPriceRepository.saveAll(List.of(later, earlier));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<PricePoint> points = historicalPriceRepository.findPricePoints(testStock.getId());
+
+        assertThat(points).containsExactly(
+                new PricePoint(testStock.getId(), LocalDate.of(2024, 1, 2), new BigDecimal("150.00")),
+                new PricePoint(testStock.getId(), LocalDate.of(2024, 1, 3), new BigDecimal("151.00")));
+    }
+
     @Test
     public void testMultipleStocks() {
         Stock stock2 = new Stock("MSFT", "Microsoft Corporation", "NASDAQ", "USD");
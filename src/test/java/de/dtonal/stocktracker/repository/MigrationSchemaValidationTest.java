@@ -0,0 +1,33 @@
+package de.dtonal.stocktracker.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Baut das Schema nur aus den Flyway-Migrationen auf und lässt Hibernate es wie in Produktion
+ * ({@code ddl-auto=validate}) gegen die Entitäten prüfen. Eine neue Entität oder Spalte ohne
+ * Migration verhindert bereits den Start des Kontexts.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.generate-ddl=false",
+        "spring.jpa.hibernate.ddl-auto=validate" })
+@Tag("integration")
+class MigrationSchemaValidationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void migrationsMatchEntities() {
+        // Reaching this point means Hibernate accepted the migrated schema
+        Integer applied = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM \"flyway_schema_history\" WHERE \"success\" = TRUE", Integer.class);
+        assertThat(applied).isPositive();
+    }
+}
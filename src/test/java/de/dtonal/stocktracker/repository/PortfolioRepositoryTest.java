@@ -3,6 +3,7 @@ package de.dtonal.stocktracker.repository;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.within;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
@@ -17,8 +18,13 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import de.dtonal.stocktracker.dto.PortfolioSummary;
 import de.dtonal.stocktracker.model.Portfolio;
+import de.dtonal.stocktracker.model.Stock;
+import de.dtonal.stocktracker.model.StockTransaction;
+import de.dtonal.stocktracker.model.TransactionType;
 import de.dtonal.stocktracker.model.User;
+import jakarta.persistence.PersistenceUnitUtil;
 
 @DataJpaTest
 @Tag("integration")
@@ -29,6 +35,9 @@ public class PortfolioRepositoryTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private StockRepository stockRepository;
+
     @Autowired
     private TestEntityManager entityManager;
 
@@ -236,4 +245,61 @@ public class PortfolioRepositoryTest {
         List<Portfolio> found = portfolioRepository.findByUserId("999L");
         assertThat(found).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testFindSummariesByUserId() {
+        Stock stock = stockRepository.save(new Stock("AAPL", "Apple Inc.", "NASDAQ", "USD"));
+        Portfolio active = new Portfolio("Active", "With transactions", testUser);
+        active.addTransaction(new StockTransaction(stock, active, LocalDateTime.of(2024, 1, 2, 10, 0),
+                new BigDecimal("5"), new BigDecimal("100"), TransactionType.BUY));
+        active.addTransaction(new StockTransaction(stock, active, LocalDateTime.of(2024, 2, 3, 10, 0),
+                new BigDecimal("2"), new BigDecimal("110"), TransactionType.SELL));
+        Portfolio empty = new Portfolio("Empty", null, testUser);
+        portfolioRepository.saveAll(List.of(active, empty));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<PortfolioSummary> summaries = portfolioRepository.findSummariesByUserId(testUser.getId());
+
+        assertThat(summaries).extracting(PortfolioSummary::name).containsExactlyInAnyOrder("Active", "Empty");
+        PortfolioSummary activeSummary = summaries.stream().filter(summary -> summary.name().equals("Active"))
+                .findFirst().orElseThrow();
+        assertThat(activeSummary.transactionCount()).isEqualTo(2);
+        assertThat(activeSummary.lastActivity()).isEqualTo(LocalDateTime.of(2024, 2, 3, 10, 0));
+        PortfolioSummary emptySummary = summaries.stream().filter(summary -> summary.name().equals("Empty"))
+                .findFirst().orElseThrow();
+        assertThat(emptySummary.transactionCount()).isZero();
+        assertThat(emptySummary.lastActivity()).isNull();
+    }
+
+    @Test
+    public void testFindWithTransactionsById() {
+        Stock stock = stockRepository.save(new Stock("AAPL", "Apple Inc.", "NASDAQ", "USD"));
+        Portfolio portfolio = new Portfolio("Test Portfolio", "Test Description", testUser);
+        portfolio.addTransaction(new StockTransaction(stock, portfolio, LocalDateTime.of(2024, 1, 2, 10, 0),
+                new BigDecimal("5"), new BigDecimal("100"), TransactionType.BUY));
+        portfolioRepository.save(portfolio);
+        entityManager.flush();
+        entityManager.clear();
+
+        Portfolio found = portfolioRepository.findWithTransactionsById(portfolio.getId()).orElseThrow();
+        PersistenceUnitUtil persistenceUnitUtil = entityManager.getEntityManager().getEntityManagerFactory()
+                .getPersistenceUnitUtil();
+
+        assertThat(persistenceUnitUtil.isLoaded(found, "transactions")).isTrue();
+        assertThat(found.getTransactions()).hasSize(1);
+        assertThat(persistenceUnitUtil.isLoaded(found.getTransactions().get(0), "stock")).isTrue();
+    }
+
+    @Test
+    public void testFindByIdDoesNotLoadTransactions() {
+        Portfolio portfolio = portfolioRepository.save(new Portfolio("Test Portfolio", "Test Description", testUser));
+        entityManager.flush();
+        entityManager.clear();
+
+        Portfolio found = portfolioRepository.findById(portfolio.getId()).orElseThrow();
+
+        assertThat(entityManager.getEntityManager().getEntityManagerFactory().getPersistenceUnitUtil()
+                .isLoaded(found, "transactions")).isFalse();
+    }
+}
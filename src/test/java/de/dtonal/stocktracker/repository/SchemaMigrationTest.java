@@ -0,0 +1,332 @@
+package de.dtonal.stocktracker.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.flywaydb.core.Flyway;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import de.dtonal.stocktracker.dto.HistoryInterval;
+import de.dtonal.stocktracker.dto.QuantityChange;
+import de.dtonal.stocktracker.dto.TransactionCursor;
+import de.dtonal.stocktracker.dto.TransactionFilter;
+import de.dtonal.stocktracker.model.TransactionType;
+
+/**
+ * Baut das Schema mit den Flyway-Migrationen statt aus den Entitäten auf, füllt die Tabellen mit
+ * genügend Zeilen und prüft per {@code EXPLAIN}, dass die Abfragen der Repositories über Indizes
+ * laufen. Geprüft wird das SQL, das Hibernate tatsächlich erzeugt.
+ *
+ * H2 kennt keine Ausdrucksindizes; {@code findByEmailIgnoreCase} ist deshalb nur unter PostgreSQL
+ * abgedeckt (V9__app_user_email_ignore_case_index).
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.generate-ddl=false",
+        "spring.jpa.hibernate.ddl-auto=none" })
+@Tag("integration")
+public class SchemaMigrationTest {
+
+    private static final int USERS = 500;
+    private static final int STOCKS = 300;
+    private static final int TRANSACTIONS = 12_000;
+    private static final int PRICE_DAYS = 60;
+    private static final int SNAPSHOT_DAYS = 30;
+    // Index chosen by H2 in a plan comment, e.g. "/* PUBLIC.IDX_X: STOCK_ID = ?1 */"
+    private static final Pattern INDEX_USAGE = Pattern.compile("/\\* PUBLIC\\.(\\w+)(?:: ([^*]*))? \\*/");
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 2, 9, 0);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CapturingStatementInspector statementInspector;
+
+    @Autowired
+    private StockTransactionRepository stockTransactionRepository;
+
+    @Autowired
+    private HistoricalPriceRepository historicalPriceRepository;
+
+    @Autowired
+    private PriceRollupRepository priceRollupRepository;
+
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private PortfolioHoldingRepository portfolioHoldingRepository;
+
+    @Autowired
+    private PortfolioDailyValueRepository portfolioDailyValueRepository;
+
+    @TestConfiguration
+    static class StatementCaptureConfig {
+        @Bean
+        CapturingStatementInspector capturingStatementInspector() {
+            return new CapturingStatementInspector();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer statementInspectorCustomizer(CapturingStatementInspector inspector) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+        }
+    }
+
+    static class CapturingStatementInspector implements StatementInspector {
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+
+    @BeforeEach
+    void seed() {
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_transaction", Integer.class);
+        if (existing != null && existing > 0) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(START);
+
+        List<Object[]> users = new ArrayList<>();
+        List<Object[]> roles = new ArrayList<>();
+        List<Object[]> portfolios = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(new Object[] { userId(i), "User " + i, "user" + i + "@example.com", "secret", now, now });
+            roles.add(new Object[] { userId(i), "USER" });
+            portfolios.add(new Object[] { portfolioId(i), "Depot " + i, userId(i), now, now });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO app_user (id, name, email, password, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", users);
+        jdbcTemplate.batchUpdate("INSERT INTO user_roles (user_id, role) VALUES (?, ?)", roles);
+        jdbcTemplate.batchUpdate("INSERT INTO portfolio (id, name, user_id, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, ?)", portfolios);
+
+        List<Object[]> stocks = new ArrayList<>();
+        List<Object[]> prices = new ArrayList<>();
+        for (int s = 0; s < STOCKS; s++) {
+            stocks.add(new Object[] { stockId(s), "SYM" + s, "Stock " + s, "XETRA", "EUR", now, now });
+            for (int d = 0; d < PRICE_DAYS; d++) {
+                prices.add(new Object[] { "hp-" + s + "-" + d, stockId(s), Date.valueOf(START.toLocalDate().plusDays(d)),
+                        BigDecimal.valueOf(100 + d), now, now });
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO stocks (id, symbol, name, exchange, currency, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)", stocks);
+        jdbcTemplate.batchUpdate("INSERT INTO historical_prices (id, stock_id, date, closing_price, created_at, "
+                + "updated_at) VALUES (?, ?, ?, ?, ?, ?)", prices);
+
+        List<Object[]> transactions = new ArrayList<>();
+        Set<String> holdings = new LinkedHashSet<>();
+        for (int t = 0; t < TRANSACTIONS; t++) {
+            int portfolio = t % USERS;
+            int stock = (t * 7) % STOCKS;
+            transactions.add(new Object[] { "tx-" + t, stockId(stock), portfolioId(portfolio),
+                    Timestamp.valueOf(START.plusMinutes(t * 37L)), BigDecimal.TEN, BigDecimal.valueOf(100),
+                    "BUY", now, now });
+            holdings.add(portfolio + ":" + stock);
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO stock_transaction (id, stock_id, portfolio_id, transaction_date, "
+                + "quantity, price_per_share, transaction_type, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", transactions);
+
+        List<Object[]> holdingRows = new ArrayList<>();
+        for (String holding : holdings) {
+            String[] parts = holding.split(":");
+            holdingRows.add(new Object[] { portfolioId(Integer.parseInt(parts[0])), stockId(Integer.parseInt(parts[1])),
+                    BigDecimal.TEN, BigDecimal.valueOf(1000), 1L, now, now });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO portfolio_holding (portfolio_id, stock_id, net_quantity, total_cost, "
+                + "transaction_count, last_transaction_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)", holdingRows);
+
+        List<Object[]> snapshots = new ArrayList<>();
+        for (int p = 0; p < USERS; p++) {
+            for (int d = 0; d < SNAPSHOT_DAYS; d++) {
+                snapshots.add(new Object[] { portfolioId(p), Date.valueOf(START.toLocalDate().plusDays(d)),
+                        BigDecimal.valueOf(1000 + d), now });
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO portfolio_daily_value (portfolio_id, date, \"value\", created_at) "
+                + "VALUES (?, ?, ?, ?)", snapshots);
+    }
+
+    @Test
+    void transactionQueriesUseIndexes() {
+        String portfolioId = portfolioId(42);
+        String stockId = stockId((42 * 7) % STOCKS);
+
+        assertNoTableScan(() -> stockTransactionRepository.findByPortfolioId(portfolioId));
+        assertNoTableScan(() -> stockTransactionRepository.findByPortfolioIdAndStockSymbol(portfolioId, "SYM1"));
+        assertNoTableScan(() -> stockTransactionRepository.findByStockId(stockId));
+        assertNoTableScan(() -> stockTransactionRepository.findLatestTransactionDate(portfolioId, stockId, "tx-0"));
+        assertNoTableScan(() -> stockTransactionRepository.findLotTransactions(portfolioId, stockId));
+        assertNoTableScan(() -> {
+            try (Stream<QuantityChange> changes = stockTransactionRepository.streamQuantityChanges(portfolioId,
+                    START.plusYears(1))) {
+                changes.count();
+            }
+        });
+        assertNoTableScan(() -> stockTransactionRepository.findPage(portfolioId,
+                new TransactionFilter(null, null, null, null), new TransactionCursor(START.plusDays(30), "tx-999"), 50));
+        assertNoTableScan(() -> stockTransactionRepository.findPage(portfolioId,
+                new TransactionFilter("SYM1", TransactionType.BUY, START.toLocalDate(), START.toLocalDate().plusDays(90)),
+                null, 50));
+    }
+
+    @Test
+    void priceQueriesUseIndexes() {
+        LocalDate day = START.toLocalDate().plusDays(10);
+
+        assertNoTableScan(() -> historicalPriceRepository.findPricePoints(stockId(7)));
+        assertNoTableScan(() -> historicalPriceRepository.findPricePointsBetween(List.of(stockId(1), stockId(2)),
+                day, day.plusDays(6)));
+        assertNoTableScan(() -> priceRollupRepository
+                .findByStockIdAndResolutionAndPeriodStartBetweenOrderByPeriodStartAsc(stockId(7),
+                        HistoryInterval.WEEKLY, day, day.plusYears(1)));
+        assertNoTableScan(() -> historicalPriceRepository.findStockIdsWithPriceOnDate(day));
+        assertNoTableScan(() -> historicalPriceRepository.findClosingPricesAsOf(List.of(stockId(1), stockId(2)), day));
+        assertNoTableScan(() -> historicalPriceRepository.findLatestClosingPrices(List.of(stockId(1), stockId(2))));
+        assertNoTableScan(() -> {
+            try (var points = historicalPriceRepository.streamPortfolioPrices(portfolioId(3), day, day.plusDays(5))) {
+                points.count();
+            }
+        });
+    }
+
+    @Test
+    void portfolioAndStockQueriesUseIndexes() {
+        String portfolioId = portfolioId(7);
+        LocalDate day = START.toLocalDate();
+
+        assertNoTableScan(() -> portfolioRepository.findSummariesByUserId(userId(7)));
+        assertNoTableScan(() -> portfolioRepository.findByUserId(userId(7)));
+        assertNoTableScan(() -> portfolioRepository.isOwnerOfPortfolio(portfolioId, "user7@example.com"));
+        assertNoTableScan(() -> portfolioRepository.findWithTransactionsById(portfolioId));
+        assertNoTableScan(() -> portfolioRepository.lockById(portfolioId));
+        assertNoTableScan(() -> stockRepository.findBySymbol("SYM5"));
+        assertNoTableScan(() -> portfolioHoldingRepository.findByPortfolioId(portfolioId));
+        assertNoTableScan(() -> portfolioHoldingRepository.findNetQuantity(portfolioId, "SYM5"));
+        assertNoTableScan(() -> portfolioDailyValueRepository.findByPortfolioIdAndDateBetweenOrderByDateAsc(
+                portfolioId, day, day.plusDays(10)));
+    }
+
+    @Test
+    void holdingBackfillAggregatesExistingTransactions() {
+        // Own database: the shared one is already migrated and seeded
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:holding_backfill;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate legacy = new JdbcTemplate(dataSource);
+        migrate(dataSource, "3");
+        Timestamp now = Timestamp.valueOf(START);
+        legacy.update("INSERT INTO app_user (id, name, email, password, created_at, updated_at) "
+                + "VALUES ('u', 'User', 'u@example.com', 'secret', ?, ?)", now, now);
+        legacy.update("INSERT INTO portfolio (id, name, user_id, created_at, updated_at) "
+                + "VALUES ('p', 'Depot', 'u', ?, ?)", now, now);
+        legacy.update("INSERT INTO stocks (id, symbol, name, exchange, currency, created_at, updated_at) "
+                + "VALUES ('s', 'SYM', 'Stock', 'XETRA', 'EUR', ?, ?)", now, now);
+        Object[][] transactions = {
+                { "t1", START, "10", "100.00", "BUY" },
+                { "t2", START.plusDays(2), "4", "120.00", "SELL" },
+                { "t3", START.plusDays(1), "1", "90.00", "BUY" } };
+        for (Object[] t : transactions) {
+            legacy.update("INSERT INTO stock_transaction (id, stock_id, portfolio_id, transaction_date, quantity, "
+                    + "price_per_share, transaction_type, created_at, updated_at) VALUES (?, 's', 'p', ?, ?, ?, ?, ?, ?)",
+                    t[0], Timestamp.valueOf((LocalDateTime) t[1]), new BigDecimal((String) t[2]),
+                    new BigDecimal((String) t[3]), t[4], now, now);
+        }
+
+        migrate(dataSource, "latest");
+
+        Map<String, Object> holding = legacy.queryForMap("SELECT net_quantity, total_cost, transaction_count, "
+                + "last_transaction_at FROM portfolio_holding WHERE portfolio_id = 'p' AND stock_id = 's'");
+        assertThat((BigDecimal) holding.get("NET_QUANTITY")).isEqualByComparingTo("7");
+        assertThat((BigDecimal) holding.get("TOTAL_COST")).isEqualByComparingTo("610");
+        assertThat(((Number) holding.get("TRANSACTION_COUNT")).longValue()).isEqualTo(3);
+        assertThat(holding.get("LAST_TRANSACTION_AT")).isEqualTo(Timestamp.valueOf(START.plusDays(2)));
+        legacy.execute("SHUTDOWN");
+    }
+
+    private static void migrate(DriverManagerDataSource dataSource, String target) {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .target(target)
+                .load()
+                .migrate();
+    }
+
+    /**
+     * Führt die Abfrage aus und prüft den Plan jedes dabei erzeugten SELECT.
+     */
+    private void assertNoTableScan(Runnable query) {
+        statementInspector.statements.clear();
+        query.run();
+        List<String> selects = statementInspector.statements.stream()
+                .filter(sql -> sql.trim().regionMatches(true, 0, "select", 0, 6))
+                .toList();
+        assertThat(selects).isNotEmpty();
+        for (String sql : selects) {
+            // Parameters stay unbound; plain EXPLAIN in H2 plans without evaluating them
+            String plan = jdbcTemplate.query(connection -> connection.prepareStatement("EXPLAIN " + sql),
+                    (ResultSet rs) -> rs.next() ? rs.getString(1) : "");
+            assertThat(plan).as("Plan für %s", sql).doesNotContainIgnoringCase("tableScan");
+            // H2 also walks a whole index when its leading column is not constrained
+            Matcher usage = INDEX_USAGE.matcher(plan);
+            while (usage.find()) {
+                String leadingColumn = leadingColumn(usage.group(1));
+                String condition = usage.group(2) != null ? usage.group(2) : "";
+                assertThat(condition).as("Führende Spalte von %s in %s", usage.group(1), plan)
+                        .containsPattern("\\b" + leadingColumn + "\\b");
+            }
+        }
+    }
+
+    private String leadingColumn(String indexName) {
+        return jdbcTemplate.queryForObject("SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.INDEX_COLUMNS "
+                + "WHERE INDEX_NAME = ? AND ORDINAL_POSITION = 1", String.class, indexName);
+    }
+
+    private static String userId(int i) {
+        return "user-" + i;
+    }
+
+    private static String portfolioId(int i) {
+        return "portfolio-" + i;
+    }
+
+    private static String stockId(int i) {
+        return "stock-" + i;
+    }
+}
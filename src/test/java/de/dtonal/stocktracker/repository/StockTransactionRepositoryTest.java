@@ -4,8 +4,11 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.within;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +21,9 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import de.dtonal.stocktracker.dto.StockTransactionResponse;
+import de.dtonal.stocktracker.dto.TransactionCursor;
+import de.dtonal.stocktracker.dto.TransactionFilter;
 import de.dtonal.stocktracker.model.Portfolio;
 import de.dtonal.stocktracker.model.Stock;
 import de.dtonal.stocktracker.model.StockTransaction;
@@ -423,4 +429,56 @@ public class StockTransactionRepositoryTest {
         entityManager.flush();
         entityManager.clear();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testFindPageWalksAllTransactionsNewestFirst() {
+        LocalDateTime sameTime = LocalDateTime.of(2024, 3, 1, 10, 0);
+        for (int i = 0; i < 5; i++) {
+            // Three transactions share a timestamp so the id has to break the tie
+            LocalDateTime date = i < 3 ? sameTime : sameTime.plusDays(i);
+            stockTransactionRepository.save(new StockTransaction(testStock, testPortfolio, date,
+                    bd("1"), bd("100.00"), TransactionType.BUY));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        TransactionFilter noFilter = new TransactionFilter(null, null, null, null);
+        List<StockTransactionResponse> all = new ArrayList<>();
+        TransactionCursor cursor = null;
+        do {
+            List<StockTransactionResponse> page = stockTransactionRepository.findPage(testPortfolio.getId(), noFilter, cursor, 2);
+            all.addAll(page);
+            StockTransactionResponse last = page.isEmpty() ? null : page.get(page.size() - 1);
+            cursor = page.size() < 2 ? null : new TransactionCursor(last.getTransactionDate(), last.getId());
+        } while (cursor != null);
+
+        assertThat(all).hasSize(5);
+        assertThat(all).extracting(StockTransactionResponse::getId).doesNotHaveDuplicates();
+        assertThat(all).extracting(StockTransactionResponse::getTransactionDate)
+                .isSortedAccordingTo(Comparator.reverseOrder());
+        assertThat(all.get(0).getStockSymbol()).isEqualTo("AAPL");
+    }
+
+    @Test
+    public void testFindPageAppliesFilters() {
+        Stock otherStock = stockRepository.save(new Stock("MSFT", "Microsoft", "NASDAQ", "USD"));
+        stockTransactionRepository.save(new StockTransaction(testStock, testPortfolio,
+                LocalDateTime.of(2024, 1, 10, 9, 0), bd("5"), bd("100.00"), TransactionType.BUY));
+        stockTransactionRepository.save(new StockTransaction(testStock, testPortfolio,
+                LocalDateTime.of(2024, 1, 31, 23, 0), bd("2"), bd("110.00"), TransactionType.SELL));
+        stockTransactionRepository.save(new StockTransaction(testStock, testPortfolio,
+                LocalDateTime.of(2024, 2, 1, 9, 0), bd("1"), bd("120.00"), TransactionType.SELL));
+        stockTransactionRepository.save(new StockTransaction(otherStock, testPortfolio,
+                LocalDateTime.of(2024, 1, 15, 9, 0), bd("3"), bd("300.00"), TransactionType.SELL));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<StockTransactionResponse> page = stockTransactionRepository.findPage(testPortfolio.getId(),
+                new TransactionFilter("AAPL", TransactionType.SELL, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)),
+                null, 10);
+
+        assertThat(page).hasSize(1);
+        assertThat(page.get(0).getTransactionDate()).isEqualTo(LocalDateTime.of(2024, 1, 31, 23, 0));
+        assertBigDecimalEquals(page.get(0).getQuantity(), "2");
+    }
+}
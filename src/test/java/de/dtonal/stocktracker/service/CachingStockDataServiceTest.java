@@ -0,0 +1,177 @@
+package de.dtonal.stocktracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+import de.dtonal.stocktracker.dto.CompanyProfile;
+import de.dtonal.stocktracker.dto.PriceData;
+import de.dtonal.stocktracker.dto.StockSearchItem;
+import de.dtonal.stocktracker.dto.StockSearchResult;
+
+@ExtendWith(MockitoExtension.class)
+class CachingStockDataServiceTest {
+
+    @Mock
+    private StockDataService delegate;
+
+    @Mock
+    private CompanyProfileStore profileStore;
+
+    private final AtomicLong now = new AtomicLong();
+    private CachingStockDataService cachingStockDataService;
+    private PriceData priceData;
+
+    @BeforeEach
+    void setUp() {
+        TtlCache<String, PriceData> cache = new TtlCache<>(100, Duration.ofSeconds(60), Duration.ofHours(1), now::get);
+        TtlCache<String, StockSearchResult> searchCache = new TtlCache<>(100, Duration.ofMinutes(10), Duration.ofHours(1), now::get);
+        cachingStockDataService = new CachingStockDataService(delegate, cache, searchCache, profileStore);
+        priceData = new PriceData();
+        priceData.setCurrentPrice(new BigDecimal("150.00"));
+    }
+
+    @Test
+    void getLatestPriceData_shouldCallProviderOnce_withinTtl() {
+        when(delegate.getLatestPriceData("AAPL")).thenReturn(Optional.of(priceData));
+
+        assertThat(cachingStockDataService.getLatestPriceData("AAPL")).contains(priceData);
+        assertThat(cachingStockDataService.getLatestPriceData("AAPL")).contains(priceData);
+
+        verify(delegate, times(1)).getLatestPriceData("AAPL");
+    }
+
+    @Test
+    void getLatestPriceData_shouldRefetch_afterTtl() {
+        when(delegate.getLatestPriceData("AAPL")).thenReturn(Optional.of(priceData));
+
+        cachingStockDataService.getLatestPriceData("AAPL");
+        now.addAndGet(Duration.ofSeconds(61).toNanos());
+        cachingStockDataService.getLatestPriceData("AAPL");
+
+        verify(delegate, times(2)).getLatestPriceData("AAPL");
+    }
+
+    @Test
+    void getLatestPriceData_shouldServeStaleValue_whenProviderFails() {
+        when(delegate.getLatestPriceData("AAPL"))
+                .thenReturn(Optional.of(priceData))
+                .thenReturn(Optional.empty());
+
+        cachingStockDataService.getLatestPriceData("AAPL");
+        now.addAndGet(Duration.ofMinutes(5).toNanos());
+
+        assertThat(cachingStockDataService.getLatestPriceData("AAPL")).contains(priceData);
+    }
+
+    @Test
+    void getFreshPriceData_shouldNotServeStaleValue_whenProviderFails() {
+        when(delegate.getLatestPriceData("AAPL"))
+                .thenReturn(Optional.of(priceData))
+                .thenReturn(Optional.empty());
+
+        assertThat(cachingStockDataService.getFreshPriceData("AAPL")).contains(priceData);
+        now.addAndGet(Duration.ofMinutes(5).toNanos());
+
+        assertThat(cachingStockDataService.getFreshPriceData("AAPL")).isEmpty();
+    }
+
+    @Test
+    void getLatestPriceData_shouldReturnEmpty_whenProviderFailsAndNothingCached() {
+        when(delegate.getLatestPriceData("MSFT")).thenReturn(Optional.empty());
+
+        assertThat(cachingStockDataService.getLatestPriceData("MSFT")).isEmpty();
+    }
+
+    @Test
+    void getStockProfile_shouldUseStoredProfile_withoutCallingProvider() {
+        CompanyProfile stored = profile("AAPL");
+        when(profileStore.findFresh("US0378331005")).thenReturn(Optional.of(stored));
+
+        assertThat(cachingStockDataService.getStockProfile("US0378331005")).contains(stored);
+
+        verify(delegate, never()).getStockProfile(anyString());
+    }
+
+    @Test
+    void getStockProfile_shouldFetchAndStore_whenNotStored() {
+        CompanyProfile fetched = profile("AAPL");
+        when(profileStore.findFresh("US0378331005")).thenReturn(Optional.empty());
+        when(delegate.getStockProfile("US0378331005")).thenReturn(Optional.of(fetched));
+
+        assertThat(cachingStockDataService.getStockProfile("US0378331005")).contains(fetched);
+
+        verify(profileStore).save("US0378331005", fetched);
+    }
+
+    @Test
+    void getStockProfile_shouldReturnFetchedProfile_whenStoringFails() {
+        CompanyProfile fetched = profile("AAPL");
+        when(profileStore.findFresh("AAPL")).thenReturn(Optional.empty());
+        when(delegate.getStockProfile("AAPL")).thenReturn(Optional.of(fetched));
+        doThrow(new DataIntegrityViolationException("duplicate")).when(profileStore).save("AAPL", fetched);
+
+        assertThat(cachingStockDataService.getStockProfile("AAPL")).contains(fetched);
+    }
+
+    @Test
+    void getStockProfile_shouldServeExpiredStoredProfile_whenProviderFails() {
+        CompanyProfile stored = profile("AAPL");
+        when(profileStore.findFresh("AAPL")).thenReturn(Optional.empty());
+        when(delegate.getStockProfile("AAPL")).thenReturn(Optional.empty());
+        when(profileStore.findRetained("AAPL")).thenReturn(Optional.of(stored));
+
+        assertThat(cachingStockDataService.getStockProfile("AAPL")).contains(stored);
+
+        verify(profileStore, never()).save(anyString(), any());
+    }
+
+    @Test
+    void getStockSearchResult_shouldCacheByNormalizedQuery() {
+        StockSearchResult searchResult = new StockSearchResult(1,
+                List.of(new StockSearchItem("Apple Inc", "AAPL", "AAPL", "Common Stock")));
+        when(delegate.getStockSearchResult("apple")).thenReturn(Optional.of(searchResult));
+
+        assertThat(cachingStockDataService.getStockSearchResult("Apple")).contains(searchResult);
+        assertThat(cachingStockDataService.getStockSearchResult(" apple ")).contains(searchResult);
+        assertThat(cachingStockDataService.getStockSearchResult("APPLE")).contains(searchResult);
+
+        verify(delegate, times(1)).getStockSearchResult(anyString());
+    }
+
+    @Test
+    void getStockSearchResult_shouldNotCacheEmptyResults() {
+        when(delegate.getStockSearchResult("xyz")).thenReturn(Optional.empty());
+
+        cachingStockDataService.getStockSearchResult("xyz");
+        cachingStockDataService.getStockSearchResult("xyz");
+
+        verify(delegate, times(2)).getStockSearchResult("xyz");
+    }
+
+    private CompanyProfile profile(String ticker) {
+        CompanyProfile profile = new CompanyProfile();
+        profile.setTicker(ticker);
+        profile.setName("Apple Inc");
+        return profile;
+    }
+}
@@ -0,0 +1,114 @@
+package de.dtonal.stocktracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import de.dtonal.stocktracker.dto.CompanyProfile;
+import de.dtonal.stocktracker.repository.StockProfileRepository;
+import de.dtonal.stocktracker.repository.SymbolMappingRepository;
+
+@DataJpaTest
+@Tag("integration")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CompanyProfileStoreTest {
+
+    private static final Instant NOW = Instant.parse("2024-06-01T10:00:00Z");
+
+    @Autowired
+    private SymbolMappingRepository symbolMappingRepository;
+
+    @Autowired
+    private StockProfileRepository stockProfileRepository;
+
+    @AfterEach
+    void tearDown() {
+        symbolMappingRepository.deleteAll();
+        stockProfileRepository.deleteAll();
+    }
+
+    @Test
+    void save_shouldMakeProfileAvailableByIsinAndSymbol() {
+        CompanyProfileStore store = storeAt(NOW);
+
+        store.save("US0378331005", appleProfile());
+
+        CompanyProfile byIsin = store.findFresh("US0378331005").orElseThrow();
+        assertThat(byIsin.getTicker()).isEqualTo("AAPL");
+        assertThat(byIsin.getIsin()).isEqualTo("US0378331005");
+        assertThat(byIsin.getFinnhubIndustry()).isEqualTo("Technology");
+        assertThat(byIsin.getCountry()).isEqualTo("US");
+        assertThat(byIsin.getMarketCapitalization()).isEqualTo(2_900_000.0);
+        assertThat(byIsin.getShareOutstanding()).isEqualTo(15_550.0);
+        assertThat(byIsin.getLogo()).isEqualTo("https://static.finnhub.io/logo/aapl.png");
+
+        assertThat(store.findFresh("aapl")).isPresent();
+        assertThat(stockProfileRepository.count()).isEqualTo(1);
+        assertThat(symbolMappingRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void findFresh_shouldIgnoreProfile_olderThanTtl() {
+        storeAt(NOW).save("AAPL", appleProfile());
+
+        CompanyProfileStore later = storeAt(NOW.plus(Duration.ofDays(8)));
+
+        assertThat(later.findFresh("AAPL")).isEmpty();
+        assertThat(later.findRetained("AAPL")).isPresent();
+    }
+
+    @Test
+    void save_shouldRefreshExistingProfile() {
+        storeAt(NOW).save("AAPL", appleProfile());
+
+        CompanyProfile updated = appleProfile();
+        updated.setMarketCapitalization(3_100_000.0);
+        CompanyProfileStore later = storeAt(NOW.plus(Duration.ofDays(8)));
+        later.save("AAPL", updated);
+
+        assertThat(later.findFresh("AAPL")).get()
+                .extracting(CompanyProfile::getMarketCapitalization)
+                .isEqualTo(3_100_000.0);
+        assertThat(stockProfileRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void save_shouldSkipEmptyProfile() {
+        CompanyProfileStore store = storeAt(NOW);
+
+        store.save("UNKNOWN", new CompanyProfile());
+
+        assertThat(store.findRetained("UNKNOWN")).isEmpty();
+        assertThat(stockProfileRepository.count()).isZero();
+    }
+
+    private CompanyProfileStore storeAt(Instant instant) {
+        return new CompanyProfileStore(symbolMappingRepository, stockProfileRepository, Duration.ofDays(7),
+                Clock.fixed(instant, ZoneOffset.UTC));
+    }
+
+    private CompanyProfile appleProfile() {
+        CompanyProfile profile = new CompanyProfile();
+        profile.setTicker("AAPL");
+        profile.setName("Apple Inc");
+        profile.setCountry("US");
+        profile.setCurrency("USD");
+        profile.setExchange("NASDAQ NMS - GLOBAL MARKET");
+        profile.setMarketCapitalization(2_900_000.0);
+        profile.setShareOutstanding(15_550.0);
+        profile.setLogo("https://static.finnhub.io/logo/aapl.png");
+        profile.setFinnhubIndustry("Technology");
+        return profile;
+    }
+}
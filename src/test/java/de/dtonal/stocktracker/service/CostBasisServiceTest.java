@@ -0,0 +1,209 @@
+package de.dtonal.stocktracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import de.dtonal.stocktracker.dto.PositionProfitLoss;
+import de.dtonal.stocktracker.model.HistoricalPrice;
+import de.dtonal.stocktracker.model.Portfolio;
+import de.dtonal.stocktracker.model.PortfolioHoldingId;
+import de.dtonal.stocktracker.model.PortfolioPosition;
+import de.dtonal.stocktracker.model.Stock;
+import de.dtonal.stocktracker.model.StockTransaction;
+import de.dtonal.stocktracker.model.TransactionType;
+import de.dtonal.stocktracker.model.User;
+import de.dtonal.stocktracker.repository.PortfolioPositionRepository;
+import de.dtonal.stocktracker.repository.StockTransactionRepository;
+
+@DataJpaTest
+@Tag("integration")
+@Import(CostBasisService.class)
+class CostBasisServiceTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2024, 3, 4, 10, 0);
+
+    @Autowired
+    private CostBasisService costBasisService;
+    @Autowired
+    private PortfolioPositionRepository portfolioPositionRepository;
+    @Autowired
+    private StockTransactionRepository stockTransactionRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Portfolio portfolio;
+    private Stock stock;
+
+    @BeforeEach
+    void setUp() {
+        User user = entityManager.persist(new User("Lots", "lots@example.com", "password"));
+        portfolio = entityManager.persist(new Portfolio("Lots", "Cost basis", user));
+        stock = entityManager.persist(new Stock("LOT", "Lot Corp", "NASDAQ", "USD"));
+    }
+
+    @Test
+    void applyAdded_shouldMaintainLotsIncrementally() {
+        add(TransactionType.BUY, "10", "100", MONDAY);
+        add(TransactionType.BUY, "10", "130", MONDAY.plusDays(1));
+        add(TransactionType.SELL, "15", "150", MONDAY.plusDays(2));
+
+        PortfolioPosition position = position();
+        assertThat(position.getRealizedGain()).isEqualByComparingTo("600");
+        assertThat(position.getLots()).singleElement().satisfies(lot -> {
+            assertThat(lot.getQuantity()).isEqualByComparingTo("5");
+            assertThat(lot.getUnitCost()).isEqualByComparingTo("130");
+        });
+        assertThat(position.getLastTransactionAt()).isEqualTo(MONDAY.plusDays(2));
+    }
+
+    @Test
+    void applyAdded_shouldReplayStock_whenTransactionIsBackdated() {
+        add(TransactionType.BUY, "10", "100", MONDAY);
+        add(TransactionType.BUY, "10", "130", MONDAY.plusDays(1));
+        add(TransactionType.SELL, "15", "150", MONDAY.plusDays(2));
+
+        add(TransactionType.BUY, "5", "90", MONDAY.minusDays(1));
+
+        PortfolioPosition position = position();
+        // 5 * (150 - 90) + 10 * (150 - 100)
+        assertThat(position.getRealizedGain()).isEqualByComparingTo("800");
+        assertThat(position.getLots()).singleElement()
+                .satisfies(lot -> assertThat(lot.getQuantity()).isEqualByComparingTo("10"));
+        assertThat(position.getLastTransactionAt()).isEqualTo(MONDAY.plusDays(2));
+    }
+
+    @Test
+    void applyRemoved_shouldReplayRemainingTransactions() {
+        add(TransactionType.BUY, "10", "100", MONDAY);
+        StockTransaction sell = add(TransactionType.SELL, "4", "120", MONDAY.plusDays(1));
+
+        remove(sell);
+
+        PortfolioPosition position = position();
+        assertThat(position.getRealizedGain()).isEqualByComparingTo("0");
+        assertThat(position.getLots()).singleElement()
+                .satisfies(lot -> assertThat(lot.getQuantity()).isEqualByComparingTo("10"));
+    }
+
+    @Test
+    void applyRemoved_shouldDeletePosition_whenLastTransactionIsRemoved() {
+        StockTransaction buy = add(TransactionType.BUY, "10", "100", MONDAY);
+
+        remove(buy);
+
+        assertThat(portfolioPositionRepository.findById(new PortfolioHoldingId(portfolio.getId(), stock.getId())))
+                .isEmpty();
+    }
+
+    @Test
+    void rebuild_shouldMatchIncrementalState() {
+        add(TransactionType.BUY, "10", "100", MONDAY);
+        add(TransactionType.SELL, "3", "110", MONDAY.plusDays(1));
+        add(TransactionType.BUY, "2.5", "99.1234", MONDAY.plusDays(2));
+        add(TransactionType.SELL, "6", "120", MONDAY.plusDays(3));
+        PortfolioPosition incremental = position();
+
+        assertThat(costBasisService.rebuild(portfolio.getId())).isEqualTo(1);
+        entityManager.flush();
+
+        PortfolioPosition rebuilt = position();
+        assertThat(rebuilt.getRealizedGain()).isEqualByComparingTo(incremental.getRealizedGain());
+        assertThat(rebuilt.getLots()).hasSameSizeAs(incremental.getLots());
+        for (int i = 0; i < rebuilt.getLots().size(); i++) {
+            assertThat(rebuilt.getLots().get(i).getQuantity())
+                    .isEqualByComparingTo(incremental.getLots().get(i).getQuantity());
+            assertThat(rebuilt.getLots().get(i).getUnitCost())
+                    .isEqualByComparingTo(incremental.getLots().get(i).getUnitCost());
+        }
+    }
+
+    @Test
+    void onApplicationReady_shouldBackfillPositions_whenTableIsEmpty() {
+        stockTransactionRepository.save(new StockTransaction(stock, portfolio, MONDAY,
+                new BigDecimal("10"), new BigDecimal("100"), TransactionType.BUY));
+        stockTransactionRepository.save(new StockTransaction(stock, portfolio, MONDAY.plusDays(1),
+                new BigDecimal("4"), new BigDecimal("120"), TransactionType.SELL));
+        entityManager.flush();
+
+        costBasisService.onApplicationReady();
+        entityManager.flush();
+
+        PortfolioPosition position = position();
+        assertThat(position.getRealizedGain()).isEqualByComparingTo("80");
+        assertThat(position.getLots()).singleElement()
+                .satisfies(lot -> assertThat(lot.getQuantity()).isEqualByComparingTo("6"));
+    }
+
+    @Test
+    void onApplicationReady_shouldKeepExistingPositions() {
+        add(TransactionType.BUY, "10", "100", MONDAY);
+        // Bypasses applyAdded, so only a rebuild would pick this transaction up
+        stockTransactionRepository.save(new StockTransaction(stock, portfolio, MONDAY.plusDays(1),
+                new BigDecimal("5"), new BigDecimal("100"), TransactionType.BUY));
+        entityManager.flush();
+
+        costBasisService.onApplicationReady();
+        entityManager.flush();
+
+        assertThat(position().getLots()).singleElement()
+                .satisfies(lot -> assertThat(lot.getQuantity()).isEqualByComparingTo("10"));
+    }
+
+    @Test
+    void getProfitAndLoss_shouldValueOpenLotsAtLatestPrice() {
+        add(TransactionType.BUY, "10", "100", MONDAY);
+        add(TransactionType.BUY, "10", "130", MONDAY.plusDays(1));
+        add(TransactionType.SELL, "15", "150", MONDAY.plusDays(2));
+        entityManager.persist(new HistoricalPrice(stock, MONDAY.plusDays(3).toLocalDate(), new BigDecimal("160")));
+        entityManager.flush();
+
+        assertThat(costBasisService.getProfitAndLoss(portfolio.getId())).singleElement().satisfies(pnl -> {
+            assertThat(pnl.symbol()).isEqualTo("LOT");
+            assertThat(pnl.quantity()).isEqualByComparingTo("5");
+            assertThat(pnl.costBasis()).isEqualByComparingTo("650");
+            assertThat(pnl.realizedGain()).isEqualByComparingTo("600");
+            assertThat(pnl.marketValue()).isEqualByComparingTo("800");
+            assertThat(pnl.unrealizedGain()).isEqualByComparingTo("150");
+        });
+    }
+
+    @Test
+    void getProfitAndLoss_shouldLeaveMarketValueEmpty_whenNoPriceIsStored() {
+        add(TransactionType.BUY, "1", "100", MONDAY);
+
+        PositionProfitLoss pnl = costBasisService.getProfitAndLoss(portfolio.getId()).get(0);
+
+        assertThat(pnl.costBasis()).isEqualByComparingTo("100");
+        assertThat(pnl.lastPrice()).isNull();
+        assertThat(pnl.unrealizedGain()).isNull();
+    }
+
+    private StockTransaction add(TransactionType type, String quantity, String price, LocalDateTime date) {
+        StockTransaction transaction = stockTransactionRepository.save(new StockTransaction(stock, portfolio, date,
+                new BigDecimal(quantity), new BigDecimal(price), type));
+        costBasisService.applyAdded(portfolio.getId(), transaction);
+        entityManager.flush();
+        return transaction;
+    }
+
+    private void remove(StockTransaction transaction) {
+        stockTransactionRepository.delete(transaction);
+        costBasisService.applyRemoved(portfolio.getId(), transaction);
+        entityManager.flush();
+    }
+
+    private PortfolioPosition position() {
+        entityManager.clear();
+        return portfolioPositionRepository.findById(new PortfolioHoldingId(portfolio.getId(), stock.getId())).orElseThrow();
+    }
+}
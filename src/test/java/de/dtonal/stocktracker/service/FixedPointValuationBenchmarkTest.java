@@ -0,0 +1,60 @@
+package de.dtonal.stocktracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Vergleicht die Bewertung von 10.000 Positionen mit Festkomma-Werten und mit BigDecimal. Läuft
+ * nicht im normalen Build, sondern nur mit {@code mvn test -Dgroups=benchmark -Dtest.excludedGroups=}.
+ */
+@Tag("benchmark")
+class FixedPointValuationBenchmarkTest {
+
+    private static final int HOLDINGS = 10_000;
+    private static final int WARMUP = 200;
+    private static final int RUNS = 500;
+
+    private final PortfolioCalculationServiceImpl service = new PortfolioCalculationServiceImpl(null, null, null, null);
+
+    @Test
+    void compareFixedPointWithBigDecimal() {
+        Random random = new Random(42);
+        Map<String, BigDecimal> quantities = new HashMap<>();
+        Map<String, BigDecimal> prices = new HashMap<>();
+        for (int i = 0; i < HOLDINGS; i++) {
+            quantities.put("s" + i, BigDecimal.valueOf(random.nextInt(100_000_000), FixedPointValuation.QUANTITY_SCALE));
+            prices.put("s" + i, BigDecimal.valueOf(random.nextInt(10_000_000), 2));
+        }
+
+        long fixedMicros = measure(() -> service.calculateTotalValueFixed(quantities, prices));
+        long exactMicros = measure(() -> service.calculateTotalValueExact(quantities, prices));
+
+        System.out.printf("%d holdings: fixed-point %d us, BigDecimal %d us%n", HOLDINGS, fixedMicros, exactMicros);
+
+        assertThat(service.calculateTotalValueFixed(quantities, prices))
+                .isEqualByComparingTo(service.calculateTotalValueExact(quantities, prices));
+    }
+
+    private static long measure(Supplier<BigDecimal> valuation) {
+        BigDecimal sink = BigDecimal.ZERO;
+        for (int i = 0; i < WARMUP; i++) {
+            sink = valuation.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            sink = valuation.get();
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start) / RUNS;
+        assertThat(sink).isNotNull();
+        return micros;
+    }
+}
@@ -0,0 +1,50 @@
+package de.dtonal.stocktracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+class FixedPointValuationTest {
+
+    @Test
+    void toFixed_shouldScaleExactValues() {
+        assertThat(FixedPointValuation.toFixed(new BigDecimal("12.5"), FixedPointValuation.QUANTITY_SCALE))
+                .isEqualTo(1_250_000L);
+        assertThat(FixedPointValuation.toFixed(new BigDecimal("150.1200"), FixedPointValuation.PRICE_SCALE))
+                .isEqualTo(1_501_200L);
+        // Trailing zeros beyond the column scale are still exact
+        assertThat(FixedPointValuation.toFixed(new BigDecimal("1.0000000"), FixedPointValuation.QUANTITY_SCALE))
+                .isEqualTo(100_000L);
+    }
+
+    @Test
+    void toFixed_shouldRejectValuesThatDoNotFit() {
+        assertThatThrownBy(() -> FixedPointValuation.toFixed(new BigDecimal("0.123456"), FixedPointValuation.QUANTITY_SCALE))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> FixedPointValuation.toFixed(new BigDecimal("1e20"), FixedPointValuation.PRICE_SCALE))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void totalValue_shouldMatchBigDecimalResult() {
+        long[] quantities = { 1_000_000L, 250_000L };
+        long[] prices = { 1_500_000L, 20_000_000L };
+
+        long total = FixedPointValuation.totalValue(quantities, prices, 2);
+
+        // 10 * 150 + 2.5 * 2000 = 6500
+        assertThat(FixedPointValuation.toBigDecimal(total, FixedPointValuation.VALUE_SCALE)).isEqualByComparingTo("6500");
+    }
+
+    @Test
+    void totalValue_shouldDetectOverflow() {
+        long[] quantities = { Long.MAX_VALUE / 2, 1 };
+        long[] prices = { 3, 1 };
+
+        assertThatThrownBy(() -> FixedPointValuation.totalValue(quantities, prices, 2))
+                .isInstanceOf(ArithmeticException.class);
+    }
+}
@@ -0,0 +1,74 @@
+package de.dtonal.stocktracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import de.dtonal.stocktracker.model.HistoricalPrice;
+import de.dtonal.stocktracker.model.Stock;
+import de.dtonal.stocktracker.repository.HistoricalPriceRepository;
+import de.dtonal.stocktracker.repository.StockRepository;
+
+/**
+ * Vergleicht das Schreiben von 10.000 Kursen per Einzel-save mit dem blockweisen Schreiben über
+ * den {@link HistoricalPriceBatchWriter}. Läuft nicht im normalen Build, sondern nur mit
+ * {@code mvn test -Dgroups=benchmark -Dtest.excludedGroups=}.
+ */
+@SpringBootTest
+@Tag("benchmark")
+@TestPropertySource(properties = {
+    "spring.jpa.properties.hibernate.jdbc.batch_size=500",
+    "spring.jpa.properties.hibernate.order_inserts=true"
+})
+public class HistoricalPriceBatchWriterBenchmarkTest {
+
+    private static final int ROWS = 10_000;
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private HistoricalPriceRepository historicalPriceRepository;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @AfterEach
+    void tearDown() {
+        historicalPriceRepository.deleteAllInBatch();
+        stockRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void compareSingleSaveWithBatchedInsert() {
+        Stock stock = stockRepository.save(new Stock("BENCH", "Benchmark Corp.", "US", "USD"));
+        LocalDate start = LocalDate.of(1990, 1, 1);
+
+        long singleStart = System.nanoTime();
+        for (int i = 0; i < ROWS; i++) {
+            historicalPriceRepository.save(new HistoricalPrice(stock, start.plusDays(i), BigDecimal.valueOf(i)));
+        }
+        long singleMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - singleStart);
+
+        HistoricalPriceBatchWriter writer = new HistoricalPriceBatchWriter(historicalPriceRepository, BATCH_SIZE);
+        long batchStart = System.nanoTime();
+        for (int i = ROWS; i < 2 * ROWS; i++) {
+            writer.add(new HistoricalPrice(stock, start.plusDays(i), BigDecimal.valueOf(i)));
+        }
+        writer.flush();
+        long batchMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - batchStart);
+
+        System.out.printf("%d rows: single save %d ms, batched (%d) %d ms, speedup %.1fx%n",
+                ROWS, singleMillis, BATCH_SIZE, batchMillis, (double) singleMillis / Math.max(1, batchMillis));
+
+        assertThat(writer.getWritten()).isEqualTo(ROWS);
+        assertThat(historicalPriceRepository.count()).isEqualTo(2L * ROWS);
+    }
+}
@@ -0,0 +1,110 @@
+package de.dtonal.stocktracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import de.dtonal.stocktracker.model.HistoricalPrice;
+import de.dtonal.stocktracker.model.Stock;
+import de.dtonal.stocktracker.repository.HistoricalPriceRepository;
+
+@ExtendWith(MockitoExtension.class)
+class HistoricalPriceBatchWriterTest {
+
+    @Mock
+    private HistoricalPriceRepository historicalPriceRepository;
+
+    private final Stock stock = new Stock("AAPL", "Apple Inc.");
+
+    @BeforeEach
+    void setUp() {
+        stock.setId("stock-id");
+    }
+
+    @Test
+    void add_shouldWriteOnlyFullBatches_untilFlush() {
+        HistoricalPriceBatchWriter writer = new HistoricalPriceBatchWriter(historicalPriceRepository, 3);
+
+        for (int i = 0; i < 7; i++) {
+            writer.add(price(i));
+        }
+        verify(historicalPriceRepository, times(2)).insertAllIfAbsent(any());
+        assertThat(writer.getWritten()).isEqualTo(6);
+
+        writer.flush();
+        verify(historicalPriceRepository, times(3)).insertAllIfAbsent(any());
+        assertThat(writer.getWritten()).isEqualTo(7);
+        assertThat(writer.getFailed()).isZero();
+        assertThat(writer.getWrittenStockIds()).containsExactly("stock-id");
+    }
+
+    @Test
+    void flush_shouldReportInsertedRowsSeparately_whenPricesAlreadyExist() {
+        // Another run already stored two of the three prices
+        when(historicalPriceRepository.insertAllIfAbsent(any())).thenReturn(1);
+        HistoricalPriceBatchWriter writer = new HistoricalPriceBatchWriter(historicalPriceRepository, 3);
+
+        writer.add(price(0));
+        writer.add(price(1));
+        writer.add(price(2));
+        writer.flush();
+
+        assertThat(writer.getWritten()).isEqualTo(3);
+        assertThat(writer.getInserted()).isEqualTo(1);
+        assertThat(writer.getFailed()).isZero();
+    }
+
+    @Test
+    void flush_shouldDoNothing_whenBufferIsEmpty() {
+        HistoricalPriceBatchWriter writer = new HistoricalPriceBatchWriter(historicalPriceRepository, 3);
+
+        writer.flush();
+
+        verify(historicalPriceRepository, never()).insertAllIfAbsent(any());
+    }
+
+    @Test
+    void add_shouldCountFailedBatches() {
+        when(historicalPriceRepository.insertAllIfAbsent(any())).thenThrow(new RuntimeException("DB down"));
+        HistoricalPriceBatchWriter writer = new HistoricalPriceBatchWriter(historicalPriceRepository, 2);
+
+        writer.add(price(0));
+        writer.add(price(1));
+        writer.add(price(2));
+        writer.flush();
+
+        assertThat(writer.getWritten()).isZero();
+        assertThat(writer.getInserted()).isZero();
+        assertThat(writer.getFailed()).isEqualTo(3);
+        assertThat(writer.getWrittenStockIds()).isEmpty();
+    }
+
+    @Test
+    void flush_shouldCountBatchAsWritten_whenStockHasNoId() {
+        HistoricalPriceBatchWriter writer = new HistoricalPriceBatchWriter(historicalPriceRepository, 3);
+        stock.setId(null);
+
+        writer.add(price(0));
+        writer.flush();
+
+        assertThat(writer.getWritten()).isEqualTo(1);
+        assertThat(writer.getFailed()).isZero();
+        assertThat(writer.getWrittenStockIds()).isEmpty();
+    }
+
+    private HistoricalPrice price(int day) {
+        return new HistoricalPrice(stock, LocalDate.of(2024, 1, 1).plusDays(day), BigDecimal.TEN);
+    }
+}
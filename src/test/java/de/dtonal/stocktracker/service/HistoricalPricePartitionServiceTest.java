@@ -0,0 +1,127 @@
+package de.dtonal.stocktracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import de.dtonal.stocktracker.model.PricePartitioning;
+import de.dtonal.stocktracker.repository.HistoricalPricePartitionRepository;
+
+@ExtendWith(MockitoExtension.class)
+class HistoricalPricePartitionServiceTest {
+
+    @Mock
+    private HistoricalPricePartitionRepository partitionRepository;
+
+    @InjectMocks
+    private HistoricalPricePartitionService partitionService;
+
+    @Test
+    void maintainPartitions_shouldDoNothing_whenPartitioningIsDisabled() {
+        partitionService.maintainPartitions();
+
+        assertThat(partitionService.detachPartitionsBefore(LocalDate.now())).isEmpty();
+        verifyNoInteractions(partitionRepository);
+    }
+
+    @Test
+    void maintainPartitions_shouldSkipUnsupportedDatabase() {
+        ReflectionTestUtils.setField(partitionService, "partitioning", PricePartitioning.MONTHLY);
+        when(partitionRepository.isSupported()).thenReturn(false);
+
+        partitionService.maintainPartitions();
+
+        verify(partitionRepository, never()).partitionTable(any());
+        verify(partitionRepository, never()).createPartitions(any(), any(), any());
+    }
+
+    @Test
+    void maintainPartitions_shouldCreateUpcomingMonths_withoutConvertingTheTable() {
+        ReflectionTestUtils.setField(partitionService, "partitioning", PricePartitioning.MONTHLY);
+        when(partitionRepository.isSupported()).thenReturn(true);
+        when(partitionRepository.isPartitioned()).thenReturn(true);
+        LocalDate today = LocalDate.now();
+
+        partitionService.maintainPartitions();
+
+        verify(partitionRepository, never()).partitionTable(any());
+        verify(partitionRepository).createPartitions(today, today.plusMonths(3), PricePartitioning.MONTHLY);
+        verify(partitionRepository, never()).detachPartitionsBefore(any());
+    }
+
+    @Test
+    void maintainPartitions_shouldWait_untilTableIsConverted() {
+        ReflectionTestUtils.setField(partitionService, "partitioning", PricePartitioning.MONTHLY);
+        when(partitionRepository.isSupported()).thenReturn(true);
+        when(partitionRepository.isPartitioned()).thenReturn(false);
+
+        partitionService.maintainPartitions();
+
+        verify(partitionRepository, never()).partitionTable(any());
+        verify(partitionRepository, never()).createPartitions(any(), any(), any());
+    }
+
+    @Test
+    void partitionTable_shouldConvertTableAndCreateUpcomingMonths() {
+        ReflectionTestUtils.setField(partitionService, "partitioning", PricePartitioning.MONTHLY);
+        when(partitionRepository.isSupported()).thenReturn(true);
+        when(partitionRepository.partitionTable(PricePartitioning.MONTHLY)).thenReturn(true);
+        when(partitionRepository.isPartitioned()).thenReturn(true);
+        LocalDate today = LocalDate.now();
+
+        assertThat(partitionService.partitionTable()).isTrue();
+
+        verify(partitionRepository).createPartitions(today, today.plusMonths(3), PricePartitioning.MONTHLY);
+    }
+
+    @Test
+    void partitionTable_shouldDoNothing_whenPartitioningIsDisabled() {
+        assertThat(partitionService.partitionTable()).isFalse();
+
+        verifyNoInteractions(partitionRepository);
+    }
+
+    @Test
+    void maintainPartitions_shouldDetachPartitionsOutsideRetention() {
+        ReflectionTestUtils.setField(partitionService, "partitioning", PricePartitioning.YEARLY);
+        ReflectionTestUtils.setField(partitionService, "periodsAhead", 1);
+        ReflectionTestUtils.setField(partitionService, "retentionYears", 5);
+        when(partitionRepository.isSupported()).thenReturn(true);
+        when(partitionRepository.isPartitioned()).thenReturn(true);
+        LocalDate today = LocalDate.now();
+        when(partitionRepository.detachPartitionsBefore(today.minusYears(5)))
+                .thenReturn(List.of("historical_prices_2019_archived"));
+
+        partitionService.maintainPartitions();
+
+        verify(partitionRepository).createPartitions(today, today.plusYears(1), PricePartitioning.YEARLY);
+        verify(partitionRepository).detachPartitionsBefore(today.minusYears(5));
+    }
+
+    @Test
+    void maintainPartitions_shouldNotPropagateDatabaseErrors() {
+        ReflectionTestUtils.setField(partitionService, "partitioning", PricePartitioning.MONTHLY);
+        when(partitionRepository.isSupported()).thenReturn(true);
+        when(partitionRepository.isPartitioned()).thenReturn(true);
+        when(partitionRepository.createPartitions(any(), any(), any()))
+                .thenThrow(new DataAccessResourceFailureException("lock timeout"));
+
+        partitionService.maintainPartitions();
+
+        verify(partitionRepository, never()).detachPartitionsBefore(any());
+    }
+}
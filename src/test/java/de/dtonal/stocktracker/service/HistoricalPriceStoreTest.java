@@ -0,0 +1,79 @@
+package de.dtonal.stocktracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import de.dtonal.stocktracker.dto.PricePoint;
+import de.dtonal.stocktracker.model.HistoricalPrice;
+import de.dtonal.stocktracker.model.Stock;
+import de.dtonal.stocktracker.repository.HistoricalPriceRepository;
+
+@ExtendWith(MockitoExtension.class)
+class HistoricalPriceStoreTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    @Mock
+    private HistoricalPriceRepository historicalPriceRepository;
+
+    @InjectMocks
+    private HistoricalPriceStore historicalPriceStore;
+
+    private Stock stock;
+
+    @BeforeEach
+    void setUp() {
+        stock = new Stock("AAPL", "Apple Inc.", "NASDAQ", "USD");
+        stock.setId("s1");
+    }
+
+    @Test
+    void priceAsOf_shouldLoadSeriesOnce() {
+        when(historicalPriceRepository.findPricePoints("s1")).thenReturn(List.of(
+                new PricePoint("s1", DAY, new BigDecimal("150.00")),
+                new PricePoint("s1", DAY.plusDays(3), new BigDecimal("155.00"))));
+
+        assertThat(historicalPriceStore.priceAsOf("s1", DAY.plusDays(2))).hasValueSatisfying(
+                price -> assertThat(price).isEqualByComparingTo("150.00"));
+        assertThat(historicalPriceStore.pricesBetween("s1", DAY, DAY.plusDays(3))).hasSize(2);
+        assertThat(historicalPriceStore.priceAsOf("s1", DAY.minusDays(1))).isEmpty();
+
+        verify(historicalPriceRepository, times(1)).findPricePoints("s1");
+        assertThat(historicalPriceStore.getPointCount()).isEqualTo(2);
+    }
+
+    @Test
+    void recordAll_shouldUpdateLoadedSeries() {
+        when(historicalPriceRepository.findPricePoints("s1"))
+                .thenReturn(List.of(new PricePoint("s1", DAY, new BigDecimal("150.00"))));
+        historicalPriceStore.priceAsOf("s1", DAY);
+
+        historicalPriceStore.recordAll(List.of(new HistoricalPrice(stock, DAY.plusDays(1), new BigDecimal("152.00"))));
+
+        assertThat(historicalPriceStore.priceAsOf("s1", DAY.plusDays(1))).hasValueSatisfying(
+                price -> assertThat(price).isEqualByComparingTo("152.00"));
+        verify(historicalPriceRepository, times(1)).findPricePoints("s1");
+    }
+
+    @Test
+    void recordAll_shouldNotLoadSeriesThatWereNeverRead() {
+        historicalPriceStore.recordAll(List.of(new HistoricalPrice(stock, DAY, new BigDecimal("152.00"))));
+
+        assertThat(historicalPriceStore.getPointCount()).isZero();
+        verify(historicalPriceRepository, never()).findPricePoints("s1");
+    }
+}
@@ -0,0 +1,73 @@
+package de.dtonal.stocktracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.dtonal.stocktracker.model.CostBasisMethod;
+import de.dtonal.stocktracker.model.PositionLot;
+
+class LotLedgerTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2024, 3, 4, 10, 0);
+
+    @Test
+    void fifo_shouldRealizeAgainstOldestLotsFirst() {
+        LotLedger ledger = new LotLedger(CostBasisMethod.FIFO);
+        ledger.buy(MONDAY, new BigDecimal("10"), new BigDecimal("100"));
+        ledger.buy(MONDAY.plusDays(1), new BigDecimal("10"), new BigDecimal("130"));
+
+        BigDecimal gain = ledger.sell(new BigDecimal("15"), new BigDecimal("150"));
+
+        // 10 * (150 - 100) + 5 * (150 - 130)
+        assertThat(gain).isEqualByComparingTo("600");
+        assertThat(ledger.quantity()).isEqualByComparingTo("5");
+        assertThat(ledger.costBasis()).isEqualByComparingTo("650");
+        assertThat(ledger.unrealizedGain(new BigDecimal("160"))).isEqualByComparingTo("150");
+        assertThat(ledger.lots()).singleElement()
+                .satisfies(lot -> assertThat(lot.getAcquiredAt()).isEqualTo(MONDAY.plusDays(1)));
+    }
+
+    @Test
+    void averageCost_shouldRealizeAgainstMovingAverage() {
+        LotLedger ledger = new LotLedger(CostBasisMethod.AVERAGE_COST);
+        ledger.buy(MONDAY, new BigDecimal("10"), new BigDecimal("100"));
+        ledger.buy(MONDAY.plusDays(1), new BigDecimal("10"), new BigDecimal("130"));
+
+        BigDecimal gain = ledger.sell(new BigDecimal("15"), new BigDecimal("150"));
+
+        // Average cost 115
+        assertThat(gain).isEqualByComparingTo("525");
+        assertThat(ledger.lots()).hasSize(1);
+        assertThat(ledger.costBasis()).isEqualByComparingTo("575");
+        assertThat(ledger.realizedGain()).isEqualByComparingTo("525");
+    }
+
+    @Test
+    void sell_shouldOnlyRealizeCoveredQuantity() {
+        LotLedger ledger = new LotLedger(CostBasisMethod.FIFO);
+        ledger.buy(MONDAY, new BigDecimal("2"), new BigDecimal("10"));
+
+        BigDecimal gain = ledger.sell(new BigDecimal("5"), new BigDecimal("12"));
+
+        assertThat(gain).isEqualByComparingTo("4");
+        assertThat(ledger.uncoveredQuantity()).isEqualByComparingTo("3");
+        assertThat(ledger.lots()).isEmpty();
+    }
+
+    @Test
+    void constructor_shouldNotModifyGivenLots() {
+        PositionLot stored = new PositionLot(MONDAY, new BigDecimal("10"), new BigDecimal("100"));
+        LotLedger ledger = new LotLedger(CostBasisMethod.FIFO, List.of(stored), BigDecimal.ZERO);
+
+        ledger.sell(new BigDecimal("4"), new BigDecimal("110"));
+
+        assertThat(stored.getQuantity()).isEqualByComparingTo("10");
+        assertThat(ledger.quantity()).isEqualByComparingTo("6");
+        assertThat(ledger.realizedGain()).isEqualByComparingTo("40");
+    }
+}
@@ -2,6 +2,7 @@ package de.dtonal.stocktracker.service;
 
 import de.dtonal.stocktracker.model.*;
 import de.dtonal.stocktracker.repository.HistoricalPriceRepository;
+import de.dtonal.stocktracker.repository.PortfolioHoldingRepository;
 import de.dtonal.stocktracker.repository.PortfolioRepository;
 import de.dtonal.stocktracker.repository.StockTransactionRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,17 +11,21 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.test.context.support.WithMockUser;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest
@@ -36,6 +41,10 @@ public class PortfolioCalculationServiceImplTest {
     private StockTransactionRepository stockTransactionRepository;
     @MockBean
     private HistoricalPriceRepository historicalPriceRepository;
+    @MockBean
+    private PortfolioHoldingRepository portfolioHoldingRepository;
+    @Autowired
+    private PortfolioValuationCache portfolioValuationCache;
 
     private User user;
     private Portfolio portfolio;
@@ -44,6 +53,7 @@ public class PortfolioCalculationServiceImplTest {
 
     @BeforeEach
     void setUp() {
+        portfolioValuationCache.invalidateAll();
         user = new User("Max Mustermann", "test@example.com", "password");
         user.setId("user-id-123");
         portfolio = new Portfolio("Mein Portfolio", "Testbeschreibung", user);
@@ -59,11 +69,7 @@ public class PortfolioCalculationServiceImplTest {
     void getStockQuantity_shouldSucceed_whenUserIsOwner() {
         when(portfolioRepository.isOwnerOfPortfolio("portfolio-id-456", "test@example.com")).thenReturn(true);
         when(portfolioRepository.findById("portfolio-id-456")).thenReturn(Optional.of(portfolio));
-        when(stockTransactionRepository.findByPortfolioIdAndStockSymbol("portfolio-id-456", "AAPL")).thenReturn(List.of(
-                new StockTransaction(stock, portfolio, LocalDateTime.now(), new BigDecimal("10"), BigDecimal.ZERO,
-                        TransactionType.BUY),
-                new StockTransaction(stock, portfolio, LocalDateTime.now(), new BigDecimal("3"), BigDecimal.ZERO,
-                        TransactionType.SELL)));
+        when(portfolioHoldingRepository.findNetQuantity("portfolio-id-456", "AAPL")).thenReturn(new BigDecimal("7"));
 
         BigDecimal quantity = portfolioCalculationService.getStockQuantity("portfolio-id-456", "AAPL");
         assertThat(quantity).isEqualByComparingTo("7");
@@ -77,24 +83,19 @@ public class PortfolioCalculationServiceImplTest {
         StockTransaction sellAapl = new StockTransaction(stock, portfolio, LocalDateTime.now(), new BigDecimal("2"), BigDecimal.ZERO, TransactionType.SELL);
         StockTransaction buyGoog = new StockTransaction(stock2, portfolio, LocalDateTime.now(), new BigDecimal("5"), BigDecimal.ZERO, TransactionType.BUY);
 
-        List<StockTransaction> allTransactions = List.of(buyAapl, sellAapl, buyGoog);
-
         when(portfolioRepository.findById("portfolio-id-456")).thenReturn(Optional.of(portfolio));
         when(portfolioRepository.isOwnerOfPortfolio("portfolio-id-456", "test@example.com")).thenReturn(true);
-        when(stockTransactionRepository.findByPortfolioId("portfolio-id-456")).thenReturn(allTransactions);
 
-        // Mocking for getStockQuantity
-        when(stockTransactionRepository.findByPortfolioIdAndStockSymbol("portfolio-id-456", "AAPL"))
-                .thenReturn(List.of(buyAapl, sellAapl));
-        when(stockTransactionRepository.findByPortfolioIdAndStockSymbol("portfolio-id-456", "GOOG"))
-                .thenReturn(List.of(buyGoog));
+        // Net quantities as maintained in portfolio_holding
+        BigDecimal aaplQuantity = buyAapl.getQuantity().subtract(sellAapl.getQuantity());
+        when(portfolioHoldingRepository.findByPortfolioId("portfolio-id-456")).thenReturn(List.of(
+                new PortfolioHolding(portfolio.getId(), stock.getId(), aaplQuantity, BigDecimal.ZERO, 2L, LocalDateTime.now()),
+                new PortfolioHolding(portfolio.getId(), stock2.getId(), buyGoog.getQuantity(), BigDecimal.ZERO, 1L, LocalDateTime.now())));
 
         // Mocking for prices
-        HistoricalPrice aaplPrice = new HistoricalPrice(stock, LocalDate.now(), new BigDecimal("150.00"));
-        HistoricalPrice googPrice = new HistoricalPrice(stock2, LocalDate.now(), new BigDecimal("200.00"));
-
-        when(historicalPriceRepository.findFirstByStockOrderByDateDesc(stock)).thenReturn(Optional.of(aaplPrice));
-        when(historicalPriceRepository.findFirstByStockOrderByDateDesc(stock2)).thenReturn(Optional.of(googPrice));
+        when(historicalPriceRepository.findLatestClosingPrices(Set.of(stock.getId(), stock2.getId()))).thenReturn(Map.of(
+                stock.getId(), new BigDecimal("150.00"),
+                stock2.getId(), new BigDecimal("200.00")));
 
         // Act
         BigDecimal totalValue = portfolioCalculationService.getTotalPortfolioValue("portfolio-id-456");
@@ -106,13 +107,54 @@ public class PortfolioCalculationServiceImplTest {
         assertThat(totalValue).isEqualByComparingTo("2200.00");
     }
 
+    @Test
+    @WithMockUser(username = "test@example.com")
+    void getTotalPortfolioValue_shouldServeRepeatCallFromCache_untilPricesOfHeldStockChange() {
+        when(portfolioRepository.findById("portfolio-id-456")).thenReturn(Optional.of(portfolio));
+        when(portfolioRepository.isOwnerOfPortfolio("portfolio-id-456", "test@example.com")).thenReturn(true);
+        when(portfolioHoldingRepository.findByPortfolioId("portfolio-id-456")).thenReturn(List.of(
+                new PortfolioHolding(portfolio.getId(), stock.getId(), new BigDecimal("2"), BigDecimal.ZERO, 1L, LocalDateTime.now())));
+        when(historicalPriceRepository.findLatestClosingPrices(Set.of(stock.getId())))
+                .thenReturn(Map.of(stock.getId(), new BigDecimal("100.00")));
+
+        portfolioCalculationService.getTotalPortfolioValue("portfolio-id-456");
+        BigDecimal cachedValue = portfolioCalculationService.getTotalPortfolioValue("portfolio-id-456");
+
+        assertThat(cachedValue).isEqualByComparingTo("200.00");
+        verify(portfolioRepository, times(1)).findById("portfolio-id-456");
+        verify(portfolioRepository, times(2)).isOwnerOfPortfolio("portfolio-id-456", "test@example.com");
+
+        // A price update for another stock keeps the entry, one for a held stock evicts it
+        portfolioValuationCache.onPricesUpdated(new StockPricesUpdatedEvent(Set.of(stock2.getId())));
+        portfolioCalculationService.getTotalPortfolioValue("portfolio-id-456");
+        verify(portfolioRepository, times(1)).findById("portfolio-id-456");
+
+        when(historicalPriceRepository.findLatestClosingPrices(Set.of(stock.getId())))
+                .thenReturn(Map.of(stock.getId(), new BigDecimal("110.00")));
+        portfolioValuationCache.onPricesUpdated(new StockPricesUpdatedEvent(Set.of(stock.getId())));
+
+        assertThat(portfolioCalculationService.getTotalPortfolioValue("portfolio-id-456")).isEqualByComparingTo("220.00");
+        verify(portfolioRepository, times(2)).findById("portfolio-id-456");
+    }
+
+    @Test
+    @WithMockUser(username = "another@user.com")
+    void getTotalPortfolioValue_shouldNotAuthorizeOtherUser_fromCachedValuation() {
+        portfolioValuationCache.put("portfolio-id-456", portfolioValuationCache.currentVersion(), BigDecimal.TEN,
+                Set.of(stock.getId()));
+        when(portfolioRepository.isOwnerOfPortfolio("portfolio-id-456", "another@user.com")).thenReturn(false);
+
+        assertThatThrownBy(() -> portfolioCalculationService.getTotalPortfolioValue("portfolio-id-456"))
+                .isInstanceOf(AccessDeniedException.class);
+    }
+
     @Test
     @WithMockUser(username = "test@example.com")
     void getTotalPortfolioValue_shouldReturnZero_forPortfolioWithNoTransactions() {
         // Arrange
         when(portfolioRepository.findById("portfolio-id-456")).thenReturn(Optional.of(portfolio));
         when(portfolioRepository.isOwnerOfPortfolio("portfolio-id-456", "test@example.com")).thenReturn(true);
-        when(stockTransactionRepository.findByPortfolioId("portfolio-id-456")).thenReturn(Collections.emptyList());
+        when(portfolioHoldingRepository.findByPortfolioId("portfolio-id-456")).thenReturn(Collections.emptyList());
 
         // Act
         BigDecimal totalValue = portfolioCalculationService.getTotalPortfolioValue("portfolio-id-456");
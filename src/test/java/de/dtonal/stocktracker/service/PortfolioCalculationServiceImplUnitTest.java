@@ -8,9 +8,7 @@ import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
 import java.util.Collections;
-import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -33,25 +31,6 @@ class PortfolioCalculationServiceImplUnitTest {
         stock.setId("s1");
     }
 
-    @Test
-    void calculateStockQuantity_shouldCorrectlySumBuyAndSell() {
-        StockTransaction buy = new StockTransaction(stock, portfolio, LocalDateTime.now(), new BigDecimal("10"), BigDecimal.ZERO, TransactionType.BUY);
-        StockTransaction sell = new StockTransaction(stock, portfolio, LocalDateTime.now(), new BigDecimal("3"), BigDecimal.ZERO, TransactionType.SELL);
-        StockTransaction buyAgain = new StockTransaction(stock, portfolio, LocalDateTime.now(), new BigDecimal("5"), BigDecimal.ZERO, TransactionType.BUY);
-
-        List<StockTransaction> transactions = List.of(buy, sell, buyAgain);
-
-        BigDecimal result = portfolioCalculationService.calculateStockQuantity(transactions);
-
-        assertThat(result).isEqualByComparingTo("12");
-    }
-
-    @Test
-    void calculateStockQuantity_shouldReturnZero_whenNoTransactions() {
-        BigDecimal result = portfolioCalculationService.calculateStockQuantity(Collections.emptyList());
-        assertThat(result).isEqualByComparingTo(BigDecimal.ZERO);
-    }
-
     @Test
     void calculateTotalValue_shouldCalculateCorrectly() {
         Stock stock2 = new Stock("GOOG", "Google", "NASDAQ", "USD");
@@ -80,4 +59,35 @@ class PortfolioCalculationServiceImplUnitTest {
 
         assertThat(totalValue).isEqualByComparingTo(BigDecimal.ZERO);
     }
-} 
\ No newline at end of file
+
+    @Test
+    void calculateTotalValue_shouldFallBackToBigDecimal_whenFixedPointOverflows() {
+        Map<String, BigDecimal> quantities = Map.of("s1", new BigDecimal("90000000000.5"));
+        Map<String, BigDecimal> prices = Map.of("s1", new BigDecimal("1000000.25"));
+
+        BigDecimal totalValue = portfolioCalculationService.calculateTotalValue(quantities, prices);
+
+        assertThat(totalValue).isEqualByComparingTo("90000022500500000.125");
+    }
+
+    @Test
+    void calculateTotalValue_shouldFallBackToBigDecimal_whenScaleExceedsColumnScale() {
+        Map<String, BigDecimal> quantities = Map.of("s1", new BigDecimal("3"));
+        Map<String, BigDecimal> prices = Map.of("s1", new BigDecimal("0.333333"));
+
+        BigDecimal totalValue = portfolioCalculationService.calculateTotalValue(quantities, prices);
+
+        assertThat(totalValue).isEqualByComparingTo("0.999999");
+    }
+
+    @Test
+    void calculateTotalValue_shouldKeepScaleOfProducts_whenFixedPointIsUsed() {
+        Map<String, BigDecimal> quantities = Map.of("s1", new BigDecimal("10"), "s2", new BigDecimal("2.5"));
+        Map<String, BigDecimal> prices = Map.of("s1", new BigDecimal("150.00"), "s2", new BigDecimal("20.00"));
+
+        BigDecimal totalValue = portfolioCalculationService.calculateTotalValue(quantities, prices);
+
+        assertThat(totalValue).isEqualTo(portfolioCalculationService.calculateTotalValueExact(quantities, prices));
+        assertThat(totalValue).isEqualTo("1550.000");
+    }
+}
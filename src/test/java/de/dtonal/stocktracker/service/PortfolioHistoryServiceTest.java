@@ -0,0 +1,80 @@
+package de.dtonal.stocktracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import de.dtonal.stocktracker.dto.HistoryInterval;
+import de.dtonal.stocktracker.dto.PortfolioValuePoint;
+import de.dtonal.stocktracker.dto.PricePoint;
+import de.dtonal.stocktracker.dto.QuantityChange;
+
+class PortfolioHistoryServiceTest {
+
+    private static final LocalDate FROM = LocalDate.of(2024, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2024, 1, 10);
+
+    private final List<QuantityChange> changes = List.of(
+            new QuantityChange("s1", LocalDateTime.of(2023, 12, 15, 9, 0), new BigDecimal("5")),
+            new QuantityChange("s2", LocalDateTime.of(2024, 1, 3, 10, 30), new BigDecimal("2")),
+            new QuantityChange("s1", LocalDateTime.of(2024, 1, 8, 16, 0), new BigDecimal("-2")));
+
+    private final List<PricePoint> prices = List.of(
+            new PricePoint("s1", LocalDate.of(2024, 1, 2), new BigDecimal("12.00")),
+            new PricePoint("s2", LocalDate.of(2024, 1, 3), new BigDecimal("50.00")),
+            new PricePoint("s1", LocalDate.of(2024, 1, 5), new BigDecimal("11.00")),
+            new PricePoint("s2", LocalDate.of(2024, 1, 9), new BigDecimal("55.00")));
+
+    @Test
+    void merge_shouldCarryQuantitiesAndForwardFillPrices() {
+        List<PortfolioValuePoint> points = merge(HistoryInterval.DAILY);
+
+        assertThat(points).extracting(PortfolioValuePoint::date)
+                .containsExactlyElementsOf(FROM.datesUntil(TO.plusDays(1)).toList());
+        assertThat(points).extracting(point -> point.value().toPlainString())
+                .containsExactly(
+                        "50.00",   // 5 shares bought before the range, seeded price 10
+                        "60.00",   // new s1 price 12
+                        "160.00",  // s2 bought and priced on the same day
+                        "160.00",
+                        "155.00",  // s1 drops to 11
+                        "155.00",
+                        "155.00",
+                        "133.00",  // 2 shares of s1 sold
+                        "143.00",  // s2 rises to 55
+                        "143.00");
+    }
+
+    @Test
+    void merge_shouldEmitPeriodEndsAndLastDay_forWeeklyInterval() {
+        List<PortfolioValuePoint> points = merge(HistoryInterval.WEEKLY);
+
+        assertThat(points).containsExactly(
+                new PortfolioValuePoint(LocalDate.of(2024, 1, 7), new BigDecimal("155.00")),
+                new PortfolioValuePoint(TO, new BigDecimal("143.00")));
+    }
+
+    @Test
+    void merge_shouldReportZero_forPortfolioWithoutTransactions() {
+        List<PortfolioValuePoint> points = new ArrayList<>();
+
+        PortfolioHistoryService.merge(List.<QuantityChange>of().iterator(), prices.iterator(), Map.of(),
+                FROM, FROM.plusDays(2), HistoryInterval.DAILY, points::add);
+
+        assertThat(points).hasSize(3).allSatisfy(point -> assertThat(point.value()).isEqualByComparingTo("0"));
+    }
+
+    private List<PortfolioValuePoint> merge(HistoryInterval interval) {
+        List<PortfolioValuePoint> points = new ArrayList<>();
+        PortfolioHistoryService.merge(changes.iterator(), prices.iterator(), Map.of("s1", new BigDecimal("10.00")),
+                FROM, TO, interval, points::add);
+        return points;
+    }
+}
@@ -0,0 +1,127 @@
+package de.dtonal.stocktracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import de.dtonal.stocktracker.model.Portfolio;
+import de.dtonal.stocktracker.model.PortfolioHolding;
+import de.dtonal.stocktracker.model.PortfolioHoldingId;
+import de.dtonal.stocktracker.model.Stock;
+import de.dtonal.stocktracker.model.StockTransaction;
+import de.dtonal.stocktracker.model.TransactionType;
+import de.dtonal.stocktracker.model.User;
+import de.dtonal.stocktracker.repository.PortfolioHoldingRepository;
+import de.dtonal.stocktracker.repository.PortfolioRepository;
+import de.dtonal.stocktracker.repository.StockRepository;
+import de.dtonal.stocktracker.repository.UserRepository;
+
+/**
+ * Zwei erste Transaktionen derselben Aktie in parallelen Datenbank-Transaktionen: Ohne Sperre
+ * legten beide eine Bestandszeile an und die zweite scheiterte am Primärschlüssel.
+ */
+@DataJpaTest
+@Tag("integration")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(PortfolioHoldingService.class)
+class PortfolioHoldingServiceConcurrencyTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2024, 3, 4, 10, 0);
+
+    @Autowired
+    private PortfolioHoldingService portfolioHoldingService;
+    @Autowired
+    private PortfolioHoldingRepository portfolioHoldingRepository;
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+    @Autowired
+    private StockRepository stockRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Portfolio portfolio;
+    private Stock stock;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(new User("Racer", "racer@example.com", "password"));
+        portfolio = portfolioRepository.save(new Portfolio("Race", "Concurrent first buys", user));
+        stock = stockRepository.save(new Stock("RCE", "Race Corp", "NASDAQ", "USD"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        portfolioHoldingRepository.deleteAllInBatch();
+        portfolioRepository.deleteAllInBatch();
+        stockRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void applyAdded_shouldSerializeConcurrentFirstTransactionsOfAStock() throws Exception {
+        TransactionTemplate transactions = new TransactionTemplate(transactionManager);
+        CountDownLatch firstApplied = new CountDownLatch(1);
+        CountDownLatch commitFirst = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = executor.submit(() -> transactions.executeWithoutResult(status -> {
+                portfolioHoldingService.applyAdded(portfolio.getId(), buy("10", MONDAY));
+                firstApplied.countDown();
+                await(commitFirst);
+            }));
+            assertThat(firstApplied.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<?> second = executor.submit(() -> transactions.executeWithoutResult(
+                    status -> portfolioHoldingService.applyAdded(portfolio.getId(), buy("5", MONDAY.plusDays(1)))));
+
+            // The second transaction waits for the portfolio lock instead of inserting its own row
+            Thread.sleep(200);
+            assertThat(second.isDone()).isFalse();
+            commitFirst.countDown();
+
+            first.get(10, TimeUnit.SECONDS);
+            second.get(10, TimeUnit.SECONDS);
+        } finally {
+            commitFirst.countDown();
+            executor.shutdownNow();
+        }
+
+        PortfolioHolding holding = portfolioHoldingRepository
+                .findById(new PortfolioHoldingId(portfolio.getId(), stock.getId())).orElseThrow();
+        assertThat(holding.getNetQuantity()).isEqualByComparingTo("15");
+        assertThat(holding.getTransactionCount()).isEqualTo(2);
+        assertThat(holding.getLastTransactionAt()).isEqualTo(MONDAY.plusDays(1));
+    }
+
+    private StockTransaction buy(String quantity, LocalDateTime date) {
+        return new StockTransaction(stock, portfolio, date, new BigDecimal(quantity), new BigDecimal("100.00"),
+                TransactionType.BUY);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package de.dtonal.stocktracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import de.dtonal.stocktracker.dto.HoldingsCheckReport;
+import de.dtonal.stocktracker.model.Portfolio;
+import de.dtonal.stocktracker.model.PortfolioHolding;
+import de.dtonal.stocktracker.model.PortfolioHoldingId;
+import de.dtonal.stocktracker.model.Stock;
+import de.dtonal.stocktracker.model.StockTransaction;
+import de.dtonal.stocktracker.model.TransactionType;
+import de.dtonal.stocktracker.model.User;
+import de.dtonal.stocktracker.repository.PortfolioHoldingRepository;
+import de.dtonal.stocktracker.repository.StockTransactionRepository;
+
+@DataJpaTest
+@Tag("integration")
+@Import(PortfolioHoldingService.class)
+class PortfolioHoldingServiceTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2024, 3, 4, 10, 0);
+
+    @Autowired
+    private PortfolioHoldingService portfolioHoldingService;
+    @Autowired
+    private PortfolioHoldingRepository portfolioHoldingRepository;
+    @Autowired
+    private StockTransactionRepository stockTransactionRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Portfolio portfolio;
+    private Stock stock;
+
+    @BeforeEach
+    void setUp() {
+        User user = entityManager.persist(new User("Holder", "holder@example.com", "password"));
+        portfolio = entityManager.persist(new Portfolio("Holdings", "Read model", user));
+        stock = entityManager.persist(new Stock("HLD", "Holding Corp", "NASDAQ", "USD"));
+    }
+
+    @Test
+    void applyAdded_shouldAccumulateQuantityCostAndLatestDate() {
+        add(TransactionType.BUY, "10", "100.00", MONDAY);
+        add(TransactionType.SELL, "4", "120.00", MONDAY.plusDays(2));
+        add(TransactionType.BUY, "1", "90.00", MONDAY.plusDays(1));
+
+        PortfolioHolding holding = holding();
+        assertThat(holding.getNetQuantity()).isEqualByComparingTo("7");
+        // 1000 - 480 + 90
+        assertThat(holding.getTotalCost()).isEqualByComparingTo("610");
+        assertThat(holding.getTransactionCount()).isEqualTo(3);
+        assertThat(holding.getLastTransactionAt()).isEqualTo(MONDAY.plusDays(2));
+    }
+
+    @Test
+    void applyRemoved_shouldRevertTransactionAndRecomputeLatestDate() {
+        add(TransactionType.BUY, "10", "100.00", MONDAY);
+        StockTransaction sell = add(TransactionType.SELL, "4", "120.00", MONDAY.plusDays(2));
+
+        remove(sell);
+
+        PortfolioHolding holding = holding();
+        assertThat(holding.getNetQuantity()).isEqualByComparingTo("10");
+        assertThat(holding.getTotalCost()).isEqualByComparingTo("1000");
+        assertThat(holding.getTransactionCount()).isEqualTo(1);
+        assertThat(holding.getLastTransactionAt()).isEqualTo(MONDAY);
+    }
+
+    @Test
+    void applyRemoved_shouldDeleteHolding_whenLastTransactionIsRemoved() {
+        StockTransaction buy = add(TransactionType.BUY, "10", "100.00", MONDAY);
+
+        remove(buy);
+
+        assertThat(portfolioHoldingRepository.findById(new PortfolioHoldingId(portfolio.getId(), stock.getId()))).isEmpty();
+    }
+
+    @Test
+    void verify_shouldReportNoMismatches_whenHoldingsWereMaintainedIncrementally() {
+        add(TransactionType.BUY, "10", "100.00", MONDAY);
+        StockTransaction sell = add(TransactionType.SELL, "4", "120.00", MONDAY.plusDays(2));
+        add(TransactionType.BUY, "2.5", "99.1234", MONDAY.plusDays(3));
+        remove(sell);
+
+        HoldingsCheckReport report = portfolioHoldingService.verify(false);
+
+        assertThat(report.holdings()).isEqualTo(1);
+        assertThat(report.mismatches()).isZero();
+    }
+
+    @Test
+    void verify_shouldRebuildMissingAndStaleHoldings() {
+        stockTransactionRepository.save(new StockTransaction(stock, portfolio, MONDAY, new BigDecimal("3"),
+                new BigDecimal("50.00"), TransactionType.BUY));
+        PortfolioHolding orphan = new PortfolioHolding(portfolio.getId(), "unknown-stock");
+        orphan.setTransactionCount(1);
+        portfolioHoldingRepository.save(orphan);
+        entityManager.flush();
+
+        HoldingsCheckReport report = portfolioHoldingService.verify(true);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(report.mismatches()).isEqualTo(2);
+        assertThat(portfolioHoldingRepository.findByPortfolioId(portfolio.getId()))
+                .singleElement()
+                .satisfies(holding -> {
+                    assertThat(holding.getStockId()).isEqualTo(stock.getId());
+                    assertThat(holding.getNetQuantity()).isEqualByComparingTo("3");
+                    assertThat(holding.getTotalCost()).isEqualByComparingTo("150");
+                });
+        assertThat(portfolioHoldingService.verify(false).mismatches()).isZero();
+    }
+
+    private StockTransaction add(TransactionType type, String quantity, String price, LocalDateTime date) {
+        StockTransaction transaction = stockTransactionRepository.save(new StockTransaction(stock, portfolio, date,
+                new BigDecimal(quantity), new BigDecimal(price), type));
+        portfolioHoldingService.applyAdded(portfolio.getId(), transaction);
+        entityManager.flush();
+        return transaction;
+    }
+
+    private void remove(StockTransaction transaction) {
+        portfolioHoldingService.applyRemoved(portfolio.getId(), transaction);
+        stockTransactionRepository.delete(transaction);
+        entityManager.flush();
+    }
+
+    private PortfolioHolding holding() {
+        entityManager.clear();
+        return portfolioHoldingRepository.findById(new PortfolioHoldingId(portfolio.getId(), stock.getId())).orElseThrow();
+    }
+}
@@ -0,0 +1,100 @@
+package de.dtonal.stocktracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import de.dtonal.stocktracker.dto.PortfolioReturns;
+import de.dtonal.stocktracker.model.HistoricalPrice;
+import de.dtonal.stocktracker.model.Portfolio;
+import de.dtonal.stocktracker.model.PortfolioHolding;
+import de.dtonal.stocktracker.model.PortfolioHoldingId;
+import de.dtonal.stocktracker.model.Stock;
+import de.dtonal.stocktracker.model.StockTransaction;
+import de.dtonal.stocktracker.model.TransactionType;
+import de.dtonal.stocktracker.model.User;
+
+@DataJpaTest
+@Tag("integration")
+@Import({ PortfolioReturnsService.class, PortfolioHistoryService.class })
+class PortfolioReturnsServiceTest {
+
+    private static final LocalDate START = LocalDate.of(2023, 1, 1);
+    private static final LocalDate END = LocalDate.of(2024, 1, 1);
+
+    @Autowired
+    private PortfolioReturnsService portfolioReturnsService;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Portfolio portfolio;
+    private Stock stock;
+
+    @BeforeEach
+    void setUp() {
+        User user = entityManager.persist(new User("Returns", "returns@example.com", "password"));
+        portfolio = entityManager.persist(new Portfolio("Returns", "XIRR and TWR", user));
+        stock = entityManager.persist(new Stock("RET", "Return Corp", "NASDAQ", "USD"));
+    }
+
+    @Test
+    void getReturns_shouldMatchSimpleReturn_forSingleBuyOverOneYear() {
+        buy("10", "100", START);
+        price(START, "100");
+        price(END, "110");
+
+        PortfolioReturns returns = portfolioReturnsService.getReturns(portfolio.getId(), START, END);
+
+        assertThat(returns.startValue()).isEqualByComparingTo("0");
+        assertThat(returns.endValue()).isEqualByComparingTo("1100");
+        assertThat(returns.netContributions()).isEqualByComparingTo("1000");
+        assertThat(returns.moneyWeightedReturn()).isEqualByComparingTo("0.1");
+        assertThat(returns.timeWeightedReturn()).isEqualByComparingTo("0.1");
+    }
+
+    @Test
+    void getReturns_shouldSeparateTimeWeightedFromMoneyWeighted_whenCapitalIsAddedLate() {
+        buy("10", "100", START);
+        price(START, "100");
+        // Doubles in the first half, then the position is tripled at the top and halves again
+        LocalDate middle = START.plusDays(182);
+        price(middle.minusDays(1), "200");
+        buy("20", "200", middle);
+        price(END, "100");
+
+        PortfolioReturns returns = portfolioReturnsService.getReturns(portfolio.getId(), START, END);
+
+        // (200 / 100) * (100 / 200) - 1
+        assertThat(returns.timeWeightedReturn()).isEqualByComparingTo("0");
+        assertThat(returns.moneyWeightedReturn()).isNegative();
+        assertThat(returns.netContributions()).isEqualByComparingTo("5000");
+        assertThat(returns.endValue()).isEqualByComparingTo("3000");
+    }
+
+    private void buy(String quantity, String price, LocalDate date) {
+        entityManager.persist(new StockTransaction(stock, portfolio, date.atTime(10, 0), new BigDecimal(quantity),
+                new BigDecimal(price), TransactionType.BUY));
+        PortfolioHolding holding = entityManager.find(PortfolioHolding.class,
+                new PortfolioHoldingId(portfolio.getId(), stock.getId()));
+        if (holding == null) {
+            holding = new PortfolioHolding(portfolio.getId(), stock.getId());
+            holding.setTransactionCount(1);
+            entityManager.persist(holding);
+        }
+        entityManager.flush();
+    }
+
+    private void price(LocalDate date, String closingPrice) {
+        entityManager.persist(new HistoricalPrice(stock, date, new BigDecimal(closingPrice)));
+        entityManager.flush();
+    }
+}
@@ -23,6 +23,7 @@ import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.test.context.support.WithMockUser;
 
 import de.dtonal.stocktracker.dto.PortfolioCreateRequest;
+import de.dtonal.stocktracker.dto.PortfolioSummary;
 import de.dtonal.stocktracker.dto.PortfolioUpdateRequest;
 import de.dtonal.stocktracker.dto.StockTransactionRequest;
 import de.dtonal.stocktracker.model.Portfolio;
@@ -45,6 +46,10 @@ class PortfolioServiceImplTest {
     private TransactionService transactionService;
     @MockBean
     private PortfolioCalculationService portfolioCalculationService;
+    @MockBean
+    private PortfolioHoldingService portfolioHoldingService;
+    @MockBean
+    private CostBasisService costBasisService;
 
     @MockBean
     private PortfolioRepository portfolioRepository;
@@ -117,13 +122,25 @@ class PortfolioServiceImplTest {
 
     @Test
     @WithMockUser(username = "test@example.com")
-    void findPortfoliosForCurrentUser_shouldSucceed() {
+    void findPortfolioSummariesForCurrentUser_shouldSucceed() {
+        PortfolioSummary summary = new PortfolioSummary("portfolio-id-456", "Test Portfolio", "Test Description", 0, null);
         when(userRepository.findByEmailIgnoreCase("test@example.com")).thenReturn(Optional.of(user));
-        when(portfolioRepository.findByUserId("user-id-123")).thenReturn(Collections.singletonList(portfolio));
+        when(portfolioRepository.findSummariesByUserId("user-id-123")).thenReturn(Collections.singletonList(summary));
 
-        List<Portfolio> result = portfolioService.findPortfoliosForCurrentUser();
+        List<PortfolioSummary> result = portfolioService.findPortfolioSummariesForCurrentUser();
 
-        assertThat(result).containsExactly(portfolio);
+        assertThat(result).containsExactly(summary);
+        verify(portfolioRepository, never()).findByUserId(any());
+    }
+
+    @Test
+    @WithMockUser(username = "another@user.com")
+    void findByIdWithTransactions_shouldFail_whenUserIsNotOwner() {
+        when(portfolioRepository.findWithTransactionsById("portfolio-id-456")).thenReturn(Optional.of(portfolio));
+
+        Optional<Portfolio> result = portfolioService.findByIdWithTransactions("portfolio-id-456");
+
+        assertThat(result).isNotPresent();
     }
 
     @Test
@@ -31,6 +31,10 @@ class PortfolioServiceImplUnitTest {
     private TransactionService transactionService;
     @Mock
     private PortfolioCalculationService portfolioCalculationService;
+    @Mock
+    private PortfolioHoldingService portfolioHoldingService;
+    @Mock
+    private CostBasisService costBasisService;
 
     @InjectMocks
     private PortfolioServiceImpl portfolioService;
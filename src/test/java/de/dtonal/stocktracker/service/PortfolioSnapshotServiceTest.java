@@ -0,0 +1,150 @@
+package de.dtonal.stocktracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import de.dtonal.stocktracker.dto.PortfolioSnapshotReport;
+import de.dtonal.stocktracker.model.HistoricalPrice;
+import de.dtonal.stocktracker.model.Portfolio;
+import de.dtonal.stocktracker.model.PortfolioDailyValue;
+import de.dtonal.stocktracker.model.PortfolioHolding;
+import de.dtonal.stocktracker.model.PortfolioHoldingsChangedEvent;
+import de.dtonal.stocktracker.model.Stock;
+import de.dtonal.stocktracker.model.StockTransaction;
+import de.dtonal.stocktracker.model.TransactionType;
+import de.dtonal.stocktracker.model.User;
+import de.dtonal.stocktracker.repository.HistoricalPriceRepository;
+import de.dtonal.stocktracker.repository.PortfolioDailyValueRepository;
+import de.dtonal.stocktracker.repository.PortfolioHoldingRepository;
+import de.dtonal.stocktracker.repository.PortfolioRepository;
+import de.dtonal.stocktracker.repository.StockRepository;
+import de.dtonal.stocktracker.repository.StockTransactionRepository;
+import de.dtonal.stocktracker.repository.UserRepository;
+
+@DataJpaTest
+@Tag("integration")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ PortfolioSnapshotService.class, PortfolioHistoryService.class })
+class PortfolioSnapshotServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 8);
+
+    @Autowired
+    private PortfolioSnapshotService portfolioSnapshotService;
+    @Autowired
+    private PortfolioDailyValueRepository portfolioDailyValueRepository;
+    @Autowired
+    private PortfolioHoldingRepository portfolioHoldingRepository;
+    @Autowired
+    private HistoricalPriceRepository historicalPriceRepository;
+    @Autowired
+    private StockTransactionRepository stockTransactionRepository;
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+    @Autowired
+    private StockRepository stockRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private Portfolio portfolio;
+    private Stock stock;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(new User("Snapshot", "snapshot@example.com", "password"));
+        portfolio = portfolioRepository.save(new Portfolio("Snapshots", "Daily values", user));
+        stock = stockRepository.save(new Stock("SNP", "Snapshot Corp", "NASDAQ", "USD"));
+
+        stockTransactionRepository.save(new StockTransaction(stock, portfolio, DAY.minusDays(3).atTime(10, 0),
+                new BigDecimal("10"), new BigDecimal("9.00"), TransactionType.BUY));
+        portfolioHoldingRepository.save(new PortfolioHolding(portfolio.getId(), stock.getId(), new BigDecimal("10"),
+                new BigDecimal("90.00"), 1L, DAY.minusDays(3).atTime(10, 0)));
+
+        price(DAY.minusDays(3), "10.00");
+        price(DAY.minusDays(1), "12.00");
+        price(DAY, "15.00");
+    }
+
+    @AfterEach
+    void tearDown() {
+        portfolioDailyValueRepository.deleteAllInBatch();
+        portfolioHoldingRepository.deleteAllInBatch();
+        historicalPriceRepository.deleteAllInBatch();
+        stockTransactionRepository.deleteAllInBatch();
+        portfolioRepository.deleteAllInBatch();
+        stockRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void snapshotAll_shouldBackfillFromFirstTransaction() {
+        PortfolioSnapshotReport report = portfolioSnapshotService.snapshotAll(DAY);
+
+        assertThat(report.portfolios()).isEqualTo(1);
+        assertThat(report.backfilled()).isEqualTo(1);
+        assertThat(report.written()).isEqualTo(4);
+        assertThat(report.failed()).isZero();
+        assertThat(values(DAY.minusDays(3), DAY)).containsExactly("100.00", "100.00", "120.00", "150.00");
+    }
+
+    @Test
+    void snapshotAll_shouldOnlyWriteNewDayAfterPreviousSnapshot() {
+        portfolioSnapshotService.snapshotAll(DAY);
+        price(DAY.plusDays(1), "20.00");
+
+        PortfolioSnapshotReport report = portfolioSnapshotService.snapshotAll(DAY.plusDays(1));
+
+        assertThat(report.backfilled()).isZero();
+        assertThat(report.written()).isEqualTo(1);
+        assertThat(values(DAY.minusDays(3), DAY.plusDays(1)))
+                .containsExactly("100.00", "100.00", "120.00", "150.00", "200.00");
+
+        assertThat(portfolioSnapshotService.snapshotAll(DAY.plusDays(1)).written()).isZero();
+    }
+
+    @Test
+    void onHoldingsChanged_shouldRecomputeSnapshotsFromChangedDay() {
+        portfolioSnapshotService.snapshotAll(DAY);
+
+        // Backdated purchase of 5 more shares two days ago
+        stockTransactionRepository.save(new StockTransaction(stock, portfolio, DAY.minusDays(2).atTime(10, 0),
+                new BigDecimal("5"), new BigDecimal("10.00"), TransactionType.BUY));
+        PortfolioHolding holding = portfolioHoldingRepository.findByPortfolioId(portfolio.getId()).get(0);
+        holding.setNetQuantity(new BigDecimal("15"));
+        portfolioHoldingRepository.save(holding);
+        portfolioSnapshotService.onHoldingsChanged(new PortfolioHoldingsChangedEvent(portfolio.getId(), DAY.minusDays(2)));
+
+        assertThat(values(DAY.minusDays(3), DAY)).containsExactly("100.00");
+
+        PortfolioSnapshotReport report = portfolioSnapshotService.snapshotAll(DAY);
+
+        assertThat(report.backfilled()).isEqualTo(1);
+        assertThat(report.written()).isEqualTo(3);
+        assertThat(values(DAY.minusDays(3), DAY)).containsExactly("100.00", "150.00", "180.00", "225.00");
+    }
+
+    private void price(LocalDate date, String closingPrice) {
+        historicalPriceRepository.save(new HistoricalPrice(stock, date, new BigDecimal(closingPrice)));
+    }
+
+    private List<String> values(LocalDate from, LocalDate to) {
+        return portfolioDailyValueRepository.findByPortfolioIdAndDateBetweenOrderByDateAsc(portfolio.getId(), from, to)
+                .stream()
+                .map(PortfolioDailyValue::getValue)
+                .map(BigDecimal::toPlainString)
+                .toList();
+    }
+}
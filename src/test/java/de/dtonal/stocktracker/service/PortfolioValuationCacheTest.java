@@ -0,0 +1,115 @@
+package de.dtonal.stocktracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.dtonal.stocktracker.model.PortfolioHoldingsChangedEvent;
+import de.dtonal.stocktracker.model.StockPricesUpdatedEvent;
+
+class PortfolioValuationCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private PortfolioValuationCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new PortfolioValuationCache(2, Duration.ofMinutes(10), now::get);
+    }
+
+    @Test
+    void onPricesUpdated_shouldEvictOnlyPortfoliosHoldingTheStock() {
+        store("p1", "100", "s1", "s2");
+        store("p2", "200", "s3");
+
+        cache.onPricesUpdated(new StockPricesUpdatedEvent(Set.of("s2")));
+
+        assertThat(cache.get("p1")).isEmpty();
+        assertThat(cache.get("p2")).contains(new BigDecimal("200"));
+        assertThat(cache.getInvalidations()).isEqualTo(1);
+    }
+
+    @Test
+    void onHoldingsChanged_shouldEvictPortfolio_andDropItFromReverseIndex() {
+        store("p1", "100", "s1");
+        cache.onHoldingsChanged(new PortfolioHoldingsChangedEvent("p1"));
+        store("p2", "200", "s2");
+
+        cache.onPricesUpdated(new StockPricesUpdatedEvent(Set.of("s1")));
+
+        assertThat(cache.get("p1")).isEmpty();
+        assertThat(cache.get("p2")).contains(new BigDecimal("200"));
+    }
+
+    @Test
+    void put_shouldDiscardValue_loadedBeforeAnInvalidation() {
+        long version = cache.currentVersion();
+        cache.invalidateStocks(Set.of("s1"));
+
+        cache.put("p1", version, BigDecimal.ONE, Set.of("s1"));
+
+        assertThat(cache.get("p1")).isEmpty();
+    }
+
+    @Test
+    void put_shouldKeepValue_whenOnlyUnrelatedPortfoliosAndStocksWereInvalidated() {
+        long version = cache.currentVersion();
+        cache.invalidate("p2");
+        cache.invalidateStocks(Set.of("s2"));
+
+        cache.put("p1", version, BigDecimal.ONE, Set.of("s1"));
+
+        assertThat(cache.get("p1")).contains(BigDecimal.ONE);
+    }
+
+    @Test
+    void put_shouldDiscardValue_whenPortfolioWasInvalidatedDuringLoad() {
+        long version = cache.currentVersion();
+        cache.onHoldingsChanged(new PortfolioHoldingsChangedEvent("p1"));
+
+        cache.put("p1", version, BigDecimal.ONE, Set.of("s1"));
+
+        assertThat(cache.get("p1")).isEmpty();
+    }
+
+    @Test
+    void put_shouldDiscardValue_loadedBeforeInvalidateAll() {
+        long version = cache.currentVersion();
+        cache.invalidateAll();
+
+        cache.put("p1", version, BigDecimal.ONE, Set.of("s1"));
+
+        assertThat(cache.get("p1")).isEmpty();
+    }
+
+    @Test
+    void get_shouldExpireAfterTtl() {
+        store("p1", "100", "s1");
+        now.addAndGet(Duration.ofMinutes(11).toNanos());
+
+        assertThat(cache.get("p1")).isEmpty();
+    }
+
+    @Test
+    void put_shouldEvictLeastRecentlyUsedPortfolio_whenFull() {
+        store("p1", "100", "s1");
+        store("p2", "200", "s2");
+        cache.get("p1");
+
+        store("p3", "300", "s3");
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("p2")).isEmpty();
+        assertThat(cache.get("p1")).isPresent();
+    }
+
+    private void store(String portfolioId, String value, String... stockIds) {
+        cache.put(portfolioId, cache.currentVersion(), new BigDecimal(value), Set.of(stockIds));
+    }
+}
@@ -0,0 +1,117 @@
+package de.dtonal.stocktracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.transaction.annotation.Transactional;
+
+import de.dtonal.stocktracker.model.HistoricalPrice;
+import de.dtonal.stocktracker.model.Portfolio;
+import de.dtonal.stocktracker.model.Stock;
+import de.dtonal.stocktracker.model.StockTransaction;
+import de.dtonal.stocktracker.model.TransactionType;
+import de.dtonal.stocktracker.model.User;
+import de.dtonal.stocktracker.repository.HistoricalPriceRepository;
+import de.dtonal.stocktracker.repository.PortfolioRepository;
+import de.dtonal.stocktracker.repository.StockRepository;
+import de.dtonal.stocktracker.repository.StockTransactionRepository;
+import de.dtonal.stocktracker.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Guards the valuation path against N+1 regressions: the number of statements must not
+ * grow with the number of holdings.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Tag("integration")
+@Transactional
+class PortfolioValuationQueryCountTest {
+
+    private static final int HOLDINGS = 50;
+    // Ownership check, portfolio lookup, holdings, latest prices
+    private static final int MAX_STATEMENTS = 4;
+
+    @Autowired
+    private PortfolioCalculationService portfolioCalculationService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+    @Autowired
+    private StockRepository stockRepository;
+    @Autowired
+    private StockTransactionRepository stockTransactionRepository;
+    @Autowired
+    private HistoricalPriceRepository historicalPriceRepository;
+    @Autowired
+    private PortfolioHoldingService portfolioHoldingService;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Portfolio portfolio;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(new User("Query Counter", "valuation@example.com", "password"));
+        portfolio = portfolioRepository.save(new Portfolio("Valuation", "Query count", user));
+
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < HOLDINGS; i++) {
+            Stock stock = stockRepository.save(new Stock("QC" + i, "Query Count " + i, "NASDAQ", "USD"));
+            stockTransactionRepository.save(new StockTransaction(stock, portfolio, LocalDateTime.now(),
+                    new BigDecimal("10"), BigDecimal.ONE, TransactionType.BUY));
+            stockTransactionRepository.save(new StockTransaction(stock, portfolio, LocalDateTime.now(),
+                    new BigDecimal("4"), BigDecimal.ONE, TransactionType.SELL));
+            historicalPriceRepository.save(new HistoricalPrice(stock, today.minusDays(2), new BigDecimal("1.00")));
+            historicalPriceRepository.save(new HistoricalPrice(stock, today, BigDecimal.valueOf(i + 1)));
+        }
+        entityManager.flush();
+        // The transactions bypass TransactionService, so derive the holdings from them
+        portfolioHoldingService.verify(true);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @WithMockUser(username = "valuation@example.com")
+    void getTotalPortfolioValue_shouldUseConstantNumberOfStatements() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        BigDecimal totalValue = portfolioCalculationService.getTotalPortfolioValue(portfolio.getId());
+
+        // 6 shares of each holding, latest prices 1..50: 6 * (1 + ... + 50) = 7650
+        assertThat(totalValue).isEqualByComparingTo("7650");
+        assertThat(statistics.getPrepareStatementCount())
+                .as("statements for a portfolio with %d holdings", HOLDINGS)
+                .isLessThanOrEqualTo(MAX_STATEMENTS);
+    }
+
+    @Test
+    @WithMockUser(username = "valuation@example.com")
+    void getTotalPortfolioValue_shouldServeRepeatCallsWithOwnershipCheckOnly() {
+        portfolioCalculationService.getTotalPortfolioValue(portfolio.getId());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        BigDecimal totalValue = portfolioCalculationService.getTotalPortfolioValue(portfolio.getId());
+
+        assertThat(totalValue).isEqualByComparingTo("7650");
+        // Authorization always asks the database; the valuation itself comes from the cache
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
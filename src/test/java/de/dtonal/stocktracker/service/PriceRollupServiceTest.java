@@ -0,0 +1,151 @@
+package de.dtonal.stocktracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import de.dtonal.stocktracker.dto.HistoryInterval;
+import de.dtonal.stocktracker.dto.PriceBar;
+import de.dtonal.stocktracker.dto.PriceHistory;
+import de.dtonal.stocktracker.model.HistoricalPrice;
+import de.dtonal.stocktracker.model.PriceRollup;
+import de.dtonal.stocktracker.model.PriceRollupId;
+import de.dtonal.stocktracker.model.Stock;
+import de.dtonal.stocktracker.repository.HistoricalPriceRepository;
+import de.dtonal.stocktracker.repository.PriceRollupRepository;
+import de.dtonal.stocktracker.repository.StockRepository;
+
+@DataJpaTest
+@Tag("integration")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ PriceRollupService.class, HistoricalPriceStore.class })
+class PriceRollupServiceTest {
+
+    // Friday; its week starts on Monday 2024-03-04, its month on 2024-03-01
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 8);
+
+    @Autowired
+    private PriceRollupService priceRollupService;
+    @Autowired
+    private PriceRollupRepository priceRollupRepository;
+    @Autowired
+    private HistoricalPriceRepository historicalPriceRepository;
+    @Autowired
+    private StockRepository stockRepository;
+
+    private Stock stock;
+
+    @BeforeEach
+    void setUp() {
+        stock = stockRepository.save(new Stock("RLP", "Rollup Corp", "NASDAQ", "USD"));
+
+        price(LocalDate.of(2024, 2, 28), "10.00");
+        price(LocalDate.of(2024, 2, 29), "11.00");
+        price(LocalDate.of(2024, 3, 1), "9.00");
+        price(LocalDate.of(2024, 3, 4), "12.00");
+        price(DAY, "15.00");
+    }
+
+    @AfterEach
+    void tearDown() {
+        priceRollupRepository.deleteAllInBatch();
+        historicalPriceRepository.deleteAllInBatch();
+        stockRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void updateRollups_shouldRecomputeWeekAndMonthOfDay() {
+        assertThat(priceRollupService.updateRollups(DAY)).isEqualTo(2);
+
+        PriceRollup week = rollup(HistoryInterval.WEEKLY, LocalDate.of(2024, 3, 4));
+        assertThat(week.getLastDate()).isEqualTo(DAY);
+        assertThat(prices(week)).containsExactly("12.00", "15.00", "12.00", "15.00");
+        assertThat(week.getAvgPrice()).isEqualByComparingTo("13.5");
+        assertThat(week.getPriceCount()).isEqualTo(2);
+
+        PriceRollup month = rollup(HistoryInterval.MONTHLY, LocalDate.of(2024, 3, 1));
+        assertThat(prices(month)).containsExactly("9.00", "15.00", "9.00", "15.00");
+        assertThat(month.getAvgPrice()).isEqualByComparingTo("12");
+        assertThat(month.getPriceCount()).isEqualTo(3);
+    }
+
+    @Test
+    void updateRollups_shouldOverwritePeriodWhenRunAgain() {
+        priceRollupService.updateRollups(DAY);
+        price(DAY.plusDays(1), "20.00");
+
+        priceRollupService.updateRollups(DAY.plusDays(1));
+
+        PriceRollup week = rollup(HistoryInterval.WEEKLY, LocalDate.of(2024, 3, 4));
+        assertThat(week.getLastDate()).isEqualTo(DAY.plusDays(1));
+        assertThat(prices(week)).containsExactly("12.00", "20.00", "12.00", "20.00");
+        assertThat(week.getPriceCount()).isEqualTo(3);
+        assertThat(priceRollupRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void rebuildAll_shouldRollUpWholeHistory() {
+        assertThat(priceRollupService.rebuildAll()).isEqualTo(4);
+
+        // The week of 2024-02-26 spans the month boundary
+        PriceRollup week = rollup(HistoryInterval.WEEKLY, LocalDate.of(2024, 2, 26));
+        assertThat(week.getLastDate()).isEqualTo(LocalDate.of(2024, 3, 1));
+        assertThat(prices(week)).containsExactly("10.00", "11.00", "9.00", "9.00");
+
+        PriceRollup february = rollup(HistoryInterval.MONTHLY, LocalDate.of(2024, 2, 1));
+        assertThat(prices(february)).containsExactly("10.00", "11.00", "10.00", "11.00");
+        assertThat(february.getAvgPrice()).isEqualByComparingTo("10.5");
+    }
+
+    @Test
+    void getPriceHistory_shouldChooseCoarsestResolutionWithEnoughPoints() {
+        priceRollupService.rebuildAll();
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 3, 31);
+
+        PriceHistory monthly = priceRollupService.getPriceHistory(stock.getId(), from, to, 3).orElseThrow();
+        assertThat(monthly.resolution()).isEqualTo(HistoryInterval.MONTHLY);
+        assertThat(monthly.bars()).extracting(PriceBar::date)
+                .containsExactly(LocalDate.of(2024, 2, 29), DAY);
+
+        PriceHistory weekly = priceRollupService.getPriceHistory(stock.getId(), from, to, 10).orElseThrow();
+        assertThat(weekly.resolution()).isEqualTo(HistoryInterval.WEEKLY);
+        assertThat(weekly.bars()).extracting(bar -> bar.close().toPlainString()).containsExactly("9.00", "15.00");
+
+        PriceHistory daily = priceRollupService.getPriceHistory(stock.getId(), from, to, 100).orElseThrow();
+        assertThat(daily.resolution()).isEqualTo(HistoryInterval.DAILY);
+        assertThat(daily.bars()).hasSize(5);
+    }
+
+    @Test
+    void getPriceHistory_shouldReturnEmptyForUnknownStock() {
+        assertThat(priceRollupService.getPriceHistory("unknown", DAY, DAY, 1)).isEmpty();
+    }
+
+    private void price(LocalDate date, String closingPrice) {
+        historicalPriceRepository.save(new HistoricalPrice(stock, date, new BigDecimal(closingPrice)));
+    }
+
+    private PriceRollup rollup(HistoryInterval resolution, LocalDate periodStart) {
+        return priceRollupRepository.findById(new PriceRollupId(stock.getId(), resolution, periodStart)).orElseThrow();
+    }
+
+    private static List<String> prices(PriceRollup rollup) {
+        return List.of(rollup.getOpenPrice(), rollup.getHighPrice(), rollup.getLowPrice(), rollup.getClosePrice())
+                .stream()
+                .map(BigDecimal::toPlainString)
+                .toList();
+    }
+}
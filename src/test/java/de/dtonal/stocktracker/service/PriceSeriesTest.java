@@ -0,0 +1,74 @@
+package de.dtonal.stocktracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.dtonal.stocktracker.dto.PricePoint;
+
+class PriceSeriesTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2024, 1, 1);
+
+    private final PriceSeries series = PriceSeries.of(List.of(
+            point(MONDAY, "100.00"),
+            point(MONDAY.plusDays(1), "101.50"),
+            point(MONDAY.plusDays(4), "99.25")));
+
+    @Test
+    void priceAsOf_shouldReturnLastPriceOnOrBeforeDate() {
+        assertThat(series.priceAsOf(MONDAY)).isEqualByComparingTo("100.00");
+        assertThat(series.priceAsOf(MONDAY.plusDays(3))).isEqualByComparingTo("101.50");
+        assertThat(series.priceAsOf(MONDAY.plusDays(30))).isEqualByComparingTo("99.25");
+    }
+
+    @Test
+    void priceAsOf_shouldReturnNull_beforeFirstPrice() {
+        assertThat(series.priceAsOf(MONDAY.minusDays(1))).isNull();
+        assertThat(PriceSeries.EMPTY.priceAsOf(MONDAY)).isNull();
+    }
+
+    @Test
+    void between_shouldReturnPricesInclusive() {
+        assertThat(series.between("s1", MONDAY.plusDays(1), MONDAY.plusDays(4)))
+                .extracting(PricePoint::date)
+                .containsExactly(MONDAY.plusDays(1), MONDAY.plusDays(4));
+        assertThat(series.between("s1", MONDAY.plusDays(2), MONDAY.plusDays(3))).isEmpty();
+    }
+
+    @Test
+    void withPriceIfAbsent_shouldAppendAndInsertWithoutChangingOriginal() {
+        PriceSeries appended = series.withPriceIfAbsent(MONDAY.plusDays(5), new BigDecimal("98.00"));
+        PriceSeries inserted = appended.withPriceIfAbsent(MONDAY.plusDays(2), new BigDecimal("102.00"));
+
+        assertThat(series.size()).isEqualTo(3);
+        assertThat(series.priceAsOf(MONDAY.plusDays(5))).isEqualByComparingTo("99.25");
+        assertThat(appended.size()).isEqualTo(4);
+        assertThat(inserted.size()).isEqualTo(5);
+        assertThat(inserted.priceAsOf(MONDAY.plusDays(3))).isEqualByComparingTo("102.00");
+        assertThat(inserted.priceAsOf(MONDAY.plusDays(5))).isEqualByComparingTo("98.00");
+    }
+
+    @Test
+    void withPriceIfAbsent_shouldKeepExistingPrice() {
+        PriceSeries unchanged = series.withPriceIfAbsent(MONDAY, new BigDecimal("1.00"));
+
+        assertThat(unchanged).isSameAs(series);
+        assertThat(unchanged.priceAsOf(MONDAY)).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    void of_shouldRejectUnsortedPoints() {
+        assertThatThrownBy(() -> PriceSeries.of(List.of(point(MONDAY.plusDays(1), "1"), point(MONDAY, "2"))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static PricePoint point(LocalDate date, String price) {
+        return new PricePoint("s1", date, new BigDecimal(price));
+    }
+}
@@ -0,0 +1,69 @@
+package de.dtonal.stocktracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Misst XIRR und TWR für ein Portfolio mit 50.000 Transaktionen über rund 27 Jahre. Läuft nicht
+ * im normalen Build, sondern nur mit {@code mvn test -Dgroups=benchmark -Dtest.excludedGroups=}.
+ */
+@Tag("benchmark")
+class ReturnMathBenchmarkTest {
+
+    private static final int TRANSACTIONS = 50_000;
+    private static final int WARMUP = 20;
+    private static final int RUNS = 50;
+
+    @Test
+    void measureXirrAndTwr() {
+        Random random = new Random(42);
+        double[] amounts = new double[TRANSACTIONS + 1];
+        int[] days = new int[TRANSACTIONS + 1];
+        double invested = 0;
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            amounts[i] = -(50 + random.nextDouble() * 950);
+            days[i] = i / 5;
+            invested -= amounts[i];
+        }
+        amounts[TRANSACTIONS] = invested * 1.8;
+        days[TRANSACTIONS] = days[TRANSACTIONS - 1] + 1;
+
+        int valueDays = days[TRANSACTIONS] + 1;
+        double[] values = new double[valueDays];
+        double[] flows = new double[valueDays];
+        for (int i = 1; i < valueDays; i++) {
+            flows[i] = 2500;
+            values[i] = (values[i - 1] + flows[i]) * (1 + (random.nextDouble() - 0.49) * 0.02);
+        }
+
+        double xirr = 0;
+        double twr = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            xirr = ReturnMath.xirr(amounts, days, amounts.length);
+            twr = ReturnMath.twr(values, flows, valueDays);
+        }
+
+        long xirrStart = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            xirr = ReturnMath.xirr(amounts, days, amounts.length);
+        }
+        long xirrMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - xirrStart) / RUNS;
+
+        long twrStart = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            twr = ReturnMath.twr(values, flows, valueDays);
+        }
+        long twrMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - twrStart) / RUNS;
+
+        System.out.printf("%d cash flows: XIRR %d us (%.6f), %d daily values: TWR %d us (%.6f)%n",
+                amounts.length, xirrMicros, xirr, valueDays, twrMicros, twr);
+
+        assertThat(xirr).isFinite();
+        assertThat(twr).isFinite();
+    }
+}
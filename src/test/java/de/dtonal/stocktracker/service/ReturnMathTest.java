@@ -0,0 +1,75 @@
+package de.dtonal.stocktracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Referenzwerte: das XIRR-Beispiel aus der Excel-Dokumentation sowie einfache, von Hand
+ * nachrechenbare Fälle.
+ */
+class ReturnMathTest {
+
+    @Test
+    void xirr_shouldMatchSpreadsheetReferenceExample() {
+        double[] amounts = { -10000, 2750, 4250, 3250, 2750 };
+        int[] days = {
+                day(2008, 1, 1), day(2008, 3, 1), day(2008, 10, 30), day(2009, 2, 15), day(2009, 4, 1) };
+
+        // Excel dokumentiert 0.373362535; das ist auf neun Stellen gerundet und liegt 1,5e-9 neben der
+        // exakten Nullstelle. Verglichen wird deshalb mit der Nullstelle selbst, in der vollen Toleranz.
+        assertThat(ReturnMath.xirr(amounts, days, amounts.length)).isCloseTo(0.3733625335188315, within(1e-9));
+    }
+
+    @Test
+    void xirr_shouldReturnSimpleRateForOneYear() {
+        assertThat(ReturnMath.xirr(new double[] { -1000, 1100 }, new int[] { 0, 365 }, 2)).isCloseTo(0.1, within(1e-12));
+        assertThat(ReturnMath.xirr(new double[] { -1000, 1000 }, new int[] { 0, 730 }, 2)).isCloseTo(0.0, within(1e-12));
+    }
+
+    @Test
+    void xirr_shouldFallBackToBrent_whenNewtonLeavesDomain() {
+        double[] amounts = { -1000, 1 };
+        double[] years = { 0, 1 };
+
+        assertThat(ReturnMath.newton(amounts, years, 2, 0.1)).isNaN();
+        assertThat(ReturnMath.xirr(amounts, new int[] { 0, 365 }, 2)).isCloseTo(-0.999, within(1e-9));
+    }
+
+    @Test
+    void xirr_shouldAgreeBetweenNewtonAndBrent() {
+        double[] amounts = { -10000, 2750, 4250, 3250, 2750 };
+        double[] years = { 0, 60 / 365.0, 303 / 365.0, 411 / 365.0, 456 / 365.0 };
+
+        assertThat(ReturnMath.brent(amounts, years, amounts.length))
+                .isCloseTo(ReturnMath.newton(amounts, years, amounts.length, 0.1), within(1e-9));
+    }
+
+    @Test
+    void xirr_shouldBeUndefined_withoutSignChange() {
+        assertThat(ReturnMath.xirr(new double[] { -1000, -100 }, new int[] { 0, 365 }, 2)).isNaN();
+        assertThat(ReturnMath.xirr(new double[] { -1000 }, new int[] { 0 }, 1)).isNaN();
+    }
+
+    @Test
+    void twr_shouldChainDailyReturnsAndNeutralizeFlows() {
+        // Day 1: 100 added to 100, closes at 210 (+5 %); day 2: closes at 231 (+10 %)
+        double twr = ReturnMath.twr(new double[] { 100, 210, 231 }, new double[] { 0, 100, 0 }, 3);
+
+        assertThat(twr).isCloseTo(0.155, within(1e-12));
+    }
+
+    @Test
+    void twr_shouldSkipDaysWithoutInvestedCapital() {
+        double twr = ReturnMath.twr(new double[] { 0, 0, 1000, 1100 }, new double[] { 0, 0, 1000, 0 }, 4);
+
+        assertThat(twr).isCloseTo(0.1, within(1e-12));
+    }
+
+    private static int day(int year, int month, int dayOfMonth) {
+        return (int) LocalDate.of(year, month, dayOfMonth).toEpochDay();
+    }
+}
@@ -0,0 +1,111 @@
+package de.dtonal.stocktracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void execute_shouldShareOneCall_betweenConcurrentCallers() throws Exception {
+        int callers = 8;
+        AtomicInteger loaderCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        List<Future<String>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("AAPL", () -> {
+                    loaderCalls.incrementAndGet();
+                    await(release);
+                    return "profile";
+                })));
+            }
+            waitUntilCoalesced(callers - 1);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("profile");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(loaderCalls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_shouldStartNewCall_afterPreviousCompleted() {
+        AtomicInteger loaderCalls = new AtomicInteger();
+
+        singleFlight.execute("AAPL", () -> "v" + loaderCalls.incrementAndGet());
+        String second = singleFlight.execute("AAPL", () -> "v" + loaderCalls.incrementAndGet());
+
+        assertThat(second).isEqualTo("v2");
+        assertThat(singleFlight.getCoalesced()).isZero();
+    }
+
+    @Test
+    void execute_shouldPropagateLoaderException() {
+        assertThatThrownBy(() -> singleFlight.execute("AAPL", () -> {
+            throw new IllegalStateException("provider down");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("provider down");
+
+        // A failed call must not block later callers
+        assertThat(singleFlight.execute("AAPL", () -> "ok")).isEqualTo("ok");
+    }
+
+    @Test
+    void execute_shouldReleaseWaiters_whenLoaderThrowsError() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> singleFlight.execute("AAPL", () -> {
+                started.countDown();
+                await(release);
+                throw new StackOverflowError("loader");
+            }));
+            await(started);
+            Future<String> waiter = executor.submit(() -> singleFlight.execute("AAPL", () -> "unused"));
+            waitUntilCoalesced(1);
+            release.countDown();
+
+            for (Future<String> result : List.of(leader, waiter)) {
+                assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                        .hasCauseInstanceOf(StackOverflowError.class);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(singleFlight.execute("AAPL", () -> "ok")).isEqualTo("ok");
+    }
+
+    private void waitUntilCoalesced(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.getCoalesced() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(singleFlight.getCoalesced()).isEqualTo(expected);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -3,6 +3,7 @@ package de.dtonal.stocktracker.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -12,6 +13,9 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -21,10 +25,14 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import de.dtonal.stocktracker.dto.PriceData;
 import de.dtonal.stocktracker.model.HistoricalPrice;
+import de.dtonal.stocktracker.model.PriceUpdateCompletedEvent;
 import de.dtonal.stocktracker.model.Stock;
+import de.dtonal.stocktracker.model.StockPricesUpdatedEvent;
 import de.dtonal.stocktracker.repository.HistoricalPriceRepository;
 import de.dtonal.stocktracker.repository.StockRepository;
 
@@ -40,11 +48,17 @@ class StockPriceUpdateServiceTest {
     @Mock
     private StockDataService stockDataService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private HistoricalPriceStore historicalPriceStore;
+
     @InjectMocks
     private StockPriceUpdateService stockPriceUpdateService;
 
     @Captor
-    private ArgumentCaptor<HistoricalPrice> historicalPriceCaptor;
+    private ArgumentCaptor<List<HistoricalPrice>> historicalPriceBatchCaptor;
 
     private Stock stock1;
     private Stock stock2;
@@ -53,8 +67,12 @@ class StockPriceUpdateServiceTest {
 
     @BeforeEach
     void setUp() {
+        ReflectionTestUtils.setField(stockPriceUpdateService, "batchSize", 500);
+
         stock1 = new Stock("AAPL", "Apple Inc.");
+        stock1.setId("aapl-id");
         stock2 = new Stock("GOOGL", "Alphabet Inc.");
+        stock2.setId("googl-id");
 
         priceData1 = new PriceData();
         priceData1.setCurrentPrice(new BigDecimal("150.00"));
@@ -67,17 +85,19 @@ class StockPriceUpdateServiceTest {
     void updateAllStockPrices_shouldFetchAndSavePrices_whenNoPricesForTodayExist() {
         // Arrange
         when(stockRepository.findAll()).thenReturn(List.of(stock1, stock2));
-        when(historicalPriceRepository.findByStockAndDate(any(Stock.class), eq(LocalDate.now()))).thenReturn(Optional.empty());
-        when(stockDataService.getLatestPriceData("AAPL")).thenReturn(Optional.of(priceData1));
-        when(stockDataService.getLatestPriceData("GOOGL")).thenReturn(Optional.of(priceData2));
+        when(historicalPriceRepository.findStockIdsWithPriceOnDate(eq(LocalDate.now()))).thenReturn(Set.of());
+        when(stockDataService.getFreshPriceData("AAPL")).thenReturn(Optional.of(priceData1));
+        when(stockDataService.getFreshPriceData("GOOGL")).thenReturn(Optional.of(priceData2));
 
         // Act
         stockPriceUpdateService.updateAllStockPrices();
 
         // Assert
-        verify(historicalPriceRepository, times(2)).save(historicalPriceCaptor.capture());
-        
-        List<HistoricalPrice> capturedPrices = historicalPriceCaptor.getAllValues();
+        // Both prices are written together in a single batch
+        verify(historicalPriceRepository, times(1)).insertAllIfAbsent(historicalPriceBatchCaptor.capture());
+        verify(historicalPriceRepository, never()).save(any());
+
+        List<HistoricalPrice> capturedPrices = historicalPriceBatchCaptor.getValue();
         assertEquals(2, capturedPrices.size());
         
         // Check first saved price
@@ -89,57 +109,58 @@ class StockPriceUpdateServiceTest {
         HistoricalPrice savedPrice2 = capturedPrices.stream().filter(p -> p.getStock().getSymbol().equals("GOOGL")).findFirst().get();
         assertEquals("GOOGL", savedPrice2.getStock().getSymbol());
         assertEquals(0, new BigDecimal("2800.00").compareTo(savedPrice2.getClosingPrice()));
+
+        // The in-memory price series receive the written batch
+        verify(historicalPriceStore).recordAll(capturedPrices);
+
+        // Cached valuations of portfolios holding these stocks are invalidated
+        verify(eventPublisher).publishEvent(new StockPricesUpdatedEvent(Set.of("aapl-id", "googl-id")));
+        verify(eventPublisher).publishEvent(new PriceUpdateCompletedEvent(LocalDate.now()));
     }
 
     @Test
     void updateAllStockPrices_shouldOnlyFetchPriceForStockWithoutRecentPrice() {
         // Arrange
         when(stockRepository.findAll()).thenReturn(List.of(stock1, stock2));
+        // For stock "AAPL" a price already exists, so it must not even enter the work list.
+        when(historicalPriceRepository.findStockIdsWithPriceOnDate(any(LocalDate.class)))
+                .thenReturn(Set.of("aapl-id"));
 
-        // This replaces the two fragile when() calls with one robust implementation.
-        // It's immune to the null-pointer issues caused by Mockito's internal matching.
-        when(historicalPriceRepository.findByStockAndDate(any(Stock.class), any(LocalDate.class)))
-                .thenAnswer(invocation -> {
-                    Stock stock = invocation.getArgument(0);
-                    // For stock "AAPL", we pretend a price already exists.
-                    if (stock != null && "AAPL".equals(stock.getSymbol())) {
-                        return Optional.of(new HistoricalPrice());
-                    }
-                    // For all other stocks (like "GOOGL"), no price exists.
-                    return Optional.empty();
-                });
-
-        when(stockDataService.getLatestPriceData("GOOGL")).thenReturn(Optional.of(priceData2));
+        when(stockDataService.getFreshPriceData("GOOGL")).thenReturn(Optional.of(priceData2));
 
         // Act
         stockPriceUpdateService.updateAllStockPrices();
 
         // Assert
-        verify(stockDataService, never()).getLatestPriceData("AAPL");
-        verify(stockDataService, times(1)).getLatestPriceData("GOOGL");
-        verify(historicalPriceRepository, times(1)).save(any(HistoricalPrice.class));
+        verify(stockDataService, never()).getFreshPriceData("AAPL");
+        verify(stockDataService, times(1)).getFreshPriceData("GOOGL");
+        assertEquals(1, savedPrices().size());
+        verify(historicalPriceRepository, never()).findByStockAndDate(any(), any());
     }
 
     @Test
     void updateAllStockPrices_shouldContinueWhenApiFailsForOneStock() {
         // Arrange
         Stock stockFailing = new Stock("FAIL", "Failing Corp.");
+        stockFailing.setId("fail-id");
         when(stockRepository.findAll()).thenReturn(List.of(stock1, stockFailing));
-        when(historicalPriceRepository.findByStockAndDate(any(Stock.class), any(LocalDate.class)))
-                .thenReturn(Optional.empty());
+        when(historicalPriceRepository.findStockIdsWithPriceOnDate(any(LocalDate.class)))
+                .thenReturn(Set.of());
 
-        when(stockDataService.getLatestPriceData("AAPL")).thenReturn(Optional.of(priceData1));
+        when(stockDataService.getFreshPriceData("AAPL")).thenReturn(Optional.of(priceData1));
         // API returns empty for the second stock
-        when(stockDataService.getLatestPriceData("FAIL")).thenReturn(Optional.empty());
+        when(stockDataService.getFreshPriceData("FAIL")).thenReturn(Optional.empty());
         
         // Act
         stockPriceUpdateService.updateAllStockPrices();
 
         // Assert
-        verify(stockDataService, times(1)).getLatestPriceData("AAPL");
-        verify(stockDataService, times(1)).getLatestPriceData("FAIL");
-        // Only one save call should happen, for the successful one
-        verify(historicalPriceRepository, times(1)).save(any(HistoricalPrice.class));
+        verify(stockDataService, times(1)).getFreshPriceData("AAPL");
+        verify(stockDataService, times(1)).getFreshPriceData("FAIL");
+        // Only the successful price should be written
+        List<HistoricalPrice> saved = savedPrices();
+        assertEquals(1, saved.size());
+        assertEquals("AAPL", saved.get(0).getStock().getSymbol());
     }
 
     @Test
@@ -151,7 +172,86 @@ class StockPriceUpdateServiceTest {
         stockPriceUpdateService.updateAllStockPrices();
 
         // Assert
-        verify(stockDataService, never()).getLatestPriceData(any());
+        verify(stockDataService, never()).getFreshPriceData(any());
+        verify(historicalPriceRepository, never()).insertAllIfAbsent(any());
+    }
+
+    @Test
+    void updateStockPrices_inParallel_shouldUpdateAllStocksAndReportFailures() {
+        // Arrange
+        ReflectionTestUtils.setField(stockPriceUpdateService, "parallel", true);
+        ReflectionTestUtils.setField(stockPriceUpdateService, "concurrency", 4);
+        ReflectionTestUtils.setField(stockPriceUpdateService, "batchSize", 5);
+        List<Stock> stocks = IntStream.range(0, 20)
+                .mapToObj(i -> {
+                    Stock stock = new Stock("SYM" + i, "Company " + i);
+                    stock.setId("id-" + i);
+                    return stock;
+                })
+                .collect(Collectors.toList());
+        when(historicalPriceRepository.findStockIdsWithPriceOnDate(any(LocalDate.class)))
+                .thenReturn(Set.of("id-3"));
+        when(stockDataService.getFreshPriceData(any())).thenAnswer(invocation -> {
+            String symbol = invocation.getArgument(0);
+            return "SYM7".equals(symbol) ? Optional.empty() : Optional.of(priceData1);
+        });
+        when(historicalPriceRepository.insertAllIfAbsent(any()))
+                .thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+
+        // Act
+        PriceUpdateReport report = stockPriceUpdateService.updateStockPrices(stocks, LocalDate.now());
+
+        // Assert
+        assertEquals(20, report.getTotal());
+        assertEquals(18, report.getUpdated());
+        assertEquals(18, report.getInserted());
+        assertEquals(1, report.getSkipped());
+        assertEquals(1, report.getFailed());
+        verify(stockDataService, never()).getFreshPriceData("SYM3");
+        // 18 prices in batches of 5: three full batches plus the final flush of the remaining three
+        verify(historicalPriceRepository, times(4)).insertAllIfAbsent(any());
+        assertEquals(18, savedPrices().size());
+    }
+
+    @Test
+    void updateStockPrice_shouldWriteSingleStockWithoutPriorRead() {
+        // Arrange
+        when(stockDataService.getFreshPriceData("AAPL")).thenReturn(Optional.of(priceData1));
+
+        // Act
+        stockPriceUpdateService.updateStockPrice(stock1);
+
+        // Assert
+        ArgumentCaptor<HistoricalPrice> captor = ArgumentCaptor.forClass(HistoricalPrice.class);
+        verify(historicalPriceRepository).insertIfAbsent(captor.capture());
+        assertEquals("AAPL", captor.getValue().getStock().getSymbol());
+        assertEquals(LocalDate.now(), captor.getValue().getDate());
+        verify(historicalPriceRepository, never()).findByStockAndDate(any(), any());
         verify(historicalPriceRepository, never()).save(any());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void updateStockPrices_shouldCountFailedBatchWrites() {
+        // Arrange
+        when(historicalPriceRepository.findStockIdsWithPriceOnDate(any(LocalDate.class))).thenReturn(Set.of());
+        when(stockDataService.getFreshPriceData("AAPL")).thenReturn(Optional.of(priceData1));
+        when(stockDataService.getFreshPriceData("GOOGL")).thenReturn(Optional.of(priceData2));
+        when(historicalPriceRepository.insertAllIfAbsent(any())).thenThrow(new RuntimeException("DB down"));
+
+        // Act
+        PriceUpdateReport report = stockPriceUpdateService.updateStockPrices(List.of(stock1, stock2), LocalDate.now());
+
+        // Assert
+        assertEquals(0, report.getUpdated());
+        assertEquals(2, report.getFailed());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+        verify(historicalPriceStore, never()).recordAll(any());
+    }
+
+    private List<HistoricalPrice> savedPrices() {
+        verify(historicalPriceRepository, atLeastOnce()).insertAllIfAbsent(historicalPriceBatchCaptor.capture());
+        return historicalPriceBatchCaptor.getAllValues().stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+}
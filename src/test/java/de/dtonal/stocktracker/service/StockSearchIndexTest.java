@@ -0,0 +1,78 @@
+package de.dtonal.stocktracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.dtonal.stocktracker.model.Stock;
+import de.dtonal.stocktracker.model.StockSavedEvent;
+
+class StockSearchIndexTest {
+
+    private final StockSearchIndex index = new StockSearchIndex();
+
+    @Test
+    void search_shouldFindNameSubstrings_ofAnyLength() {
+        index.rebuild(List.of(
+                stock("1", "MSFT", "Microsoft Corporation"),
+                stock("2", "AAPL", "Apple Inc.")));
+
+        assertThat(symbols(index.search("o", 10))).containsExactlyInAnyOrder("MSFT");
+        assertThat(symbols(index.search("SOF", 10))).containsExactly("MSFT");
+        assertThat(symbols(index.search("corporation", 10))).containsExactly("MSFT");
+        assertThat(symbols(index.search("ple in", 10))).containsExactly("AAPL");
+        assertThat(index.search("microsoft inc", 10)).isEmpty();
+    }
+
+    @Test
+    void search_shouldNotReturnTrigramFalsePositives() {
+        // Contains every trigram of "abcabd" but not the string itself
+        index.add(stock("1", "XYZ", "abcab abd"));
+
+        assertThat(index.search("abcabd", 10)).isEmpty();
+    }
+
+    @Test
+    void search_shouldRespectLimit() {
+        index.rebuild(List.of(
+                stock("1", "A", "Agilent"),
+                stock("2", "AA", "Alcoa"),
+                stock("3", "AAL", "American Airlines")));
+
+        assertThat(symbols(index.search("a", 2))).containsExactly("A", "AA");
+    }
+
+    @Test
+    void add_shouldReplaceEntry_whenStockIsRenamed() {
+        Stock stock = stock("1", "FB", "Facebook");
+        index.add(stock);
+
+        stock.setSymbol("META");
+        stock.setName("Meta Platforms");
+        index.onStockSaved(new StockSavedEvent(stock));
+
+        assertThat(index.search("FB", 10)).isEmpty();
+        assertThat(index.search("facebook", 10)).isEmpty();
+        assertThat(symbols(index.search("platforms", 10))).containsExactly("META");
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void add_shouldIgnoreUnsavedStock() {
+        index.add(new Stock("TSLA", "Tesla"));
+
+        assertThat(index.size()).isZero();
+    }
+
+    private static List<String> symbols(List<StockSearchIndex.IndexedStock> results) {
+        return results.stream().map(StockSearchIndex.IndexedStock::symbol).toList();
+    }
+
+    private static Stock stock(String id, String symbol, String name) {
+        Stock stock = new Stock(symbol, name);
+        stock.setId(id);
+        return stock;
+    }
+}
@@ -10,8 +10,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -29,6 +32,9 @@ class StockServiceImplTest {
     @Mock
     private StockDataService stockDataService;
 
+    @Spy
+    private StockSearchIndex stockSearchIndex = new StockSearchIndex();
+
     @InjectMocks
     private StockServiceImpl stockService;
 
@@ -38,17 +44,18 @@ class StockServiceImplTest {
     @BeforeEach
     void setUp() {
         appleStock = new Stock();
+        appleStock.setId("apple-id");
         appleStock.setSymbol("AAPL");
         appleStock.setName("Apple Inc.");
 
         microsoftStockItem = new StockSearchItem("Microsoft Corp", "MSFT", "MSFT", "Common Stock");
+        ReflectionTestUtils.setField(stockService, "remoteSearchTimeout", Duration.ofSeconds(2));
     }
 
     @Test
     @DisplayName("Test 1: Should return only local stock found by name")
     void search_whenOnlyLocalStockFoundByName_shouldReturnIt() {
-        when(stockRepository.findByNameContainingIgnoreCase("Apple")).thenReturn(List.of(appleStock));
-        when(stockRepository.findBySymbol(anyString())).thenReturn(Collections.emptyList());
+        stockSearchIndex.add(appleStock);
         when(stockDataService.getStockSearchResult(anyString())).thenReturn(Optional.empty());
 
         StockSearchResult results = stockService.searchStocks("Apple");
@@ -61,8 +68,7 @@ class StockServiceImplTest {
     @Test
     @DisplayName("Test 2: Should return only local stock found by symbol")
     void search_whenOnlyLocalStockFoundBySymbol_shouldReturnIt() {
-        when(stockRepository.findByNameContainingIgnoreCase(anyString())).thenReturn(Collections.emptyList());
-        when(stockRepository.findBySymbol("AAPL")).thenReturn(List.of(appleStock));
+        stockSearchIndex.add(appleStock);
         when(stockDataService.getStockSearchResult(anyString())).thenReturn(Optional.empty());
 
         StockSearchResult results = stockService.searchStocks("AAPL");
@@ -75,11 +81,11 @@ class StockServiceImplTest {
     @Test
     @DisplayName("Test 3: Should return a single stock when found by both name and symbol")
     void search_whenStockFoundByMultipleLocalMethods_shouldReturnSingleEntry() {
-        when(stockRepository.findByNameContainingIgnoreCase("Apple")).thenReturn(List.of(appleStock));
-        when(stockRepository.findBySymbol("Apple")).thenReturn(List.of(appleStock));
+        stockSearchIndex.add(appleStock);
         when(stockDataService.getStockSearchResult(anyString())).thenReturn(Optional.empty());
 
-        StockSearchResult results = stockService.searchStocks("Apple");
+        // "A" is a symbol prefix of AAPL and also part of the name
+        StockSearchResult results = stockService.searchStocks("A");
 
         assertThat(results.getResult()).hasSize(1);
     }
@@ -87,8 +93,6 @@ class StockServiceImplTest {
     @Test
     @DisplayName("Test 4: Should return only remote stock when no local results")
     void search_whenOnlyRemoteStockFound_shouldReturnIt() {
-        when(stockRepository.findByNameContainingIgnoreCase(anyString())).thenReturn(Collections.emptyList());
-        when(stockRepository.findBySymbol(anyString())).thenReturn(Collections.emptyList());
         StockSearchResult finnhubResult = new StockSearchResult(1, List.of(microsoftStockItem));
         when(stockDataService.getStockSearchResult("MSFT")).thenReturn(Optional.of(finnhubResult));
 
@@ -102,8 +106,7 @@ class StockServiceImplTest {
     @Test
     @DisplayName("Test 5: Should return combined list of local and new remote stocks")
     void search_whenLocalAndNewRemoteStocksFound_shouldReturnCombinedList() {
-        when(stockRepository.findByNameContainingIgnoreCase(anyString())).thenReturn(List.of(appleStock));
-        when(stockRepository.findBySymbol(anyString())).thenReturn(Collections.emptyList());
+        stockSearchIndex.add(appleStock);
         StockSearchResult finnhubResult = new StockSearchResult(1, List.of(microsoftStockItem));
         when(stockDataService.getStockSearchResult(anyString())).thenReturn(Optional.of(finnhubResult));
 
@@ -117,7 +120,7 @@ class StockServiceImplTest {
     @Test
     @DisplayName("Test 6: Should merge results and ignore remote duplicate")
     void search_whenLocalAndOverlappingRemoteResults_shouldIgnoreRemoteDuplicate() {
-        when(stockRepository.findBySymbol("A")).thenReturn(List.of(appleStock));
+        stockSearchIndex.add(appleStock);
 
         StockSearchItem appleRemoteItem = new StockSearchItem("Apple Inc", "AAPL", "AAPL", "Common Stock");
         StockSearchResult finnhubResult = new StockSearchResult(2, List.of(appleRemoteItem, microsoftStockItem));
@@ -155,8 +158,6 @@ class StockServiceImplTest {
     @Test
     @DisplayName("Test 8: Should return empty list when no stocks are found")
     void search_whenNoResults_shouldReturnEmptyList() {
-        when(stockRepository.findByNameContainingIgnoreCase(anyString())).thenReturn(Collections.emptyList());
-        when(stockRepository.findBySymbol(anyString())).thenReturn(Collections.emptyList());
         when(stockDataService.getStockSearchResult(anyString())).thenReturn(Optional.empty());
 
         StockSearchResult results = stockService.searchStocks("NonExistent");
@@ -167,7 +168,7 @@ class StockServiceImplTest {
     @Test
     @DisplayName("Test 9: Should handle empty optional from Finnhub service gracefully")
     void search_whenFinnhubReturnsEmptyOptional_shouldNotFail() {
-        when(stockRepository.findBySymbol(anyString())).thenReturn(List.of(appleStock));
+        stockSearchIndex.add(appleStock);
         when(stockDataService.getStockSearchResult(anyString())).thenReturn(Optional.empty());
 
         StockSearchResult results = stockService.searchStocks("AAPL");
@@ -179,7 +180,7 @@ class StockServiceImplTest {
     @Test
     @DisplayName("Test 10: Should handle Finnhub result with empty list gracefully")
     void search_whenFinnhubReturnsEmptyResultList_shouldNotFail() {
-        when(stockRepository.findBySymbol(anyString())).thenReturn(List.of(appleStock));
+        stockSearchIndex.add(appleStock);
         StockSearchResult emptyFinnhubResult = new StockSearchResult(0, Collections.emptyList());
         when(stockDataService.getStockSearchResult(anyString())).thenReturn(Optional.of(emptyFinnhubResult));
 
@@ -188,4 +189,56 @@ class StockServiceImplTest {
         assertThat(results.getResult()).hasSize(1);
         assertThat(results.getResult().get(0).getSymbol()).isEqualTo("AAPL");
     }
+
+    @Test
+    @DisplayName("Test 11: Should rank exact symbol, then symbol prefix, then name matches")
+    void search_shouldRankExactSymbolBeforePrefixAndNameMatches() {
+        stockSearchIndex.add(stock("dfh-id", "DFH", "Dream Finders Homes"));
+        stockSearchIndex.add(stock("axp-id", "AXP", "American Express"));
+        stockSearchIndex.add(stock("amp-id", "AMP", "Ameriprise Financial"));
+        stockSearchIndex.add(stock("am-id", "AM", "Antero Midstream"));
+        stockSearchIndex.add(appleStock);
+        when(stockDataService.getStockSearchResult(anyString())).thenReturn(Optional.empty());
+
+        StockSearchResult results = stockService.searchStocks("am");
+
+        assertThat(results.getResult()).extracting(StockSearchItem::getSymbol)
+                .containsExactly("AM", "AMP", "AXP", "DFH");
+        verifyNoInteractions(stockRepository);
+    }
+
+    @Test
+    @DisplayName("Test 12: Should return local results only when remote search exceeds the time budget")
+    void search_whenRemoteSearchIsSlow_shouldReturnLocalResultsOnly() {
+        ReflectionTestUtils.setField(stockService, "remoteSearchTimeout", Duration.ofMillis(50));
+        stockSearchIndex.add(appleStock);
+        when(stockDataService.getStockSearchResult(anyString())).thenAnswer(invocation -> {
+            Thread.sleep(1_000);
+            return Optional.of(new StockSearchResult(1, List.of(microsoftStockItem)));
+        });
+
+        long start = System.nanoTime();
+        StockSearchResult results = stockService.searchStocks("AAPL");
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertThat(results.getResult()).extracting(StockSearchItem::getSymbol).containsExactly("AAPL");
+        assertThat(elapsed).isLessThan(Duration.ofMillis(900));
+    }
+
+    @Test
+    @DisplayName("Test 13: Should return local results when remote search fails")
+    void search_whenRemoteSearchThrows_shouldReturnLocalResults() {
+        stockSearchIndex.add(appleStock);
+        when(stockDataService.getStockSearchResult(anyString())).thenThrow(new IllegalStateException("Finnhub down"));
+
+        StockSearchResult results = stockService.searchStocks("AAPL");
+
+        assertThat(results.getResult()).extracting(StockSearchItem::getSymbol).containsExactly("AAPL");
+    }
+
+    private Stock stock(String id, String symbol, String name) {
+        Stock stock = new Stock(symbol, name);
+        stock.setId(id);
+        return stock;
+    }
 }
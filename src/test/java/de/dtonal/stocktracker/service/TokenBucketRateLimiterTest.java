@@ -0,0 +1,54 @@
+package de.dtonal.stocktracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketRateLimiterTest {
+
+    @Test
+    void reserve_shouldAllowBurstWithoutWaiting() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, 60.0 / TimeUnit.MINUTES.toNanos(1));
+        long now = System.nanoTime();
+
+        assertThat(limiter.reserve(now)).isZero();
+        assertThat(limiter.reserve(now)).isZero();
+        assertThat(limiter.reserve(now)).isZero();
+    }
+
+    @Test
+    void reserve_shouldMakeCallersWaitOnceBucketIsEmpty() {
+        // 60 per minute = one token per second
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 60.0 / TimeUnit.MINUTES.toNanos(1));
+        long now = System.nanoTime();
+
+        assertThat(limiter.reserve(now)).isZero();
+        long secondWait = limiter.reserve(now);
+        long thirdWait = limiter.reserve(now);
+
+        assertThat(secondWait).isCloseTo(TimeUnit.SECONDS.toNanos(1), within(1_000L));
+        assertThat(thirdWait).isCloseTo(TimeUnit.SECONDS.toNanos(2), within(1_000L));
+    }
+
+    @Test
+    void reserve_shouldRefillOverTime() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 60.0 / TimeUnit.MINUTES.toNanos(1));
+        long now = System.nanoTime();
+
+        assertThat(limiter.reserve(now)).isZero();
+        assertThat(limiter.reserve(now + TimeUnit.SECONDS.toNanos(1))).isZero();
+    }
+
+    @Test
+    void perMinute_shouldNotLimit_whenRateIsNotPositive() {
+        TokenBucketRateLimiter limiter = TokenBucketRateLimiter.perMinute(0, 10);
+        long now = System.nanoTime();
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(limiter.reserve(now)).isZero();
+        }
+    }
+}
@@ -42,6 +42,10 @@ public class TransactionServiceImplTest {
     private StockService stockService;
     @MockBean
     private StockTransactionRepository stockTransactionRepository;
+    @MockBean
+    private PortfolioHoldingService portfolioHoldingService;
+    @MockBean
+    private CostBasisService costBasisService;
 
     private User user;
     private Portfolio portfolio;
@@ -81,6 +85,8 @@ public class TransactionServiceImplTest {
         assertThat(transaction.getStock()).isEqualTo(stock);
         assertThat(portfolio.getTransactions()).contains(transaction);
         verify(portfolioRepository).save(portfolio);
+        verify(portfolioHoldingService).applyAdded("portfolio-id-456", transaction);
+        verify(costBasisService).applyAdded("portfolio-id-456", transaction);
         // Verify that for an EXISTING stock, we do NOT fetch the price again.
       }
 
@@ -122,6 +128,8 @@ public class TransactionServiceImplTest {
         assertThat(portfolio.getTransactions()).hasSize(1);
         assertThat(portfolio.getTransactions().get(0).getId()).isEqualTo("tx-2");
         verify(portfolioRepository).save(portfolio);
+        verify(portfolioHoldingService).applyRemoved("portfolio-id-456", transaction1);
+        verify(costBasisService).applyRemoved("portfolio-id-456", transaction1);
     }
 
     @Test
@@ -6,6 +6,7 @@ import static org.mockito.Mockito.when;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -16,6 +17,10 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import de.dtonal.stocktracker.dto.StockTransactionRequest;
+import de.dtonal.stocktracker.dto.StockTransactionResponse;
+import de.dtonal.stocktracker.dto.TransactionCursor;
+import de.dtonal.stocktracker.dto.TransactionFilter;
+import de.dtonal.stocktracker.dto.TransactionPage;
 import de.dtonal.stocktracker.model.Portfolio;
 import de.dtonal.stocktracker.model.PortfolioNotFoundException;
 import de.dtonal.stocktracker.model.Stock;
@@ -34,6 +39,10 @@ class TransactionServiceImplUnitTest {
     private PortfolioRepository portfolioRepository;
     @Mock
     private StockTransactionRepository stockTransactionRepository;
+    @Mock
+    private PortfolioHoldingService portfolioHoldingService;
+    @Mock
+    private CostBasisService costBasisService;
 
     @InjectMocks
     private TransactionServiceImpl transactionService;
@@ -167,4 +176,46 @@ class TransactionServiceImplUnitTest {
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("Transaction with ID " + transaction.getId() + " does not belong to portfolio with ID " + portfolio.getId());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void getTransactions_shouldReturnCursor_whenMoreRowsFollow() {
+        TransactionFilter filter = new TransactionFilter(null, null, null, null);
+        StockTransactionResponse first = response("tx-3", LocalDateTime.of(2024, 3, 3, 10, 0));
+        StockTransactionResponse second = response("tx-2", LocalDateTime.of(2024, 3, 2, 10, 0));
+        StockTransactionResponse third = response("tx-1", LocalDateTime.of(2024, 3, 1, 10, 0));
+        when(stockTransactionRepository.findPage("p1", filter, null, 3)).thenReturn(List.of(first, second, third));
+
+        TransactionPage page = transactionService.getTransactions("p1", filter, null, 2);
+
+        assertThat(page.items()).containsExactly(first, second);
+        assertThat(TransactionCursor.decode(page.nextCursor()))
+                .isEqualTo(new TransactionCursor(second.getTransactionDate(), "tx-2"));
+    }
+
+    @Test
+    void getTransactions_shouldContinueAfterCursor_andEndWithoutCursor() {
+        TransactionFilter filter = new TransactionFilter("AAPL", TransactionType.BUY, null, null);
+        TransactionCursor cursor = new TransactionCursor(LocalDateTime.of(2024, 3, 2, 10, 0), "tx-2");
+        StockTransactionResponse last = response("tx-1", LocalDateTime.of(2024, 3, 1, 10, 0));
+        when(stockTransactionRepository.findPage("p1", filter, cursor, TransactionServiceImpl.MAX_PAGE_SIZE + 1))
+                .thenReturn(List.of(last));
+
+        TransactionPage page = transactionService.getTransactions("p1", filter, cursor.encode(), 10_000);
+
+        assertThat(page.items()).containsExactly(last);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void getTransactions_shouldRejectInvalidCursor() {
+        TransactionFilter filter = new TransactionFilter(null, null, null, null);
+
+        assertThatThrownBy(() -> transactionService.getTransactions("p1", filter, "bm90LWEtY3Vyc29y", 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private StockTransactionResponse response(String id, LocalDateTime transactionDate) {
+        return new StockTransactionResponse(id, "s1", "AAPL", TransactionType.BUY, BigDecimal.ONE, BigDecimal.TEN,
+                transactionDate);
+    }
+}
@@ -0,0 +1,98 @@
+package de.dtonal.stocktracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import de.dtonal.stocktracker.dto.StockTransactionRequest;
+import de.dtonal.stocktracker.model.Portfolio;
+import de.dtonal.stocktracker.model.Stock;
+import de.dtonal.stocktracker.model.StockTransaction;
+import de.dtonal.stocktracker.model.TransactionType;
+import de.dtonal.stocktracker.model.User;
+import de.dtonal.stocktracker.repository.PortfolioHoldingRepository;
+import de.dtonal.stocktracker.repository.PortfolioPositionRepository;
+import de.dtonal.stocktracker.repository.PortfolioRepository;
+import de.dtonal.stocktracker.repository.StockRepository;
+import de.dtonal.stocktracker.repository.StockTransactionRepository;
+import de.dtonal.stocktracker.repository.UserRepository;
+
+/**
+ * {@link TransactionService} gegen die echte Datenbank: Die Transaktionen eines Portfolios werden
+ * ohne feste Reihenfolge geladen, die zurückgegebene Transaktion muss trotzdem die neue sein.
+ */
+@SpringBootTest
+@Tag("integration")
+class TransactionServicePersistenceTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2024, 3, 4, 10, 0);
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private StockTransactionRepository stockTransactionRepository;
+    @Autowired
+    private PortfolioHoldingRepository portfolioHoldingRepository;
+    @Autowired
+    private PortfolioPositionRepository portfolioPositionRepository;
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+    @Autowired
+    private StockRepository stockRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private Portfolio portfolio;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(new User("Owner", "owner@example.com", "password"));
+        portfolio = portfolioRepository.save(new Portfolio("Depot", "Backdated transactions", user));
+        stockRepository.save(new Stock("BKD", "Backdate Corp", "NASDAQ", "USD"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        portfolioPositionRepository.deleteAll();
+        portfolioHoldingRepository.deleteAllInBatch();
+        stockTransactionRepository.deleteAllInBatch();
+        portfolioRepository.deleteAllInBatch();
+        stockRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @WithMockUser(username = "owner@example.com")
+    void addStockTransaction_shouldReturnPersistedTransaction_whenBackdated() {
+        for (int day = 1; day <= 3; day++) {
+            transactionService.addStockTransaction(portfolio.getId(), request("10", MONDAY.plusDays(day)));
+        }
+
+        StockTransaction added = transactionService.addStockTransaction(portfolio.getId(), request("1", MONDAY));
+
+        assertThat(added.getId()).isNotNull();
+        StockTransaction stored = stockTransactionRepository.findById(added.getId()).orElseThrow();
+        assertThat(stored.getTransactionDate()).isEqualTo(MONDAY);
+        assertThat(stored.getQuantity()).isEqualByComparingTo("1");
+        assertThat(stockTransactionRepository.count()).isEqualTo(4);
+    }
+
+    private static StockTransactionRequest request(String quantity, LocalDateTime date) {
+        StockTransactionRequest request = new StockTransactionRequest();
+        request.setStockSymbol("BKD");
+        request.setQuantity(new BigDecimal(quantity));
+        request.setPricePerShare(new BigDecimal("100.00"));
+        request.setTransactionDate(date);
+        request.setTransactionType(TransactionType.BUY);
+        return request;
+    }
+}
@@ -0,0 +1,64 @@
+package de.dtonal.stocktracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TtlCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private TtlCache<String, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new TtlCache<>(2, Duration.ofSeconds(10), Duration.ofSeconds(20), now::get);
+    }
+
+    @Test
+    void getIfFresh_shouldCountHitsAndMisses() {
+        assertThat(cache.getIfFresh("a")).isEmpty();
+        cache.put("a", "A");
+
+        assertThat(cache.getIfFresh("a")).contains("A");
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void getIfFresh_shouldExpireAfterTtl_butKeepValueForStaleReads() {
+        cache.put("a", "A");
+        now.addAndGet(Duration.ofSeconds(11).toNanos());
+
+        assertThat(cache.getIfFresh("a")).isEmpty();
+        assertThat(cache.getIfRetained("a")).contains("A");
+        assertThat(cache.getStaleHits()).isEqualTo(1);
+    }
+
+    @Test
+    void getIfRetained_shouldDropEntriesOlderThanTtlPlusMaxStale() {
+        cache.put("a", "A");
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        assertThat(cache.getIfRetained("a")).isEmpty();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    void put_shouldEvictLeastRecentlyUsedEntry_whenFull() {
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.getIfFresh("a");
+        cache.put("c", "C");
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.getIfFresh("b")).isEmpty();
+        assertThat(cache.getIfFresh("a")).contains("A");
+        assertThat(cache.getIfFresh("c")).contains("C");
+        assertThat(cache.getEvictions()).isEqualTo(1);
+    }
+}